@@ -0,0 +1,45 @@
+package com.practice.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * 할당 프로파일러
+ * HotSpot 의 스레드별 할당 카운터(com.sun.management.ThreadMXBean)를 이용해 힙에 할당된 바이트 수를 읽는다.
+ * 병렬 스트림은 ForkJoinPool 의 워커 스레드에서 할당하기 때문에 살아있는 모든 스레드의 합계를 사용한다.
+ */
+public final class AllocationProfiler {
+
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+    private AllocationProfiler() {}
+
+    private static com.sun.management.ThreadMXBean threadBean(){
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if(!(bean instanceof com.sun.management.ThreadMXBean)) return null;
+        com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) bean;
+        if(!hotspot.isThreadAllocatedMemorySupported()) return null;
+        hotspot.setThreadAllocatedMemoryEnabled(true);
+        return hotspot;
+    }
+
+    public static boolean isSupported(){
+        return THREADS != null;
+    }
+
+    // 살아있는 모든 스레드가 지금까지 할당한 바이트 수의 합. 지원하지 않는 JVM 이면 0
+    public static long allocatedBytes(){
+        if(THREADS == null) return 0;
+        long total = 0;
+        for(long bytes : THREADS.getThreadAllocatedBytes(THREADS.getAllThreadIds())){
+            if(bytes > 0) total += bytes;
+        }
+        return total;
+    }
+
+    // 현재 스레드가 지금까지 할당한 바이트 수. 지원하지 않는 JVM 이면 0
+    public static long currentThreadAllocatedBytes(){
+        if(THREADS == null) return 0;
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
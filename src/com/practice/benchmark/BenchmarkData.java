@@ -0,0 +1,52 @@
+package com.practice.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 벤치마크 데이터
+ * 예제 클래스의 작은 입력(Arrays.asList 등)을 지정한 크기로 키운 데이터를 만든다.
+ * 실행할 때마다 같은 데이터가 만들어지도록 고정된 seed 를 사용한다.
+ */
+public final class BenchmarkData {
+
+    private static final long SEED = 42L;
+
+    private BenchmarkData() {}
+
+    // 0 이상 bound 미만의 Integer 리스트. bound 를 작게 주면 중복이 많아진다.
+    public static List<Integer> integers(int size, int bound){
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<Integer> list = new ArrayList<>(size);
+        for(int i=0; i<size; i++){
+            list.add(random.nextInt(bound));
+        }
+        return list;
+    }
+
+    public static int[] ints(int size, int bound){
+        return ints(size, bound, SEED);
+    }
+
+    // 같은 크기의 배열을 두 개 이상 만들 때는 seed 를 다르게 주어야 서로 다른 값이 나온다.
+    public static int[] ints(int size, int bound, long seed){
+        return new SplittableRandom(seed).ints(size, 0, bound).toArray();
+    }
+
+    // 길이 minLength ~ maxLength 의 알파벳 문자열 리스트. 대문자로 시작하는 단어가 일부 섞여 있다.
+    public static List<String> words(int size, int minLength, int maxLength){
+        SplittableRandom random = new SplittableRandom(SEED);
+        List<String> list = new ArrayList<>(size);
+        for(int i=0; i<size; i++){
+            int length = random.nextInt(minLength, maxLength + 1);
+            char[] chars = new char[length];
+            for(int j=0; j<length; j++){
+                chars[j] = (char) ('a' + random.nextInt(26));
+            }
+            if(random.nextInt(4) == 0) chars[0] = Character.toUpperCase(chars[0]);
+            list.add(new String(chars));
+        }
+        return list;
+    }
+}
@@ -0,0 +1,30 @@
+package com.practice.benchmark;
+
+/**
+ * 벤치마크 파라미터
+ * size: 처리할 데이터의 크기
+ * parallelism: 병렬 스트림이 사용할 ForkJoinPool 의 병렬도
+ */
+public final class BenchmarkParams {
+
+    private final int size;
+    private final int parallelism;
+
+    public BenchmarkParams(int size, int parallelism){
+        this.size = size;
+        this.parallelism = parallelism;
+    }
+
+    public int getSize(){
+        return size;
+    }
+
+    public int getParallelism(){
+        return parallelism;
+    }
+
+    @Override
+    public String toString() {
+        return "size=" + size + ", parallelism=" + parallelism;
+    }
+}
@@ -0,0 +1,82 @@
+package com.practice.benchmark;
+
+import java.util.Arrays;
+
+/**
+ * 벤치마크 결과
+ * 한 벤치마크의 (크기, 병렬도) 조합에 대한 모든 측정 반복(iteration) 결과를 모은다.
+ * score 는 연산 1회당 평균 시간(ns/op)이며, error 는 99.9% 신뢰구간의 절반 폭이다.
+ */
+public final class BenchmarkResult {
+
+    // 99.9% 양측 신뢰구간의 t 값 (자유도 1 ~ 30), 그 이상은 정규분포 값을 사용
+    private static final double[] T_999 = {
+            636.619, 31.599, 12.924, 8.610, 6.869, 5.959, 5.408, 5.041, 4.781, 4.587,
+            4.437, 4.318, 4.221, 4.140, 4.073, 4.015, 3.965, 3.922, 3.883, 3.850,
+            3.819, 3.792, 3.768, 3.745, 3.725, 3.707, 3.690, 3.674, 3.659, 3.646
+    };
+
+    private final String suite;
+    private final String benchmark;
+    private final BenchmarkParams params;
+    private final double[] samples;
+    private final double allocBytesPerOp;
+    private final long gcCount;
+    private final long gcTimeMs;
+
+    public BenchmarkResult(String suite, String benchmark, BenchmarkParams params,
+                           double[] samples, double allocBytesPerOp, long gcCount, long gcTimeMs){
+        this.suite = suite;
+        this.benchmark = benchmark;
+        this.params = params;
+        this.samples = samples.clone();
+        this.allocBytesPerOp = allocBytesPerOp;
+        this.gcCount = gcCount;
+        this.gcTimeMs = gcTimeMs;
+    }
+
+    public String getSuite(){
+        return suite;
+    }
+
+    public String getBenchmark(){
+        return benchmark;
+    }
+
+    public BenchmarkParams getParams(){
+        return params;
+    }
+
+    public double[] getSamples(){
+        return samples.clone();
+    }
+
+    // 연산 1회당 평균 시간(ns)
+    public double getScore(){
+        return Arrays.stream(samples).average().orElse(Double.NaN);
+    }
+
+    public double getError(){
+        int n = samples.length;
+        if(n < 2) return Double.NaN;
+        double mean = getScore();
+        double variance = Arrays.stream(samples)
+                .map(s -> (s - mean) * (s - mean))
+                .sum() / (n - 1);
+        double t = n - 1 <= T_999.length ? T_999[n - 2] : 3.291;
+        return t * Math.sqrt(variance / n);
+    }
+
+    // 연산 1회당 할당한 바이트 수. gc 프로파일러를 사용하지 않으면 NaN
+    public double getAllocBytesPerOp(){
+        return allocBytesPerOp;
+    }
+
+    public long getGcCount(){
+        return gcCount;
+    }
+
+    public long getGcTimeMs(){
+        return gcTimeMs;
+    }
+}
@@ -0,0 +1,355 @@
+package com.practice.benchmark;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 벤치마크 실행기
+ * System.currentTimeMillis() 두 번으로 시간을 재는 방식은 워밍업이 없고, 결과를 사용하지 않는 연산이 JIT 에 의해 제거될 수 있어 신뢰할 수 없다.
+ * 이 실행기는 JMH 와 같은 방식으로 측정한다.
+ *
+ * 워밍업: 측정 전에 -wi 회 만큼 작업을 반복 실행해 JIT 컴파일이 끝난 상태에서 측정한다.
+ * 포크 격리: 각 벤치마크를 새로운 JVM 에서 실행(-f)해 이전 벤치마크의 프로파일 오염을 막는다.
+ * 블랙홀: 작업 결과를 Blackhole 로 소비해 연산 제거를 막는다.
+ * 병렬도: 작업을 지정한 병렬도의 ForkJoinPool 안에서 실행한다. 그 안에서 만든 병렬 스트림은 해당 풀을 사용한다.
+ * 프로파일링: -prof gc 를 지정하면 연산 1회당 할당 바이트, GC 횟수와 시간을 함께 기록한다.
+ * 결과 출력: -rf csv|json 과 -rff 파일명으로 기계가 읽을 수 있는 형식으로 결과를 저장한다.
+ *
+ * 사용법
+ * java -cp out com.practice.benchmark.BenchmarkRunner [옵션] 스위트클래스...
+ * -wi 3 -i 5 -w 1000 -r 1000 -f 1 -p size=1000,1000000 -p parallelism=1,4 -prof gc -rf json -rff result.json -b 정규식
+ */
+public final class BenchmarkRunner {
+
+    private static final String CHILD_FLAG = "--child";
+    private static final String ITERATION_PREFIX = "#ITER ";
+
+    private int warmupIterations = 3;
+    private int measurementIterations = 5;
+    private long warmupMillis = 1000;
+    private long measurementMillis = 1000;
+    private int forks = 1;
+    private boolean gcProfiler = false;
+    private String resultFormat = "text";
+    private String resultFile = null;
+    private Pattern filter = Pattern.compile(".*");
+    private List<Integer> sizes = null;
+    private List<Integer> parallelisms = null;
+    private final List<String> suites = new ArrayList<>();
+
+    public static void main(String[] args) throws Exception {
+        if(args.length > 0 && CHILD_FLAG.equals(args[0])){
+            runChild(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        BenchmarkRunner runner = parse(args);
+        runner.runAll();
+    }
+
+    // 각 스위트 클래스의 main 에서 호출하는 진입점
+    public static void run(Class<? extends BenchmarkSuite> suite, String[] args) throws Exception {
+        BenchmarkRunner runner = parse(args);
+        runner.suites.clear();
+        runner.suites.add(suite.getName());
+        runner.runAll();
+    }
+
+    private static BenchmarkRunner parse(String[] args){
+        BenchmarkRunner runner = new BenchmarkRunner();
+        for(int i=0; i<args.length; i++){
+            String arg = args[i];
+            switch (arg) {
+                case "-wi": runner.warmupIterations = Integer.parseInt(args[++i]); break;
+                case "-i": runner.measurementIterations = Integer.parseInt(args[++i]); break;
+                case "-w": runner.warmupMillis = Long.parseLong(args[++i]); break;
+                case "-r": runner.measurementMillis = Long.parseLong(args[++i]); break;
+                case "-f": runner.forks = Integer.parseInt(args[++i]); break;
+                case "-rf": runner.resultFormat = args[++i].toLowerCase(Locale.ROOT); break;
+                case "-rff": runner.resultFile = args[++i]; break;
+                case "-b": runner.filter = Pattern.compile(args[++i]); break;
+                case "-prof":
+                    String profiler = args[++i];
+                    if(!"gc".equals(profiler)) throw new IllegalArgumentException("지원하지 않는 프로파일러 : " + profiler);
+                    runner.gcProfiler = true;
+                    break;
+                case "-p":
+                    String[] kv = args[++i].split("=", 2);
+                    List<Integer> values = Arrays.stream(kv[1].split(","))
+                            .map(String::trim)
+                            .map(Integer::valueOf)
+                            .collect(Collectors.toList());
+                    if("size".equals(kv[0])) runner.sizes = values;
+                    else if("parallelism".equals(kv[0])) runner.parallelisms = values;
+                    else throw new IllegalArgumentException("알 수 없는 파라미터 : " + kv[0]);
+                    break;
+                default:
+                    if(arg.startsWith("-")) throw new IllegalArgumentException("알 수 없는 옵션 : " + arg);
+                    runner.suites.add(arg);
+            }
+        }
+        if(!Arrays.asList("text", "csv", "json").contains(runner.resultFormat)){
+            throw new IllegalArgumentException("지원하지 않는 결과 형식 : " + runner.resultFormat);
+        }
+        return runner;
+    }
+
+    private void runAll() throws Exception {
+        if(suites.isEmpty()) throw new IllegalArgumentException("실행할 벤치마크 스위트를 지정해야 한다.");
+
+        List<BenchmarkResult> results = new ArrayList<>();
+        for(String suiteName : suites){
+            BenchmarkSuite suite = newSuite(suiteName);
+            List<Integer> sizeList = sizes != null ? sizes : suite.getSizes();
+            List<Integer> parallelismList = parallelisms != null ? parallelisms : suite.getParallelisms();
+
+            for(String benchmark : suite.getBenchmarks().keySet()){
+                if(!filter.matcher(benchmark).find()) continue;
+                for(int size : sizeList){
+                    for(int parallelism : parallelismList){
+                        BenchmarkParams params = new BenchmarkParams(size, parallelism);
+                        System.err.println("# " + suiteName + "." + benchmark + " (" + params + ")");
+                        results.add(forks > 0
+                                ? runForked(suiteName, benchmark, params)
+                                : runInProcess(suite, suiteName, benchmark, params));
+                    }
+                }
+            }
+        }
+        report(results);
+    }
+
+    private static BenchmarkSuite newSuite(String className) throws ReflectiveOperationException {
+        return (BenchmarkSuite) Class.forName(className).getDeclaredConstructor().newInstance();
+    }
+
+    private BenchmarkResult runInProcess(BenchmarkSuite suite, String suiteName, String benchmark,
+                                         BenchmarkParams params) throws Exception {
+        List<double[]> iterations = measure(suite, benchmark, params);
+        return aggregate(suiteName, benchmark, params, iterations);
+    }
+
+    // 새로운 JVM 을 띄워 측정하고, 자식 프로세스가 출력한 반복별 결과를 모은다.
+    private BenchmarkResult runForked(String suiteName, String benchmark, BenchmarkParams params)
+            throws IOException, InterruptedException {
+        String javaBin = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        List<double[]> iterations = new ArrayList<>();
+
+        for(int fork=0; fork<forks; fork++){
+            List<String> command = new ArrayList<>();
+            command.add(javaBin);
+            command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments().stream()
+                    .filter(arg -> !arg.startsWith("-agentlib") && !arg.startsWith("-javaagent"))
+                    .collect(Collectors.toList()));
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(BenchmarkRunner.class.getName());
+            command.add(CHILD_FLAG);
+            command.add(Integer.toString(warmupIterations));
+            command.add(Integer.toString(measurementIterations));
+            command.add(Long.toString(warmupMillis));
+            command.add(Long.toString(measurementMillis));
+            command.add(Boolean.toString(gcProfiler));
+            command.add(suiteName);
+            command.add(benchmark);
+            command.add(Integer.toString(params.getSize()));
+            command.add(Integer.toString(params.getParallelism()));
+
+            Process process = new ProcessBuilder(command)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if(line.startsWith(ITERATION_PREFIX)){
+                        iterations.add(Arrays.stream(line.substring(ITERATION_PREFIX.length()).split(" "))
+                                .mapToDouble(Double::parseDouble)
+                                .toArray());
+                    } else {
+                        System.err.println(line);
+                    }
+                }
+            }
+            int exit = process.waitFor();
+            if(exit != 0) throw new IllegalStateException("포크된 벤치마크가 실패함 (exit=" + exit + ") : " + benchmark);
+        }
+        return aggregate(suiteName, benchmark, params, iterations);
+    }
+
+    private static void runChild(String[] args) throws Exception {
+        BenchmarkRunner runner = new BenchmarkRunner();
+        runner.warmupIterations = Integer.parseInt(args[0]);
+        runner.measurementIterations = Integer.parseInt(args[1]);
+        runner.warmupMillis = Long.parseLong(args[2]);
+        runner.measurementMillis = Long.parseLong(args[3]);
+        runner.gcProfiler = Boolean.parseBoolean(args[4]);
+        BenchmarkSuite suite = newSuite(args[5]);
+        BenchmarkParams params = new BenchmarkParams(Integer.parseInt(args[7]), Integer.parseInt(args[8]));
+
+        // 측정 중에 벤치마크가 출력하는 내용과 결과 라인이 섞이지 않도록 표준 출력을 분리한다.
+        PrintStream out = System.out;
+        System.setOut(System.err);
+        for(double[] iteration : runner.measure(suite, args[6], params)){
+            out.println(ITERATION_PREFIX + Arrays.stream(iteration)
+                    .mapToObj(Double::toString)
+                    .collect(Collectors.joining(" ")));
+        }
+        out.flush();
+    }
+
+    // 반복별 [ns/op, 할당 바이트/op, GC 횟수, GC 시간(ms)] 을 반환한다.
+    private List<double[]> measure(BenchmarkSuite suite, String benchmark, BenchmarkParams params)
+            throws InterruptedException, ExecutionException {
+        BenchmarkSetup setup = suite.getBenchmarks().get(benchmark);
+        if(setup == null) throw new IllegalArgumentException("존재하지 않는 벤치마크 : " + benchmark);
+
+        ForkJoinPool pool = new ForkJoinPool(params.getParallelism());
+        try {
+            return pool.submit(() -> {
+                BenchmarkTask task = setup.setup(params);
+                Blackhole blackhole = new Blackhole();
+                for(int i=0; i<warmupIterations; i++){
+                    iteration(task, blackhole, warmupMillis);
+                }
+                List<double[]> iterations = new ArrayList<>();
+                for(int i=0; i<measurementIterations; i++){
+                    iterations.add(iteration(task, blackhole, measurementMillis));
+                }
+                return iterations;
+            }).get();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private double[] iteration(BenchmarkTask task, Blackhole blackhole, long millis){
+        System.gc();
+        long allocBefore = gcProfiler ? AllocationProfiler.allocatedBytes() : 0;
+        long[] gcBefore = gcProfiler ? gcStats() : new long[2];
+
+        long budget = millis * 1_000_000L;
+        long ops = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            task.run(blackhole);
+            ops++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < budget);
+
+        double alloc = Double.NaN;
+        long[] gc = new long[2];
+        if(gcProfiler){
+            alloc = (double) (AllocationProfiler.allocatedBytes() - allocBefore) / ops;
+            long[] gcAfter = gcStats();
+            gc[0] = gcAfter[0] - gcBefore[0];
+            gc[1] = gcAfter[1] - gcBefore[1];
+        }
+        return new double[]{(double) elapsed / ops, alloc, gc[0], gc[1]};
+    }
+
+    private static long[] gcStats(){
+        long count = 0, time = 0;
+        for(GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()){
+            count += Math.max(0, bean.getCollectionCount());
+            time += Math.max(0, bean.getCollectionTime());
+        }
+        return new long[]{count, time};
+    }
+
+    private static BenchmarkResult aggregate(String suite, String benchmark, BenchmarkParams params,
+                                             List<double[]> iterations){
+        double[] samples = iterations.stream().mapToDouble(it -> it[0]).toArray();
+        double alloc = iterations.stream().mapToDouble(it -> it[1]).average().orElse(Double.NaN);
+        long gcCount = (long) iterations.stream().mapToDouble(it -> it[2]).sum();
+        long gcTime = (long) iterations.stream().mapToDouble(it -> it[3]).sum();
+        return new BenchmarkResult(suite, benchmark, params, samples, alloc, gcCount, gcTime);
+    }
+
+    private void report(List<BenchmarkResult> results) throws IOException {
+        String text;
+        switch (resultFormat) {
+            case "csv": text = toCsv(results); break;
+            case "json": text = toJson(results); break;
+            default: text = toText(results);
+        }
+        if(resultFile != null){
+            Files.write(Paths.get(resultFile), text.getBytes(StandardCharsets.UTF_8));
+            System.out.print(toText(results));
+        } else {
+            System.out.print(text);
+        }
+    }
+
+    private String toText(List<BenchmarkResult> results){
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%-60s %12s %6s %16s %14s %14s %8s %8s%n",
+                "Benchmark", "size", "par", "Score(ns/op)", "Error", "alloc(B/op)", "gc", "gc(ms)"));
+        for(BenchmarkResult r : results){
+            sb.append(String.format(Locale.ROOT, "%-60s %12d %6d %16.3f %14.3f %14.1f %8d %8d%n",
+                    simpleName(r.getSuite()) + "." + r.getBenchmark(),
+                    r.getParams().getSize(), r.getParams().getParallelism(),
+                    r.getScore(), r.getError(), r.getAllocBytesPerOp(), r.getGcCount(), r.getGcTimeMs()));
+        }
+        return sb.toString();
+    }
+
+    private String toCsv(List<BenchmarkResult> results){
+        StringBuilder sb = new StringBuilder("suite,benchmark,size,parallelism,score,error,unit,allocBytesPerOp,gcCount,gcTimeMs\n");
+        for(BenchmarkResult r : results){
+            sb.append(r.getSuite()).append(',')
+                    .append(r.getBenchmark()).append(',')
+                    .append(r.getParams().getSize()).append(',')
+                    .append(r.getParams().getParallelism()).append(',')
+                    .append(r.getScore()).append(',')
+                    .append(r.getError()).append(',')
+                    .append("ns/op").append(',')
+                    .append(r.getAllocBytesPerOp()).append(',')
+                    .append(r.getGcCount()).append(',')
+                    .append(r.getGcTimeMs()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private String toJson(List<BenchmarkResult> results){
+        return results.stream().map(r -> "  {\n"
+                + "    \"suite\": \"" + r.getSuite() + "\",\n"
+                + "    \"benchmark\": \"" + r.getBenchmark() + "\",\n"
+                + "    \"params\": {\"size\": " + r.getParams().getSize()
+                + ", \"parallelism\": " + r.getParams().getParallelism() + "},\n"
+                + "    \"mode\": \"avgt\",\n"
+                + "    \"unit\": \"ns/op\",\n"
+                + "    \"score\": " + jsonNumber(r.getScore()) + ",\n"
+                + "    \"error\": " + jsonNumber(r.getError()) + ",\n"
+                + "    \"samples\": " + Arrays.stream(r.getSamples()).mapToObj(BenchmarkRunner::jsonNumber)
+                        .collect(Collectors.joining(", ", "[", "]")) + ",\n"
+                + "    \"gc\": {\"allocBytesPerOp\": " + jsonNumber(r.getAllocBytesPerOp())
+                + ", \"count\": " + r.getGcCount() + ", \"timeMs\": " + r.getGcTimeMs() + "}\n"
+                + "  }")
+                .collect(Collectors.joining(",\n", "[\n", "\n]\n"));
+    }
+
+    private static String jsonNumber(double value){
+        return Double.isNaN(value) || Double.isInfinite(value) ? "null" : Double.toString(value);
+    }
+
+    private static String simpleName(String className){
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+}
@@ -0,0 +1,11 @@
+package com.practice.benchmark;
+
+/**
+ * 벤치마크 준비
+ * 파라미터(데이터 크기, 병렬도)를 전달받아 측정에 필요한 데이터를 미리 만들고, 그 데이터를 캡처한 BenchmarkTask 를 반환한다.
+ * 데이터 생성 비용은 측정 시간에 포함되지 않는다.
+ */
+@FunctionalInterface
+public interface BenchmarkSetup {
+    BenchmarkTask setup(BenchmarkParams params);
+}
@@ -0,0 +1,70 @@
+package com.practice.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 벤치마크 모음
+ * 하나의 대상 클래스에 대한 벤치마크들을 이름과 BenchmarkSetup 의 쌍으로 등록한다.
+ * 포크된 JVM 에서 다시 생성할 수 있도록 구현 클래스는 public 기본 생성자를 가져야 한다.
+ */
+public abstract class BenchmarkSuite {
+
+    private final Map<String, BenchmarkSetup> benchmarks = new LinkedHashMap<>();
+    private final List<Integer> sizes = new ArrayList<>();
+    private final List<Integer> parallelisms = new ArrayList<>();
+
+    private boolean registered;
+
+    protected BenchmarkSuite(){
+        sizes.add(100_000);
+        parallelisms.add(Runtime.getRuntime().availableProcessors());
+    }
+
+    // 구현 클래스는 이 메서드 안에서 bench(), sizes(), parallelisms() 를 호출해 벤치마크를 등록한다.
+    protected abstract void register();
+
+    protected final void bench(String name, BenchmarkSetup setup){
+        if(benchmarks.putIfAbsent(name, setup) != null){
+            throw new IllegalArgumentException("중복된 벤치마크 이름 : " + name);
+        }
+    }
+
+    // 기본 데이터 크기. 실행 시 -p size=... 로 덮어쓸 수 있다.
+    protected final void sizes(Integer... values){
+        sizes.clear();
+        Collections.addAll(sizes, values);
+    }
+
+    // 기본 병렬도. 실행 시 -p parallelism=... 로 덮어쓸 수 있다.
+    protected final void parallelisms(Integer... values){
+        parallelisms.clear();
+        Collections.addAll(parallelisms, values);
+    }
+
+    // 하위 클래스의 필드가 모두 초기화된 이후에 등록되도록 처음 조회할 때 register() 를 호출한다.
+    private void ensureRegistered(){
+        if(!registered){
+            registered = true;
+            register();
+        }
+    }
+
+    public Map<String, BenchmarkSetup> getBenchmarks(){
+        ensureRegistered();
+        return Collections.unmodifiableMap(benchmarks);
+    }
+
+    public List<Integer> getSizes(){
+        ensureRegistered();
+        return Collections.unmodifiableList(sizes);
+    }
+
+    public List<Integer> getParallelisms(){
+        ensureRegistered();
+        return Collections.unmodifiableList(parallelisms);
+    }
+}
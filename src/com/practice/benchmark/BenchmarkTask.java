@@ -0,0 +1,10 @@
+package com.practice.benchmark;
+
+/**
+ * 벤치마크 작업
+ * 측정 대상이 되는 한 번의 연산. 결과값은 반드시 Blackhole 로 소비해야 JIT 에 의해 제거되지 않는다.
+ */
+@FunctionalInterface
+public interface BenchmarkTask {
+    void run(Blackhole blackhole);
+}
@@ -0,0 +1,43 @@
+package com.practice.benchmark;
+
+/**
+ * 블랙홀
+ * 벤치마크 결과값을 "소비"해서 JIT 가 결과를 사용하지 않는 연산을 제거(dead code elimination)하지 못하도록 막는다.
+ * JMH 의 Blackhole 과 같은 역할을 하며, 값을 volatile 필드와 비교하는 형태로 소비하기 때문에 JIT 가 결과를 예측할 수 없다.
+ */
+public final class Blackhole {
+
+    // 절대 같아질 수 없는 값으로 초기화. 비교 결과가 true 가 되는 일은 없지만 JIT 는 이를 알 수 없다.
+    private volatile int i1 = 1, i2 = 2;
+    private volatile long l1 = 1L, l2 = 2L;
+    private volatile double d1 = 1.0, d2 = 2.0;
+    private volatile boolean b1 = false, b2 = true;
+    private volatile Object sink;
+    private int tlr = (int) System.nanoTime();
+    private int tlrMask = 1;
+
+    public void consume(int value){
+        if(value == i1 & value == i2) throw new IllegalStateException("Blackhole 오류");
+    }
+
+    public void consume(long value){
+        if(value == l1 & value == l2) throw new IllegalStateException("Blackhole 오류");
+    }
+
+    public void consume(double value){
+        if(value == d1 & value == d2) throw new IllegalStateException("Blackhole 오류");
+    }
+
+    public void consume(boolean value){
+        if(value == b1 & value == b2) throw new IllegalStateException("Blackhole 오류");
+    }
+
+    // 객체는 매번 필드에 쓰면 비용이 크기 때문에, 난수에 따라 가끔씩만 필드에 저장한다.
+    public void consume(Object value){
+        int tlr = (this.tlr = (this.tlr * 1664525 + 1013904223));
+        if((tlr & tlrMask) == 0){
+            sink = value;
+            tlrMask = (tlrMask << 1) + 1;
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package com.practice.lambda.basic_example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * 적응형 조건 조합
+ * 여러 Predicate 를 묶어 실행하면서 각 조건의 비용(실행 시간)과 선택도(true 비율)를 측정하고, 평가 순서를 스스로 바꾼다.
+ * filter(a).filter(b) 나 if / else if 사다리는 개발자가 작성한 순서대로 평가되지만, 데이터에 따라 최적의 순서는 달라진다.
+ *
+ * ALL (filter 체인, and): 모두 만족해야 하므로 싸고 false 가 자주 나오는 조건을 먼저 평가한다. 순위 = 비용 / false 비율
+ * ANY (if / else if 사다리, or): 하나만 만족하면 되므로 싸고 true 가 자주 나오는 조건을 먼저 평가한다. 순위 = 비용 / true 비율
+ *
+ * 샘플링: 평균 sampleInterval 번 중 한 번은 모든 조건을 생성 시 순서로 실행해서 비용과 결과를 기록한다.
+ *   단락 평가로 기록하면 뒤 조건의 통과율이 앞 조건을 지나온 입력에 대한 조건부 비율이 되어 순서마다 값이 달라지므로, 순서와 무관한 통과율을 얻기 위해 모두 실행한다.
+ *   샘플에서 예외를 던진 조건은 그 입력에 대해 기록하지 않으며, 예외는 현재 순서로 단락 평가했을 때 그 조건에 도달하는 경우에만 처리한다(아래).
+ * 재적응: samplesPerEpoch 번 샘플링할 때마다 순위 순서를 구하고, 조건들이 독립이라고 보고 계산한 기대 비용이
+ *   현재 순서보다 MIN_IMPROVEMENT(20%) 이상 줄어드는 순서가 두 주기 연속으로 나올 때만 순서를 바꾼다.
+ *   비용이 비슷한 순서 사이를 오가거나 한 번의 측정 잡음으로 순서가 바뀌지 않도록 하는 여유이다. 평균보다 크게 튄 측정값도 잘라서 기록한다.
+ *   그 다음 누적 통계를 절반으로 줄여(지수 감쇠) 최근 데이터의 비중을 높인다.
+ * 동시성: 평가 순서는 volatile 배열을 통째로 교체하므로 평가 경로에는 락이 없고, 드물게 일어나는 샘플 기록만 동기화한다.
+ *
+ * 순서를 바꿔도 결과가 같으려면 조건에 부수 효과가 없어야 한다. ANY 모드의 firstMatch 는 조건들이 서로 배타적일 때만 항상 같은 번호를 반환한다.
+ * 앞 조건이 뒤 조건의 전제(null 검사 등)여서 바꾼 순서에서 예외가 나면, 생성 시 순서로 되돌려 고정하고 그 입력을 다시 평가한다(isPinned).
+ */
+public final class AdaptivePredicate<T> implements Predicate<T> {
+
+    public enum Mode {
+        ALL, ANY
+    }
+
+    private static final int DEFAULT_SAMPLE_INTERVAL = 64;
+    private static final int DEFAULT_SAMPLES_PER_EPOCH = 256;
+    private static final double MIN_IMPROVEMENT = 0.2;
+    private static final double OUTLIER_FACTOR = 8.0;
+
+    private final Predicate<? super T>[] predicates;
+    private final Mode mode;
+    private final int sampleInterval;
+    private final int samplesPerEpoch;
+    private volatile int[] order;
+    private volatile boolean pinned;
+
+    // 아래 통계는 this 로 동기화한다.
+    private final double[] sampled;
+    private final double[] passed;
+    private final double[] nanos;
+    private long totalSamples;
+    private int samplesInEpoch;
+    private int reorders;
+    private int[] proposed; // 직전 주기에 제안된 순서
+
+    // 제네릭 배열은 만들 수 없으므로 raw 배열로 만든다. 배열은 외부에 노출하지 않고 Predicate<? super T> 만 담는다.
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private AdaptivePredicate(Mode mode, List<? extends Predicate<? super T>> predicates, int sampleInterval, int samplesPerEpoch){
+        if(predicates.isEmpty()) throw new IllegalArgumentException("조건이 하나 이상 필요하다.");
+        if(sampleInterval < 1 || samplesPerEpoch < 1) throw new IllegalArgumentException("샘플링 간격과 주기는 1 이상이어야 한다.");
+        this.mode = mode;
+        this.predicates = predicates.toArray(new Predicate[0]);
+        this.sampleInterval = sampleInterval;
+        this.samplesPerEpoch = samplesPerEpoch;
+        this.sampled = new double[this.predicates.length];
+        this.passed = new double[this.predicates.length];
+        this.nanos = new double[this.predicates.length];
+        int[] initial = new int[this.predicates.length];
+        for(int i=0; i<initial.length; i++){
+            initial[i] = i;
+        }
+        this.order = initial;
+    }
+
+    // filter(a).filter(b)... 와 같은 and 조합
+    @SafeVarargs
+    public static <T> AdaptivePredicate<T> allOf(Predicate<? super T>... predicates){
+        List<Predicate<? super T>> list = new ArrayList<>(predicates.length);
+        for(Predicate<? super T> predicate : predicates){
+            list.add(predicate);
+        }
+        return allOf(list);
+    }
+
+    public static <T> AdaptivePredicate<T> allOf(List<? extends Predicate<? super T>> predicates){
+        return new AdaptivePredicate<>(Mode.ALL, predicates, DEFAULT_SAMPLE_INTERVAL, DEFAULT_SAMPLES_PER_EPOCH);
+    }
+
+    // if / else if 사다리와 같은 or 조합
+    @SafeVarargs
+    public static <T> AdaptivePredicate<T> anyOf(Predicate<? super T>... predicates){
+        List<Predicate<? super T>> list = new ArrayList<>(predicates.length);
+        for(Predicate<? super T> predicate : predicates){
+            list.add(predicate);
+        }
+        return anyOf(list);
+    }
+
+    public static <T> AdaptivePredicate<T> anyOf(List<? extends Predicate<? super T>> predicates){
+        return new AdaptivePredicate<>(Mode.ANY, predicates, DEFAULT_SAMPLE_INTERVAL, DEFAULT_SAMPLES_PER_EPOCH);
+    }
+
+    // 샘플링 간격과 재정렬 주기를 바꾼 새 인스턴스
+    public AdaptivePredicate<T> withSampling(int sampleInterval, int samplesPerEpoch){
+        return new AdaptivePredicate<>(mode, Arrays.<Predicate<? super T>>asList(predicates), sampleInterval, samplesPerEpoch);
+    }
+
+
+    @Override
+    public boolean test(T t) {
+        return mode == Mode.ALL ? testAll(t) : firstMatch(t) >= 0;
+    }
+
+    private boolean testAll(T t){
+        int[] current = order;
+        if(shouldSample()) return sample(current, t) < 0;
+        try {
+            for(int index : current){
+                if(!predicates[index].test(t)) return false;
+            }
+            return true;
+        } catch (RuntimeException e) {
+            return inOriginalOrder(current, t, e) < 0;
+        }
+    }
+
+    // 현재 평가 순서상 처음 만족한 조건의 원래 번호(생성 시 순서). 없으면 -1. ANY 모드에서만 사용할 수 있다.
+    public int firstMatch(T t){
+        if(mode == Mode.ALL) throw new IllegalStateException("firstMatch 는 ANY 모드에서만 사용할 수 있다.");
+        int[] current = order;
+        if(shouldSample()) return sample(current, t);
+        try {
+            for(int index : current){
+                if(predicates[index].test(t)) return index;
+            }
+            return -1;
+        } catch (RuntimeException e) {
+            return inOriginalOrder(current, t, e);
+        }
+    }
+
+    private boolean shouldSample(){
+        return sampleInterval == 1 || ThreadLocalRandom.current().nextInt(sampleInterval) == 0;
+    }
+
+    // 모든 조건을 생성 시 순서로 실행해 비용과 결과를 기록하고, 현재 순서로 단락 평가했을 때의 결과를 반환한다.
+    // ANY 모드는 처음 true 가 나온 조건, ALL 모드는 처음 false 가 나온 조건의 번호를 반환한다.
+    private int sample(int[] current, T t){
+        long[] elapsed = new long[predicates.length];
+        boolean[] results = new boolean[predicates.length];
+        RuntimeException[] failures = null;
+        for(int index=0; index<predicates.length; index++){
+            long start = System.nanoTime();
+            try {
+                results[index] = predicates[index].test(t);
+            } catch (RuntimeException e) {
+                if(failures == null) failures = new RuntimeException[predicates.length];
+                failures[index] = e;
+            }
+            elapsed[index] = System.nanoTime() - start;
+        }
+        record(elapsed, results, failures);
+
+        boolean deciding = mode == Mode.ANY;
+        for(int index : current){
+            if(failures != null && failures[index] != null) return inOriginalOrder(current, t, failures[index]);
+            if(results[index] == deciding) return index;
+        }
+        return -1;
+    }
+
+    /*
+     * 조건이 예외를 던졌을 때의 처리
+     * s -> s != null 뒤에 s -> !s.isEmpty() 를 두는 것처럼 앞 조건이 뒤 조건의 전제(guard)인 경우, 순서를 바꾸면 원래 순서에서는 없던 예외가 난다.
+     * 생성 시 순서로 평가 중이었다면 Predicate.and / or 도 같은 예외를 던지므로 그대로 전달한다.
+     * 바꾼 순서로 평가 중이었다면 순서를 생성 시 순서로 되돌려 고정하고(이후 재정렬하지 않는다), 같은 입력을 생성 시 순서로 다시 평가한다.
+     */
+    private int inOriginalOrder(int[] current, T t, RuntimeException failure){
+        if(isOriginal(current)) throw failure;
+        pin();
+        boolean deciding = mode == Mode.ANY;
+        for(int index=0; index<predicates.length; index++){
+            if(predicates[index].test(t) == deciding) return index;
+        }
+        return -1;
+    }
+
+    private static boolean isOriginal(int[] current){
+        for(int i=0; i<current.length; i++){
+            if(current[i] != i) return false;
+        }
+        return true;
+    }
+
+    private synchronized void pin(){
+        if(pinned) return;
+        pinned = true;
+        int[] original = new int[predicates.length];
+        for(int i=0; i<original.length; i++){
+            original[i] = i;
+        }
+        order = original;
+    }
+
+    private synchronized void record(long[] elapsed, boolean[] results, RuntimeException[] failures){
+        for(int index=0; index<predicates.length; index++){
+            if(failures != null && failures[index] != null) continue;
+            // 선점이나 GC 로 한 번 크게 튄 측정값은 평균의 OUTLIER_FACTOR 배로 자른다.
+            double cost = sampled[index] < 1 ? elapsed[index] : Math.min(elapsed[index], OUTLIER_FACTOR * nanos[index] / sampled[index]);
+            sampled[index]++;
+            if(results[index]) passed[index]++;
+            nanos[index] += cost;
+        }
+        totalSamples++;
+        if(++samplesInEpoch >= samplesPerEpoch){
+            if(!pinned) reorder();
+            for(int i=0; i<sampled.length; i++){
+                sampled[i] *= 0.5;
+                passed[i] *= 0.5;
+                nanos[i] *= 0.5;
+            }
+            samplesInEpoch = 0;
+        }
+    }
+
+    private void reorder(){
+        double[] ranks = new double[predicates.length];
+        for(int i=0; i<ranks.length; i++){
+            ranks[i] = rank(i);
+        }
+        Integer[] next = new Integer[predicates.length];
+        int[] current = order;
+        for(int i=0; i<next.length; i++){
+            next[i] = current[i];
+        }
+        // 안정 정렬이므로 순위가 같으면 기존 순서를 유지한다.
+        Arrays.sort(next, (a, b) -> Double.compare(ranks[a], ranks[b]));
+        int[] result = new int[next.length];
+        boolean changed = false;
+        for(int i=0; i<result.length; i++){
+            result[i] = next[i];
+            if(result[i] != current[i]) changed = true;
+        }
+        // 기대 비용이 충분히 줄어드는 순서가 두 주기 연속으로 나올 때만 바꾼다. 한 주기의 측정 잡음(GC, 선점)으로는 바꾸지 않는다.
+        if(!changed || expectedCost(result) >= expectedCost(current) * (1.0 - MIN_IMPROVEMENT)){
+            proposed = null;
+            return;
+        }
+        if(!Arrays.equals(result, proposed)){
+            proposed = result;
+            return;
+        }
+        order = result;
+        proposed = null;
+        reorders++;
+    }
+
+    // 조건들이 서로 독립이라고 볼 때, 이 순서로 단락 평가하는 1회의 기대 비용. 앞 조건들을 모두 지나올 확률 * 비용의 합
+    private double expectedCost(int[] candidate){
+        double cost = 0;
+        double reach = 1.0;
+        for(int index : candidate){
+            if(sampled[index] == 0) return Double.MAX_VALUE;
+            double passRate = passed[index] / sampled[index];
+            cost += reach * Math.max(1.0, nanos[index] / sampled[index]);
+            reach *= mode == Mode.ALL ? passRate : 1.0 - passRate;
+        }
+        return cost;
+    }
+
+    // 단락 평가를 일으킬 확률 1 당 비용. 작을수록 먼저 평가한다.
+    private double rank(int index){
+        if(sampled[index] == 0) return Double.MAX_VALUE;
+        double cost = Math.max(1.0, nanos[index] / sampled[index]);
+        double passRate = passed[index] / sampled[index];
+        double shortCircuitRate = mode == Mode.ALL ? 1.0 - passRate : passRate;
+        return cost / Math.max(1e-3, shortCircuitRate);
+    }
+
+    // 현재 평가 순서 (원래 번호)
+    public int[] order(){
+        return order.clone();
+    }
+
+    public synchronized List<Stats> stats(){
+        List<Stats> result = new ArrayList<>(predicates.length);
+        for(int i=0; i<predicates.length; i++){
+            result.add(new Stats(i,
+                    sampled[i] == 0 ? Double.NaN : passed[i] / sampled[i],
+                    sampled[i] == 0 ? Double.NaN : nanos[i] / sampled[i],
+                    rank(i)));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    public synchronized long getTotalSamples(){
+        return totalSamples;
+    }
+
+    public synchronized int getReorders(){
+        return reorders;
+    }
+
+    // 순서를 바꾼 상태에서 조건이 예외를 던져 생성 시 순서로 고정되었는지 여부
+    public boolean isPinned(){
+        return pinned;
+    }
+
+    /**
+     * 조건별 통계 (지수 감쇠된 최근 값)
+     * passRate: 샘플 중 true 비율 (평가 순서와 무관하다. 예외를 던진 샘플은 제외)
+     * averageNanos: 1회 평균 실행 시간
+     * rank: 평가 순서를 정하는 값 (작을수록 먼저)
+     */
+    public static final class Stats {
+        private final int index;
+        private final double passRate;
+        private final double averageNanos;
+        private final double rank;
+
+        private Stats(int index, double passRate, double averageNanos, double rank){
+            this.index = index;
+            this.passRate = passRate;
+            this.averageNanos = averageNanos;
+            this.rank = rank;
+        }
+
+        public int getIndex(){
+            return index;
+        }
+
+        public double getPassRate(){
+            return passRate;
+        }
+
+        public double getAverageNanos(){
+            return averageNanos;
+        }
+
+        public double getRank(){
+            return rank;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Stats{index=%d, passRate=%.3f, averageNanos=%.1f, rank=%.1f}", index, passRate, averageNanos, rank);
+        }
+    }
+}
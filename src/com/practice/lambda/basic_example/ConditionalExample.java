@@ -1,5 +1,6 @@
 package com.practice.lambda.basic_example;
 
+import java.util.Arrays;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
@@ -41,6 +42,20 @@ public class ConditionalExample {
             System.out.println("0!");
         }
 
+        // 위 사다리는 항상 isPositive -> isNegative -> isZero 순서로 검사한다.
+        // AdaptivePredicate 는 실행 중에 각 조건의 비용과 true 비율을 측정해서, 자주 만족하는 조건을 앞으로 옮긴다.
+        // 아래처럼 대부분의 입력이 0 이면 isZero 가 가장 먼저 검사되도록 순서가 바뀐다.
+        AdaptivePredicate<Integer> signLadder = AdaptivePredicate.anyOf(isPositive, isNegative, isZero)
+                .withSampling(4, 32);
+        int[] branchCount = new int[3];
+        for(int i=0; i<10000; i++){
+            int value = i % 10 == 0 ? i - 5000 : 0;
+            branchCount[signLadder.firstMatch(value)]++;
+        }
+        System.out.println("양수/음수/0 : " + Arrays.toString(branchCount) + ", 평가 순서 : " + Arrays.toString(signLadder.order()));
+        System.out.println(signLadder.stats());
+        verifyConvergence();
+
 
         // 문자열이 특정 패턴을 만족하는지 여부를 검사
         String input = "Hello World";
@@ -58,5 +73,47 @@ public class ConditionalExample {
             System.out.println("일치 패턴 없음");
         }
 
+
+        // 여러 패턴을 한 번에 검사
+        // 위 Predicate 들은 각각 문자열을 다시 읽는다. StringPattern 으로 같은 조건을 만들고 StringPatternMatcher 로 컴파일하면
+        // 문자열을 한 번만 읽고 모든 패턴의 일치 여부를 알 수 있다. 매처 자체도 Predicate<String> 이다.
+        StringPatternMatcher matcher = StringPatternMatcher.compile(
+                StringPattern.contains("Hello"),
+                StringPattern.startsWith("Hi"),
+                StringPattern.endsWith("World"));
+        System.out.println("일치한 패턴 : " + matcher.matchedPatterns(input));
+
+        switch (matcher.firstMatch(input)) {
+            case 0: System.out.println(input + " 이 포함됨"); break;
+            case 1: System.out.println(input + " 으로 시작함"); break;
+            case 2: System.out.println(input + " 으로 끝남"); break;
+            default: System.out.println("일치 패턴 없음");
+        }
+
+    }
+
+    /**
+     * 서로 배타적이거나 상관된 조건 쌍은 어느 순서든 기대 비용이 같으므로, 적응형 조합이 두 순서 사이를 오가지 않고 한 순서에 머물러야 한다.
+     * 매번 샘플링하고 64 번마다 재정렬하도록 한 뒤, 앞 25 주기(JIT 컴파일이 끝나는 구간) 이후의 25 주기 동안 순서가 바뀌면 실패한다.
+     */
+    static void verifyConvergence(){
+        AdaptivePredicate<Integer> evenOrOdd = AdaptivePredicate.<Integer>anyOf(v -> v % 2 == 0, v -> v % 2 == 1).withSampling(1, 64);
+        AdaptivePredicate<Integer> lowAndHigh = AdaptivePredicate.<Integer>allOf(v -> v % 4 < 2, v -> v % 4 >= 2).withSampling(1, 64);
+        int epochs = 25;
+        int value = 0;
+        for(; value<64*epochs; value++){
+            evenOrOdd.test(value);
+            lowAndHigh.test(value);
+        }
+        int anyReorders = evenOrOdd.getReorders();
+        int allReorders = lowAndHigh.getReorders();
+        for(; value<2*64*epochs; value++){
+            evenOrOdd.test(value);
+            lowAndHigh.test(value);
+        }
+        if(evenOrOdd.getReorders() != anyReorders || lowAndHigh.getReorders() != allReorders){
+            throw new IllegalStateException("상관된 조건 쌍의 평가 순서가 수렴하지 않았다. anyOf=" + evenOrOdd.getReorders() + ", allOf=" + lowAndHigh.getReorders());
+        }
+        System.out.println("상관된 조건 쌍 재정렬 횟수 : anyOf=" + evenOrOdd.getReorders() + ", allOf=" + lowAndHigh.getReorders());
     }
 }
@@ -0,0 +1,27 @@
+package com.practice.lambda.basic_example;
+
+/**
+ * 두 정수를 계산하는 함수형 인터페이스
+ * OperationExample 에서는 람다 표현식으로, ArithmeticOperation 에서는 enum 상수로 구현한다.
+ */
+@FunctionalInterface
+interface Operation {
+    int calculate(int a, int b);
+
+    // 배열 단위 연산 (디폴트 메서드)
+    // out[i] = calculate(a[i], b[i]). 임의의 람다는 한 쌍씩 calculate 를 호출하는 스칼라 경로로 처리하며,
+    // ArithmeticOperation 은 이 메서드를 재정의해 JIT 가 SIMD 명령어로 벡터화할 수 있는 전용 루프를 사용한다.
+    default void calculateAll(int[] a, int[] b, int[] out){
+        int n = checkLength(a, b, out);
+        for(int i=0; i<n; i++){
+            out[i] = calculate(a[i], b[i]);
+        }
+    }
+
+    static int checkLength(int[] a, int[] b, int[] out){
+        if(a.length < out.length || b.length < out.length){
+            throw new IllegalArgumentException("입력 배열의 길이가 결과 배열보다 짧다 : a=" + a.length + ", b=" + b.length + ", out=" + out.length);
+        }
+        return out.length;
+    }
+}
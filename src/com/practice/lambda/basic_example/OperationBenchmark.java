@@ -0,0 +1,91 @@
+package com.practice.lambda.basic_example;
+
+import com.practice.benchmark.BenchmarkData;
+import com.practice.benchmark.BenchmarkRunner;
+import com.practice.benchmark.BenchmarkSuite;
+
+/**
+ * Operation 벤치마크
+ * 사칙연산 별로 한 쌍씩 calculate 를 호출하는 스칼라 경로(람다)와 ArithmeticOperation 의 배열 단위 연산을 비교한다.
+ *
+ * 포크된 JVM 에서 람다 하나만 실행하면 호출 지점이 단형(monomorphic)이 되어 JIT 가 람다를 인라인하고 벡터화까지 해버린다.
+ * 실제 워크로드처럼 같은 호출 지점에 여러 연산이 섞이도록, 스칼라 경로는 준비 단계에서 네 가지 람다를 모두 실행해 프로파일을 오염시킨다.
+ */
+public class OperationBenchmark extends BenchmarkSuite {
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner.run(OperationBenchmark.class, args);
+    }
+
+    @Override
+    protected void register() {
+        sizes(1_000, 1_000_000);
+        parallelisms(1);
+
+        compare("add", LAMBDAS[0], ArithmeticOperation.ADD);
+        compare("minus", LAMBDAS[1], ArithmeticOperation.MINUS);
+        compare("multiply", LAMBDAS[2], ArithmeticOperation.MULTIPLY);
+        compare("divide", LAMBDAS[3], ArithmeticOperation.DIVIDE);
+    }
+
+    private static final Operation[] LAMBDAS = {(a, b) -> a+b, (a, b) -> a-b, (a, b) -> a*b, (a, b) -> a/b};
+
+    private static void polluteProfile(){
+        int[] a = new int[1000];
+        int[] b = divisors(1000);
+        int[] out = new int[1000];
+        for(int i=0; i<20_000; i++){
+            Operation operation = LAMBDAS[i & 3];
+            operation.calculateAll(a, b, out);
+            OperationExample.calculate(a[i % 1000], b[i % 1000], operation);
+        }
+    }
+
+    private void compare(String name, Operation lambda, ArithmeticOperation operation){
+        // 한 쌍씩 OperationExample.calculate(int, int, Operation) 을 호출
+        bench(name + "PerPair", params -> {
+            polluteProfile();
+            int[] a = BenchmarkData.ints(params.getSize(), 1_000_000);
+            int[] b = divisors(params.getSize());
+            int[] out = new int[params.getSize()];
+            return bh -> {
+                for(int i=0; i<out.length; i++){
+                    out[i] = OperationExample.calculate(a[i], b[i], lambda);
+                }
+                bh.consume(out);
+            };
+        });
+
+        // 람다의 디폴트 calculateAll (스칼라 경로)
+        bench(name + "BatchScalar", params -> {
+            polluteProfile();
+            int[] a = BenchmarkData.ints(params.getSize(), 1_000_000);
+            int[] b = divisors(params.getSize());
+            int[] out = new int[params.getSize()];
+            return bh -> {
+                lambda.calculateAll(a, b, out);
+                bh.consume(out);
+            };
+        });
+
+        // ArithmeticOperation 의 전용 루프 (벡터화 경로)
+        bench(name + "BatchKernel", params -> {
+            int[] a = BenchmarkData.ints(params.getSize(), 1_000_000);
+            int[] b = divisors(params.getSize());
+            int[] out = new int[params.getSize()];
+            return bh -> {
+                operation.calculateAll(a, b, out);
+                bh.consume(out);
+            };
+        });
+    }
+
+    // 나눗셈에서 0 이 나오지 않도록 1 이상의 값을 사용한다.
+    private static int[] divisors(int size){
+        int[] values = BenchmarkData.ints(size, 1000);
+        for(int i=0; i<values.length; i++){
+            values[i] += 1;
+        }
+        return values;
+    }
+}
@@ -1,6 +1,7 @@
 package com.practice.lambda.basic_example;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -9,17 +10,19 @@ import java.util.List;
  * Operation 함수형 인터페이스를 정의하고, 덧셈, 뺄셈, 곱셈, 나눗셈 등의 연산을 람다 표현식으로 구현하여 calculate 메서드에 전달.
  * calculate 메서드에서는 해당 람다 표현식을 호출하여 숫자 계산을 수행.
  */
-@FunctionalInterface
-interface Operation {
-    int calculate(int a, int b);
-}
-
 public class OperationExample {
 
     static int calculate(int a, int b, Operation operation){
         return operation.calculate(a, b);
     }
 
+    // 같은 연산을 여러 쌍에 적용할 때는 한 쌍씩 호출하지 않고 배열 단위로 처리한다.
+    static int[] calculate(int[] a, int[] b, Operation operation){
+        int[] out = new int[Math.min(a.length, b.length)];
+        operation.calculateAll(a, b, out);
+        return out;
+    }
+
     public static void main(String[] args) {
         int x = 20;
         int y = 10;
@@ -41,6 +44,13 @@ public class OperationExample {
         Operation divide = (a, b) -> a/b;
         int resultDivide = calculate(x, y, divide);
         System.out.println("resultDivide = " + resultDivide);
+
+        // 배열 단위 연산
+        // 직접 작성한 람다는 스칼라 경로로, ArithmeticOperation 은 벡터화되는 전용 루프로 계산된다.
+        int[] xs = {20, 30, 40, 50};
+        int[] ys = {10, 5, 4, 25};
+        System.out.println("batchAdd = " + Arrays.toString(calculate(xs, ys, add)));
+        System.out.println("batchMultiply = " + Arrays.toString(calculate(xs, ys, ArithmeticOperation.MULTIPLY)));
     }
 
 
@@ -0,0 +1,71 @@
+package com.practice.lambda.basic_example;
+
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * 문자열 패턴
+ * str -> str.contains("Hello") 와 같은 람다는 내용을 들여다볼 수 없기 때문에 여러 개를 하나로 합쳐서 컴파일할 수 없다.
+ * StringPattern 은 contains, startsWith, endsWith 조건을 값으로 표현한 Predicate<String> 으로, 단독으로도 사용할 수 있고
+ * 여러 개를 모아 StringPatternMatcher 로 컴파일할 수도 있다.
+ */
+public final class StringPattern implements Predicate<String> {
+
+    public enum Kind {
+        CONTAINS, STARTS_WITH, ENDS_WITH
+    }
+
+    private final Kind kind;
+    private final String text;
+
+    private StringPattern(Kind kind, String text){
+        this.kind = kind;
+        this.text = Objects.requireNonNull(text);
+    }
+
+    public static StringPattern contains(String text){
+        return new StringPattern(Kind.CONTAINS, text);
+    }
+
+    public static StringPattern startsWith(String text){
+        return new StringPattern(Kind.STARTS_WITH, text);
+    }
+
+    public static StringPattern endsWith(String text){
+        return new StringPattern(Kind.ENDS_WITH, text);
+    }
+
+    public Kind getKind(){
+        return kind;
+    }
+
+    public String getText(){
+        return text;
+    }
+
+    @Override
+    public boolean test(String str) {
+        switch (kind) {
+            case CONTAINS: return str.contains(text);
+            case STARTS_WITH: return str.startsWith(text);
+            default: return str.endsWith(text);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(!(o instanceof StringPattern)) return false;
+        StringPattern other = (StringPattern) o;
+        return kind == other.kind && text.equals(other.text);
+    }
+
+    @Override
+    public int hashCode() {
+        return kind.hashCode() * 31 + text.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return kind + "(" + text + ")";
+    }
+}
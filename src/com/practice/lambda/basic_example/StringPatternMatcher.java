@@ -0,0 +1,286 @@
+package com.practice.lambda.basic_example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * 다중 패턴 매처
+ * 여러 개의 StringPattern 을 하나의 자동자로 컴파일해서, 입력 문자열을 한 번만 읽고 모든 패턴의 일치 여부를 알아낸다.
+ * Predicate<String> 을 하나씩 검사하면 패턴마다 문자열을 다시 읽어야 하므로 패턴이 수천 개가 되면 그만큼 느려진다.
+ *
+ * contains: 아호-코라식(Aho-Corasick) 자동자. 실패 링크를 미리 따라가 둔 전이표(DFA)를 만들어 문자 하나당 배열 조회 한 번으로 진행한다.
+ * startsWith: 접두사 트라이. 입력의 앞에서부터 가장 긴 접두사 패턴의 길이만큼만 읽는다.
+ * endsWith: 뒤집은 접미사 트라이. 입력의 끝에서부터 가장 긴 접미사 패턴의 길이만큼만 읽는다.
+ *
+ * 패턴에 등장하는 문자만 작은 번호(문자 클래스)로 바꿔서 전이표의 크기를 줄이고, 패턴에 없는 문자는 모두 0번 클래스로 처리한다.
+ * Predicate<String> 으로 사용하면 패턴 중 하나라도 일치하는지 검사한다.
+ */
+public final class StringPatternMatcher implements Predicate<String> {
+
+    private final List<StringPattern> patterns;
+    private final int[] classes;
+    private final int alphabet;
+    private final BitSet alwaysMatched = new BitSet();
+
+    private final Automaton contains;
+    private final Trie prefixes;
+    private final Trie suffixes;
+
+    private StringPatternMatcher(List<StringPattern> patterns){
+        this.patterns = Collections.unmodifiableList(new ArrayList<>(patterns));
+
+        // 문자 클래스 : 패턴에 등장하는 문자에 1부터 번호를 붙인다.
+        int maxChar = 0;
+        for(StringPattern pattern : patterns){
+            for(int i=0; i<pattern.getText().length(); i++){
+                maxChar = Math.max(maxChar, pattern.getText().charAt(i));
+            }
+        }
+        this.classes = new int[maxChar + 1];
+        int next = 1;
+        for(StringPattern pattern : patterns){
+            String text = pattern.getText();
+            for(int i=0; i<text.length(); i++){
+                char ch = text.charAt(i);
+                if(classes[ch] == 0) classes[ch] = next++;
+            }
+        }
+        this.alphabet = next;
+
+        this.contains = new Automaton(alphabet);
+        this.prefixes = new Trie(alphabet);
+        this.suffixes = new Trie(alphabet);
+        for(int id=0; id<patterns.size(); id++){
+            StringPattern pattern = patterns.get(id);
+            String text = pattern.getText();
+            // 빈 문자열 패턴은 모든 입력과 일치한다.
+            if(text.isEmpty()){
+                alwaysMatched.set(id);
+                continue;
+            }
+            switch (pattern.getKind()) {
+                case CONTAINS: contains.insert(classesOf(text, false), id); break;
+                case STARTS_WITH: prefixes.insert(classesOf(text, false), id); break;
+                default: suffixes.insert(classesOf(text, true), id);
+            }
+        }
+        contains.build();
+        prefixes.build();
+        suffixes.build();
+    }
+
+    public static StringPatternMatcher compile(StringPattern... patterns){
+        return compile(Arrays.asList(patterns));
+    }
+
+    // 패턴 번호는 리스트의 순서를 따른다.
+    public static StringPatternMatcher compile(List<StringPattern> patterns){
+        return new StringPatternMatcher(patterns);
+    }
+
+    private int[] classesOf(String text, boolean reverse){
+        int n = text.length();
+        int[] result = new int[n];
+        for(int i=0; i<n; i++){
+            result[i] = classes[text.charAt(reverse ? n - 1 - i : i)];
+        }
+        return result;
+    }
+
+    private int classOf(char ch){
+        return ch < classes.length ? classes[ch] : 0;
+    }
+
+    public List<StringPattern> getPatterns(){
+        return patterns;
+    }
+
+    // 일치한 패턴의 번호 집합
+    public BitSet match(String str){
+        BitSet matched = (BitSet) alwaysMatched.clone();
+        int n = str.length();
+
+        if(prefixes.size > 1){
+            int state = 0;
+            for(int i=0; i<n && state >= 0; i++){
+                state = prefixes.next(state, classOf(str.charAt(i)));
+                if(state >= 0) prefixes.report(state, matched);
+            }
+        }
+        if(suffixes.size > 1){
+            int state = 0;
+            for(int i=n-1; i>=0 && state >= 0; i--){
+                state = suffixes.next(state, classOf(str.charAt(i)));
+                if(state >= 0) suffixes.report(state, matched);
+            }
+        }
+        if(contains.size > 1){
+            int[] transitions = contains.transitions;
+            int state = 0;
+            for(int i=0; i<n; i++){
+                state = transitions[state * alphabet + classOf(str.charAt(i))];
+                if(contains.hasOutput[state]) contains.report(state, matched);
+            }
+        }
+        return matched;
+    }
+
+    public List<StringPattern> matchedPatterns(String str){
+        BitSet matched = match(str);
+        List<StringPattern> result = new ArrayList<>(matched.cardinality());
+        for(int id = matched.nextSetBit(0); id >= 0; id = matched.nextSetBit(id + 1)){
+            result.add(patterns.get(id));
+        }
+        return result;
+    }
+
+    // if / else if 사다리처럼 일치한 패턴 중 가장 앞 번호의 패턴. 없으면 -1
+    public int firstMatch(String str){
+        return match(str).nextSetBit(0);
+    }
+
+    @Override
+    public boolean test(String str) {
+        return !match(str).isEmpty();
+    }
+
+    /**
+     * 접두사/접미사 트라이
+     * 전이표는 상태 * alphabet + 문자 클래스 위치에 다음 상태를 저장하며, 전이가 없으면 -1 이다.
+     */
+    private static final class Trie {
+        final int alphabet;
+        int[] transitions;
+        int size = 1;
+        final List<int[]> outputs = new ArrayList<>();
+        int[][] outputTable;
+
+        Trie(int alphabet){
+            this.alphabet = alphabet;
+            this.transitions = new int[alphabet * 16];
+            Arrays.fill(transitions, -1);
+            outputs.add(null);
+        }
+
+        int insert(int[] word, int id){
+            int state = 0;
+            for(int c : word){
+                int index = state * alphabet + c;
+                if(transitions[index] < 0){
+                    // newState() 가 전이표를 새 배열로 바꿀 수 있으므로 먼저 호출한 뒤 저장한다.
+                    int created = newState();
+                    transitions[index] = created;
+                }
+                state = transitions[index];
+            }
+            int[] ids = outputs.get(state);
+            ids = ids == null ? new int[]{id} : appendId(ids, id);
+            outputs.set(state, ids);
+            return state;
+        }
+
+        private int newState(){
+            if((size + 1) * alphabet > transitions.length){
+                int length = transitions.length;
+                transitions = Arrays.copyOf(transitions, Math.max(length * 2, (size + 1) * alphabet));
+                Arrays.fill(transitions, length, transitions.length, -1);
+            }
+            outputs.add(null);
+            return size++;
+        }
+
+        void build(){
+            transitions = Arrays.copyOf(transitions, size * alphabet);
+            outputTable = outputs.toArray(new int[0][]);
+        }
+
+        int next(int state, int c){
+            return c == 0 ? -1 : transitions[state * alphabet + c];
+        }
+
+        void report(int state, BitSet matched){
+            int[] ids = outputTable[state];
+            if(ids != null){
+                for(int id : ids){
+                    matched.set(id);
+                }
+            }
+        }
+    }
+
+    /**
+     * 아호-코라식 자동자
+     * 트라이를 만든 뒤 BFS 로 실패 링크를 계산하고, 없는 전이를 실패 링크의 전이로 채워 완전한 DFA 로 만든다.
+     * 출력 링크(dictionary link)는 실패 링크를 따라가며 만나는 가장 가까운 출력 상태를 가리킨다.
+     */
+    private static final class Automaton {
+        final Trie trie;
+        int[] transitions;
+        int size;
+        boolean[] hasOutput;
+        int[] dictionaryLink;
+
+        Automaton(int alphabet){
+            this.trie = new Trie(alphabet);
+        }
+
+        void insert(int[] word, int id){
+            trie.insert(word, id);
+        }
+
+        void build(){
+            trie.build();
+            int alphabet = trie.alphabet;
+            size = trie.size;
+            transitions = trie.transitions;
+            int[] fail = new int[size];
+            dictionaryLink = new int[size];
+            hasOutput = new boolean[size];
+            Arrays.fill(dictionaryLink, -1);
+
+            int[] queue = new int[size];
+            int head = 0, tail = 0;
+            for(int c=0; c<alphabet; c++){
+                int child = transitions[c];
+                if(child < 0){
+                    transitions[c] = 0;
+                } else {
+                    fail[child] = 0;
+                    queue[tail++] = child;
+                }
+            }
+            while (head < tail) {
+                int state = queue[head++];
+                int f = fail[state];
+                dictionaryLink[state] = trie.outputTable[f] != null ? f : dictionaryLink[f];
+                hasOutput[state] = trie.outputTable[state] != null || dictionaryLink[state] >= 0;
+                for(int c=0; c<alphabet; c++){
+                    int index = state * alphabet + c;
+                    int child = transitions[index];
+                    if(child < 0){
+                        transitions[index] = transitions[f * alphabet + c];
+                    } else {
+                        fail[child] = transitions[f * alphabet + c];
+                        queue[tail++] = child;
+                    }
+                }
+            }
+        }
+
+        void report(int state, BitSet matched){
+            for(int s = state; s >= 0; s = dictionaryLink[s]){
+                trie.report(s, matched);
+            }
+        }
+    }
+
+    private static int[] appendId(int[] ids, int id){
+        int[] result = Arrays.copyOf(ids, ids.length + 1);
+        result[ids.length] = id;
+        return result;
+    }
+}
@@ -0,0 +1,93 @@
+package com.practice.lambda.basic_example;
+
+import com.practice.benchmark.BenchmarkData;
+import com.practice.benchmark.BenchmarkRunner;
+import com.practice.benchmark.BenchmarkSuite;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * StringPatternMatcher 벤치마크
+ * size 개의 패턴(contains 2/4, startsWith 1/4, endsWith 1/4)에 대해 길이 100 의 입력 1000 개를 검사한다.
+ *
+ * predicateChain: Predicate<String> 을 하나씩 test (패턴 수만큼 문자열을 다시 읽는다)
+ * compiledMatcher: StringPatternMatcher.match 로 한 번에 검사
+ */
+public class StringPatternMatcherBenchmark extends BenchmarkSuite {
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner.run(StringPatternMatcherBenchmark.class, args);
+    }
+
+    private static final int INPUTS = 1000;
+
+    @Override
+    protected void register() {
+        sizes(10, 100, 1000);
+        parallelisms(1);
+
+        bench("predicateChain", params -> {
+            List<StringPattern> patterns = patterns(params.getSize());
+            List<Predicate<String>> predicates = new ArrayList<>();
+            for(StringPattern pattern : patterns){
+                String text = pattern.getText();
+                switch (pattern.getKind()) {
+                    case CONTAINS: predicates.add(str -> str.contains(text)); break;
+                    case STARTS_WITH: predicates.add(str -> str.startsWith(text)); break;
+                    default: predicates.add(str -> str.endsWith(text));
+                }
+            }
+            List<String> inputs = inputs();
+            return bh -> {
+                int count = 0;
+                for(String input : inputs){
+                    BitSet matched = new BitSet();
+                    for(int i=0; i<predicates.size(); i++){
+                        if(predicates.get(i).test(input)) matched.set(i);
+                    }
+                    count += matched.cardinality();
+                }
+                bh.consume(count);
+            };
+        });
+
+        bench("compiledMatcher", params -> {
+            StringPatternMatcher matcher = StringPatternMatcher.compile(patterns(params.getSize()));
+            List<String> inputs = inputs();
+            return bh -> {
+                int count = 0;
+                for(String input : inputs){
+                    count += matcher.match(input).cardinality();
+                }
+                bh.consume(count);
+            };
+        });
+    }
+
+    private static List<StringPattern> patterns(int size){
+        List<String> words = BenchmarkData.words(size, 3, 6);
+        List<StringPattern> patterns = new ArrayList<>(size);
+        for(int i=0; i<size; i++){
+            String word = words.get(i).toLowerCase();
+            switch (i % 4) {
+                case 0:
+                case 1: patterns.add(StringPattern.contains(word)); break;
+                case 2: patterns.add(StringPattern.startsWith(word)); break;
+                default: patterns.add(StringPattern.endsWith(word));
+            }
+        }
+        return patterns;
+    }
+
+    private static List<String> inputs(){
+        List<String> inputs = new ArrayList<>(INPUTS);
+        List<String> chunks = BenchmarkData.words(INPUTS * 20, 5, 5);
+        for(int i=0; i<INPUTS; i++){
+            inputs.add(String.join("", chunks.subList(i * 20, i * 20 + 20)).toLowerCase());
+        }
+        return inputs;
+    }
+}
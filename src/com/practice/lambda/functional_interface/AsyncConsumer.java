@@ -0,0 +1,327 @@
+package com.practice.lambda.functional_interface;
+
+import java.io.Flushable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * 비동기 Consumer
+ * Consumer<String> printString = str -> System.out.println(str) 는 출력이 끝날 때까지 accept 를 호출한 스레드를 멈춘다.
+ * 병렬 스트림의 forEach 에서 호출하면 모든 작업 스레드가 PrintStream 의 락과 I/O 를 기다린다.
+ *
+ * AsyncConsumer 는 요소를 미리 할당한 링 버퍼에 넣고 바로 반환한다. 백그라운드 스레드 하나가 버퍼에서 요소를 꺼내 대상 Consumer 에 넘긴다.
+ * 링 버퍼: 여러 생산자, 하나의 소비자. 슬롯마다 순번을 두어(Vyukov 방식) 생산자는 tail 에 대한 CAS 한 번으로 슬롯을 차지하고,
+ *   요소를 쓴 뒤 슬롯의 순번을 바꿔 소비자에게 알린다. 락도, 요소마다 할당하는 노드도 없다.
+ * 일괄 처리: 소비자는 최대 batchSize 개를 연속으로 처리한 뒤, 대상이 Flushable 이면(ChannelSink 등) flush 한다.
+ *   요소마다 flush 하지 않으므로 출력이 몰릴수록 한 번에 쓰는 양이 커진다.
+ * 대기 전략(WaitStrategy): 버퍼가 비었을 때 소비자가 기다리는 방법. 지연 시간과 CPU 사용량을 맞바꾼다.
+ * 넘침 정책(Overflow): 버퍼가 가득 찼을 때 생산자가 기다릴지(BLOCK) 요소를 버릴지(DROP) 정한다.
+ *
+ * 한 생산자 스레드가 넣은 요소는 넣은 순서대로 처리된다. 여러 스레드 사이의 순서는 슬롯을 차지한 순서이다.
+ * 대상에서 발생한 예외는 소비자 스레드를 멈추지 않고 onError 처리기에 넘긴다.
+ * flush() 는 호출 전에 넣은 요소가 모두 처리될 때까지 기다린다. close() 는 남은 요소를 모두 처리하고 소비자 스레드를 끝낸다(대상은 닫지 않는다).
+ * close() 이후에 accept 를 호출하면 IllegalStateException 이 발생하며, close() 와 동시에 넣은 요소는 처리가 보장되지 않는다.
+ *
+ * try (AsyncConsumer<String> log = AsyncConsumer.of(ChannelSink.stdout())) {
+ *     list.parallelStream().map(...).forEach(log);
+ * }
+ */
+public final class AsyncConsumer<T> implements Consumer<T>, Flushable, AutoCloseable {
+
+    private static final int PADDING = 8; // tail 과 consumed 가 다른 캐시 라인에 놓이도록 떨어뜨린다.
+    private static final int TAIL = PADDING; // 생산자가 다음에 차지할 순번
+    private static final int CONSUMED = 2 * PADDING; // 처리를 마치고 대상을 flush 한 순번
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 200;
+    private static final long SLEEP_NANOS = 100_000;
+    private static final AtomicInteger THREAD_ID = new AtomicInteger();
+
+    private final Consumer<? super T> target;
+    private final Config config;
+    private final int mask;
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLongArray sequences; // 슬롯 i 의 순번. pos 이면 pos 번째 요소를 쓸 수 있고, pos + 1 이면 pos 번째 요소가 들어 있다.
+    private final AtomicLongArray counters = new AtomicLongArray(3 * PADDING);
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final Thread consumer;
+    private volatile boolean sleeping; // BLOCKING 소비자가 park 했는지
+    private volatile boolean closed;
+
+    private AsyncConsumer(Consumer<? super T> target, Config config){
+        this.target = target;
+        this.config = config;
+        this.mask = config.capacity - 1;
+        this.slots = new AtomicReferenceArray<>(config.capacity);
+        this.sequences = new AtomicLongArray(config.capacity);
+        for(int i=0; i<config.capacity; i++){
+            sequences.set(i, i);
+        }
+        this.consumer = new Thread(this::run, "async-consumer-" + THREAD_ID.incrementAndGet());
+        consumer.setDaemon(true);
+    }
+
+    // 용량 8,192, SLEEPING, BLOCK
+    public static <T> AsyncConsumer<T> of(Consumer<? super T> target){
+        return of(target, Config.capacity(8192));
+    }
+
+    public static <T> AsyncConsumer<T> of(Consumer<? super T> target, Config config){
+        AsyncConsumer<T> result = new AsyncConsumer<>(target, config);
+        result.consumer.start();
+        return result;
+    }
+
+    @Override
+    public void accept(T element) {
+        if(closed) throw new IllegalStateException("닫힌 AsyncConsumer 이다.");
+        int tries = 0;
+        while (true) {
+            long pos = counters.get(TAIL);
+            int index = (int) pos & mask;
+            long diff = sequences.getAcquire(index) - pos;
+            if(diff == 0){
+                if(counters.compareAndSet(TAIL, pos, pos + 1)){
+                    slots.setPlain(index, element);
+                    publish(index, pos + 1);
+                    return;
+                }
+            } else if(diff < 0){
+                // 소비자가 아직 한 바퀴 전의 요소를 꺼내지 않았다.
+                if(config.overflow == Overflow.DROP){
+                    dropped.incrementAndGet();
+                    return;
+                }
+                if(closed) throw new IllegalStateException("닫힌 AsyncConsumer 이다.");
+                backoff(tries++);
+            }
+            // diff > 0 이면 다른 생산자가 먼저 차지했으므로 tail 을 다시 읽는다.
+        }
+    }
+
+    // BLOCKING 은 잠든 소비자를 깨워야 한다. volatile 쓰기 뒤의 volatile 읽기이므로 소비자의 (sleeping 쓰기, 순번 읽기)와 엇갈리지 않는다.
+    private void publish(int index, long sequence){
+        if(config.waitStrategy == WaitStrategy.BLOCKING){
+            sequences.set(index, sequence);
+            if(sleeping) LockSupport.unpark(consumer);
+        } else {
+            sequences.setRelease(index, sequence);
+        }
+    }
+
+    // 호출 전에 넣은 요소를 모두 처리하고 대상을 flush 할 때까지 기다린다.
+    @Override
+    public void flush() {
+        long target = counters.get(TAIL);
+        int tries = 0;
+        while (counters.get(CONSUMED) < target) {
+            if(!consumer.isAlive()) return;
+            backoff(tries++);
+        }
+    }
+
+    @Override
+    public void close() {
+        if(closed) return;
+        closed = true;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // 슬롯을 차지한 요소 수 (버린 요소는 제외)
+    public long publishedCount(){
+        return counters.get(TAIL);
+    }
+
+    // 버퍼가 가득 차서 버린 요소 수 (DROP)
+    public long droppedCount(){
+        return dropped.get();
+    }
+
+    // 대상 또는 flush 에서 예외가 발생한 횟수
+    public long failureCount(){
+        return failures.get();
+    }
+
+    // 아직 처리되지 않은 요소 수
+    public long pendingCount(){
+        return Math.max(0, counters.get(TAIL) - counters.get(CONSUMED));
+    }
+
+    private void run(){
+        long head = 0;
+        int idle = 0;
+        while (true) {
+            int batch = 0;
+            while (batch < config.batchSize) {
+                int index = (int) head & mask;
+                if(sequences.getAcquire(index) != head + 1) break;
+                T element = slots.getPlain(index);
+                slots.setPlain(index, null);
+                // 요소를 꺼내자마자 슬롯을 돌려주어, 대상이 느려도 생산자가 그동안 버퍼를 채울 수 있게 한다.
+                sequences.setRelease(index, head + mask + 1);
+                head++;
+                batch++;
+                deliver(element);
+            }
+            if(batch > 0){
+                flushTarget();
+                counters.setRelease(CONSUMED, head);
+                idle = 0;
+                continue;
+            }
+            if(closed && head == counters.get(TAIL)) return;
+            await(head, idle++);
+        }
+    }
+
+    private void deliver(T element){
+        try {
+            target.accept(element);
+        } catch (Throwable e) {
+            failures.incrementAndGet();
+            config.onError.accept(e);
+        }
+    }
+
+    private void flushTarget(){
+        if(!(target instanceof Flushable)) return;
+        try {
+            ((Flushable) target).flush();
+        } catch (Throwable e) {
+            failures.incrementAndGet();
+            config.onError.accept(e);
+        }
+    }
+
+    // 버퍼가 비었을 때 소비자가 기다린다.
+    private void await(long head, int idle){
+        switch (config.waitStrategy) {
+            case BUSY_SPIN:
+                Thread.onSpinWait();
+                break;
+            case YIELDING:
+                if(idle < SPIN_TRIES) Thread.onSpinWait();
+                else Thread.yield();
+                break;
+            case SLEEPING:
+                backoff(idle);
+                break;
+            case BLOCKING:
+                if(idle < SPIN_TRIES){
+                    Thread.onSpinWait();
+                    break;
+                }
+                sleeping = true;
+                if(sequences.get((int) head & mask) != head + 1 && !closed) LockSupport.park(this);
+                sleeping = false;
+                break;
+        }
+    }
+
+    // 잠깐 돌다가, 양보하다가, 짧게 잔다.
+    private static void backoff(int tries){
+        if(tries < SPIN_TRIES) Thread.onSpinWait();
+        else if(tries < YIELD_TRIES) Thread.yield();
+        else LockSupport.parkNanos(SLEEP_NANOS);
+    }
+
+    @Override
+    public String toString() {
+        return "AsyncConsumer{" +
+                "published=" + publishedCount() +
+                ", pending=" + pendingCount() +
+                ", dropped=" + droppedCount() +
+                ", failures=" + failureCount() +
+                '}';
+    }
+
+    /**
+     * 버퍼가 비었을 때 소비자 스레드가 기다리는 방법
+     * BUSY_SPIN: 계속 확인한다. 지연이 가장 짧지만 CPU 코어 하나를 계속 사용한다. 코어가 남을 때만 사용한다.
+     * YIELDING: 잠깐 돌다가 Thread.yield 로 양보하며 확인한다.
+     * SLEEPING: 잠깐 돌고 양보하다가 0.1ms 씩 잔다. 생산자는 아무것도 하지 않으므로 accept 비용이 일정하다.
+     * BLOCKING: 잠깐 돌다가 park 한다. 쉴 때 CPU 를 쓰지 않지만, 잠든 소비자를 깨우는 생산자의 accept 는 unpark 비용만큼 느려진다.
+     */
+    public enum WaitStrategy {
+        BUSY_SPIN, YIELDING, SLEEPING, BLOCKING
+    }
+
+    /**
+     * 버퍼가 가득 찼을 때
+     * BLOCK: 자리가 날 때까지 생산자가 기다린다(배압). 요소를 잃지 않는다.
+     * DROP: 새 요소를 버리고 droppedCount 를 늘린다. 생산자는 기다리지 않는다.
+     */
+    public enum Overflow {
+        BLOCK, DROP
+    }
+
+    /**
+     * 설정
+     * AsyncConsumer.Config.capacity(1 << 16).waitStrategy(WaitStrategy.BLOCKING).overflow(Overflow.DROP)
+     */
+    public static final class Config {
+        private final int capacity;
+        private final WaitStrategy waitStrategy;
+        private final Overflow overflow;
+        private final int batchSize;
+        private final Consumer<? super Throwable> onError;
+
+        private Config(int capacity, WaitStrategy waitStrategy, Overflow overflow, int batchSize, Consumer<? super Throwable> onError){
+            this.capacity = capacity;
+            this.waitStrategy = waitStrategy;
+            this.overflow = overflow;
+            this.batchSize = batchSize;
+            this.onError = onError;
+        }
+
+        // 용량은 2 의 거듭제곱으로 올림한다. 기본값은 SLEEPING, BLOCK, 한 번에 1,024 개, 예외는 System.err 에 출력
+        public static Config capacity(int capacity){
+            if(capacity < 2 || capacity > 1 << 30) throw new IllegalArgumentException("용량은 2 이상 2^30 이하여야 한다. capacity=" + capacity);
+            int size = Integer.highestOneBit(capacity - 1) << 1;
+            return new Config(size, WaitStrategy.SLEEPING, Overflow.BLOCK, 1024, Throwable::printStackTrace);
+        }
+
+        public Config waitStrategy(WaitStrategy waitStrategy){
+            return new Config(capacity, waitStrategy, overflow, batchSize, onError);
+        }
+
+        public Config overflow(Overflow overflow){
+            return new Config(capacity, waitStrategy, overflow, batchSize, onError);
+        }
+
+        // 대상을 flush 하기 전에 연속으로 처리할 최대 요소 수
+        public Config batchSize(int batchSize){
+            if(batchSize < 1) throw new IllegalArgumentException("batchSize 는 1 이상이어야 한다. batchSize=" + batchSize);
+            return new Config(capacity, waitStrategy, overflow, batchSize, onError);
+        }
+
+        public Config onError(Consumer<? super Throwable> onError){
+            return new Config(capacity, waitStrategy, overflow, batchSize, onError);
+        }
+
+        public int getCapacity(){
+            return capacity;
+        }
+
+        public WaitStrategy getWaitStrategy(){
+            return waitStrategy;
+        }
+
+        public Overflow getOverflow(){
+            return overflow;
+        }
+
+        public int getBatchSize(){
+            return batchSize;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.practice.lambda.functional_interface;
+
+import com.practice.benchmark.BenchmarkData;
+import com.practice.benchmark.BenchmarkRunner;
+import com.practice.benchmark.BenchmarkSuite;
+import com.practice.stream.ChannelSink;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * AsyncConsumer 벤치마크
+ * 출력 대상은 /dev/null 이다. PrintStream 은 System.out 과 같은 설정(128 바이트 버퍼, 자동 flush)으로 만든다.
+ * sync: forEach(str -> out.println(str)), async: AsyncConsumer 로 감싼 같은 Consumer, asyncSink: AsyncConsumer 로 감싼 ChannelSink
+ * async* 은 forEach 후 flush() 로 모든 요소가 출력될 때까지 기다린 시간이다.
+ */
+public class AsyncConsumerBenchmark extends BenchmarkSuite {
+
+    private static final String NULL_DEVICE = "/dev/null";
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner.run(AsyncConsumerBenchmark.class, args);
+    }
+
+    private static PrintStream printStream(){
+        try {
+            return new PrintStream(new BufferedOutputStream(new FileOutputStream(NULL_DEVICE), 128), true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ChannelSink sink(){
+        try {
+            return ChannelSink.of(FileChannel.open(Paths.get(NULL_DEVICE), StandardOpenOption.WRITE));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    protected void register() {
+        sizes(100_000);
+
+        bench("sync", params -> {
+            List<String> words = BenchmarkData.words(params.getSize(), 3, 10);
+            PrintStream out = printStream();
+            Consumer<String> print = str -> out.println(str);
+            return bh -> words.forEach(print);
+        });
+
+        bench("async", params -> {
+            List<String> words = BenchmarkData.words(params.getSize(), 3, 10);
+            PrintStream out = printStream();
+            AsyncConsumer<String> print = AsyncConsumer.of(str -> out.println(str));
+            return bh -> {
+                words.forEach(print);
+                print.flush();
+            };
+        });
+
+        bench("asyncSink", params -> {
+            List<String> words = BenchmarkData.words(params.getSize(), 3, 10);
+            AsyncConsumer<String> print = AsyncConsumer.of(sink());
+            return bh -> {
+                words.forEach(print);
+                print.flush();
+            };
+        });
+
+        bench("syncParallel", params -> {
+            List<String> words = BenchmarkData.words(params.getSize(), 3, 10);
+            PrintStream out = printStream();
+            Consumer<String> print = str -> out.println(str);
+            return bh -> words.parallelStream().forEach(print);
+        });
+
+        bench("asyncSinkParallel", params -> {
+            List<String> words = BenchmarkData.words(params.getSize(), 3, 10);
+            AsyncConsumer<String> print = AsyncConsumer.of(sink());
+            return bh -> {
+                words.parallelStream().forEach(print);
+                print.flush();
+            };
+        });
+    }
+}
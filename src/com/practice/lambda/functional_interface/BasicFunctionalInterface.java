@@ -1,5 +1,8 @@
 package com.practice.lambda.functional_interface;
 
+import com.practice.stream.ChannelSink;
+
+import java.util.Random;
 import java.util.function.*;
 
 /**
@@ -60,7 +63,7 @@ public class BasicFunctionalInterface {
         // 랜덤 숫자를 제공하는 Supplier 를 생성하고, 소수 여부를 체크하는 Predicate 생성, String 결과를 반환하는 Function 을 생성,
         // Supplier 에서 제공한 random 숫자를 Function 으로 전달해 Predicate 로 소수판별을 하고 random 숫자와 결과를 Consumer 를 통해 출력
         Supplier<Integer> getRandomNumber3 = () -> (int) (Math.random() * 1000);
-        Predicate<Integer> checkPrimeNumber = num -> isPrime(num); // 소수 판별
+        Predicate<Integer> checkPrimeNumber = num -> isPrime(num); // 소수 판별 (PrimeSieve.shared().asPredicate() 와 같다)
         Function<Integer, String> isPrime =  num -> num + " is Prime? " + checkPrimeNumber.test(num);
         Consumer<String> result = str -> System.out.println(str);
         result.accept(isPrime.apply(getRandomNumber3.get()));
@@ -78,16 +81,46 @@ public class BasicFunctionalInterface {
         Consumer<String> printAddNumber = str -> System.out.println(str);
         printAddNumber.accept(addNumber.apply(getRandomNumber4.get(), getRandomNumber4.get()));
 
+
+        /**
+         * 메모이제이션
+         * 같은 입력에 항상 같은 결과를 반환하는 Function 은 결과를 저장해 두고 재사용할 수 있다.
+         * Memoize.function 은 크기가 제한된 동시성 캐시로 감싸므로 병렬 스트림 안에서도 사용할 수 있다.
+         * Memoize.supplier 는 처음 한 번만 계산한 값을 계속 반환한다.
+         */
+        MemoizedFunction<Integer, String> memoizedIsPrime = Memoize.function(isPrime, Memoize.Policy.maximumSize(100));
+        long primeCount = new Random(7).ints(10_000, 0, 200).boxed()
+                .parallel()
+                .map(memoizedIsPrime)
+                .filter(str -> str.endsWith("true"))
+                .count();
+        System.out.println(primeCount + " " + memoizedIsPrime.stats());
+
+        MemoizedFunction<Integer, String> memoizedIntToString = Memoize.function(intToString);
+        printFunction.accept(memoizedIntToString.apply(1000) + " " + memoizedIntToString.apply(1000) + " " + memoizedIntToString.stats());
+
+        MemoizedSupplier<Integer> memoizedRandomNumber = Memoize.supplier(getRandomNumber);
+        System.out.println(memoizedRandomNumber.get().equals(memoizedRandomNumber.get())); // true
+
+
+        /**
+         * 비동기 Consumer
+         * printString 처럼 System.out.println 을 호출하는 Consumer 는 출력이 끝날 때까지 accept 를 호출한 스레드를 멈춘다.
+         * AsyncConsumer 는 요소를 링 버퍼에 넣고 바로 반환하며, 백그라운드 스레드가 모아서 ChannelSink 로 출력한다.
+         * close() 는 남은 요소를 모두 출력한 뒤 반환한다.
+         */
+        try (AsyncConsumer<String> asyncPrintString = AsyncConsumer.of(ChannelSink.stdout())) {
+            new Random(7).ints(10, 0, 1000).boxed()
+                    .parallel()
+                    .map(isPrime)
+                    .forEach(asyncPrintString);
+        }
+
     }
 
-    // 1000이하 소수 판별
+    // 소수 판별
+    // 매번 체를 새로 만드는 대신, 한 번 계산한 체를 공유하는 PrimeSieve 에 위임한다.
     public static boolean isPrime(int num){
-        boolean[] arr = new boolean[1001];
-        for(int i=2; i<=1000; i++){
-            for (int j = i*i; j <= 1000; j+=i) {
-                arr[j] = true;
-            }
-        }
-        return !arr[num];
+        return PrimeSieve.shared().isPrime(num);
     }
 }
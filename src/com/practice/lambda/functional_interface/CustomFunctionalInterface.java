@@ -53,6 +53,25 @@ class Main{
         CustomFunctionalInterface divide = (a, b) -> a/b;
         printFunction.accept(divide.operate(randomNumber.get(), randomNumber.get()));
 
+        // 연산 조합
+        // 람다를 중첩해서 호출하면 operate 호출 지점에 여러 람다가 섞여 JIT 가 인라인하지 못한다.
+        int x = randomNumber.get(), y = randomNumber.get() + 1;
+        printFunction.accept(divide.operate(multiply.operate(add.operate(x, y), minus.operate(x, y)), y));
+
+        // Expression 으로 같은 식을 트리로 조합하고, 하나의 클래스로 컴파일해서 직선 코드로 실행한다.
+        Expression expression = Expression.apply(add, Expression.a(), Expression.b())
+                .times(Expression.a().minus(Expression.b()))
+                .dividedBy(Expression.b());
+        CustomFunctionalInterface compiled = expression.compile();
+        printFunction.accept(compiled.operate(x, y));
+
+        // 상수 계산과 항등원 제거 : ((a + 1) + 2) * 1 + (b - b) -> (a + 3)
+        Expression simplified = Expression.a().plus(Expression.constant(1)).plus(Expression.constant(2))
+                .times(Expression.constant(1))
+                .plus(Expression.b().minus(Expression.b()))
+                .simplify();
+        CustomFunctionalInterface.printSomething(simplified.toString());
+
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.practice.lambda.functional_interface;
+
+/**
+ * GenericFunction1<Double> 의 double 특화 : double -> double
+ */
+@FunctionalInterface
+interface DoubleGenericFunction1 {
+    double convert(double t);
+
+    default GenericFunction1<Double> boxed(){
+        return t -> convert(t);
+    }
+
+    static DoubleGenericFunction1 unboxed(GenericFunction1<Double> function){
+        return t -> function.convert(t);
+    }
+}
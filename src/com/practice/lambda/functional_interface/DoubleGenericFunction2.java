@@ -0,0 +1,17 @@
+package com.practice.lambda.functional_interface;
+
+/**
+ * GenericFunction2<Double, R> 의 double 입력 특화 : double -> R
+ */
+@FunctionalInterface
+interface DoubleGenericFunction2<R> {
+    R convert(double t);
+
+    default GenericFunction2<Double, R> boxed(){
+        return t -> convert(t);
+    }
+
+    static <R> DoubleGenericFunction2<R> unboxed(GenericFunction2<Double, R> function){
+        return t -> function.convert(t);
+    }
+}
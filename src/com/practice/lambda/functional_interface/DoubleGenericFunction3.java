@@ -0,0 +1,17 @@
+package com.practice.lambda.functional_interface;
+
+/**
+ * GenericFunction3<Double, Double, Double> 의 double 특화 : (double, double) -> double
+ */
+@FunctionalInterface
+interface DoubleGenericFunction3 {
+    double convert(double t, double n);
+
+    default GenericFunction3<Double, Double, Double> boxed(){
+        return (t, n) -> convert(t, n);
+    }
+
+    static DoubleGenericFunction3 unboxed(GenericFunction3<Double, Double, Double> function){
+        return (t, n) -> function.convert(t, n);
+    }
+}
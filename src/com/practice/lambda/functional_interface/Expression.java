@@ -0,0 +1,592 @@
+package com.practice.lambda.functional_interface;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 연산식 트리
+ * CustomFunctionalInterface 람다를 중첩해서 호출하면 operate 호출 지점에 여러 람다가 섞여 다형(megamorphic) 호출이 되고,
+ * JIT 가 람다를 인라인하지 못한다. Expression 은 연산을 트리로 조합한 뒤 하나의 클래스로 컴파일해서 이 문제를 해결한다.
+ *
+ * 조합: a(), b(), constant() 와 plus, minus, times, dividedBy 로 트리를 만들고,
+ *       직접 작성한 람다는 apply(람다, 왼쪽, 오른쪽) 으로 트리에 넣을 수 있다.
+ * 단순화: simplify() 는 상수 계산(constant folding), 항등원 제거(x+0, x*1 등), 상수 재결합((x+1)+2 -> x+3)을 수행한다.
+ * 컴파일: compile() 은 트리를 그대로 옮긴 바이트코드(iload, iadd, imul ...)로 operate 를 구현한 히든 클래스를 만든다.
+ *        식 전체가 하나의 메서드 안의 직선 코드가 되고, 트리에 포함된 람다 호출도 클래스마다 별도의 호출 지점을 가지므로 인라인된다.
+ */
+abstract class Expression {
+
+    private static final Expression A = new Variable(true);
+    private static final Expression B = new Variable(false);
+
+    private Expression() {}
+
+    // operate(a, b) 의 첫번째 인자
+    static Expression a(){
+        return A;
+    }
+
+    // operate(a, b) 의 두번째 인자
+    static Expression b(){
+        return B;
+    }
+
+    static Expression constant(int value){
+        return new Constant(value);
+    }
+
+    // 직접 작성한 CustomFunctionalInterface 람다를 트리의 노드로 사용
+    static Expression apply(CustomFunctionalInterface operation, Expression left, Expression right){
+        return new Call(Objects.requireNonNull(operation), left, right);
+    }
+
+    Expression plus(Expression other){
+        return new Binary(Operator.ADD, this, other);
+    }
+
+    Expression minus(Expression other){
+        return new Binary(Operator.SUB, this, other);
+    }
+
+    Expression times(Expression other){
+        return new Binary(Operator.MUL, this, other);
+    }
+
+    Expression dividedBy(Expression other){
+        return new Binary(Operator.DIV, this, other);
+    }
+
+    // 트리를 그대로 순회하며 계산하는 인터프리터
+    abstract int evaluate(int a, int b);
+
+    abstract Expression simplify();
+
+    // 예외를 던지지 않고 부수 효과도 없는 식인지 여부. x*0 -> 0 과 같이 식을 없애는 단순화는 이 경우에만 적용한다.
+    abstract boolean isTotal();
+
+    abstract void emit(CodeWriter code);
+
+    // 트리를 단순화한 뒤 히든 클래스로 컴파일한다.
+    CustomFunctionalInterface compile(){
+        return ExpressionCompiler.compile(simplify());
+    }
+
+    private static final class Variable extends Expression {
+        private final boolean first;
+
+        Variable(boolean first){
+            this.first = first;
+        }
+
+        @Override
+        int evaluate(int a, int b) {
+            return first ? a : b;
+        }
+
+        @Override
+        Expression simplify() {
+            return this;
+        }
+
+        @Override
+        boolean isTotal() {
+            return true;
+        }
+
+        @Override
+        void emit(CodeWriter code) {
+            code.op(first ? CodeWriter.ILOAD_1 : CodeWriter.ILOAD_2, 1);
+        }
+
+        @Override
+        public String toString() {
+            return first ? "a" : "b";
+        }
+    }
+
+    private static final class Constant extends Expression {
+        private final int value;
+
+        Constant(int value){
+            this.value = value;
+        }
+
+        @Override
+        int evaluate(int a, int b) {
+            return value;
+        }
+
+        @Override
+        Expression simplify() {
+            return this;
+        }
+
+        @Override
+        boolean isTotal() {
+            return true;
+        }
+
+        @Override
+        void emit(CodeWriter code) {
+            code.pushInt(value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Constant && ((Constant) o).value == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            return Integer.toString(value);
+        }
+    }
+
+    private enum Operator {
+        ADD("+", CodeWriter.IADD) {
+            int apply(int a, int b){ return a + b; }
+        },
+        SUB("-", CodeWriter.ISUB) {
+            int apply(int a, int b){ return a - b; }
+        },
+        MUL("*", CodeWriter.IMUL) {
+            int apply(int a, int b){ return a * b; }
+        },
+        DIV("/", CodeWriter.IDIV) {
+            int apply(int a, int b){ return a / b; }
+        };
+
+        private final String symbol;
+        private final int opcode;
+
+        Operator(String symbol, int opcode){
+            this.symbol = symbol;
+            this.opcode = opcode;
+        }
+
+        abstract int apply(int a, int b);
+    }
+
+    private static final class Binary extends Expression {
+        private final Operator operator;
+        private final Expression left;
+        private final Expression right;
+
+        Binary(Operator operator, Expression left, Expression right){
+            this.operator = operator;
+            this.left = Objects.requireNonNull(left);
+            this.right = Objects.requireNonNull(right);
+        }
+
+        @Override
+        int evaluate(int a, int b) {
+            return operator.apply(left.evaluate(a, b), right.evaluate(a, b));
+        }
+
+        @Override
+        Expression simplify() {
+            Expression l = left.simplify();
+            Expression r = right.simplify();
+
+            // 상수 계산. 0 으로 나누는 식은 실행 시점에 예외가 나도록 남겨둔다.
+            if(l instanceof Constant && r instanceof Constant){
+                int lv = ((Constant) l).value, rv = ((Constant) r).value;
+                if(operator != Operator.DIV || rv != 0) return new Constant(operator.apply(lv, rv));
+            }
+            // 교환 법칙이 성립하는 연산은 상수를 오른쪽으로 모은다.
+            if((operator == Operator.ADD || operator == Operator.MUL) && l instanceof Constant && !(r instanceof Constant)){
+                Expression tmp = l;
+                l = r;
+                r = tmp;
+            }
+            if(r instanceof Constant){
+                int rv = ((Constant) r).value;
+                switch (operator) {
+                    case ADD:
+                    case SUB:
+                        if(rv == 0) return l;
+                        break;
+                    case MUL:
+                        if(rv == 1) return l;
+                        if(rv == 0 && l.isTotal()) return r;
+                        break;
+                    case DIV:
+                        if(rv == 1) return l;
+                        break;
+                }
+                // 상수 재결합 : (x + c1) + c2 -> x + (c1 + c2), (x * c1) * c2 -> x * (c1 * c2)
+                // int 의 덧셈과 곱셈은 오버플로가 나도 결합 법칙이 성립한다.
+                if(l instanceof Binary && ((Binary) l).right instanceof Constant){
+                    Binary inner = (Binary) l;
+                    int c1 = ((Constant) inner.right).value;
+                    boolean additive = (operator == Operator.ADD || operator == Operator.SUB)
+                            && (inner.operator == Operator.ADD || inner.operator == Operator.SUB);
+                    if(additive){
+                        int offset = (inner.operator == Operator.ADD ? c1 : -c1) + (operator == Operator.ADD ? rv : -rv);
+                        return new Binary(Operator.ADD, inner.left, new Constant(offset)).simplify();
+                    }
+                    if(operator == Operator.MUL && inner.operator == Operator.MUL){
+                        return new Binary(Operator.MUL, inner.left, new Constant(c1 * rv)).simplify();
+                    }
+                }
+            }
+            if(operator == Operator.SUB && l.isTotal() && l.equals(r)) return new Constant(0);
+            if(l == left && r == right) return this;
+            return new Binary(operator, l, r);
+        }
+
+        @Override
+        boolean isTotal() {
+            return operator != Operator.DIV && left.isTotal() && right.isTotal();
+        }
+
+        @Override
+        void emit(CodeWriter code) {
+            left.emit(code);
+            right.emit(code);
+            code.op(operator.opcode, -1);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if(!(o instanceof Binary)) return false;
+            Binary other = (Binary) o;
+            return operator == other.operator && left.equals(other.left) && right.equals(other.right);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(operator, left, right);
+        }
+
+        @Override
+        public String toString() {
+            return "(" + left + " " + operator.symbol + " " + right + ")";
+        }
+    }
+
+    private static final class Call extends Expression {
+        private final CustomFunctionalInterface operation;
+        private final Expression left;
+        private final Expression right;
+
+        Call(CustomFunctionalInterface operation, Expression left, Expression right){
+            this.operation = operation;
+            this.left = Objects.requireNonNull(left);
+            this.right = Objects.requireNonNull(right);
+        }
+
+        @Override
+        int evaluate(int a, int b) {
+            return operation.operate(left.evaluate(a, b), right.evaluate(a, b));
+        }
+
+        @Override
+        Expression simplify() {
+            Expression l = left.simplify();
+            Expression r = right.simplify();
+            return l == left && r == right ? this : new Call(operation, l, r);
+        }
+
+        // 람다의 내용은 알 수 없으므로 예외나 부수 효과가 있다고 가정한다.
+        @Override
+        boolean isTotal() {
+            return false;
+        }
+
+        @Override
+        void emit(CodeWriter code) {
+            code.loadCall(operation);
+            left.emit(code);
+            right.emit(code);
+            code.invokeOperate();
+        }
+
+        @Override
+        public String toString() {
+            return "call(" + left + ", " + right + ")";
+        }
+    }
+
+    /**
+     * operate(int a, int b) 메서드의 바이트코드를 기록한다.
+     * 분기가 없는 직선 코드만 만들기 때문에 StackMapTable 이 필요 없다.
+     */
+    static final class CodeWriter {
+        static final int ILOAD_1 = 0x1b, ILOAD_2 = 0x1c;
+        static final int IADD = 0x60, ISUB = 0x64, IMUL = 0x68, IDIV = 0x6c;
+        private static final int ICONST_0 = 0x03, BIPUSH = 0x10, SIPUSH = 0x11, LDC_W = 0x13;
+        private static final int AALOAD = 0x32, GETSTATIC = 0xb2, INVOKEINTERFACE = 0xb9;
+
+        private final ExpressionCompiler.ConstantPool pool;
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final List<CustomFunctionalInterface> calls = new ArrayList<>();
+        private int stack;
+        private int maxStack;
+
+        CodeWriter(ExpressionCompiler.ConstantPool pool){
+            this.pool = pool;
+        }
+
+        void op(int opcode, int stackChange){
+            bytes.write(opcode);
+            stack(stackChange);
+        }
+
+        private void stack(int change){
+            stack += change;
+            maxStack = Math.max(maxStack, stack);
+        }
+
+        private void u2(int value){
+            bytes.write(value >>> 8);
+            bytes.write(value);
+        }
+
+        void pushInt(int value){
+            if(value >= -1 && value <= 5){
+                bytes.write(ICONST_0 + value);
+            } else if(value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE){
+                bytes.write(BIPUSH);
+                bytes.write(value);
+            } else if(value >= Short.MIN_VALUE && value <= Short.MAX_VALUE){
+                bytes.write(SIPUSH);
+                u2(value);
+            } else {
+                bytes.write(LDC_W);
+                u2(pool.integer(value));
+            }
+            stack(1);
+        }
+
+        // CALLS[i] 를 스택에 올린다.
+        void loadCall(CustomFunctionalInterface operation){
+            bytes.write(GETSTATIC);
+            u2(pool.field(ExpressionCompiler.CLASS_NAME, ExpressionCompiler.CALLS_FIELD, ExpressionCompiler.CALLS_DESCRIPTOR));
+            stack(1);
+            pushInt(calls.size());
+            calls.add(operation);
+            op(AALOAD, -1);
+        }
+
+        void invokeOperate(){
+            bytes.write(INVOKEINTERFACE);
+            u2(pool.interfaceMethod(ExpressionCompiler.INTERFACE_NAME, "operate", "(II)I"));
+            bytes.write(3);
+            bytes.write(0);
+            stack(-2);
+        }
+
+        byte[] code(){
+            return bytes.toByteArray();
+        }
+
+        int maxStack(){
+            return maxStack;
+        }
+
+        List<CustomFunctionalInterface> calls(){
+            return calls;
+        }
+    }
+
+    /**
+     * 히든 클래스 생성기
+     * 아래와 같은 클래스를 바이트코드로 직접 작성하고 MethodHandles.Lookup.defineHiddenClass 로 정의한다.
+     *
+     * final class CompiledExpression implements CustomFunctionalInterface {
+     *     private static CustomFunctionalInterface[] CALLS; // apply() 로 넣은 람다
+     *     public int operate(int a, int b) { return 식; }
+     * }
+     */
+    static final class ExpressionCompiler {
+        static final String CLASS_NAME = "com/practice/lambda/functional_interface/CompiledExpression";
+        static final String INTERFACE_NAME = "com/practice/lambda/functional_interface/CustomFunctionalInterface";
+        static final String CALLS_FIELD = "CALLS";
+        static final String CALLS_DESCRIPTOR = "[L" + INTERFACE_NAME + ";";
+        private static final int CLASS_VERSION = 55;
+
+        static CustomFunctionalInterface compile(Expression expression){
+            ConstantPool pool = new ConstantPool();
+            CodeWriter code = new CodeWriter(pool);
+            expression.emit(code);
+            byte[] operate = code.code();
+
+            int thisClass = pool.classRef(CLASS_NAME);
+            int superClass = pool.classRef("java/lang/Object");
+            int interfaceClass = pool.classRef(INTERFACE_NAME);
+            int objectInit = pool.method("java/lang/Object", "<init>", "()V");
+            int codeName = pool.utf8("Code");
+            int initName = pool.utf8("<init>");
+            int initDescriptor = pool.utf8("()V");
+            int operateName = pool.utf8("operate");
+            int operateDescriptor = pool.utf8("(II)I");
+            int callsName = pool.utf8(CALLS_FIELD);
+            int callsDescriptor = pool.utf8(CALLS_DESCRIPTOR);
+
+            try {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(buffer);
+                out.writeInt(0xCAFEBABE);
+                out.writeShort(0);
+                out.writeShort(CLASS_VERSION);
+                pool.writeTo(out);
+                out.writeShort(0x0010 | 0x0020); // ACC_FINAL | ACC_SUPER
+                out.writeShort(thisClass);
+                out.writeShort(superClass);
+                out.writeShort(1);
+                out.writeShort(interfaceClass);
+
+                // private static CustomFunctionalInterface[] CALLS;
+                out.writeShort(1);
+                out.writeShort(0x0002 | 0x0008);
+                out.writeShort(callsName);
+                out.writeShort(callsDescriptor);
+                out.writeShort(0);
+
+                out.writeShort(2);
+                // public <init>() { super(); }
+                byte[] init = {0x2a, (byte) 0xb7, (byte) (objectInit >>> 8), (byte) objectInit, (byte) 0xb1};
+                writeMethod(out, 0x0001, initName, initDescriptor, codeName, 1, 1, init);
+                // public int operate(int a, int b) { return 식; }
+                byte[] body = new byte[operate.length + 1];
+                System.arraycopy(operate, 0, body, 0, operate.length);
+                body[operate.length] = (byte) 0xac; // ireturn
+                writeMethod(out, 0x0001, operateName, operateDescriptor, codeName, Math.max(1, code.maxStack()), 3, body);
+
+                out.writeShort(0);
+                out.flush();
+                return define(buffer.toByteArray(), code.calls());
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static void writeMethod(DataOutputStream out, int access, int name, int descriptor, int codeName,
+                                        int maxStack, int maxLocals, byte[] code) throws IOException {
+            out.writeShort(access);
+            out.writeShort(name);
+            out.writeShort(descriptor);
+            out.writeShort(1);
+            out.writeShort(codeName);
+            out.writeInt(2 + 2 + 4 + code.length + 2 + 2);
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(code.length);
+            out.write(code);
+            out.writeShort(0);
+            out.writeShort(0);
+        }
+
+        private static CustomFunctionalInterface define(byte[] classFile, List<CustomFunctionalInterface> calls){
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup().defineHiddenClass(classFile, true);
+                Class<?> type = lookup.lookupClass();
+                if(!calls.isEmpty()){
+                    lookup.findStaticSetter(type, CALLS_FIELD, CustomFunctionalInterface[].class)
+                            .invoke(calls.toArray(new CustomFunctionalInterface[0]));
+                }
+                return (CustomFunctionalInterface) lookup.findConstructor(type, MethodType.methodType(void.class)).invoke();
+            } catch (Throwable e) {
+                throw new IllegalStateException("연산식 컴파일 실패", e);
+            }
+        }
+
+        // 상수 풀. 같은 항목은 한 번만 추가한다.
+        static final class ConstantPool {
+            private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            private final DataOutputStream out = new DataOutputStream(bytes);
+            private final Map<String, Integer> indexes = new HashMap<>();
+            private int count = 1;
+
+            private int entry(String key, EntryWriter writer){
+                Integer index = indexes.get(key);
+                if(index != null) return index;
+                try {
+                    writer.write(out);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                indexes.put(key, count);
+                return count++;
+            }
+
+            @FunctionalInterface
+            private interface EntryWriter {
+                void write(DataOutputStream out) throws IOException;
+            }
+
+            int utf8(String value){
+                return entry("U" + value, out -> {
+                    out.writeByte(1);
+                    out.writeUTF(value);
+                });
+            }
+
+            int integer(int value){
+                return entry("I" + value, out -> {
+                    out.writeByte(3);
+                    out.writeInt(value);
+                });
+            }
+
+            int classRef(String name){
+                int nameIndex = utf8(name);
+                return entry("C" + name, out -> {
+                    out.writeByte(7);
+                    out.writeShort(nameIndex);
+                });
+            }
+
+            private int nameAndType(String name, String descriptor){
+                int nameIndex = utf8(name);
+                int descriptorIndex = utf8(descriptor);
+                return entry("N" + name + ":" + descriptor, out -> {
+                    out.writeByte(12);
+                    out.writeShort(nameIndex);
+                    out.writeShort(descriptorIndex);
+                });
+            }
+
+            private int member(int tag, String owner, String name, String descriptor){
+                int classIndex = classRef(owner);
+                int nameAndTypeIndex = nameAndType(name, descriptor);
+                return entry("M" + tag + owner + "." + name + ":" + descriptor, out -> {
+                    out.writeByte(tag);
+                    out.writeShort(classIndex);
+                    out.writeShort(nameAndTypeIndex);
+                });
+            }
+
+            int field(String owner, String name, String descriptor){
+                return member(9, owner, name, descriptor);
+            }
+
+            int method(String owner, String name, String descriptor){
+                return member(10, owner, name, descriptor);
+            }
+
+            int interfaceMethod(String owner, String name, String descriptor){
+                return member(11, owner, name, descriptor);
+            }
+
+            void writeTo(DataOutputStream target) throws IOException {
+                target.writeShort(count);
+                target.write(bytes.toByteArray());
+            }
+        }
+    }
+}
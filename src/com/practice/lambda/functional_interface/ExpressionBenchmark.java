@@ -0,0 +1,91 @@
+package com.practice.lambda.functional_interface;
+
+import com.practice.benchmark.BenchmarkData;
+import com.practice.benchmark.BenchmarkRunner;
+import com.practice.benchmark.BenchmarkSuite;
+
+/**
+ * Expression 벤치마크
+ * ((a + b) * (a - b) + a * 3) / (b + 7) 를 세 가지 방식으로 계산해서 비교한다.
+ *
+ * chainedLambdas: CustomFunctionalInterface 람다를 중첩 호출 (operate 호출 지점이 다형 호출이 된다)
+ * interpreted: Expression 트리를 evaluate 로 순회
+ * compiled: Expression 을 히든 클래스로 컴파일
+ */
+public class ExpressionBenchmark extends BenchmarkSuite {
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner.run(ExpressionBenchmark.class, args);
+    }
+
+    // 실제 코드처럼 람다가 상수가 아닌 값으로 전달되도록 배열에 담는다.
+    private static final CustomFunctionalInterface[] OPERATIONS = {(a, b) -> a+b, (a, b) -> a-b, (a, b) -> a*b, (a, b) -> a/b};
+    private static final int ADD = 0, MINUS = 1, MULTIPLY = 2, DIVIDE = 3;
+
+    // a 와 같은 seed 로 b 를 만들면 모든 행이 a == b 가 되어 a - b 가 항상 0 이 되고, JIT 가 계산 일부를 생략할 수 있다.
+    private static final long B_SEED = 7L;
+
+    // 이 메서드 안의 operate 호출 지점에는 네 가지 람다가 모두 들어오므로 다형 호출이 된다.
+    private static int operate(int operation, int a, int b){
+        return OPERATIONS[operation].operate(a, b);
+    }
+
+    private static int chained(int a, int b){
+        int sum = operate(ADD, a, b);
+        int diff = operate(MINUS, a, b);
+        int product = operate(MULTIPLY, sum, diff);
+        int numerator = operate(ADD, product, operate(MULTIPLY, a, 3));
+        return operate(DIVIDE, numerator, operate(ADD, b, 7));
+    }
+
+    private static Expression expression(){
+        Expression a = Expression.a(), b = Expression.b();
+        return a.plus(b).times(a.minus(b))
+                .plus(a.times(Expression.constant(3)))
+                .dividedBy(b.plus(Expression.constant(7)));
+    }
+
+    @Override
+    protected void register() {
+        sizes(10_000);
+        parallelisms(1);
+
+        bench("chainedLambdas", params -> {
+            int[] as = BenchmarkData.ints(params.getSize(), 10_000);
+            int[] bs = BenchmarkData.ints(params.getSize(), 10_000, B_SEED);
+            return bh -> {
+                int acc = 0;
+                for(int i=0; i<as.length; i++){
+                    acc += chained(as[i], bs[i]);
+                }
+                bh.consume(acc);
+            };
+        });
+
+        bench("interpreted", params -> {
+            int[] as = BenchmarkData.ints(params.getSize(), 10_000);
+            int[] bs = BenchmarkData.ints(params.getSize(), 10_000, B_SEED);
+            Expression expression = expression();
+            return bh -> {
+                int acc = 0;
+                for(int i=0; i<as.length; i++){
+                    acc += expression.evaluate(as[i], bs[i]);
+                }
+                bh.consume(acc);
+            };
+        });
+
+        bench("compiled", params -> {
+            int[] as = BenchmarkData.ints(params.getSize(), 10_000);
+            int[] bs = BenchmarkData.ints(params.getSize(), 10_000, B_SEED);
+            CustomFunctionalInterface compiled = expression().compile();
+            return bh -> {
+                int acc = 0;
+                for(int i=0; i<as.length; i++){
+                    acc += compiled.operate(as[i], bs[i]);
+                }
+                bh.consume(acc);
+            };
+        });
+    }
+}
@@ -3,6 +3,12 @@ package com.practice.lambda.functional_interface;
 /**
  * 함수형 인터페이스와 제네릭
  * 함수형 인터페이스를 제네릭으로 만들어 상황에서 유연하고 타입 안전한 함수를 만들 수 있게 한다.
+ *
+ * 기본형 특화 함수형 인터페이스
+ * GenericFunction1<Integer> 처럼 제네릭에 기본형을 쓰면 모든 인자와 반환값이 박싱되고, 캐시 범위(-128 ~ 127) 밖의 값은 매번 객체가 할당된다.
+ * java.util.function 의 IntUnaryOperator, ToIntFunction 과 같은 방식으로 int, long, double 에 대해 각 인자 수 별로 특화한 인터페이스를 둔다.
+ * (IntGenericFunction1, ToIntGenericFunction2, ObjIntGenericFunction3 등) 모두 같은 틀로 작성되어 있으며, boxed() 와 unboxed() 로 제네릭 형태와 서로 변환할 수 있다.
+ * 변환 어댑터를 거치면 박싱이 다시 발생하므로, 호출이 많은 경로에서는 특화 인터페이스를 직접 사용해야 한다.
  */
 public class FunctionalInterfaceWithGeneric {
 
@@ -30,20 +36,20 @@ public class FunctionalInterfaceWithGeneric {
         int num3 = addStringInt.convert("100", 10);
         System.out.println(num3);
 
-    }
-}
+        // 기본형 특화 인터페이스
+        // 제네릭에 Integer 를 사용하면 인자와 반환값이 박싱된다. 기본형 특화 인터페이스는 박싱 없이 int 를 그대로 주고받는다.
+        IntGenericFunction1 addIntPrimitive = num -> num+1;
+        int num4 = addIntPrimitive.convert(1000);
+        System.out.println(num4);
 
-@FunctionalInterface
-interface GenericFunction1<T> {
-    T convert(T t);
-}
+        ObjIntGenericFunction3<String> addStringIntPrimitive = (s, n) -> Integer.parseInt(s)+n;
+        int num5 = addStringIntPrimitive.convert("100", 10);
+        System.out.println(num5);
 
-@FunctionalInterface
-interface GenericFunction2<T, R> {
-    R convert(T t);
-}
+        // 기존 제네릭 인터페이스와 서로 변환
+        GenericFunction1<Integer> boxed = addIntPrimitive.boxed();
+        IntGenericFunction1 unboxed = IntGenericFunction1.unboxed(addInt);
+        System.out.println(boxed.convert(10) + ", " + unboxed.convert(10));
 
-@FunctionalInterface
-interface GenericFunction3<T, N, R> {
-    R convert(T t, N n);
-}
\ No newline at end of file
+    }
+}
@@ -0,0 +1,6 @@
+package com.practice.lambda.functional_interface;
+
+@FunctionalInterface
+interface GenericFunction1<T> {
+    T convert(T t);
+}
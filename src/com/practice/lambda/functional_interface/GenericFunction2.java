@@ -0,0 +1,6 @@
+package com.practice.lambda.functional_interface;
+
+@FunctionalInterface
+interface GenericFunction2<T, R> {
+    R convert(T t);
+}
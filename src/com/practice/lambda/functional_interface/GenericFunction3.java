@@ -0,0 +1,6 @@
+package com.practice.lambda.functional_interface;
+
+@FunctionalInterface
+interface GenericFunction3<T, N, R> {
+    R convert(T t, N n);
+}
@@ -0,0 +1,17 @@
+package com.practice.lambda.functional_interface;
+
+/**
+ * GenericFunction1<Integer> 의 int 특화 : int -> int
+ */
+@FunctionalInterface
+interface IntGenericFunction1 {
+    int convert(int t);
+
+    default GenericFunction1<Integer> boxed(){
+        return t -> convert(t);
+    }
+
+    static IntGenericFunction1 unboxed(GenericFunction1<Integer> function){
+        return t -> function.convert(t);
+    }
+}
@@ -0,0 +1,17 @@
+package com.practice.lambda.functional_interface;
+
+/**
+ * GenericFunction2<Integer, R> 의 int 입력 특화 : int -> R
+ */
+@FunctionalInterface
+interface IntGenericFunction2<R> {
+    R convert(int t);
+
+    default GenericFunction2<Integer, R> boxed(){
+        return t -> convert(t);
+    }
+
+    static <R> IntGenericFunction2<R> unboxed(GenericFunction2<Integer, R> function){
+        return t -> function.convert(t);
+    }
+}
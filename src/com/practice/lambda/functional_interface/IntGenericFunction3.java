@@ -0,0 +1,17 @@
+package com.practice.lambda.functional_interface;
+
+/**
+ * GenericFunction3<Integer, Integer, Integer> 의 int 특화 : (int, int) -> int
+ */
+@FunctionalInterface
+interface IntGenericFunction3 {
+    int convert(int t, int n);
+
+    default GenericFunction3<Integer, Integer, Integer> boxed(){
+        return (t, n) -> convert(t, n);
+    }
+
+    static IntGenericFunction3 unboxed(GenericFunction3<Integer, Integer, Integer> function){
+        return (t, n) -> function.convert(t, n);
+    }
+}
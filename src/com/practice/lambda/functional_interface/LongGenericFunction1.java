@@ -0,0 +1,17 @@
+package com.practice.lambda.functional_interface;
+
+/**
+ * GenericFunction1<Long> 의 long 특화 : long -> long
+ */
+@FunctionalInterface
+interface LongGenericFunction1 {
+    long convert(long t);
+
+    default GenericFunction1<Long> boxed(){
+        return t -> convert(t);
+    }
+
+    static LongGenericFunction1 unboxed(GenericFunction1<Long> function){
+        return t -> function.convert(t);
+    }
+}
@@ -0,0 +1,17 @@
+package com.practice.lambda.functional_interface;
+
+/**
+ * GenericFunction2<Long, R> 의 long 입력 특화 : long -> R
+ */
+@FunctionalInterface
+interface LongGenericFunction2<R> {
+    R convert(long t);
+
+    default GenericFunction2<Long, R> boxed(){
+        return t -> convert(t);
+    }
+
+    static <R> LongGenericFunction2<R> unboxed(GenericFunction2<Long, R> function){
+        return t -> function.convert(t);
+    }
+}
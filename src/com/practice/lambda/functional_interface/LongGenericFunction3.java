@@ -0,0 +1,17 @@
+package com.practice.lambda.functional_interface;
+
+/**
+ * GenericFunction3<Long, Long, Long> 의 long 특화 : (long, long) -> long
+ */
+@FunctionalInterface
+interface LongGenericFunction3 {
+    long convert(long t, long n);
+
+    default GenericFunction3<Long, Long, Long> boxed(){
+        return (t, n) -> convert(t, n);
+    }
+
+    static LongGenericFunction3 unboxed(GenericFunction3<Long, Long, Long> function){
+        return (t, n) -> function.convert(t, n);
+    }
+}
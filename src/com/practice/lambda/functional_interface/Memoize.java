@@ -0,0 +1,139 @@
+package com.practice.lambda.functional_interface;
+
+import java.time.Duration;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 메모이제이션
+ * intToString, isPrime 같은 순수 함수는 같은 입력에 항상 같은 결과를 반환하므로 한 번 계산한 결과를 저장해 두고 재사용할 수 있다.
+ *
+ * Memoize.function(f, policy) 는 크기가 제한된 동시성 캐시로 f 를 감싼다.
+ * 크기 제한: W-TinyLFU. 새 항목은 작은 LRU 창(window)에 들어오고, 창에서 밀려난 항목은 자주 쓰인 기존 항목보다 접근 빈도가 높을 때만 본 영역에 남는다.
+ *   한 번만 쓰이고 마는 입력이 자주 쓰이는 결과를 밀어내지 않는다.
+ * 만료: expireAfterWrite 를 지정하면 저장 후 그 시간이 지난 결과는 다시 계산한다.
+ * 단일 실행(single-flight): 같은 입력에 대한 계산이 동시에 요청되면 한 스레드만 계산하고 나머지는 그 결과를 기다린다.
+ * 통계: 적중, 실패, 제거 횟수와 계산 시간을 기록한다.
+ *
+ * 전역 락이 없으므로 병렬 스트림 안에서도 사용할 수 있다. 자세한 구조는 MemoizedFunction 을 참고한다.
+ * 감싸는 함수는 부수 효과가 없어야 한다. 같은 입력으로 자기 자신을 다시 호출하면 IllegalStateException 이 발생한다.
+ */
+public final class Memoize {
+
+    private Memoize(){
+    }
+
+    // 최대 10,000 개의 결과를 저장한다.
+    public static <T, R> MemoizedFunction<T, R> function(Function<? super T, ? extends R> function){
+        return function(function, Policy.maximumSize(10_000));
+    }
+
+    public static <T, R> MemoizedFunction<T, R> function(Function<? super T, ? extends R> function, Policy policy){
+        return new MemoizedFunction<>(function, policy);
+    }
+
+    // 처음 호출할 때 한 번만 계산한다.
+    public static <T> MemoizedSupplier<T> supplier(Supplier<? extends T> supplier){
+        return new MemoizedSupplier<>(supplier, 0);
+    }
+
+    // 계산한 지 duration 이 지나면 다시 계산한다.
+    public static <T> MemoizedSupplier<T> supplier(Supplier<? extends T> supplier, Duration expireAfterWrite){
+        return new MemoizedSupplier<>(supplier, Policy.toNanos(expireAfterWrite));
+    }
+
+    /**
+     * 캐시 정책
+     * Policy.maximumSize(1000).expireAfterWrite(Duration.ofMinutes(5))
+     */
+    public static final class Policy {
+        private final long maximumSize;
+        private final long expireAfterWriteNanos; // 0 이면 만료하지 않는다.
+
+        private Policy(long maximumSize, long expireAfterWriteNanos){
+            this.maximumSize = maximumSize;
+            this.expireAfterWriteNanos = expireAfterWriteNanos;
+        }
+
+        public static Policy maximumSize(long maximumSize){
+            if(maximumSize < 0) throw new IllegalArgumentException("최대 크기는 0 이상이어야 한다. maximumSize=" + maximumSize);
+            return new Policy(maximumSize, 0);
+        }
+
+        public Policy expireAfterWrite(Duration duration){
+            return new Policy(maximumSize, toNanos(duration));
+        }
+
+        private static long toNanos(Duration duration){
+            if(duration.isNegative() || duration.isZero()) throw new IllegalArgumentException("만료 시간은 0 보다 커야 한다. duration=" + duration);
+            return duration.toNanos();
+        }
+
+        public long getMaximumSize(){
+            return maximumSize;
+        }
+
+        public long getExpireAfterWriteNanos(){
+            return expireAfterWriteNanos;
+        }
+    }
+
+    /**
+     * 캐시 통계 스냅샷
+     * hitCount: 저장된 결과(또는 다른 스레드가 계산 중인 결과)를 반환한 횟수
+     * missCount: 직접 계산한 횟수 (실패 포함)
+     * loadFailureCount: 계산 중 예외가 발생한 횟수
+     * evictionCount: 크기 제한 때문에 제거한 횟수
+     * totalLoadNanos: 계산에 걸린 시간의 합
+     */
+    public static final class Stats {
+        private final long hitCount;
+        private final long missCount;
+        private final long loadFailureCount;
+        private final long evictionCount;
+        private final long totalLoadNanos;
+
+        Stats(long hitCount, long missCount, long loadFailureCount, long evictionCount, long totalLoadNanos){
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.loadFailureCount = loadFailureCount;
+            this.evictionCount = evictionCount;
+            this.totalLoadNanos = totalLoadNanos;
+        }
+
+        public long getHitCount(){
+            return hitCount;
+        }
+
+        public long getMissCount(){
+            return missCount;
+        }
+
+        public long getLoadFailureCount(){
+            return loadFailureCount;
+        }
+
+        public long getEvictionCount(){
+            return evictionCount;
+        }
+
+        public long getTotalLoadNanos(){
+            return totalLoadNanos;
+        }
+
+        public double hitRate(){
+            long requests = hitCount + missCount;
+            return requests == 0 ? 1.0 : (double) hitCount / requests;
+        }
+
+        public double averageLoadNanos(){
+            return missCount == 0 ? 0.0 : (double) totalLoadNanos / missCount;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Stats{hit=%d, miss=%d, loadFailure=%d, eviction=%d, hitRate=%.3f, averageLoadNanos=%.1f}",
+                    hitCount, missCount, loadFailureCount, evictionCount, hitRate(), averageLoadNanos());
+        }
+    }
+}
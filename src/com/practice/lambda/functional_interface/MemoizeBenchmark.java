@@ -0,0 +1,75 @@
+package com.practice.lambda.functional_interface;
+
+import com.practice.benchmark.BenchmarkRunner;
+import com.practice.benchmark.BenchmarkSuite;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Memoize 벤치마크
+ * 구간 [key * 64, key * 64 + 64) 의 소수 개수(체의 범위 밖이라 밀러-라빈 판정법 64번)를
+ * 일부 입력이 자주 반복되는 분포(r^3 로 치우친 분포)로 호출한다.
+ * raw: 매번 계산, memoized: Memoize.function (크기 1,000), unboundedMap: 크기 제한 없는 ConcurrentHashMap.computeIfAbsent
+ * unboundedMap 은 서로 다른 키 10,000 개를 모두 저장하므로 가장 빠르지만 메모리가 제한되지 않는다.
+ * 모두 병렬 스트림에서 실행한다.
+ *
+ * java -cp out com.practice.lambda.functional_interface.MemoizeBenchmark -prof gc
+ */
+public class MemoizeBenchmark extends BenchmarkSuite {
+
+    private static final long BASE = 1L << 34;
+    private static final int DISTINCT_KEYS = 10_000;
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner.run(MemoizeBenchmark.class, args);
+    }
+
+    private static final Function<Long, Integer> PRIME_COUNT = key -> {
+        int count = 0;
+        for(long n=key*64; n<key*64+64; n++){
+            if(PrimeSieve.shared().isPrime(n)) count++;
+        }
+        return count;
+    };
+
+    // 앞쪽 키일수록 자주 나온다.
+    private static Long[] skewedKeys(int size){
+        SplittableRandom random = new SplittableRandom(42);
+        Long[] keys = new Long[size];
+        for(int i=0; i<size; i++){
+            double r = random.nextDouble();
+            keys[i] = BASE + (long) (r * r * r * DISTINCT_KEYS);
+        }
+        return keys;
+    }
+
+    @Override
+    protected void register() {
+        sizes(100_000);
+
+        bench("raw", params -> {
+            Long[] keys = skewedKeys(params.getSize());
+            return bh -> bh.consume(Arrays.stream(keys).parallel().mapToInt(PRIME_COUNT::apply).sum());
+        });
+
+        bench("memoized", params -> {
+            Long[] keys = skewedKeys(params.getSize());
+            return bh -> {
+                MemoizedFunction<Long, Integer> memoized = Memoize.function(PRIME_COUNT, Memoize.Policy.maximumSize(1_000));
+                bh.consume(Arrays.stream(keys).parallel().mapToInt(memoized::apply).sum());
+            };
+        });
+
+        bench("unboundedMap", params -> {
+            Long[] keys = skewedKeys(params.getSize());
+            return bh -> {
+                Map<Long, Integer> cache = new ConcurrentHashMap<>();
+                bh.consume(Arrays.stream(keys).parallel().mapToInt(key -> cache.computeIfAbsent(key, PRIME_COUNT)).sum());
+            };
+        });
+    }
+}
@@ -0,0 +1,447 @@
+package com.practice.lambda.functional_interface;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 크기가 제한된 메모이제이션 Function
+ *
+ * 저장소: ConcurrentHashMap<키, Node>. Node 는 결과를 담을 CompletableFuture 를 가진다.
+ *   결과가 없으면 빈 Node 를 putIfAbsent 로 먼저 넣은 스레드만 계산하고(single-flight), 다른 스레드는 그 future 를 기다린다.
+ *   계산은 맵의 락 밖에서 하므로 같은 버킷의 다른 키를 막지 않는다.
+ *
+ * 제거 정책(W-TinyLFU): 전체 크기의 1% 인 window(LRU)와 나머지 main(SLRU: probation 20%, protected 80%)으로 나눈다.
+ *   새 항목은 window 에 들어가고, window 가 넘치면 가장 오래된 항목이 probation 으로 옮겨 후보가 된다.
+ *   전체가 넘치면 probation 의 후보(가장 최근에 들어온 항목)와 희생자(가장 오래된 항목)의 접근 빈도를 비교해 낮은 쪽을 버린다.
+ *   probation 에서 다시 읽힌 항목은 protected 로 올라간다.
+ *   접근 빈도는 4비트 카운터 Count-Min Sketch 로 추정하고, 기록 수가 표본 크기에 이르면 모든 카운터를 절반으로 줄여 오래된 빈도를 잊는다.
+ *
+ * 락 없는 읽기: 정책 자료구조(연결 리스트, sketch)는 evictionLock 을 잡은 스레드만 수정한다.
+ *   읽기는 스레드별로 나뉜 손실 허용 링 버퍼(ReadBuffer)에 Node 를 기록만 하고, 버퍼가 차면 tryLock 으로 한꺼번에 반영한다.
+ *   락을 얻지 못한 스레드는 기다리지 않고 돌아간다. 버퍼가 꽉 차 버린 읽기 기록은 빈도 추정에만 영향을 준다.
+ *   추가와 삭제는 잃으면 안 되므로 writeBuffer 큐에 넣고, 쓰기 후에 반영한다.
+ *   반영하지 못한 쓰기가 WRITE_BUFFER_MAX 를 넘으면 쓰는 스레드가 락을 기다려서라도 반영한다(backpressure).
+ *   그러지 않으면 락을 가진 스레드가 반영하는 동안 다른 스레드의 추가가 계속 쌓여 크기 제한을 크게 넘는다.
+ *   따라서 저장된 결과 수는 maximumSize + WRITE_BUFFER_MAX + 계산 중인 결과 수를 넘지 않는다.
+ */
+public final class MemoizedFunction<T, R> implements Function<T, R> {
+
+    private static final Object NULL_KEY = new Object();
+
+    // 반영하지 못한 쓰기가 이보다 많으면 쓰는 스레드가 반영을 기다린다.
+    private static final int WRITE_BUFFER_MAX = 128;
+
+    // Node 가 속한 영역
+    private static final int NEW = 0;
+    private static final int WINDOW = 1;
+    private static final int PROBATION = 2;
+    private static final int PROTECTED = 3;
+    private static final int REMOVED = 4;
+
+    private final Function<? super T, ? extends R> function;
+    private final long maximumSize;
+    private final long expireAfterWriteNanos;
+
+    private final ConcurrentHashMap<Object, Node<R>> data = new ConcurrentHashMap<>();
+    private final ReadBuffer<Node<R>> readBuffer = new ReadBuffer<>();
+    private final ConcurrentLinkedQueue<Runnable> writeBuffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final Consumer<Node<R>> onAccess = this::onAccess;
+
+    // evictionLock 을 잡은 스레드만 접근한다.
+    private final FrequencySketch sketch;
+    private final AccessOrderDeque<R> window = new AccessOrderDeque<>();
+    private final AccessOrderDeque<R> probation = new AccessOrderDeque<>();
+    private final AccessOrderDeque<R> protectedQueue = new AccessOrderDeque<>();
+    private final long windowMaximum;
+    private final long protectedMaximum;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+
+    MemoizedFunction(Function<? super T, ? extends R> function, Memoize.Policy policy){
+        this.function = function;
+        this.maximumSize = policy.getMaximumSize();
+        this.expireAfterWriteNanos = policy.getExpireAfterWriteNanos();
+        this.windowMaximum = Math.min(maximumSize, Math.max(1, maximumSize / 100));
+        this.protectedMaximum = (maximumSize - windowMaximum) * 4 / 5;
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    @Override
+    public R apply(T key) {
+        Object k = key == null ? NULL_KEY : key;
+        Node<R> node = data.get(k);
+        if(node != null){
+            if(!isExpired(node)){
+                hits.increment();
+                if(!readBuffer.offer(node)) drain();
+                return join(node);
+            }
+            remove(k, node);
+        }
+
+        Node<R> created = new Node<>(k);
+        while ((node = data.putIfAbsent(k, created)) != null) {
+            if(!isExpired(node)){
+                hits.increment();
+                return join(node);
+            }
+            remove(k, node);
+        }
+        return load(key, created);
+    }
+
+    private boolean isExpired(Node<R> node){
+        return expireAfterWriteNanos > 0 && node.future.isDone()
+                && System.nanoTime() - node.writeTime >= expireAfterWriteNanos;
+    }
+
+    private R load(T key, Node<R> node){
+        misses.increment();
+        long start = System.nanoTime();
+        try {
+            R value = function.apply(key);
+            node.writeTime = System.nanoTime();
+            node.future.complete(value);
+            afterWrite(() -> onAdd(node));
+            return value;
+        } catch (RuntimeException | Error e) {
+            // 실패한 결과는 저장하지 않는다. 기다리던 스레드는 같은 예외를 받는다.
+            loadFailures.increment();
+            data.remove(node.key, node);
+            node.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loadNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private R join(Node<R> node){
+        if(!node.future.isDone() && node.loader == Thread.currentThread()){
+            throw new IllegalStateException("결과를 계산하는 중에 같은 키로 다시 호출했다. key=" + node.key);
+        }
+        try {
+            return node.future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if(cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if(cause instanceof Error) throw (Error) cause;
+            throw e;
+        }
+    }
+
+    private void remove(Object key, Node<R> node){
+        if(data.remove(key, node)) afterWrite(() -> onRemove(node));
+    }
+
+    private void afterWrite(Runnable task){
+        writeBuffer.add(task);
+        if(pendingWrites.incrementAndGet() > WRITE_BUFFER_MAX){
+            evictionLock.lock();
+            try {
+                maintenance();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+        drain();
+    }
+
+    // 락을 얻은 스레드가 버퍼를 반영한다. 반영 중에 들어온 쓰기는 락을 놓은 뒤 다시 확인한다.
+    private void drain(){
+        do {
+            if(!evictionLock.tryLock()) return;
+            try {
+                maintenance();
+            } finally {
+                evictionLock.unlock();
+            }
+        } while (!writeBuffer.isEmpty());
+    }
+
+    // evictionLock 을 잡은 스레드만 호출한다.
+    private void maintenance(){
+        readBuffer.drainTo(onAccess);
+        Runnable task;
+        while ((task = writeBuffer.poll()) != null) {
+            pendingWrites.decrementAndGet();
+            task.run();
+        }
+        evict();
+    }
+
+    private void onAdd(Node<R> node){
+        // 반영하기 전에 이미 삭제된 Node
+        if(node.queue == REMOVED) return;
+        sketch.increment(node.hash);
+        node.queue = WINDOW;
+        window.linkLast(node);
+    }
+
+    private void onRemove(Node<R> node){
+        unlink(node);
+        node.queue = REMOVED;
+    }
+
+    private void onAccess(Node<R> node){
+        sketch.increment(node.hash);
+        switch (node.queue) {
+            case WINDOW:
+                window.moveToBack(node);
+                break;
+            case PROBATION:
+                probation.unlink(node);
+                node.queue = PROTECTED;
+                protectedQueue.linkLast(node);
+                // protected 가 넘치면 가장 오래된 항목을 probation 으로 내린다.
+                if(protectedQueue.size > protectedMaximum){
+                    Node<R> demoted = protectedQueue.first;
+                    protectedQueue.unlink(demoted);
+                    demoted.queue = PROBATION;
+                    probation.linkLast(demoted);
+                }
+                break;
+            case PROTECTED:
+                protectedQueue.moveToBack(node);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void unlink(Node<R> node){
+        switch (node.queue) {
+            case WINDOW: window.unlink(node); break;
+            case PROBATION: probation.unlink(node); break;
+            case PROTECTED: protectedQueue.unlink(node); break;
+            default: break;
+        }
+    }
+
+    private void evict(){
+        while (window.size > windowMaximum) {
+            Node<R> node = window.first;
+            window.unlink(node);
+            node.queue = PROBATION;
+            probation.linkLast(node);
+        }
+        while (window.size + probation.size + protectedQueue.size > maximumSize) {
+            Node<R> victim = probation.first;
+            Node<R> candidate = probation.last;
+            if(victim == null){
+                evict(protectedQueue.first != null ? protectedQueue.first : window.first);
+            } else if(victim == candidate){
+                evict(victim);
+            } else {
+                // TinyLFU 진입 판정: 후보가 더 자주 쓰였을 때만 희생자를 버린다.
+                evict(sketch.frequency(candidate.hash) > sketch.frequency(victim.hash) ? victim : candidate);
+            }
+        }
+    }
+
+    private void evict(Node<R> node){
+        unlink(node);
+        node.queue = REMOVED;
+        if(data.remove(node.key, node)) evictions.increment();
+    }
+
+    // 저장된 결과를 모두 버린다.
+    public void invalidateAll(){
+        data.forEach(this::remove);
+    }
+
+    // 계산 중인 결과를 포함한 저장된 결과 수
+    public long estimatedSize(){
+        return data.mappingCount();
+    }
+
+    public Memoize.Stats stats(){
+        return new Memoize.Stats(hits.sum(), misses.sum(), loadFailures.sum(), evictions.sum(), loadNanos.sum());
+    }
+
+    private static final class Node<R> {
+        final Object key;
+        final int hash;
+        final CompletableFuture<R> future = new CompletableFuture<>();
+        final Thread loader = Thread.currentThread();
+        volatile long writeTime;
+
+        // evictionLock 을 잡은 스레드만 접근한다.
+        int queue = NEW;
+        Node<R> prev;
+        Node<R> next;
+
+        Node(Object key){
+            this.key = key;
+            this.hash = key.hashCode();
+        }
+    }
+
+    /**
+     * Node 의 prev, next 를 그대로 사용하는 연결 리스트. 앞쪽이 오래된 항목이다.
+     */
+    private static final class AccessOrderDeque<R> {
+        Node<R> first;
+        Node<R> last;
+        long size;
+
+        void linkLast(Node<R> node){
+            node.prev = last;
+            node.next = null;
+            if(last == null) first = node;
+            else last.next = node;
+            last = node;
+            size++;
+        }
+
+        void unlink(Node<R> node){
+            Node<R> prev = node.prev, next = node.next;
+            if(prev == null) first = next;
+            else prev.next = next;
+            if(next == null) last = prev;
+            else next.prev = prev;
+            node.prev = null;
+            node.next = null;
+            size--;
+        }
+
+        void moveToBack(Node<R> node){
+            if(node == last) return;
+            unlink(node);
+            linkLast(node);
+        }
+    }
+
+    /**
+     * 접근 빈도 추정 (Count-Min Sketch, 4비트 카운터)
+     * long 하나에 카운터 16개가 들어 있다. 해시마다 4개의 행에서 카운터를 하나씩 골라 최솟값을 빈도로 사용한다.
+     * 카운터는 15 에서 멈추고, 기록 수가 표본 크기(테이블 크기 * 10)에 이르면 모두 절반으로 줄인다.
+     */
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = {
+                0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+        };
+        private static final long RESET_MASK = 0x7777777777777777L;
+
+        private final long[] table;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(long maximumSize){
+            int size = Integer.highestOneBit((int) Math.max(16, Math.min(maximumSize, 1 << 24)) - 1) << 1;
+            table = new long[size];
+            mask = size - 1;
+            sampleSize = size * 10;
+        }
+
+        int frequency(int hash){
+            int spread = spread(hash);
+            int frequency = 15;
+            for(int i=0; i<4; i++){
+                frequency = Math.min(frequency, (int) ((table[indexOf(spread, i)] >>> shiftOf(spread, i)) & 15));
+            }
+            return frequency;
+        }
+
+        void increment(int hash){
+            int spread = spread(hash);
+            boolean added = false;
+            for(int i=0; i<4; i++){
+                int index = indexOf(spread, i);
+                int shift = shiftOf(spread, i);
+                if(((table[index] >>> shift) & 15) != 15){
+                    table[index] += 1L << shift;
+                    added = true;
+                }
+            }
+            if(added && ++additions == sampleSize) reset();
+        }
+
+        private void reset(){
+            for(int i=0; i<table.length; i++){
+                table[i] = (table[i] >>> 1) & RESET_MASK;
+            }
+            additions >>>= 1;
+        }
+
+        private static int spread(int hash){
+            hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+            return (hash >>> 16) ^ hash;
+        }
+
+        private int indexOf(int spread, int row){
+            long h = (spread + SEEDS[row]) * SEEDS[row];
+            h += h >>> 32;
+            return (int) h & mask;
+        }
+
+        // 행마다 해시의 다른 4비트로 long 안의 카운터 위치를 고른다.
+        private static int shiftOf(int spread, int row){
+            return ((spread >>> (row << 3)) & 15) << 2;
+        }
+    }
+
+    /**
+     * 읽기 기록 버퍼
+     * 스레드 id 로 고른 stripe 마다 크기 16 의 링 버퍼가 있다. 쓰는 위치를 CAS 로 얻지 못하거나 버퍼가 차 있으면 기록을 버리고,
+     * 찬 경우에는 false 를 반환해 호출한 스레드가 반영을 시도하게 한다.
+     * 쓰기 카운터는 false sharing 을 피하려고 8칸(64바이트) 간격으로 둔다.
+     */
+    private static final class ReadBuffer<E> {
+        private static final int STRIPES = Math.min(64, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1);
+        private static final int SIZE = 16;
+        private static final int PADDING = 8;
+
+        private final AtomicReferenceArray<E> buffer = new AtomicReferenceArray<>(STRIPES * SIZE);
+        private final AtomicLongArray writeCounts = new AtomicLongArray(STRIPES * PADDING);
+        private final AtomicLongArray readCounts = new AtomicLongArray(STRIPES * PADDING);
+
+        boolean offer(E e){
+            int stripe = stripe();
+            int counter = stripe * PADDING;
+            long tail = writeCounts.get(counter);
+            if(tail - readCounts.get(counter) >= SIZE) return false;
+            if(writeCounts.compareAndSet(counter, tail, tail + 1)){
+                buffer.lazySet(stripe * SIZE + (int) (tail & (SIZE - 1)), e);
+            }
+            return true;
+        }
+
+        // 반영하는 스레드는 하나뿐이다. 자리는 얻었지만 아직 쓰지 않은 칸을 만나면 다음 반영으로 미룬다.
+        void drainTo(Consumer<E> consumer){
+            for(int stripe=0; stripe<STRIPES; stripe++){
+                int counter = stripe * PADDING;
+                long head = readCounts.get(counter);
+                long tail = writeCounts.get(counter);
+                for(; head<tail; head++){
+                    int index = stripe * SIZE + (int) (head & (SIZE - 1));
+                    E e = buffer.get(index);
+                    if(e == null) break;
+                    buffer.lazySet(index, null);
+                    consumer.accept(e);
+                }
+                readCounts.lazySet(counter, head);
+            }
+        }
+
+        private static int stripe(){
+            long id = Thread.currentThread().getId() * 0x9e3779b97f4a7c15L;
+            return (int) (id >>> 32) & (STRIPES - 1);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.practice.lambda.functional_interface;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 메모이제이션된 Supplier
+ * 현재 값을 AtomicReference 하나로 관리한다. 값이 없거나 만료되면 새 항목을 CAS 로 먼저 등록한 스레드만 계산하고,
+ * 나머지 스레드는 그 항목의 CompletableFuture 를 기다린다. 락을 사용하지 않는다.
+ */
+public final class MemoizedSupplier<T> implements Supplier<T> {
+
+    private final Supplier<? extends T> supplier;
+    private final long expireAfterWriteNanos;
+    private final AtomicReference<Entry<T>> current = new AtomicReference<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+
+    MemoizedSupplier(Supplier<? extends T> supplier, long expireAfterWriteNanos){
+        this.supplier = supplier;
+        this.expireAfterWriteNanos = expireAfterWriteNanos;
+    }
+
+    private static final class Entry<T> {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        final Thread loader = Thread.currentThread();
+        volatile long writeTime;
+    }
+
+    @Override
+    public T get() {
+        while (true) {
+            Entry<T> entry = current.get();
+            if(entry != null && !isExpired(entry)){
+                hits.increment();
+                return join(entry);
+            }
+            Entry<T> created = new Entry<>();
+            if(current.compareAndSet(entry, created)) return load(created);
+        }
+    }
+
+    private boolean isExpired(Entry<T> entry){
+        return expireAfterWriteNanos > 0 && entry.future.isDone()
+                && System.nanoTime() - entry.writeTime >= expireAfterWriteNanos;
+    }
+
+    private T load(Entry<T> entry){
+        misses.increment();
+        long start = System.nanoTime();
+        try {
+            T value = supplier.get();
+            entry.writeTime = System.nanoTime();
+            entry.future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            loadFailures.increment();
+            current.compareAndSet(entry, null);
+            entry.future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loadNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    private T join(Entry<T> entry){
+        if(!entry.future.isDone() && entry.loader == Thread.currentThread()){
+            throw new IllegalStateException("값을 계산하는 중에 같은 Supplier 를 다시 호출했다.");
+        }
+        try {
+            return entry.future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if(cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if(cause instanceof Error) throw (Error) cause;
+            throw e;
+        }
+    }
+
+    // 저장된 값을 버린다. 다음 get() 에서 다시 계산한다.
+    public void invalidate(){
+        current.set(null);
+    }
+
+    public Memoize.Stats stats(){
+        return new Memoize.Stats(hits.sum(), misses.sum(), loadFailures.sum(), 0, loadNanos.sum());
+    }
+}
@@ -0,0 +1,17 @@
+package com.practice.lambda.functional_interface;
+
+/**
+ * GenericFunction3<T, Double, Double> 의 double 특화 : (T, double) -> double
+ */
+@FunctionalInterface
+interface ObjDoubleGenericFunction3<T> {
+    double convert(T t, double n);
+
+    default GenericFunction3<T, Double, Double> boxed(){
+        return (t, n) -> convert(t, n);
+    }
+
+    static <T> ObjDoubleGenericFunction3<T> unboxed(GenericFunction3<T, Double, Double> function){
+        return (t, n) -> function.convert(t, n);
+    }
+}
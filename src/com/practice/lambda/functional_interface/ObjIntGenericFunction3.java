@@ -0,0 +1,17 @@
+package com.practice.lambda.functional_interface;
+
+/**
+ * GenericFunction3<T, Integer, Integer> 의 int 특화 : (T, int) -> int
+ */
+@FunctionalInterface
+interface ObjIntGenericFunction3<T> {
+    int convert(T t, int n);
+
+    default GenericFunction3<T, Integer, Integer> boxed(){
+        return (t, n) -> convert(t, n);
+    }
+
+    static <T> ObjIntGenericFunction3<T> unboxed(GenericFunction3<T, Integer, Integer> function){
+        return (t, n) -> function.convert(t, n);
+    }
+}
@@ -0,0 +1,17 @@
+package com.practice.lambda.functional_interface;
+
+/**
+ * GenericFunction3<T, Long, Long> 의 long 특화 : (T, long) -> long
+ */
+@FunctionalInterface
+interface ObjLongGenericFunction3<T> {
+    long convert(T t, long n);
+
+    default GenericFunction3<T, Long, Long> boxed(){
+        return (t, n) -> convert(t, n);
+    }
+
+    static <T> ObjLongGenericFunction3<T> unboxed(GenericFunction3<T, Long, Long> function){
+        return (t, n) -> function.convert(t, n);
+    }
+}
@@ -0,0 +1,253 @@
+package com.practice.lambda.functional_interface;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+/**
+ * 소수 판별기
+ * 에라토스테네스의 체를 한 번만 계산해서 공유하고, 필요한 범위만큼 세그먼트 단위로 늘려가는 소수 판별기.
+ *
+ * 저장 방식: 짝수는 2를 제외하면 소수가 아니므로 홀수만 저장한다. 비트 i 는 숫자 2i+1 의 합성수 여부를 나타낸다.
+ *           boolean[] 에 모든 수를 저장하는 것보다 16배 작다.
+ * 세그먼트: 비트셋은 SEGMENT_BITS 크기의 long[] 세그먼트로 나뉘며, 더 큰 수가 조회되면 필요한 세그먼트만 추가로 계산한다.
+ *           각 세그먼트는 sqrt(끝값) 이하의 기본 소수만 있으면 독립적으로 계산할 수 있으므로 넓은 범위는 병렬로 계산한다.
+ * 동시성: 계산된 세그먼트는 변경하지 않으며, 세그먼트 목록은 불변 객체(State)로 만들어 volatile 필드로 교체한다.
+ *        조회는 락 없이 현재 State 를 읽기만 하고, 범위를 늘리는 작업만 synchronized 로 직렬화한다.
+ * long 범위: 체의 최대 범위(maxSieveLimit) 이상의 수는 결정적 밀러-라빈 판정법으로 판별한다.
+ */
+public final class PrimeSieve {
+
+    private static final int SEGMENT_SHIFT = 18;
+    private static final int SEGMENT_BITS = 1 << SEGMENT_SHIFT;
+    private static final long SEGMENT_NUMBERS = 2L * SEGMENT_BITS;
+    private static final long DEFAULT_MAX_SIEVE_LIMIT = 1L << 26;
+
+    // 2^64 미만의 모든 수에 대해 결정적인 밀러-라빈 밑(base)
+    private static final long[] MILLER_RABIN_BASES = {2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37};
+
+    private static final PrimeSieve SHARED = new PrimeSieve();
+
+    private final long maxSieveLimit;
+    private volatile State state = new State(new long[0][], 0);
+
+    public PrimeSieve(){
+        this(DEFAULT_MAX_SIEVE_LIMIT);
+    }
+
+    // maxSieveLimit: 체로 계산할 최대 범위. 이 값 이상의 수는 밀러-라빈 판정법을 사용한다.
+    public PrimeSieve(long maxSieveLimit){
+        if(maxSieveLimit < SEGMENT_NUMBERS) throw new IllegalArgumentException("maxSieveLimit 은 " + SEGMENT_NUMBERS + " 이상이어야 한다.");
+        this.maxSieveLimit = roundUpToSegment(maxSieveLimit);
+    }
+
+    // 애플리케이션 전체에서 공유하는 인스턴스
+    public static PrimeSieve shared(){
+        return SHARED;
+    }
+
+    public boolean isPrime(int n){
+        return isPrime((long) n);
+    }
+
+    public boolean isPrime(long n){
+        if(n < 2) return false;
+        if((n & 1) == 0) return n == 2;
+        State current = state;
+        if(n >= current.limit){
+            if(n >= maxSieveLimit) return isPrimeMillerRabin(n);
+            current = grow(Math.max(n + 1, current.limit * 2));
+        }
+        return !current.isComposite(n);
+    }
+
+    // 지금까지 체로 계산된 범위. 이 값 미만의 수는 비트셋 조회만으로 판별된다.
+    public long sievedLimit(){
+        return state.limit;
+    }
+
+    // limit 미만의 수를 미리 계산해 둔다. 넓은 범위는 병렬 세그먼트 체로 계산한다.
+    public void ensureSieved(long limit){
+        if(limit > state.limit) grow(limit);
+    }
+
+    public Predicate<Integer> asPredicate(){
+        return num -> isPrime(num.intValue());
+    }
+
+    public IntPredicate asIntPredicate(){
+        return this::isPrime;
+    }
+
+    public LongPredicate asLongPredicate(){
+        return this::isPrime;
+    }
+
+    private synchronized State grow(long requestedLimit){
+        State current = state;
+        long target = Math.min(roundUpToSegment(requestedLimit), maxSieveLimit);
+        if(target <= current.limit) return current;
+
+        int from = current.segments.length;
+        int to = (int) (target / SEGMENT_NUMBERS);
+        int[] basePrimes = basePrimes((long) Math.sqrt((double) target) + 1);
+
+        IntStream segmentIndexes = IntStream.range(from, to);
+        if(to - from > 1) segmentIndexes = segmentIndexes.parallel();
+        long[][] added = segmentIndexes
+                .mapToObj(index -> sieveSegment(index, basePrimes))
+                .toArray(long[][]::new);
+
+        long[][] segments = Arrays.copyOf(current.segments, to);
+        System.arraycopy(added, 0, segments, from, added.length);
+        State next = new State(segments, target);
+        state = next;
+        return next;
+    }
+
+    private static long roundUpToSegment(long limit){
+        long segments = (limit + SEGMENT_NUMBERS - 1) / SEGMENT_NUMBERS;
+        return Math.max(1, segments) * SEGMENT_NUMBERS;
+    }
+
+    // limit 이하의 홀수 소수. 세그먼트 체의 기본 소수로 사용한다.
+    private static int[] basePrimes(long limit){
+        int n = (int) limit;
+        boolean[] composite = new boolean[n + 1];
+        int[] primes = new int[n / 2 + 1];
+        int count = 0;
+        for(int i=3; i<=n; i+=2){
+            if(composite[i]) continue;
+            primes[count++] = i;
+            for(long j=(long) i*i; j<=n; j+=2L*i){
+                composite[(int) j] = true;
+            }
+        }
+        return Arrays.copyOf(primes, count);
+    }
+
+    // index 번째 세그먼트 [2*index*SEGMENT_BITS, 2*(index+1)*SEGMENT_BITS) 의 홀수 합성수 비트셋
+    private static long[] sieveSegment(int index, int[] basePrimes){
+        long[] words = new long[SEGMENT_BITS >>> 6];
+        long low = index * SEGMENT_NUMBERS + 1; // 세그먼트의 첫 홀수
+        long high = low + SEGMENT_NUMBERS;
+        if(index == 0) words[0] |= 1L; // 1은 소수가 아니다.
+
+        for(int p : basePrimes){
+            long square = (long) p * p;
+            if(square >= high) break;
+            long start = (low + p - 1) / p * p;
+            if((start & 1) == 0) start += p;
+            start = Math.max(start, square);
+            for(long j=start; j<high; j+=2L*p){
+                int bit = (int) ((j - low) >>> 1);
+                words[bit >>> 6] |= 1L << bit;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * 결정적 밀러-라빈 소수 판정
+     * 2, 3, 5, ..., 37 의 12개 밑으로 검사하면 2^64 미만의 모든 수에 대해 정확한 결과를 얻는다.
+     */
+    public static boolean isPrimeMillerRabin(long n){
+        if(n < 2) return false;
+        for(long p : MILLER_RABIN_BASES){
+            if(n % p == 0) return n == p;
+        }
+        long d = n - 1;
+        int s = Long.numberOfTrailingZeros(d);
+        d >>>= s;
+
+        Montgomery mont = new Montgomery(n);
+        long one = mont.one;
+        long minusOne = n - one;
+        for(long base : MILLER_RABIN_BASES){
+            long x = mont.pow(mont.toMontgomery(base), d);
+            if(x == one || x == minusOne) continue;
+            boolean composite = true;
+            for(int r=1; r<s; r++){
+                x = mont.multiply(x, x);
+                if(x == minusOne){
+                    composite = false;
+                    break;
+                }
+            }
+            if(composite) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 몽고메리 곱셈
+     * 64비트 모듈러 곱셈 (a * b) mod n 을 128비트 나눗셈 없이 계산한다. R = 2^64, n 은 2^63 미만의 홀수.
+     */
+    private static final class Montgomery {
+        private final long n;
+        private final long negativeInverse; // -n^(-1) mod 2^64
+        private final long r2;              // R^2 mod n
+        private final long one;             // R mod n (몽고메리 형식의 1)
+
+        Montgomery(long n){
+            this.n = n;
+            long inverse = n; // 뉴턴 반복 : 매 반복마다 정확한 비트 수가 2배가 된다.
+            for(int i=0; i<5; i++){
+                inverse *= 2 - n * inverse;
+            }
+            this.negativeInverse = -inverse;
+            this.one = Long.remainderUnsigned(-n, n);
+            long r = one;
+            for(int i=0; i<64; i++){
+                r = r << 1;
+                if(Long.compareUnsigned(r, n) >= 0) r -= n;
+            }
+            this.r2 = r;
+        }
+
+        long toMontgomery(long a){
+            return multiply(a % n, r2);
+        }
+
+        long multiply(long a, long b){
+            return reduce(Math.multiplyHigh(a, b), a * b);
+        }
+
+        // (hi * 2^64 + lo) * R^(-1) mod n
+        private long reduce(long hi, long lo){
+            long q = lo * negativeInverse;
+            long t = hi + Math.multiplyHigh(q, n) + ((q >> 63) & n) + (lo != 0 ? 1 : 0);
+            return Long.compareUnsigned(t, n) >= 0 ? t - n : t;
+        }
+
+        long pow(long base, long exponent){
+            long result = one;
+            while (exponent > 0) {
+                if((exponent & 1) == 1) result = multiply(result, base);
+                base = multiply(base, base);
+                exponent >>>= 1;
+            }
+            return result;
+        }
+    }
+
+    // 한 시점의 세그먼트 목록. 생성 후 변경하지 않는다.
+    private static final class State {
+        final long[][] segments;
+        final long limit;
+
+        State(long[][] segments, long limit){
+            this.segments = segments;
+            this.limit = limit;
+        }
+
+        boolean isComposite(long oddNumber){
+            long bit = oddNumber >>> 1;
+            long[] words = segments[(int) (bit >>> SEGMENT_SHIFT)];
+            int offset = (int) (bit & (SEGMENT_BITS - 1));
+            return (words[offset >>> 6] & (1L << offset)) != 0;
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.practice.lambda.functional_interface;
+
+import com.practice.benchmark.AllocationProfiler;
+import com.practice.benchmark.BenchmarkData;
+import com.practice.benchmark.BenchmarkRunner;
+import com.practice.benchmark.BenchmarkSuite;
+
+import java.util.List;
+
+/**
+ * 기본형 특화 인터페이스 할당 벤치마크
+ * GenericFunction1/2/3 과 기본형 특화 인터페이스를 같은 입력으로 호출하고 연산 1회당 할당 바이트를 비교한다.
+ * 입력값은 Integer 캐시 범위(-128 ~ 127) 밖의 값을 사용한다.
+ * 특화 인터페이스 경로는 alloc(B/op) 가 0 이어야 한다. main 은 벤치마크 전에 verifyNoAllocation() 으로 이를 확인하고,
+ * 특화 경로를 반복 호출하는 동안 현재 스레드의 할당 바이트가 늘어나면 IllegalStateException 으로 실패한다.
+ *
+ * java -cp out com.practice.lambda.functional_interface.PrimitiveGenericFunctionBenchmark -prof gc
+ */
+public class PrimitiveGenericFunctionBenchmark extends BenchmarkSuite {
+
+    public static void main(String[] args) throws Exception {
+        verifyNoAllocation();
+        String[] withGc = new String[args.length + 2];
+        withGc[0] = "-prof";
+        withGc[1] = "gc";
+        System.arraycopy(args, 0, withGc, 2, args.length);
+        BenchmarkRunner.run(PrimitiveGenericFunctionBenchmark.class, withGc);
+    }
+
+    // 호출 지점이 여러 구현을 보도록 해서 탈출 분석(escape analysis)으로 박싱이 제거되지 않게 한다.
+    private static final List<GenericFunction1<Integer>> BOXED_1 = List.of(num -> num+1, num -> num*2, num -> num-3);
+    private static final IntGenericFunction1[] PRIMITIVE_1 = {num -> num+1, num -> num*2, num -> num-3};
+    private static final LongGenericFunction1 LONG_1 = num -> num * 31 + 7;
+    private static final DoubleGenericFunction1 DOUBLE_1 = num -> num * 0.5;
+    private static final GenericFunction2<String, Integer> BOXED_2 = String::length;
+    private static final GenericFunction2<String, Integer> BOXED_2_OTHER = str -> str.length() * 1000;
+    private static final ToIntGenericFunction2<String> TO_INT_2 = String::length;
+    private static final ToIntGenericFunction2<String> TO_INT_2_OTHER = str -> str.length() * 1000;
+    private static final GenericFunction3<String, Integer, Integer> BOXED_3 = (s, n) -> s.length() + n;
+    private static final GenericFunction3<String, Integer, Integer> BOXED_3_OTHER = (s, n) -> s.length() * n;
+    private static final ObjIntGenericFunction3<String> OBJ_INT_3 = (s, n) -> s.length() + n;
+    private static final ObjIntGenericFunction3<String> OBJ_INT_3_OTHER = (s, n) -> s.length() * n;
+
+    @Override
+    protected void register() {
+        sizes(1_000);
+        parallelisms(1);
+
+        bench("function1Boxed", params -> {
+            int[] values = inputs(params.getSize());
+            return bh -> bh.consume(function1Boxed(values));
+        });
+
+        bench("function1Int", params -> {
+            int[] values = inputs(params.getSize());
+            return bh -> bh.consume(function1Int(values));
+        });
+
+        bench("function1Long", params -> {
+            int[] values = inputs(params.getSize());
+            return bh -> bh.consume(function1Long(values));
+        });
+
+        bench("function1Double", params -> {
+            int[] values = inputs(params.getSize());
+            return bh -> bh.consume(function1Double(values));
+        });
+
+        bench("function2Boxed", params -> {
+            String[] words = words(params.getSize());
+            return bh -> bh.consume(function2Boxed(words));
+        });
+
+        bench("function2ToInt", params -> {
+            String[] words = words(params.getSize());
+            return bh -> bh.consume(function2ToInt(words));
+        });
+
+        bench("function3Boxed", params -> {
+            String[] words = words(params.getSize());
+            int[] values = inputs(params.getSize());
+            return bh -> bh.consume(function3Boxed(words, values));
+        });
+
+        bench("function3ObjInt", params -> {
+            String[] words = words(params.getSize());
+            int[] values = inputs(params.getSize());
+            return bh -> bh.consume(function3ObjInt(words, values));
+        });
+    }
+
+    /**
+     * 특화 인터페이스 경로가 할당하지 않는지 확인한다.
+     * 먼저 충분히 반복해 람다 연결과 JIT 컴파일을 끝낸 뒤, 같은 경로를 다시 반복하는 동안 현재 스레드의 할당 바이트가 늘어나면 실패한다.
+     * 할당 카운터를 지원하지 않는 JVM 에서는 확인하지 않는다.
+     */
+    static void verifyNoAllocation(){
+        if(!AllocationProfiler.isSupported()) return;
+        int[] values = inputs(1_000);
+        String[] words = words(1_000);
+        long sink = 0;
+        for(int round=0; round<20_000; round++){
+            sink += specialized(values, words);
+        }
+        long before = AllocationProfiler.currentThreadAllocatedBytes();
+        for(int round=0; round<1_000; round++){
+            sink += specialized(values, words);
+        }
+        long allocated = AllocationProfiler.currentThreadAllocatedBytes() - before;
+        if(allocated > 0){
+            throw new IllegalStateException("기본형 특화 인터페이스 경로에서 할당이 발생했다. allocated=" + allocated + "B, sink=" + sink);
+        }
+    }
+
+    private static long specialized(int[] values, String[] words){
+        return function1Int(values) + function1Long(values) + (long) function1Double(values)
+                + function2ToInt(words) + function3ObjInt(words, values);
+    }
+
+    private static int function1Boxed(int[] values){
+        int acc = 0;
+        for(int i=0; i<values.length; i++){
+            acc += BOXED_1.get(i % 3).convert(values[i]);
+        }
+        return acc;
+    }
+
+    private static int function1Int(int[] values){
+        int acc = 0;
+        for(int i=0; i<values.length; i++){
+            acc += PRIMITIVE_1[i % 3].convert(values[i]);
+        }
+        return acc;
+    }
+
+    private static long function1Long(int[] values){
+        long acc = 0;
+        for(int i=0; i<values.length; i++){
+            acc += LONG_1.convert(values[i]);
+        }
+        return acc;
+    }
+
+    private static double function1Double(int[] values){
+        double acc = 0;
+        for(int i=0; i<values.length; i++){
+            acc += DOUBLE_1.convert(values[i]);
+        }
+        return acc;
+    }
+
+    private static int function2Boxed(String[] words){
+        int acc = 0;
+        for(int i=0; i<words.length; i++){
+            acc += ((i & 1) == 0 ? BOXED_2 : BOXED_2_OTHER).convert(words[i]);
+        }
+        return acc;
+    }
+
+    private static int function2ToInt(String[] words){
+        int acc = 0;
+        for(int i=0; i<words.length; i++){
+            acc += ((i & 1) == 0 ? TO_INT_2 : TO_INT_2_OTHER).convert(words[i]);
+        }
+        return acc;
+    }
+
+    private static int function3Boxed(String[] words, int[] values){
+        int acc = 0;
+        for(int i=0; i<words.length; i++){
+            acc += ((i & 1) == 0 ? BOXED_3 : BOXED_3_OTHER).convert(words[i], values[i]);
+        }
+        return acc;
+    }
+
+    private static int function3ObjInt(String[] words, int[] values){
+        int acc = 0;
+        for(int i=0; i<words.length; i++){
+            acc += ((i & 1) == 0 ? OBJ_INT_3 : OBJ_INT_3_OTHER).convert(words[i], values[i]);
+        }
+        return acc;
+    }
+
+    // Integer 캐시 범위 밖의 값
+    private static int[] inputs(int size){
+        int[] values = BenchmarkData.ints(size, 1_000_000);
+        for(int i=0; i<values.length; i++){
+            values[i] += 1000;
+        }
+        return values;
+    }
+
+    private static String[] words(int size){
+        return BenchmarkData.words(size, 3, 10).toArray(new String[0]);
+    }
+}
@@ -0,0 +1,17 @@
+package com.practice.lambda.functional_interface;
+
+/**
+ * GenericFunction2<T, Double> 의 double 반환 특화 : T -> double
+ */
+@FunctionalInterface
+interface ToDoubleGenericFunction2<T> {
+    double convert(T t);
+
+    default GenericFunction2<T, Double> boxed(){
+        return t -> convert(t);
+    }
+
+    static <T> ToDoubleGenericFunction2<T> unboxed(GenericFunction2<T, Double> function){
+        return t -> function.convert(t);
+    }
+}
@@ -0,0 +1,17 @@
+package com.practice.lambda.functional_interface;
+
+/**
+ * GenericFunction2<T, Integer> 의 int 반환 특화 : T -> int
+ */
+@FunctionalInterface
+interface ToIntGenericFunction2<T> {
+    int convert(T t);
+
+    default GenericFunction2<T, Integer> boxed(){
+        return t -> convert(t);
+    }
+
+    static <T> ToIntGenericFunction2<T> unboxed(GenericFunction2<T, Integer> function){
+        return t -> function.convert(t);
+    }
+}
@@ -0,0 +1,17 @@
+package com.practice.lambda.functional_interface;
+
+/**
+ * GenericFunction2<T, Long> 의 long 반환 특화 : T -> long
+ */
+@FunctionalInterface
+interface ToLongGenericFunction2<T> {
+    long convert(T t);
+
+    default GenericFunction2<T, Long> boxed(){
+        return t -> convert(t);
+    }
+
+    static <T> ToLongGenericFunction2<T> unboxed(GenericFunction2<T, Long> function){
+        return t -> function.convert(t);
+    }
+}
@@ -20,6 +20,11 @@ public class StaticMethodReference {
         for (String name : names) {
             System.out.println(name);
         }
+
+        // 비교 함수 없이 글자 단위로 정렬하는 문자열 전용 정렬. 결과는 compareNames 순서와 같다.
+        String[] identifiers = {"com.practice.stream", "com.practice.lambda", "com.practice", "com.example", "com.practice.lambda.basic"};
+        StringSort.sort(identifiers);
+        System.out.println(Arrays.toString(identifiers));
     }
 
     // 정적 메서드로 비교 로직 구현
@@ -0,0 +1,200 @@
+package com.practice.lambda.method_reference;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 문자열 전용 정렬 (multikey quicksort)
+ * Arrays.sort(names, StaticMethodReference::compareNames) 는 비교할 때마다 메서드 참조를 호출하고, compareTo 는 매번 첫 글자부터 다시 비교한다.
+ * 공통 접두사가 긴 식별자(com.practice.xxx...)를 정렬하면 비교 한 번에 접두사 전체를 읽게 된다.
+ *
+ * 3-way radix quicksort (Bentley-Sedgewick)
+ * d 번째 글자를 기준으로 [작은 글자 | 같은 글자 | 큰 글자] 세 구간으로 나눈다.
+ * 작은 구간과 큰 구간은 같은 d 로, 같은 구간은 d 다음 글자부터 다시 정렬한다. 이미 같다고 확인된 앞 글자는 다시 읽지 않는다.
+ *
+ * 글자 캐시: 글자를 읽을 때마다 String -> byte[] 로 포인터를 두 번 따라가면 캐시 미스가 비교 비용보다 커진다.
+ * 그래서 d 번째부터 3글자를 long 하나(글자마다 17비트, 값은 글자 + 1, 문자열 끝은 0)에 담아 long[] 에 저장하고, 문자열과 함께 교환한다.
+ * 분할은 long[] 만 읽고, 문자열은 3글자마다 한 번씩만 읽는다. 문자열이 끝난 자리는 0 이므로 짧은 문자열이 앞에 오고, 결과는 String.compareTo 순서와 같다.
+ *
+ * 병렬 정렬: 세 구간은 서로 독립적이므로 구간이 크면 ForkJoinPool 의 작업으로 나눠 정렬한다.
+ *
+ * 깊이 제한: 피벗이 계속 한쪽으로 치우치면 재귀가 깊어지고, 공통 접두사가 긴 구간은 3글자마다 모든 문자열의 키를 다시 읽으며(병렬 정렬에서는 작업도 한 단계씩 중첩된다)
+ * 한 단계씩만 나아간다. introsort 와 같은 방식으로 분할 단계가 2 * log2(n) 을 넘는 구간은 Arrays.sort(String.compareTo) 로 정렬한다.
+ */
+public final class StringSort {
+
+    private static final int CHARS_PER_KEY = 3;
+    private static final int BITS_PER_CHAR = 17;
+    private static final long CHAR_MASK = (1L << BITS_PER_CHAR) - 1;
+    private static final int INSERTION_THRESHOLD = 16;
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    private StringSort(){
+    }
+
+    public static void sort(String[] a){
+        long[] keys = new long[a.length];
+        loadKeys(a, keys, 0, a.length, 0);
+        sort(a, keys, 0, a.length, 0, depthLimit(a.length));
+    }
+
+    public static void parallelSort(String[] a){
+        if(a.length < PARALLEL_THRESHOLD){
+            sort(a);
+            return;
+        }
+        long[] keys = new long[a.length];
+        new SortTask(a, keys, 0, a.length, 0, depthLimit(a.length), true).invoke();
+    }
+
+    private static int depthLimit(int n){
+        return 2 * (Integer.SIZE - Integer.numberOfLeadingZeros(n));
+    }
+
+    // d 번째부터 3글자를 담은 키
+    private static long keyOf(String str, int d){
+        long key = 0;
+        int length = str.length();
+        for(int i=d; i<d+CHARS_PER_KEY; i++){
+            key = (key << BITS_PER_CHAR) | (i < length ? str.charAt(i) + 1 : 0);
+        }
+        return key;
+    }
+
+    private static void loadKeys(String[] a, long[] keys, int lo, int hi, int d){
+        for(int i=lo; i<hi; i++){
+            keys[i] = keyOf(a[i], d);
+        }
+    }
+
+    // 키의 마지막 글자 자리가 비어 있으면 문자열이 이 키 안에서 끝났다.
+    private static boolean ended(long key){
+        return (key & CHAR_MASK) == 0;
+    }
+
+    // a[lo, hi) 를 정렬한다. 모든 문자열의 앞 d 글자는 같고, keys[lo, hi) 에는 d 번째부터의 키가 들어 있다.
+    // depth 는 남은 분할 단계 수다. 작은 구간, 큰 구간으로 재귀할 때와 같은 구간의 다음 글자로 넘어갈 때 하나씩 줄어든다.
+    private static void sort(String[] a, long[] keys, int lo, int hi, int d, int depth){
+        while (hi - lo > INSERTION_THRESHOLD) {
+            if(depth == 0){
+                Arrays.sort(a, lo, hi);
+                return;
+            }
+            long pivot = median(keys[lo], keys[(lo + hi) >>> 1], keys[hi - 1]);
+            int lt = lo, gt = hi - 1, i = lo;
+            while (i <= gt) {
+                long key = keys[i];
+                if(key < pivot) swap(a, keys, lt++, i++);
+                else if(key > pivot) swap(a, keys, i, gt--);
+                else i++;
+            }
+            gt++;
+            sort(a, keys, lo, lt, d, depth - 1);
+            sort(a, keys, gt, hi, d, depth - 1);
+            // 같은 구간의 문자열이 모두 끝났으면 서로 같으므로 더 정렬할 필요가 없다.
+            if(ended(pivot)) return;
+            lo = lt;
+            hi = gt;
+            d += CHARS_PER_KEY;
+            depth--;
+            loadKeys(a, keys, lo, hi, d);
+        }
+        insertionSort(a, keys, lo, hi, d);
+    }
+
+    private static long median(long x, long y, long z){
+        if(x < y){
+            if(y < z) return y;
+            return x < z ? z : x;
+        }
+        if(x < z) return x;
+        return y < z ? z : y;
+    }
+
+    private static void insertionSort(String[] a, long[] keys, int lo, int hi, int d){
+        for(int i=lo+1; i<hi; i++){
+            String value = a[i];
+            long key = keys[i];
+            int j = i - 1;
+            while (j >= lo && less(value, key, a[j], keys[j], d)) {
+                a[j + 1] = a[j];
+                keys[j + 1] = keys[j];
+                j--;
+            }
+            a[j + 1] = value;
+            keys[j + 1] = key;
+        }
+    }
+
+    // 키를 먼저 비교하고, 키가 같으면 키 다음 글자부터 비교한다.
+    private static boolean less(String x, long xKey, String y, long yKey, int d){
+        if(xKey != yKey) return xKey < yKey;
+        if(ended(xKey)) return false;
+        int n = Math.min(x.length(), y.length());
+        for(int i=d+CHARS_PER_KEY; i<n; i++){
+            char cx = x.charAt(i), cy = y.charAt(i);
+            if(cx != cy) return cx < cy;
+        }
+        return x.length() < y.length();
+    }
+
+    private static void swap(String[] a, long[] keys, int i, int j){
+        String t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+        long k = keys[i];
+        keys[i] = keys[j];
+        keys[j] = k;
+    }
+
+    private static final class SortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final String[] a;
+        private final long[] keys;
+        private final int lo;
+        private final int hi;
+        private final int d;
+        private final int depth;
+        private final boolean load; // 이 구간의 키를 새로 읽어야 하면 true
+
+        SortTask(String[] a, long[] keys, int lo, int hi, int d, int depth, boolean load){
+            this.a = a;
+            this.keys = keys;
+            this.lo = lo;
+            this.hi = hi;
+            this.d = d;
+            this.depth = depth;
+            this.load = load;
+        }
+
+        @Override
+        protected void compute() {
+            if(depth == 0){
+                Arrays.sort(a, lo, hi);
+                return;
+            }
+            if(load) loadKeys(a, keys, lo, hi, d);
+            if(hi - lo < PARALLEL_THRESHOLD){
+                sort(a, keys, lo, hi, d, depth);
+                return;
+            }
+            long pivot = median(keys[lo], keys[(lo + hi) >>> 1], keys[hi - 1]);
+            int lt = lo, gt = hi - 1, i = lo;
+            while (i <= gt) {
+                long key = keys[i];
+                if(key < pivot) swap(a, keys, lt++, i++);
+                else if(key > pivot) swap(a, keys, i, gt--);
+                else i++;
+            }
+            gt++;
+            if(ended(pivot)){
+                invokeAll(new SortTask(a, keys, lo, lt, d, depth - 1, false), new SortTask(a, keys, gt, hi, d, depth - 1, false));
+            } else {
+                invokeAll(new SortTask(a, keys, lo, lt, d, depth - 1, false),
+                        new SortTask(a, keys, lt, gt, d + CHARS_PER_KEY, depth - 1, true),
+                        new SortTask(a, keys, gt, hi, d, depth - 1, false));
+            }
+        }
+    }
+}
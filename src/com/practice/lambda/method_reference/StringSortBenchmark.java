@@ -0,0 +1,88 @@
+package com.practice.lambda.method_reference;
+
+import com.practice.benchmark.BenchmarkRunner;
+import com.practice.benchmark.BenchmarkSuite;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * StringSort 벤치마크
+ * StaticMethodReference 의 Arrays.sort(names, StaticMethodReference::compareNames) 와 StringSort 를 비교한다.
+ * 데이터는 긴 공통 접두사를 가진 식별자(패키지명 + 클래스명 + 번호)이다. 측정마다 원본 배열을 복사해서 정렬한다.
+ */
+public class StringSortBenchmark extends BenchmarkSuite {
+
+    private static final String[] PREFIXES = {
+            "com.practice.lambda.method_reference.",
+            "com.practice.lambda.functional_interface.",
+            "com.practice.stream.intermediate.",
+            "com.practice.stream.terminal.",
+    };
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner.run(StringSortBenchmark.class, args);
+    }
+
+    private static String[] identifiers(int size){
+        Random random = new Random(42);
+        String[] result = new String[size];
+        for(int i=0; i<size; i++){
+            result[i] = PREFIXES[random.nextInt(PREFIXES.length)]
+                    + "Identifier" + random.nextInt(size / 8 + 1)
+                    + "#" + random.nextInt(1000);
+        }
+        return result;
+    }
+
+    @Override
+    protected void register() {
+        sizes(10_000, 1_000_000);
+        parallelisms(1, Runtime.getRuntime().availableProcessors());
+
+        bench("arraysSortCompareNames", params -> {
+            String[] names = identifiers(params.getSize());
+            return bh -> {
+                String[] copy = names.clone();
+                Arrays.sort(copy, StaticMethodReference::compareNames);
+                bh.consume(copy);
+            };
+        });
+
+        bench("arraysSortNatural", params -> {
+            String[] names = identifiers(params.getSize());
+            return bh -> {
+                String[] copy = names.clone();
+                Arrays.sort(copy);
+                bh.consume(copy);
+            };
+        });
+
+        bench("stringSort", params -> {
+            String[] names = identifiers(params.getSize());
+            return bh -> {
+                String[] copy = names.clone();
+                StringSort.sort(copy);
+                bh.consume(copy);
+            };
+        });
+
+        bench("arraysParallelSortCompareNames", params -> {
+            String[] names = identifiers(params.getSize());
+            return bh -> {
+                String[] copy = names.clone();
+                Arrays.parallelSort(copy, StaticMethodReference::compareNames);
+                bh.consume(copy);
+            };
+        });
+
+        bench("stringParallelSort", params -> {
+            String[] names = identifiers(params.getSize());
+            return bh -> {
+                String[] copy = names.clone();
+                StringSort.parallelSort(copy);
+                bh.consume(copy);
+            };
+        });
+    }
+}
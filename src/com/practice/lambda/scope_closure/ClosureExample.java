@@ -1,5 +1,7 @@
 package com.practice.lambda.scope_closure;
 
+import com.practice.stream.IntPipeline;
+
 import java.util.Arrays;
 import java.util.List;
 import java.util.function.Supplier;
@@ -20,6 +22,11 @@ public class ClosureExample {
         return stream.map(x -> x*a+b);
     }
 
+    // 같은 계산을 박싱 없이 int[] 로 처리한다. x*a+b 는 아핀 변환이라 뒤에 오는 아핀 변환과 하나의 단계로 합쳐진다.
+    private static IntPipeline calculator(int[] values, int a){
+        return IntPipeline.of(values).affine(a, b);
+    }
+
     public static void main(String[] args) {
         int a = 10;
 
@@ -33,5 +40,11 @@ public class ClosureExample {
                 .collect(Collectors.toList());
         System.out.println(result.toString());
 
+        // 결과를 int[] 에 바로 쓰며, IntStream 으로 이어서 처리할 수도 있다.
+        int[] values = {1, 2, 3, 4, 5};
+        System.out.println(Arrays.toString(calculator(values, 2).toArray()));
+        System.out.println(Arrays.toString(calculator(values, 2).affine(3, 1).filter(x -> x % 2 == 0).toArray()));
+        System.out.println(calculator(values, 2).stream().boxed().collect(Collectors.toList()));
+
     }
 }
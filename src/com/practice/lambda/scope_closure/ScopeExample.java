@@ -1,5 +1,7 @@
 package com.practice.lambda.scope_closure;
 
+import com.practice.lambda.functional_interface.Memoize;
+
 import java.util.Arrays;
 import java.util.List;
 import java.util.function.Function;
@@ -29,6 +31,11 @@ public class ScopeExample {
         };
         System.out.println(supplier2.get());
 
+        // 캡처한 값으로 만드는 결과를 한 번만 계산하려면 Memoize.supplier 로 감싼다.
+        // 첫 get() 의 결과를 계속 반환하므로, 이후에 name 이 바뀌어도 결과는 바뀌지 않는다.
+        Supplier<String> memoizedSupplier = Memoize.supplier(supplier);
+        System.out.println(memoizedSupplier.get());
+
 
 
         // 람다에서 사용되는 외부 변수는 final 혹은 유사 final 상태여야 한다.
@@ -0,0 +1,218 @@
+package com.practice.stream;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 블로킹 함수를 위한 비동기 map
+ * parallelStream().map(fn) 에서 fn 이 디스크 조회나 RPC 처럼 기다리는 작업이면, 공용 ForkJoinPool 의 작업 스레드(코어 수 - 1 개)가
+ * 모두 기다리느라 멈추고, 같은 풀을 쓰는 다른 병렬 스트림까지 느려진다. 기다리는 시간은 CPU 를 쓰지 않으므로 스레드가 훨씬 많아야 한다.
+ *
+ * mapAsync(stream, fn, maxConcurrency) 는 요소마다 fn 을 가상 스레드에서 실행하고, 동시에 실행 중인 작업을 Semaphore 로 maxConcurrency 개까지로 제한한다.
+ * 원본 스트림은 호출한 스레드가 필요한 만큼만 당겨 오므로, 원본이 크거나 무한해도 메모리에 쌓이는 요소는 maxConcurrency 개 정도이다.
+ * ordered: 결과를 원본 순서대로 내보낸다. 앞 요소가 늦게 끝나면 뒤 요소의 결과는 기다린다.
+ * unordered: 먼저 끝난 결과부터 내보낸다. 느린 요소 하나가 다른 결과를 막지 않는다.
+ *
+ * 가상 스레드(Executors.newVirtualThreadPerTaskExecutor, Java 21)를 쓸 수 없는 JVM 에서는 데몬 스레드를 필요한 만큼 만드는 스레드 풀을 대신 사용한다.
+ * 어느 쪽이든 공용 ForkJoinPool 은 사용하지 않는다.
+ *
+ * fn 에서 예외가 발생하면 실행 중인 나머지 작업을 취소하고, 그 결과를 꺼내는 시점에 같은 예외를 던진다.
+ * findFirst, anyMatch, limit 같은 단락 연산은 필요한 결과만 꺼내고 멈추므로, 이미 시작한 작업(최대 maxConcurrency 개)이 남는다.
+ * 스트림을 close() 하면(try-with-resources) 남은 작업을 인터럽트로 취소하고 원본 스트림도 닫는다.
+ *
+ * try (Stream<String> users = AsyncStreams.mapAsync(ids.stream(), repository::find, 64)) {
+ *     users.filter(...).findFirst();
+ * }
+ */
+public final class AsyncStreams {
+
+    private static final ExecutorService EXECUTOR = newExecutor();
+
+    private AsyncStreams(){
+    }
+
+    private static ExecutorService newExecutor(){
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            AtomicInteger id = new AtomicInteger();
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "map-async-" + id.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    // 가상 스레드를 사용하는지 여부
+    public static boolean usesVirtualThreads(){
+        return !(EXECUTOR instanceof ThreadPoolExecutor);
+    }
+
+    // 결과를 원본 순서대로 내보낸다.
+    public static <T, R> Stream<R> mapAsync(Stream<T> source, Function<? super T, ? extends R> mapper, int maxConcurrency){
+        return mapAsync(source, mapper, maxConcurrency, true);
+    }
+
+    // 먼저 끝난 결과부터 내보낸다.
+    public static <T, R> Stream<R> mapAsyncUnordered(Stream<T> source, Function<? super T, ? extends R> mapper, int maxConcurrency){
+        return mapAsync(source, mapper, maxConcurrency, false);
+    }
+
+    private static <T, R> Stream<R> mapAsync(Stream<T> source, Function<? super T, ? extends R> mapper, int maxConcurrency, boolean ordered){
+        Objects.requireNonNull(mapper, "mapper");
+        if(maxConcurrency < 1) throw new IllegalArgumentException("maxConcurrency 는 1 이상이어야 한다. maxConcurrency=" + maxConcurrency);
+        AsyncSpliterator<T, R> spliterator = new AsyncSpliterator<>(source.spliterator(), mapper, maxConcurrency, ordered);
+        return StreamSupport.stream(spliterator, false)
+                .onClose(spliterator::cancel)
+                .onClose(source::close);
+    }
+
+    /**
+     * 원본에서 요소를 당겨 와 작업을 시작하고, 끝난 결과를 내보내는 spliterator.
+     * 호출한 스레드 하나만 사용하므로 나누지 않는다(trySplit 은 null). 동시성은 작업 스레드에서 얻는다.
+     */
+    private static final class AsyncSpliterator<T, R> implements Spliterator<R> {
+        private final Spliterator<T> source;
+        private final Function<? super T, ? extends R> mapper;
+        private final int maxConcurrency;
+        private final boolean ordered;
+        private final Semaphore permits;
+        private final ArrayDeque<Future<R>> window = new ArrayDeque<>(); // ordered: 시작한 순서대로의 작업
+        private final ExecutorCompletionService<R> completion;         // unordered: 끝난 순서대로의 작업
+        private final Set<Future<R>> running = new HashSet<>();         // unordered: 결과를 꺼내지 않은 작업
+        private boolean exhausted;
+        private volatile boolean cancelled;
+
+        AsyncSpliterator(Spliterator<T> source, Function<? super T, ? extends R> mapper, int maxConcurrency, boolean ordered){
+            this.source = source;
+            this.mapper = mapper;
+            this.maxConcurrency = maxConcurrency;
+            this.ordered = ordered;
+            this.permits = new Semaphore(maxConcurrency);
+            this.completion = ordered ? null : new ExecutorCompletionService<>(EXECUTOR);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super R> action) {
+            if(cancelled) return false;
+            Future<R> next = ordered ? nextOrdered() : nextUnordered();
+            if(next == null) return false;
+            action.accept(resultOf(next));
+            return true;
+        }
+
+        private Future<R> nextOrdered(){
+            // 꺼내지 않은 결과도 maxConcurrency 개까지만 쌓는다.
+            while (!exhausted && window.size() < maxConcurrency && acquire()) {
+                if(!source.tryAdvance(element -> window.add(EXECUTOR.submit(() -> apply(element))))){
+                    exhausted = true;
+                    permits.release();
+                }
+            }
+            return window.poll();
+        }
+
+        private Future<R> nextUnordered(){
+            // 허가를 얻을 수 있는 만큼 시작한다. 하나도 실행 중이 아니면 허가를 기다린다.
+            while (!exhausted && (running.isEmpty() ? acquire() : permits.tryAcquire())) {
+                if(!source.tryAdvance(element -> running.add(completion.submit(() -> apply(element))))){
+                    exhausted = true;
+                    permits.release();
+                }
+            }
+            if(running.isEmpty()) return null;
+            try {
+                Future<R> done = completion.take();
+                running.remove(done);
+                return done;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+                throw new CancellationException("결과를 기다리는 중에 인터럽트되었다.");
+            }
+        }
+
+        // 작업 스레드에서 실행한다. 허가는 결과를 꺼낼 때가 아니라 작업이 끝날 때 돌려준다.
+        private R apply(T element){
+            try {
+                return mapper.apply(element);
+            } finally {
+                permits.release();
+            }
+        }
+
+        private boolean acquire(){
+            try {
+                permits.acquire();
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+                throw new CancellationException("작업을 시작하는 중에 인터럽트되었다.");
+            }
+        }
+
+        private R resultOf(Future<R> future){
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+                throw new CancellationException("결과를 기다리는 중에 인터럽트되었다.");
+            } catch (ExecutionException e) {
+                cancel();
+                Throwable cause = e.getCause();
+                if(cause instanceof RuntimeException) throw (RuntimeException) cause;
+                if(cause instanceof Error) throw (Error) cause;
+                throw new CompletionException(cause);
+            }
+        }
+
+        // 실행 중인 작업을 인터럽트하고 더 이상 요소를 내보내지 않는다.
+        void cancel(){
+            cancelled = true;
+            exhausted = true;
+            for(Future<R> future : window){
+                future.cancel(true);
+            }
+            for(Future<R> future : running){
+                future.cancel(true);
+            }
+            window.clear();
+            running.clear();
+        }
+
+        @Override
+        public Spliterator<R> trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return source.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return ordered ? source.characteristics() & Spliterator.ORDERED : 0;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.practice.stream;
+
+import com.practice.benchmark.BenchmarkData;
+import com.practice.benchmark.BenchmarkRunner;
+import com.practice.benchmark.BenchmarkSuite;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * AsyncStreams 벤치마크
+ * 요소마다 1ms 를 기다리는 함수(디스크 조회, RPC 대신 Thread.sleep)를 map 하고 결과를 합한다.
+ * parallelStream 은 공용 ForkJoinPool 의 작업 스레드와 호출한 스레드만 사용하므로 코어 수만큼만 동시에 기다린다.
+ * mapAsync 는 maxConcurrency 개까지 동시에 기다린다.
+ */
+public class AsyncStreamsBenchmark extends BenchmarkSuite {
+
+    private static final Function<Integer, Integer> BLOCKING_LOOKUP = n -> {
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return n * 2;
+    };
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner.run(AsyncStreamsBenchmark.class, args);
+    }
+
+    @Override
+    protected void register() {
+        sizes(200);
+
+        bench("sequential", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), 1000);
+            return bh -> bh.consume(numbers.stream().map(BLOCKING_LOOKUP).mapToInt(Integer::intValue).sum());
+        });
+
+        bench("parallelStream", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), 1000);
+            return bh -> bh.consume(numbers.parallelStream().map(BLOCKING_LOOKUP).mapToInt(Integer::intValue).sum());
+        });
+
+        bench("mapAsync16", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), 1000);
+            return bh -> bh.consume(AsyncStreams.mapAsync(numbers.stream(), BLOCKING_LOOKUP, 16).mapToInt(Integer::intValue).sum());
+        });
+
+        bench("mapAsync64", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), 1000);
+            return bh -> bh.consume(AsyncStreams.mapAsync(numbers.stream(), BLOCKING_LOOKUP, 64).mapToInt(Integer::intValue).sum());
+        });
+
+        bench("mapAsyncUnordered64", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), 1000);
+            return bh -> bh.consume(AsyncStreams.mapAsyncUnordered(numbers.stream(), BLOCKING_LOOKUP, 64).mapToInt(Integer::intValue).sum());
+        });
+    }
+}
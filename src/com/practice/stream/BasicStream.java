@@ -58,5 +58,18 @@ public class BasicStream {
         Stream<Integer> InfiniteStream = Stream.iterate(0, n -> n+2);
         Stream<Double> randomStream = Stream.generate(Math::random);
 
+        // i 번째 요소를 바로 계산할 수 있어 병렬 스트림에서 균등하게 나뉘는 무한 스트림
+        long evenSum = SplittableStreams.arithmetic(0, 2)
+                .parallel()
+                .limit(1_000_000)
+                .sum();
+        double randomAverage = SplittableStreams.randomDoubles(42)
+                .parallel()
+                .limit(1_000_000)
+                .average()
+                .orElse(0);
+        System.out.println(evenSum + " " + randomAverage);
+        System.out.println(Arrays.toString(SplittableStreams.geometric(1, 3).limit(10).toArray()));
+
     }
 }
@@ -0,0 +1,357 @@
+package com.practice.stream;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * 채널 출력 싱크
+ * forEach(System.out::println) 은 요소마다 PrintStream 의 락을 잡고, 문자열을 만들어 인코딩하고, 줄바꿈마다 flush 한다.
+ * collect(joining(", ")) 후 출력하면 전체 결과를 담은 String 을 먼저 만든다.
+ *
+ * ChannelSink 는 요소를 바로 direct ByteBuffer 에 인코딩하고, 버퍼가 찼을 때만 채널(FileChannel, 표준 출력)에 한 번에 쓴다.
+ * int, long 은 문자열을 만들지 않고 숫자를 직접 바이트로 쓰며, 문자열은 String 의 글자를 UTF-8 로 직접 인코딩한다.
+ *
+ * 기본 싱크(stdout(), open, of)는 스레드마다 자신의 버퍼를 가지므로 병렬 스트림의 forEach 에서도 요소마다 락을 잡지 않는다.
+ * 버퍼를 채널에 쓸 때만 락을 잡고, 버퍼에는 완전한 요소만 들어 있으므로 요소가 다른 스레드의 출력과 섞이지 않는다.
+ * 대신 출력 순서는 요소가 들어온 순서가 아니라 버퍼를 비운 순서가 된다. 병렬 스트림의 forEachOrdered 도 요소를 여러 작업 스레드에서 넘겨주므로
+ * 기본 싱크로는 만남 순서가 지켜지지 않는다.
+ * 순서 보존 싱크(stdoutOrdered, ofOrdered)는 모든 스레드가 하나의 버퍼에 락을 잡고 쓰므로, forEachOrdered 와 함께 쓰면 병렬 스트림에서도 만남 순서대로 출력된다.
+ *
+ * 버퍼에 남은 내용은 flush() 를 호출해야 출력된다. flush() 와 close() 는 요소를 쓰는 스레드가 모두 끝난 뒤에 호출해야 한다.
+ * 표준 출력 싱크는 System.out 을 먼저 flush 한 뒤 쓰므로, System.out 과 섞어 쓸 때는 System.out 을 쓰기 전에 flush() 를 호출한다.
+ * 공용 표준 출력 싱크(stdout())는 JVM 이 종료될 때 남은 내용을 출력한다.
+ */
+public final class ChannelSink implements Consumer<Object>, IntConsumer, LongConsumer, Flushable, AutoCloseable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final byte[] LONG_MIN_VALUE = "-9223372036854775808".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NEW_LINE = {'\n'};
+    private static final ChannelSink STDOUT = newStdout(null);
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(STDOUT::flush));
+    }
+
+    private final WritableByteChannel channel;
+    private final boolean ownsChannel;
+    private final boolean stdout;
+    private final byte[] delimiter; // null 이면 요소마다 뒤에 줄바꿈
+    private boolean lineStarted; // 구분자 싱크에서 현재 줄에 요소를 출력했는지. writeLock 을 잡고 접근한다.
+    private volatile boolean error;
+    private final Object writeLock = new Object();
+    private final List<Buffer> buffers = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<Buffer> localBuffer = ThreadLocal.withInitial(this::register);
+    private final Buffer shared; // 순서 보존 싱크의 공용 버퍼. writeLock 을 잡고 쓴다. 기본 싱크는 null
+
+    private ChannelSink(WritableByteChannel channel, boolean ownsChannel, boolean stdout, String delimiter, boolean ordered){
+        this.channel = channel;
+        this.ownsChannel = ownsChannel;
+        this.stdout = stdout;
+        this.delimiter = delimiter == null ? null : delimiter.getBytes(StandardCharsets.UTF_8);
+        this.shared = ordered ? register() : null;
+    }
+
+    // println 처럼 요소마다 줄을 바꾸는 공용 표준 출력 싱크
+    public static ChannelSink stdout(){
+        return STDOUT;
+    }
+
+    // 요소 사이에 delimiter 를 넣는 표준 출력 싱크. 한 줄을 다 쓰면 newLine() 을 호출한다.
+    public static ChannelSink stdout(String delimiter){
+        return newStdout(delimiter);
+    }
+
+    // 만남 순서를 지키는 구분자 표준 출력 싱크. 병렬 스트림은 forEachOrdered 와 함께 사용한다.
+    public static ChannelSink stdoutOrdered(String delimiter){
+        return new ChannelSink(new FileOutputStream(FileDescriptor.out).getChannel(), false, true, delimiter, true);
+    }
+
+    private static ChannelSink newStdout(String delimiter){
+        return new ChannelSink(new FileOutputStream(FileDescriptor.out).getChannel(), false, true, delimiter, false);
+    }
+
+    // 파일을 새로 만들어(있으면 내용을 지우고) 요소마다 줄을 바꿔 쓴다.
+    public static ChannelSink open(Path path) throws IOException {
+        return new ChannelSink(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING), true, false, null, false);
+    }
+
+    // 채널은 close() 할 때 닫지 않는다.
+    public static ChannelSink of(WritableByteChannel channel){
+        return new ChannelSink(channel, false, false, null, false);
+    }
+
+    public static ChannelSink of(WritableByteChannel channel, String delimiter){
+        return new ChannelSink(channel, false, false, delimiter, false);
+    }
+
+    // 만남 순서를 지키는 싱크. 채널은 close() 할 때 닫지 않는다.
+    public static ChannelSink ofOrdered(WritableByteChannel channel){
+        return new ChannelSink(channel, false, false, null, true);
+    }
+
+    public static ChannelSink ofOrdered(WritableByteChannel channel, String delimiter){
+        return new ChannelSink(channel, false, false, delimiter, true);
+    }
+
+    private Buffer register(){
+        Buffer buffer = new Buffer();
+        buffers.add(buffer);
+        return buffer;
+    }
+
+    @Override
+    public void accept(int value) {
+        if(shared != null){
+            synchronized (writeLock) {
+                writeInt(shared, value);
+            }
+        } else {
+            writeInt(localBuffer.get(), value);
+        }
+    }
+
+    @Override
+    public void accept(long value) {
+        if(shared != null){
+            synchronized (writeLock) {
+                writeLong(shared, value);
+            }
+        } else {
+            writeLong(localBuffer.get(), value);
+        }
+    }
+
+    private static void writeInt(Buffer buffer, int value){
+        buffer.begin(11);
+        buffer.putInt(value);
+        buffer.end();
+    }
+
+    private static void writeLong(Buffer buffer, long value){
+        buffer.begin(20);
+        buffer.putLong(value);
+        buffer.end();
+    }
+
+    // Integer, Long 은 숫자로, 나머지는 String.valueOf 로 쓴다.
+    @Override
+    public void accept(Object value) {
+        if(value instanceof Integer){
+            accept(((Integer) value).intValue());
+        } else if(value instanceof Long){
+            accept(((Long) value).longValue());
+        } else {
+            write(value instanceof CharSequence ? (CharSequence) value : String.valueOf(value));
+        }
+    }
+
+    private void write(CharSequence text){
+        if(shared != null){
+            synchronized (writeLock) {
+                write(shared, text);
+            }
+        } else {
+            write(localBuffer.get(), text);
+        }
+    }
+
+    private void write(Buffer buffer, CharSequence text){
+        // UTF-8 은 char 하나에 최대 3바이트
+        long maxBytes = 3L * text.length();
+        if(maxBytes + 16 + (delimiter == null ? 0 : delimiter.length) <= BUFFER_SIZE){
+            buffer.begin((int) maxBytes);
+            buffer.putChars(text);
+            buffer.end();
+            return;
+        }
+        // 버퍼보다 큰 요소는 락을 잡은 채로 나눠 써서 다른 스레드의 출력과 섞이지 않게 한다.
+        synchronized (writeLock) {
+            buffer.begin(0);
+            buffer.putChars(text);
+            buffer.end();
+            buffer.drain();
+        }
+    }
+
+    // 지금까지 쓴 내용을 모두 출력하고 줄을 바꾼다. 구분자 싱크에서는 다음 요소부터 새 줄이 된다.
+    public void newLine(){
+        synchronized (writeLock) {
+            flush();
+            writeFully(ByteBuffer.wrap(NEW_LINE));
+            lineStarted = false;
+        }
+    }
+
+    // 모든 스레드의 버퍼를 채널에 쓴다.
+    @Override
+    public void flush() {
+        synchronized (writeLock) {
+            for(Buffer buffer : buffers){
+                buffer.drain();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+        if(ownsChannel){
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    // 표준 출력에 쓰다가 실패하면(파이프가 닫히는 등) PrintStream 처럼 예외 대신 오류 표시만 남기고 버린다.
+    private void writeFully(ByteBuffer bytes){
+        if(stdout) System.out.flush();
+        try {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        } catch (IOException e) {
+            if(!stdout) throw new UncheckedIOException(e);
+            error = true;
+        }
+    }
+
+    // 표준 출력 싱크에서 쓰기에 실패한 적이 있으면 true (PrintStream.checkError 와 같다)
+    public boolean checkError(){
+        return error;
+    }
+
+    /**
+     * 스레드별 버퍼. 주인 스레드만 요소를 쓴다. 순서 보존 싱크의 공용 버퍼는 writeLock 을 잡은 스레드만 쓴다.
+     */
+    private final class Buffer {
+        final ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        final byte[] digits = new byte[20];
+        final byte[] scratch = new byte[4096];
+
+        // 요소 하나(최대 size 바이트)와 구분자가 들어갈 자리를 확보한다.
+        // 구분자 싱크는 모든 요소 앞에 구분자를 쓰고, 줄의 첫 버퍼를 출력할 때 맨 앞의 구분자 하나를 건너뛴다.
+        // 버퍼가 어떤 순서로 출력되어도 구분자는 요소 사이에만 남는다.
+        void begin(int size){
+            ensure(size + (delimiter == null ? 1 : delimiter.length));
+            if(delimiter != null) bytes.put(delimiter);
+        }
+
+        void end(){
+            if(delimiter == null){
+                ensure(1);
+                bytes.put((byte) '\n');
+            }
+        }
+
+        void ensure(int size){
+            if(bytes.remaining() < size) drain();
+        }
+
+        void drain(){
+            synchronized (writeLock) {
+                bytes.flip();
+                if(delimiter != null && !lineStarted && bytes.hasRemaining()){
+                    bytes.position(delimiter.length);
+                    lineStarted = true;
+                }
+                writeFully(bytes);
+                bytes.clear();
+            }
+        }
+
+        void putInt(int value){
+            if(value == Integer.MIN_VALUE){
+                putLong(value);
+                return;
+            }
+            if(value < 0){
+                bytes.put((byte) '-');
+                value = -value;
+            }
+            int n = 0;
+            do {
+                digits[n++] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value != 0);
+            while (n > 0) {
+                bytes.put(digits[--n]);
+            }
+        }
+
+        void putLong(long value){
+            if(value == Long.MIN_VALUE){
+                bytes.put(LONG_MIN_VALUE);
+                return;
+            }
+            if(value < 0){
+                bytes.put((byte) '-');
+                value = -value;
+            }
+            int n = 0;
+            do {
+                digits[n++] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value != 0);
+            while (n > 0) {
+                bytes.put(digits[--n]);
+            }
+        }
+
+        // UTF-8 인코딩. 짝이 없는 서로게이트는 '?' 로 쓴다.
+        // ByteBuffer.put 을 바이트마다 호출하지 않도록 scratch 배열에 인코딩한 뒤 한 번에 옮긴다.
+        void putChars(CharSequence text){
+            byte[] out = scratch;
+            int n = 0;
+            int length = text.length();
+            for(int i=0; i<length; i++){
+                if(n > out.length - 4){
+                    putScratch(n);
+                    n = 0;
+                }
+                char c = text.charAt(i);
+                if(c < 0x80){
+                    out[n++] = (byte) c;
+                } else if(c < 0x800){
+                    out[n++] = (byte) (0xc0 | (c >> 6));
+                    out[n++] = (byte) (0x80 | (c & 0x3f));
+                } else if(Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))){
+                    int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                    out[n++] = (byte) (0xf0 | (codePoint >> 18));
+                    out[n++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                    out[n++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                    out[n++] = (byte) (0x80 | (codePoint & 0x3f));
+                } else if(Character.isSurrogate(c)){
+                    out[n++] = '?';
+                } else {
+                    out[n++] = (byte) (0xe0 | (c >> 12));
+                    out[n++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                    out[n++] = (byte) (0x80 | (c & 0x3f));
+                }
+            }
+            putScratch(n);
+        }
+
+        // 요소 전체의 자리는 begin 에서 확보했다. 버퍼보다 큰 요소만 중간에 버퍼를 비운다.
+        private void putScratch(int n){
+            if(bytes.remaining() < n) drain();
+            bytes.put(scratch, 0, n);
+        }
+    }
+}
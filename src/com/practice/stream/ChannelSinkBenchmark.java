@@ -0,0 +1,112 @@
+package com.practice.stream;
+
+import com.practice.benchmark.BenchmarkData;
+import com.practice.benchmark.BenchmarkRunner;
+import com.practice.benchmark.BenchmarkSuite;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * ChannelSink 벤치마크
+ * 출력 대상은 /dev/null 이다. PrintStream 은 System.out 과 같은 설정(128 바이트 버퍼, 자동 flush)으로 만든다.
+ * println: forEach(out::println), joining: collect(joining(", ")) 후 한 번 출력, sink: ChannelSink
+ * ordered: 병렬 스트림의 forEachOrdered 에 만남 순서를 지키는 싱크(ofOrdered)를 사용한다.
+ */
+public class ChannelSinkBenchmark extends BenchmarkSuite {
+
+    private static final String NULL_DEVICE = "/dev/null";
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner.run(ChannelSinkBenchmark.class, args);
+    }
+
+    private static PrintStream printStream(){
+        try {
+            return new PrintStream(new BufferedOutputStream(new FileOutputStream(NULL_DEVICE), 128), true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static FileChannel channel(){
+        try {
+            return FileChannel.open(Paths.get(NULL_DEVICE), StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    protected void register() {
+        sizes(100_000);
+
+        bench("println", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), Integer.MAX_VALUE);
+            PrintStream out = printStream();
+            return bh -> numbers.forEach(out::println);
+        });
+
+        bench("sink", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), Integer.MAX_VALUE);
+            ChannelSink sink = ChannelSink.of(channel());
+            return bh -> {
+                numbers.forEach(sink);
+                sink.flush();
+            };
+        });
+
+        bench("printlnParallel", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), Integer.MAX_VALUE);
+            PrintStream out = printStream();
+            return bh -> numbers.parallelStream().forEach(out::println);
+        });
+
+        bench("sinkParallel", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), Integer.MAX_VALUE);
+            ChannelSink sink = ChannelSink.of(channel());
+            return bh -> {
+                numbers.parallelStream().forEach(sink);
+                sink.flush();
+            };
+        });
+
+        bench("joiningParallel", params -> {
+            List<String> words = BenchmarkData.words(params.getSize(), 3, 10);
+            PrintStream out = printStream();
+            return bh -> out.println(words.parallelStream().collect(Collectors.joining(", ")));
+        });
+
+        bench("sinkOrderedParallel", params -> {
+            List<String> words = BenchmarkData.words(params.getSize(), 3, 10);
+            ChannelSink sink = ChannelSink.ofOrdered(channel(), ", ");
+            return bh -> {
+                words.parallelStream().forEachOrdered(sink);
+                sink.newLine();
+            };
+        });
+
+        bench("joining", params -> {
+            List<String> words = BenchmarkData.words(params.getSize(), 3, 10);
+            PrintStream out = printStream();
+            return bh -> out.println(words.stream().collect(Collectors.joining(", ")));
+        });
+
+        bench("sinkDelimited", params -> {
+            List<String> words = BenchmarkData.words(params.getSize(), 3, 10);
+            ChannelSink sink = ChannelSink.of(channel(), ", ");
+            return bh -> {
+                words.forEach(sink);
+                sink.newLine();
+            };
+        });
+    }
+}
@@ -0,0 +1,37 @@
+package com.practice.stream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collector;
+
+class CustomCollector<T> {
+
+    private final List<T> evenList;
+    private final List<T> oddList;
+
+    public CustomCollector(List<T> evenList, List<T> oddList){
+        this.evenList = evenList;
+        this.oddList = oddList;
+    }
+
+    public static <T> Collector<T, ?, CustomCollector<T>> partitioningBy(Predicate<? super T> predicate) {
+        return Collector.of(
+            () -> new CustomCollector<>(new ArrayList<>(), new ArrayList<>()), // CustomCollector 생성
+            (customCollector, num) -> {
+                if(predicate.test(num)) customCollector.evenList.add(num); // 짝수 여부 판별 후 각 리스트에 add
+                else customCollector.oddList.add(num);
+            },
+            (left, right) -> {
+                left.evenList.addAll(right.evenList); // 짝수 홀수 별 리스트 취합
+                left.oddList.addAll(right.oddList);
+                return left;
+            }
+        );
+    }
+
+    public List<T> get(boolean partition){
+        return partition ? evenList : oddList;
+    }
+
+}
@@ -3,9 +3,9 @@ package com.practice.stream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.function.Predicate;
 import java.util.stream.Collector;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * 커스텀 컬렉터
@@ -59,36 +59,11 @@ public class CustomCollectors {
 
         System.out.println(even);
         System.out.println(odd);
-    }
-}
-
-class CustomCollector<T> {
-
-    private final List<T> evenList;
-    private final List<T> oddList;
-
-    public CustomCollector(List<T> evenList, List<T> oddList){
-        this.evenList = evenList;
-        this.oddList = oddList;
-    }
-
-    public static <T> Collector<T, ?, CustomCollector<T>> partitioningBy(Predicate<? super T> predicate) {
-        return Collector.of(
-            () -> new CustomCollector<>(new ArrayList<>(), new ArrayList<>()), // CustomCollector 생성
-            (customCollector, num) -> {
-                if(predicate.test(num)) customCollector.evenList.add(num); // 짝수 여부 판별 후 각 리스트에 add
-                else customCollector.oddList.add(num);
-            },
-            (left, right) -> {
-                left.evenList.addAll(right.evenList); // 짝수 홀수 별 리스트 취합
-                left.oddList.addAll(right.oddList);
-                return left;
-            }
-        );
-    }
 
-    public List<T> get(boolean partition){
-        return partition ? evenList : oddList;
+        // 박싱 없이 int 로 분리하는 IntPartition
+        // 각 파티션은 int[] 청크에 저장되며, 병렬 처리 시 부분 결과를 복사 없이 연결해서 합친다.
+        IntPartition intPartition = IntPartition.partition(IntStream.rangeClosed(20, 40).parallel(), num -> num % 2 == 0);
+        System.out.println(intPartition.get(true));
+        System.out.println(intPartition.stream(false).sum());
     }
-
-}
\ No newline at end of file
+}
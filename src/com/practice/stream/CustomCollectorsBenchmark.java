@@ -0,0 +1,74 @@
+package com.practice.stream;
+
+import com.practice.benchmark.BenchmarkData;
+import com.practice.benchmark.BenchmarkRunner;
+import com.practice.benchmark.BenchmarkSuite;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * CustomCollectors 벤치마크
+ * CustomCollectors.main 의 커스텀 컬렉터와 기본 제공 Collectors.partitioningBy 를 순차/병렬로 비교한다.
+ */
+public class CustomCollectorsBenchmark extends BenchmarkSuite {
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner.run(CustomCollectorsBenchmark.class, args);
+    }
+
+    @Override
+    protected void register() {
+        sizes(100_000, 1_000_000);
+        parallelisms(1, Runtime.getRuntime().availableProcessors());
+
+        // Collector.of 로 만든 길이 4 이하 문자열 수집 컬렉터
+        bench("collectorOfShortWords", params -> {
+            List<String> words = BenchmarkData.words(params.getSize(), 3, 8);
+            return bh -> bh.consume(words.stream()
+                    .collect(Collector.of(
+                            ArrayList::new,
+                            (List<String> list, String str) -> {
+                                if(str.length() <= 4) list.add(str);
+                            },
+                            (list1, list2) -> {
+                                list1.addAll(list2);
+                                return list1;
+                            },
+                            Collector.Characteristics.IDENTITY_FINISH
+                    )));
+        });
+
+        bench("customPartitioningBy", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), Integer.MAX_VALUE);
+            return bh -> bh.consume(numbers.stream()
+                    .collect(CustomCollector.partitioningBy(num -> num % 2 == 0)));
+        });
+
+        bench("customPartitioningByParallel", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), Integer.MAX_VALUE);
+            return bh -> bh.consume(numbers.parallelStream()
+                    .collect(CustomCollector.partitioningBy(num -> num % 2 == 0)));
+        });
+
+        bench("intPartitionParallel", params -> {
+            int[] numbers = BenchmarkData.ints(params.getSize(), Integer.MAX_VALUE);
+            return bh -> bh.consume(IntPartition.partition(Arrays.stream(numbers).parallel(), num -> num % 2 == 0));
+        });
+
+        bench("intPartitioningByBoxedParallel", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), Integer.MAX_VALUE);
+            return bh -> bh.consume(numbers.parallelStream()
+                    .collect(IntPartition.partitioningBy(num -> num % 2 == 0)));
+        });
+
+        bench("collectorsPartitioningByParallel", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), Integer.MAX_VALUE);
+            return bh -> bh.consume(numbers.parallelStream()
+                    .collect(Collectors.partitioningBy(num -> num % 2 == 0)));
+        });
+    }
+}
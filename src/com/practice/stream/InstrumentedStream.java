@@ -0,0 +1,134 @@
+package com.practice.stream;
+
+import java.util.Comparator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * 측정 단계가 끼워진 스트림
+ * PipelineMetrics.source(stream) 으로 만든다. 중간 연산마다 단계를 하나 등록하고, 원래 연산을 측정 코드로 감싼다.
+ * filter, map 은 함수를 감싼 곳에서 요소 수도 함께 세고, 나머지 단계는 뒤에 붙인 peek 으로 센다.
+ * 최종 연산은 stream() 으로 꺼낸 Stream 에서 호출한다.
+ * 측정이 꺼져 있으면 원래 연산을 그대로 호출한다.
+ */
+public final class InstrumentedStream<T> {
+
+    private final PipelineMetrics metrics;
+    private final Stream<T> stream;
+    private final int stage; // 마지막 단계. 측정이 꺼져 있으면 -1
+
+    InstrumentedStream(PipelineMetrics metrics, Stream<T> stream, int stage){
+        this.metrics = metrics;
+        this.stream = stream;
+        this.stage = stage;
+    }
+
+    // 마지막 단계의 이름을 바꾼다.
+    public InstrumentedStream<T> as(String name){
+        if(stage >= 0) metrics.rename(stage, name);
+        return this;
+    }
+
+    public InstrumentedStream<T> filter(Predicate<? super T> predicate){
+        if(!metrics.isEnabled()) return new InstrumentedStream<>(metrics, stream.filter(predicate), -1);
+        int next = metrics.addStage("filter", stage);
+        Stream<T> result = stream.filter(x -> {
+            PipelineMetrics.Cell cell = metrics.cell();
+            long start = cell.begin(next);
+            boolean test = predicate.test(x);
+            cell.end(next, start);
+            if(test) cell.exit(next);
+            return test;
+        });
+        return new InstrumentedStream<>(metrics, result, next);
+    }
+
+    public <R> InstrumentedStream<R> map(Function<? super T, ? extends R> mapper){
+        if(!metrics.isEnabled()) return new InstrumentedStream<>(metrics, stream.map(mapper), -1);
+        int next = metrics.addStage("map", stage);
+        Stream<R> result = stream.map(x -> {
+            PipelineMetrics.Cell cell = metrics.cell();
+            long start = cell.begin(next);
+            R value = mapper.apply(x);
+            cell.end(next, start);
+            cell.exit(next);
+            return value;
+        });
+        return new InstrumentedStream<>(metrics, result, next);
+    }
+
+    // 하위 스트림을 만드는 시간을 잰다. 하위 스트림의 요소를 내보내는 시간은 다음 단계들이 쓴 시간에 포함된다.
+    public <R> InstrumentedStream<R> flatMap(Function<? super T, ? extends Stream<? extends R>> mapper){
+        if(!metrics.isEnabled()) return new InstrumentedStream<>(metrics, stream.flatMap(mapper), -1);
+        int next = metrics.addStage("flatMap", stage);
+        return counted(stream.flatMap(x -> {
+            PipelineMetrics.Cell cell = metrics.cell();
+            long start = cell.begin(next);
+            Stream<? extends R> result = mapper.apply(x);
+            cell.end(next, start);
+            return result;
+        }), next);
+    }
+
+    // 순서가 있는 병렬 스트림에서는 distinct 가 장벽이므로 요소 수만 의미가 있고 시간은 의미가 없다.
+    public InstrumentedStream<T> distinct(){
+        if(!metrics.isEnabled()) return new InstrumentedStream<>(metrics, stream.distinct(), -1);
+        int next = metrics.addStage("distinct", stage);
+        Stream<T> result = stream.peek(x -> metrics.cell().enter(next))
+                .distinct()
+                .peek(x -> metrics.cell().exitTimed(next));
+        return new InstrumentedStream<>(metrics, result, next);
+    }
+
+    // 자연 순서 정렬. 비교 시간을 재기 위해 naturalOrder 비교자로 정렬하며, 결과는 sorted() 와 같다.
+    @SuppressWarnings("unchecked")
+    public InstrumentedStream<T> sorted(){
+        if(!metrics.isEnabled()) return new InstrumentedStream<>(metrics, stream.sorted(), -1);
+        return sorted("sorted", (Comparator<? super T>) Comparator.naturalOrder());
+    }
+
+    public InstrumentedStream<T> sorted(Comparator<? super T> comparator){
+        if(!metrics.isEnabled()) return new InstrumentedStream<>(metrics, stream.sorted(comparator), -1);
+        return sorted("sorted", comparator);
+    }
+
+    private InstrumentedStream<T> sorted(String name, Comparator<? super T> comparator){
+        int next = metrics.addStage(name, stage);
+        return counted(stream.sorted((a, b) -> {
+            PipelineMetrics.Cell cell = metrics.cell();
+            long start = cell.begin(next);
+            int result = comparator.compare(a, b);
+            cell.end(next, start);
+            return result;
+        }), next);
+    }
+
+    public InstrumentedStream<T> limit(long maxSize){
+        if(!metrics.isEnabled()) return new InstrumentedStream<>(metrics, stream.limit(maxSize), -1);
+        return counted(stream.limit(maxSize), metrics.addStage("limit", stage));
+    }
+
+    public InstrumentedStream<T> skip(long n){
+        if(!metrics.isEnabled()) return new InstrumentedStream<>(metrics, stream.skip(n), -1);
+        return counted(stream.skip(n), metrics.addStage("skip", stage));
+    }
+
+    public InstrumentedStream<T> parallel(){
+        return new InstrumentedStream<>(metrics, stream.parallel(), stage);
+    }
+
+    public InstrumentedStream<T> sequential(){
+        return new InstrumentedStream<>(metrics, stream.sequential(), stage);
+    }
+
+    // 최종 연산을 호출할 스트림
+    public Stream<T> stream(){
+        return stream;
+    }
+
+    // 단계가 내보낸 요소 수를 센다.
+    private <R> InstrumentedStream<R> counted(Stream<R> result, int next){
+        return new InstrumentedStream<>(metrics, result.peek(x -> metrics.cell().exit(next)), next);
+    }
+}
@@ -0,0 +1,267 @@
+package com.practice.stream;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * 압축 비트맵 (Roaring 방식)
+ * int 값을 상위 16비트(키)와 하위 16비트로 나누고, 키마다 하위 16비트의 집합을 담는 컨테이너를 하나씩 둔다.
+ *
+ * 배열 컨테이너: 원소가 4096 개 이하이면 정렬된 char[] 에 저장한다. 원소 하나당 2바이트
+ * 비트맵 컨테이너: 4096 개를 넘으면 65536 비트(long[1024], 8KB)에 저장한다. 4096 * 2바이트 = 8KB 이므로 이 지점에서 비트맵이 더 작아진다.
+ *
+ * HashSet<Integer> 는 원소 하나당 Integer 와 HashMap.Node 를 합쳐 40바이트 이상을 사용하지만,
+ * 연속된 ID 처럼 모여 있는 값은 원소 하나당 2바이트 이하로 저장된다.
+ *
+ * 키는 부호 비트를 뒤집어 저장하므로 키 순서가 곧 int 의 오름차순이다. 스레드 안전하지 않다.
+ */
+public final class IntBitmap {
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1 << 10;
+
+    private char[] keys = new char[4];
+    private Object[] containers = new Object[4]; // char[] 또는 long[]
+    private int[] cardinalities = new int[4];
+    private int containerCount;
+    private long cardinality;
+    private int lastIndex; // 직전에 사용한 컨테이너. 값이 모여 있으면 이분 탐색을 건너뛴다.
+
+    private static char highOf(int value){
+        return (char) ((value >>> 16) ^ 0x8000);
+    }
+
+    private static int valueOf(char high, int low){
+        return ((high ^ 0x8000) << 16) | low;
+    }
+
+    private int indexOf(char high){
+        if(lastIndex < containerCount && keys[lastIndex] == high) return lastIndex;
+        int index = Arrays.binarySearch(keys, 0, containerCount, high);
+        if(index >= 0) lastIndex = index;
+        return index;
+    }
+
+    // 새로 추가되었으면 true, 이미 있던 값이면 false
+    public boolean add(int value){
+        char high = highOf(value);
+        char low = (char) value;
+        int index = indexOf(high);
+        if(index < 0){
+            index = -index - 1;
+            insertContainer(index, high);
+        }
+
+        Object container = containers[index];
+        if(container instanceof long[]){
+            long[] bits = (long[]) container;
+            long mask = 1L << low;
+            if((bits[low >>> 6] & mask) != 0) return false;
+            bits[low >>> 6] |= mask;
+        } else {
+            char[] array = (char[]) container;
+            int card = cardinalities[index];
+            int position = Arrays.binarySearch(array, 0, card, low);
+            if(position >= 0) return false;
+            position = -position - 1;
+            if(card == ARRAY_MAX){
+                long[] bits = toBitmap(array, card);
+                bits[low >>> 6] |= 1L << low;
+                containers[index] = bits;
+            } else {
+                if(card == array.length){
+                    array = Arrays.copyOf(array, Math.min(ARRAY_MAX, card * 2));
+                    containers[index] = array;
+                }
+                System.arraycopy(array, position, array, position + 1, card - position);
+                array[position] = low;
+            }
+        }
+        cardinalities[index]++;
+        cardinality++;
+        return true;
+    }
+
+    public boolean contains(int value){
+        int index = indexOf(highOf(value));
+        if(index < 0) return false;
+        char low = (char) value;
+        Object container = containers[index];
+        if(container instanceof long[]){
+            return (((long[]) container)[low >>> 6] & (1L << low)) != 0;
+        }
+        return Arrays.binarySearch((char[]) container, 0, cardinalities[index], low) >= 0;
+    }
+
+    private void insertContainer(int index, char high){
+        if(containerCount == keys.length){
+            int length = containerCount * 2;
+            keys = Arrays.copyOf(keys, length);
+            containers = Arrays.copyOf(containers, length);
+            cardinalities = Arrays.copyOf(cardinalities, length);
+        }
+        System.arraycopy(keys, index, keys, index + 1, containerCount - index);
+        System.arraycopy(containers, index, containers, index + 1, containerCount - index);
+        System.arraycopy(cardinalities, index, cardinalities, index + 1, containerCount - index);
+        keys[index] = high;
+        containers[index] = new char[4];
+        cardinalities[index] = 0;
+        containerCount++;
+        lastIndex = index;
+    }
+
+    private static long[] toBitmap(char[] array, int card){
+        long[] bits = new long[BITMAP_WORDS];
+        for(int i=0; i<card; i++){
+            bits[array[i] >>> 6] |= 1L << array[i];
+        }
+        return bits;
+    }
+
+    /**
+     * 합집합. other 의 값을 모두 이 비트맵에 더한다.
+     * 키 배열을 병합하면서 같은 키의 컨테이너끼리만 합치므로, 값을 하나씩 add 하는 것보다 훨씬 빠르다.
+     */
+    public IntBitmap or(IntBitmap other){
+        int n = containerCount + other.containerCount;
+        char[] mergedKeys = new char[Math.max(4, n)];
+        Object[] mergedContainers = new Object[mergedKeys.length];
+        int[] mergedCardinalities = new int[mergedKeys.length];
+        int i = 0, j = 0, k = 0;
+        long total = 0;
+        while (i < containerCount || j < other.containerCount) {
+            if(j == other.containerCount || (i < containerCount && keys[i] < other.keys[j])){
+                mergedKeys[k] = keys[i];
+                mergedContainers[k] = containers[i];
+                mergedCardinalities[k] = cardinalities[i];
+                i++;
+            } else if(i == containerCount || other.keys[j] < keys[i]){
+                mergedKeys[k] = other.keys[j];
+                mergedContainers[k] = copy(other.containers[j]);
+                mergedCardinalities[k] = other.cardinalities[j];
+                j++;
+            } else {
+                mergedKeys[k] = keys[i];
+                int[] card = {0};
+                mergedContainers[k] = union(containers[i], cardinalities[i], other.containers[j], other.cardinalities[j], card);
+                mergedCardinalities[k] = card[0];
+                i++;
+                j++;
+            }
+            total += mergedCardinalities[k];
+            k++;
+        }
+        keys = mergedKeys;
+        containers = mergedContainers;
+        cardinalities = mergedCardinalities;
+        containerCount = k;
+        cardinality = total;
+        lastIndex = 0;
+        return this;
+    }
+
+    private static Object copy(Object container){
+        return container instanceof long[] ? ((long[]) container).clone() : ((char[]) container).clone();
+    }
+
+    // 두 컨테이너의 합집합. 결과의 원소 수는 card[0] 에 담는다.
+    private static Object union(Object a, int aCard, Object b, int bCard, int[] card){
+        if(a instanceof long[] || b instanceof long[]){
+            long[] bits = a instanceof long[] ? (long[]) a : ((long[]) b).clone();
+            Object rest = bits == a ? b : a;
+            int restCard = bits == a ? bCard : aCard;
+            if(rest instanceof long[]){
+                long[] restBits = (long[]) rest;
+                for(int w=0; w<BITMAP_WORDS; w++){
+                    bits[w] |= restBits[w];
+                }
+            } else {
+                char[] array = (char[]) rest;
+                for(int i=0; i<restCard; i++){
+                    bits[array[i] >>> 6] |= 1L << array[i];
+                }
+            }
+            int count = 0;
+            for(long word : bits){
+                count += Long.bitCount(word);
+            }
+            card[0] = count;
+            return bits;
+        }
+
+        char[] x = (char[]) a, y = (char[]) b;
+        char[] merged = new char[aCard + bCard];
+        int i = 0, j = 0, k = 0;
+        while (i < aCard && j < bCard) {
+            if(x[i] < y[j]) merged[k++] = x[i++];
+            else if(y[j] < x[i]) merged[k++] = y[j++];
+            else {
+                merged[k++] = x[i++];
+                j++;
+            }
+        }
+        while (i < aCard) merged[k++] = x[i++];
+        while (j < bCard) merged[k++] = y[j++];
+        card[0] = k;
+        return k > ARRAY_MAX ? toBitmap(merged, k) : merged;
+    }
+
+    public long cardinality(){
+        return cardinality;
+    }
+
+    public boolean isEmpty(){
+        return cardinality == 0;
+    }
+
+    // 오름차순 순회
+    public void forEach(IntConsumer action){
+        for(int index=0; index<containerCount; index++){
+            char high = keys[index];
+            Object container = containers[index];
+            if(container instanceof long[]){
+                long[] bits = (long[]) container;
+                for(int w=0; w<BITMAP_WORDS; w++){
+                    long word = bits[w];
+                    while (word != 0) {
+                        action.accept(valueOf(high, (w << 6) + Long.numberOfTrailingZeros(word)));
+                        word &= word - 1;
+                    }
+                }
+            } else {
+                char[] array = (char[]) container;
+                for(int i=0; i<cardinalities[index]; i++){
+                    action.accept(valueOf(high, array[i]));
+                }
+            }
+        }
+    }
+
+    public int[] toArray(){
+        int[] result = new int[Math.toIntExact(cardinality)];
+        int[] n = {0};
+        forEach(value -> result[n[0]++] = value);
+        return result;
+    }
+
+    // 오름차순 스트림
+    public IntStream stream(){
+        return Arrays.stream(toArray());
+    }
+
+    // 컨테이너가 차지하는 대략적인 바이트 수 (배열 헤더 제외)
+    public long sizeInBytes(){
+        long bytes = keys.length * 2L + containers.length * 4L + cardinalities.length * 4L;
+        for(int index=0; index<containerCount; index++){
+            Object container = containers[index];
+            bytes += container instanceof long[] ? BITMAP_WORDS * 8L : ((char[]) container).length * 2L;
+        }
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return "IntBitmap{cardinality=" + cardinality + ", containers=" + containerCount + ", bytes=" + sizeInBytes() + "}";
+    }
+}
@@ -0,0 +1,225 @@
+package com.practice.stream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * int 청크 리스트
+ * 박싱 없이 int 를 저장하는 가변 길이 리스트. 값은 여러 개의 int[] 청크에 나눠서 저장하며, 청크는 연결 리스트로 이어진다.
+ *
+ * ArrayList 는 크기가 늘어날 때마다 전체 배열을 복사하고 addAll 로 합칠 때도 모든 요소를 다시 복사하지만,
+ * IntChunkList 는 새 청크를 추가하기만 하고, 두 리스트를 합칠 때(append)도 청크를 연결하기만 하므로 요소를 복사하지 않는다.
+ * 병렬 스트림의 combiner 처럼 부분 결과를 반복해서 합치는 경우에 유리하다.
+ */
+public final class IntChunkList {
+
+    private static final int FIRST_CHUNK_SIZE = 64;
+    private static final int MAX_CHUNK_SIZE = 1 << 16;
+
+    private Chunk head;
+    private Chunk tail;
+    private long size;
+
+    public void add(int value){
+        Chunk chunk = tail;
+        if(chunk == null || chunk.count == chunk.values.length){
+            chunk = newChunk();
+        }
+        chunk.values[chunk.count++] = value;
+        size++;
+    }
+
+    // 마지막 청크 크기의 2배(최대 MAX_CHUNK_SIZE)로 새 청크를 만든다.
+    private Chunk newChunk(){
+        int length = tail == null ? FIRST_CHUNK_SIZE : Math.min(tail.values.length << 1, MAX_CHUNK_SIZE);
+        Chunk chunk = new Chunk(new int[length]);
+        if(tail == null) head = chunk;
+        else tail.next = chunk;
+        tail = chunk;
+        return chunk;
+    }
+
+    // other 의 청크들을 이 리스트의 뒤에 연결한다. 요소는 복사하지 않으며, 이후 other 는 비어있는 상태가 된다.
+    public IntChunkList append(IntChunkList other){
+        if(other == this) throw new IllegalArgumentException("자기 자신은 연결할 수 없다.");
+        if(other.head == null) return this;
+        if(head == null) head = other.head;
+        else tail.next = other.head;
+        tail = other.tail;
+        size += other.size;
+        other.head = other.tail = null;
+        other.size = 0;
+        return this;
+    }
+
+    public long size(){
+        return size;
+    }
+
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    public void forEach(IntConsumer action){
+        for(Chunk chunk = head; chunk != null; chunk = chunk.next){
+            int[] values = chunk.values;
+            for(int i=0, n=chunk.count; i<n; i++){
+                action.accept(values[i]);
+            }
+        }
+    }
+
+    // 각 청크의 내부 배열을 복사하지 않고 그대로 전달한다. 배열의 [0, length) 구간만 유효하며, 수정해서는 안 된다.
+    public void forEachChunk(ChunkConsumer action){
+        for(Chunk chunk = head; chunk != null; chunk = chunk.next){
+            if(chunk.count > 0) action.accept(chunk.values, chunk.count);
+        }
+    }
+
+    @FunctionalInterface
+    public interface ChunkConsumer {
+        void accept(int[] values, int length);
+    }
+
+    // 청크를 그대로 읽는 IntStream. 크기를 알고 있으므로(SIZED) 병렬 스트림에서 균등하게 분할된다.
+    public IntStream stream(){
+        return StreamSupport.intStream(new ChunkSpliterator(this), false);
+    }
+
+    public IntStream parallelStream(){
+        return StreamSupport.intStream(new ChunkSpliterator(this), true);
+    }
+
+    // 청크가 하나 뿐이고 꽉 차 있으면 내부 배열을 그대로 반환하고, 아니면 한 번만 복사해 하나의 배열로 만든다.
+    // 반환된 배열은 수정해서는 안 된다.
+    public int[] toArray(){
+        if(head != null && head == tail && head.count == head.values.length) return head.values;
+        if(size > Integer.MAX_VALUE - 8) throw new IllegalStateException("배열로 만들기에 너무 큰 크기 : " + size);
+        int[] result = new int[(int) size];
+        int offset = 0;
+        for(Chunk chunk = head; chunk != null; chunk = chunk.next){
+            System.arraycopy(chunk.values, 0, result, offset, chunk.count);
+            offset += chunk.count;
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        forEach(value -> {
+            if(sb.length() > 1) sb.append(", ");
+            sb.append(value);
+        });
+        return sb.append(']').toString();
+    }
+
+    private static final class Chunk {
+        final int[] values;
+        int count;
+        Chunk next;
+
+        Chunk(int[] values){
+            this.values = values;
+        }
+    }
+
+    /**
+     * 청크 스플리터레이터
+     * 전체 요소를 [origin, fence) 의 인덱스 구간으로 보고 절반씩 나눈다. 각 청크의 시작 인덱스(offsets)를 이분 탐색해 위치를 찾는다.
+     */
+    private static final class ChunkSpliterator implements Spliterator.OfInt {
+        private final int[][] chunks;
+        private final long[] offsets;
+        private long origin;
+        private final long fence;
+
+        ChunkSpliterator(IntChunkList list){
+            List<int[]> arrays = new ArrayList<>();
+            List<Long> starts = new ArrayList<>();
+            long offset = 0;
+            for(Chunk chunk = list.head; chunk != null; chunk = chunk.next){
+                if(chunk.count == 0) continue;
+                arrays.add(chunk.values);
+                starts.add(offset);
+                offset += chunk.count;
+            }
+            this.chunks = arrays.toArray(new int[0][]);
+            this.offsets = new long[starts.size() + 1];
+            for(int i=0; i<starts.size(); i++){
+                offsets[i] = starts.get(i);
+            }
+            offsets[starts.size()] = offset;
+            this.origin = 0;
+            this.fence = offset;
+        }
+
+        private ChunkSpliterator(int[][] chunks, long[] offsets, long origin, long fence){
+            this.chunks = chunks;
+            this.offsets = offsets;
+            this.origin = origin;
+            this.fence = fence;
+        }
+
+        // index 를 포함하는 청크 번호
+        private int chunkOf(long index){
+            int low = 0, high = chunks.length - 1;
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if(offsets[mid] <= index) low = mid;
+                else high = mid - 1;
+            }
+            return low;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if(origin >= fence) return false;
+            int c = chunkOf(origin);
+            action.accept(chunks[c][(int) (origin - offsets[c])]);
+            origin++;
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            if(origin >= fence) return;
+            int c = chunkOf(origin);
+            long index = origin;
+            while (index < fence) {
+                int[] values = chunks[c];
+                int from = (int) (index - offsets[c]);
+                int to = (int) (Math.min(fence, offsets[c + 1]) - offsets[c]);
+                for(int i=from; i<to; i++){
+                    action.accept(values[i]);
+                }
+                index += to - from;
+                c++;
+            }
+            origin = fence;
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            long mid = (origin + fence) >>> 1;
+            if(mid - origin < 1024) return null;
+            ChunkSpliterator prefix = new ChunkSpliterator(chunks, offsets, origin, mid);
+            origin = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - origin;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+    }
+}
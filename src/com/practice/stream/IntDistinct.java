@@ -0,0 +1,126 @@
+package com.practice.stream;
+
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * int 중복 제거
+ * Stream.distinct() 는 값을 박싱해서 HashSet 에 넣고, 순서가 있는 병렬 스트림에서는 만남 순서를 지키기 위해 훨씬 느려진다.
+ * IntDistinct 는 이미 본 값을 압축 비트맵(IntBitmap)으로 기록한다.
+ *
+ * distinct(stream) 은 원본을 바로 소비하지 않고, 최종 연산이 실행될 때 결과 스트림의 병렬 여부를 보고 방법을 고른다.
+ * 따라서 distinct(ints).parallel() 이나 distinct(ints.parallel()).sequential() 처럼 호출한 뒤에 모드를 바꿔도 된다.
+ * 순차 실행: filter(seen::add) 로 지연 평가를 유지한 채 처음 본 값만 통과시킨다. 무한 스트림도 limit 등으로 끊어서 사용할 수 있다.
+ * 병렬 실행: 최종 연산 시점에 원본 전체를 모은다(무한 스트림은 끝나지 않는다).
+ *   분할된 작업마다 (비트맵, 처음 본 값 목록)을 만든다. 합칠 때는 오른쪽 목록에서 왼쪽 비트맵에 없는 값만 이어 붙인 뒤 비트맵을 합집합한다.
+ *   왼쪽이 항상 만남 순서상 앞이므로 결과는 순차 실행과 같은 "처음 본 순서" 가 된다.
+ * 순서가 없는 병렬 스트림: 비트맵끼리 합집합만 하고 결과를 오름차순으로 흘려보낸다.
+ */
+public final class IntDistinct {
+
+    private final IntBitmap seen = new IntBitmap();
+    private final IntChunkList values = new IntChunkList();
+
+    private IntDistinct(){
+    }
+
+    // 처음 본 순서를 유지하는 distinct
+    public static IntStream distinct(IntStream stream){
+        DeferredSpliterator spliterator = new DeferredSpliterator(stream);
+        IntStream result = StreamSupport.intStream(spliterator, stream.isParallel());
+        spliterator.pipeline = result;
+        return result.onClose(stream::close);
+    }
+
+    // 순서를 유지하지 않는 distinct. 결과는 오름차순이다.
+    public static IntStream distinctUnordered(IntStream stream){
+        return toBitmap(stream).stream();
+    }
+
+    public static IntBitmap toBitmap(IntStream stream){
+        return stream.collect(IntBitmap::new, IntBitmap::add, IntBitmap::or);
+    }
+
+    // Stream<Integer> 에서 사용할 수 있는 컬렉터. 처음 본 순서대로 중복 없는 값을 IntChunkList 에 담는다.
+    public static Collector<Integer, ?, IntChunkList> distinctValues(){
+        return Collector.of(
+                IntDistinct::new,
+                (IntDistinct distinct, Integer value) -> distinct.accept(value),
+                (left, right) -> {
+                    left.combine(right);
+                    return left;
+                },
+                distinct -> distinct.values
+        );
+    }
+
+    private void accept(int value){
+        if(seen.add(value)) values.add(value);
+    }
+
+    private void combine(IntDistinct right){
+        IntChunkList fresh = new IntChunkList();
+        right.values.forEach(value -> {
+            if(!seen.contains(value)) fresh.add(value);
+        });
+        values.append(fresh);
+        seen.or(right.seen);
+    }
+
+    /**
+     * 최종 연산이 처음 접근할 때 결과 스트림의 병렬 여부를 보고 실제 spliterator 를 만든다.
+     * 병렬 실행이면 원본을 병렬로 모은 목록을, 순차 실행이면 원본에 filter 를 연결한 지연 spliterator 를 사용한다.
+     */
+    private static final class DeferredSpliterator implements Spliterator.OfInt {
+        private final IntStream source;
+        private IntStream pipeline; // 결과 스트림. parallel(), sequential() 은 원본 단계의 플래그를 바꾸므로 최종 연산 시점의 모드를 읽을 수 있다.
+        private Spliterator.OfInt delegate;
+
+        DeferredSpliterator(IntStream source){
+            this.source = source;
+        }
+
+        private Spliterator.OfInt delegate(){
+            if(delegate == null){
+                if(pipeline.isParallel()){
+                    delegate = source.parallel()
+                            .collect(IntDistinct::new, IntDistinct::accept, IntDistinct::combine)
+                            .values.stream().spliterator();
+                } else {
+                    IntBitmap seen = new IntBitmap();
+                    delegate = source.sequential().filter(seen::add).spliterator();
+                }
+            }
+            return delegate;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            return delegate().tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            delegate().forEachRemaining(action);
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            return delegate().trySplit();
+        }
+
+        @Override
+        public long estimateSize() {
+            return delegate().estimateSize();
+        }
+
+        // 결과는 처음 본 순서로 정해지고 중복이 없다.
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.DISTINCT;
+        }
+    }
+}
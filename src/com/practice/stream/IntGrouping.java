@@ -0,0 +1,53 @@
+package com.practice.stream;
+
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * int 키 그룹화 컬렉터
+ * Collectors.groupingBy(str -> str.length()) 는 길이를 Integer 로 박싱해서 HashMap<Integer, List<String>> 에 담는다.
+ * IntGrouping.groupingBy(String::length) 는 ToIntFunction 으로 키를 int 그대로 꺼내고 IntObjectMap 에 담는다.
+ * 키의 범위가 좁으면 IntObjectMap 은 배열 인덱스로 바로 접근하므로 해시 계산도 하지 않는다.
+ *
+ * 병렬 스트림에서는 분할된 작업마다 자신만의 부분 맵을 채우고, 마지막에 부분 맵을 합친다.
+ * 합칠 때는 항목이 적은 쪽을 많은 쪽으로 옮기되, 다운스트림 combiner 에는 항상 (앞쪽 결과, 뒤쪽 결과) 순서로 넘겨 만남 순서를 유지한다.
+ * 결과는 Map<Integer, D> 로 읽을 수 있는 읽기 전용 IntObjectMap 이다.
+ */
+public final class IntGrouping {
+
+    private IntGrouping(){
+    }
+
+    public static <T> Collector<T, ?, IntObjectMap<List<T>>> groupingBy(ToIntFunction<? super T> classifier){
+        return groupingBy(classifier, Collectors.toList());
+    }
+
+    public static <T, A, D> Collector<T, ?, IntObjectMap<D>> groupingBy(ToIntFunction<? super T> classifier,
+                                                                       Collector<? super T, A, D> downstream){
+        Supplier<A> downstreamSupplier = downstream.supplier();
+        BiConsumer<A, ? super T> downstreamAccumulator = downstream.accumulator();
+        BinaryOperator<A> downstreamCombiner = downstream.combiner();
+
+        BiConsumer<IntObjectMap<A>, T> accumulator = (map, t) -> {
+            A container = map.computeIfAbsent(classifier.applyAsInt(t), key -> downstreamSupplier.get());
+            downstreamAccumulator.accept(container, t);
+        };
+        BinaryOperator<IntObjectMap<A>> combiner = (left, right) -> left.size() >= right.size()
+                ? left.merge(right, downstreamCombiner)
+                : right.merge(left, (r, l) -> downstreamCombiner.apply(l, r));
+
+        if(downstream.characteristics().contains(Collector.Characteristics.IDENTITY_FINISH)){
+            @SuppressWarnings("unchecked")
+            Function<IntObjectMap<A>, IntObjectMap<D>> identity = map -> (IntObjectMap<D>) map;
+            return Collector.of(IntObjectMap::new, accumulator, combiner, identity);
+        }
+        Function<A, D> downstreamFinisher = downstream.finisher();
+        return Collector.of(IntObjectMap::new, accumulator, combiner, map -> map.mapValues(downstreamFinisher));
+    }
+}
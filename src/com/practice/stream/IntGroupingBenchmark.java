@@ -0,0 +1,62 @@
+package com.practice.stream;
+
+import com.practice.benchmark.BenchmarkData;
+import com.practice.benchmark.BenchmarkRunner;
+import com.practice.benchmark.BenchmarkSuite;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * IntGrouping 벤치마크
+ * Collectors.groupingBy 와 IntGrouping.groupingBy 를 비교한다.
+ * byLength 는 키 범위가 좁아 조밀 모드로, byValue 는 키가 넓게 퍼져 해시 모드로 동작한다.
+ */
+public class IntGroupingBenchmark extends BenchmarkSuite {
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner.run(IntGroupingBenchmark.class, args);
+    }
+
+    @Override
+    protected void register() {
+        sizes(10_000, 1_000_000);
+        parallelisms(1, Runtime.getRuntime().availableProcessors());
+
+        bench("collectorsGroupingByLength", params -> {
+            List<String> words = BenchmarkData.words(params.getSize(), 3, 12);
+            return bh -> bh.consume(words.parallelStream()
+                    .collect(Collectors.groupingBy(str -> str.length())));
+        });
+
+        bench("intGroupingByLength", params -> {
+            List<String> words = BenchmarkData.words(params.getSize(), 3, 12);
+            return bh -> bh.consume(words.parallelStream()
+                    .collect(IntGrouping.groupingBy(String::length)));
+        });
+
+        bench("collectorsGroupingByLengthCounting", params -> {
+            List<String> words = BenchmarkData.words(params.getSize(), 3, 12);
+            return bh -> bh.consume(words.parallelStream()
+                    .collect(Collectors.groupingBy(str -> str.length(), Collectors.counting())));
+        });
+
+        bench("intGroupingByLengthCounting", params -> {
+            List<String> words = BenchmarkData.words(params.getSize(), 3, 12);
+            return bh -> bh.consume(words.parallelStream()
+                    .collect(IntGrouping.groupingBy(String::length, Collectors.counting())));
+        });
+
+        bench("collectorsGroupingByValue", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), params.getSize() / 4 + 1);
+            return bh -> bh.consume(numbers.parallelStream()
+                    .collect(Collectors.groupingBy(n -> n)));
+        });
+
+        bench("intGroupingByValue", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), params.getSize() / 4 + 1);
+            return bh -> bh.consume(numbers.parallelStream()
+                    .collect(IntGrouping.groupingBy(Integer::intValue)));
+        });
+    }
+}
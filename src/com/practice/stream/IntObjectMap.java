@@ -0,0 +1,294 @@
+package com.practice.stream;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * int 키 맵
+ * HashMap<Integer, V> 는 키마다 Integer 객체와 Node 객체를 만들고, 조회할 때마다 박싱과 equals 호출이 일어난다.
+ * IntObjectMap 은 키를 int 그대로 저장한다.
+ *
+ * 조밀(dense) 모드: 키의 범위(최댓값 - 최솟값)가 DENSE_LIMIT 이하이면 값 배열에 key - base 위치로 바로 저장한다. 문자열 길이, 나이처럼 좁은 범위의 키에 해당한다.
+ * 해시 모드: 범위를 벗어나는 키가 들어오면 개방 주소법(선형 탐사) 해시 테이블로 바꾼다. 키 배열과 값 배열을 따로 두고, 값이 null 인 칸을 빈 칸으로 본다.
+ *
+ * 값을 채우는 메서드는 패키지 내부(IntGrouping)에서만 사용하고, 밖에서는 Map<Integer, V> 읽기 전용 뷰로 사용한다.
+ * get(int), containsKey(int), forEachEntry(ObjIntConsumer) 는 박싱 없이 조회한다.
+ */
+public final class IntObjectMap<V> extends AbstractMap<Integer, V> {
+
+    static final int DENSE_LIMIT = 1024;
+    private static final int INITIAL_DENSE_LENGTH = 16;
+    private static final int INITIAL_HASH_CAPACITY = 64;
+
+    private int size;
+
+    // 조밀 모드
+    private Object[] dense;
+    private int denseBase;
+
+    // 해시 모드 (keys != null)
+    private int[] keys;
+    private Object[] values;
+
+    IntObjectMap(){
+    }
+
+    private boolean isDense(){
+        return keys == null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key){
+        if(isDense()){
+            if(dense == null) return null;
+            long index = (long) key - denseBase;
+            return index >= 0 && index < dense.length ? (V) dense[(int) index] : null;
+        }
+        int mask = keys.length - 1;
+        for(int slot = mix(key) & mask; values[slot] != null; slot = (slot + 1) & mask){
+            if(keys[slot] == key) return (V) values[slot];
+        }
+        return null;
+    }
+
+    public boolean containsKey(int key){
+        return get(key) != null;
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Integer ? get(((Integer) key).intValue()) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    // 박싱 없는 순회. 조밀 모드는 키 오름차순, 해시 모드는 테이블 순서이다.
+    @SuppressWarnings("unchecked")
+    public void forEachEntry(ObjIntConsumer<? super V> action){
+        if(isDense()){
+            if(dense == null) return;
+            for(int i=0; i<dense.length; i++){
+                if(dense[i] != null) action.accept((V) dense[i], denseBase + i);
+            }
+        } else {
+            for(int slot=0; slot<values.length; slot++){
+                if(values[slot] != null) action.accept((V) values[slot], keys[slot]);
+            }
+        }
+    }
+
+    public int[] keys(){
+        int[] result = new int[size];
+        int[] n = {0};
+        forEachEntry((value, key) -> result[n[0]++] = key);
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    V computeIfAbsent(int key, IntFunction<? extends V> factory){
+        if(isDense()){
+            if(dense == null){
+                dense = new Object[INITIAL_DENSE_LENGTH];
+                denseBase = key;
+            }
+            long index = (long) key - denseBase;
+            if(index >= 0 && index < dense.length){
+                Object value = dense[(int) index];
+                if(value == null){
+                    value = factory.apply(key);
+                    dense[(int) index] = value;
+                    size++;
+                }
+                return (V) value;
+            }
+            if(!growDense(key)) toHash();
+            return computeIfAbsent(key, factory);
+        }
+
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        for(; values[slot] != null; slot = (slot + 1) & mask){
+            if(keys[slot] == key) return (V) values[slot];
+        }
+        V value = factory.apply(key);
+        keys[slot] = key;
+        values[slot] = value;
+        if(++size * 2 > keys.length) rehash(keys.length * 2);
+        return value;
+    }
+
+    // 조밀 배열이 key 를 포함하도록 늘린다. 범위가 DENSE_LIMIT 를 넘으면 false
+    private boolean growDense(int key){
+        long low = Math.min(denseBase, key);
+        long high = Math.max((long) denseBase + dense.length - 1, key);
+        long range = high - low + 1;
+        if(range > DENSE_LIMIT) return false;
+
+        int length = (int) Math.min(DENSE_LIMIT, Math.max(range, dense.length * 2L));
+        // 아래쪽으로 늘어날 때는 새 공간을 아래에 둔다.
+        long base = key < denseBase ? Math.max(Integer.MIN_VALUE, high - length + 1) : low;
+        Object[] grown = new Object[length];
+        System.arraycopy(dense, 0, grown, (int) (denseBase - base), dense.length);
+        dense = grown;
+        denseBase = (int) base;
+        return true;
+    }
+
+    private void toHash(){
+        Object[] old = dense;
+        int oldBase = denseBase;
+        int capacity = INITIAL_HASH_CAPACITY;
+        while (capacity < size * 4) {
+            capacity <<= 1;
+        }
+        keys = new int[capacity];
+        values = new Object[capacity];
+        dense = null;
+        size = 0;
+        for(int i=0; i<old.length; i++){
+            if(old[i] != null) insert(oldBase + i, old[i]);
+        }
+    }
+
+    private void rehash(int capacity){
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        size = 0;
+        for(int slot=0; slot<oldValues.length; slot++){
+            if(oldValues[slot] != null) insert(oldKeys[slot], oldValues[slot]);
+        }
+    }
+
+    // 없는 키라는 것을 알고 있을 때의 삽입
+    private void insert(int key, Object value){
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (values[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+    }
+
+    /**
+     * other 의 항목을 이 맵에 합친다. 양쪽에 있는 키는 merger.apply(이 맵의 값, other 의 값) 으로 바꾼다.
+     * 병렬 스트림의 combiner 에서 호출하며, other 는 이후에 사용하지 않는다.
+     */
+    IntObjectMap<V> merge(IntObjectMap<V> other, BinaryOperator<V> merger){
+        other.forEachEntry((value, key) -> {
+            V current = get(key);
+            if(current == null) computeIfAbsent(key, k -> value);
+            else replace(key, merger.apply(current, value));
+        });
+        return this;
+    }
+
+    private void replace(int key, Object value){
+        if(isDense()){
+            dense[(int) ((long) key - denseBase)] = value;
+            return;
+        }
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != key || values[slot] == null) {
+            slot = (slot + 1) & mask;
+        }
+        values[slot] = value;
+    }
+
+    // 모든 값을 제자리에서 바꾸고 값 타입만 바꿔 반환한다. mapper 는 null 을 반환하면 안 된다.
+    @SuppressWarnings("unchecked")
+    <R> IntObjectMap<R> mapValues(Function<? super V, ? extends R> mapper){
+        Object[] table = isDense() ? dense : values;
+        if(table != null){
+            for(int i=0; i<table.length; i++){
+                if(table[i] != null) table[i] = mapper.apply((V) table[i]);
+            }
+        }
+        return (IntObjectMap<R>) this;
+    }
+
+    // 피보나치 해싱. 연속된 키가 테이블 전체에 고르게 퍼지도록 상위 비트를 섞는다.
+    private static int mix(int key){
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    @Override
+    public Set<Entry<Integer, V>> entrySet() {
+        return new AbstractSet<Entry<Integer, V>>() {
+            @Override
+            public Iterator<Entry<Integer, V>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private final class EntryIterator implements Iterator<Entry<Integer, V>> {
+        private final Object[] table = isDense() ? dense : values;
+        private int next = advance(0);
+
+        private int advance(int from){
+            if(table == null) return -1;
+            for(int i=from; i<table.length; i++){
+                if(table[i] != null) return i;
+            }
+            return -1;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next >= 0;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Entry<Integer, V> next() {
+            if(next < 0) throw new NoSuchElementException();
+            int i = next;
+            next = advance(i + 1);
+            int key = table == dense ? denseBase + i : keys[i];
+            return new SimpleImmutableEntry<>(key, (V) table[i]);
+        }
+    }
+
+    @Override
+    public String toString() {
+        if(!isDense()){
+            // 해시 모드도 키 순서대로 출력한다.
+            int[] sorted = keys();
+            Arrays.sort(sorted);
+            StringBuilder sb = new StringBuilder("{");
+            for(int i=0; i<sorted.length; i++){
+                if(i > 0) sb.append(", ");
+                sb.append(sorted[i]).append('=').append(get(sorted[i]));
+            }
+            return sb.append('}').toString();
+        }
+        return super.toString();
+    }
+}
@@ -0,0 +1,72 @@
+package com.practice.stream;
+
+import java.util.function.IntPredicate;
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
+
+/**
+ * int 파티션
+ * CustomCollector.partitioningBy 의 int 전용 버전. 조건을 만족하는 값과 만족하지 않는 값을 박싱 없이 각각의 IntChunkList 에 나눠 담는다.
+ * 병렬 스트림에서 부분 결과를 합칠 때 addAll 로 복사하지 않고 청크를 연결하기만 한다.
+ *
+ * IntStream 은 Collector 를 받지 않으므로 IntStream.collect(supplier, accumulator, combiner) 형태로 사용한다.
+ * IntPartition.partition(IntStream.range(0, 100), n -> n % 2 == 0)
+ */
+public final class IntPartition {
+
+    private final IntPredicate predicate;
+    private final IntChunkList matched = new IntChunkList();
+    private final IntChunkList unmatched = new IntChunkList();
+
+    private IntPartition(IntPredicate predicate){
+        this.predicate = predicate;
+    }
+
+    public static IntPartition partition(IntStream stream, IntPredicate predicate){
+        return stream.collect(
+                () -> new IntPartition(predicate), // Supplier: 빈 IntPartition 생성
+                IntPartition::accept,               // accumulator: 조건에 따라 각 청크 리스트에 add
+                IntPartition::combine               // combiner: 청크 연결
+        );
+    }
+
+    // Stream<Integer> 에서 사용할 수 있는 컬렉터. 언박싱은 한 번만 일어나고 저장은 int 로 한다.
+    public static Collector<Integer, ?, IntPartition> partitioningBy(IntPredicate predicate){
+        return Collector.of(
+                () -> new IntPartition(predicate),
+                (IntPartition partition, Integer num) -> partition.accept(num),
+                (left, right) -> {
+                    left.combine(right);
+                    return left;
+                },
+                Collector.Characteristics.IDENTITY_FINISH
+        );
+    }
+
+    private void accept(int value){
+        if(predicate.test(value)) matched.add(value);
+        else unmatched.add(value);
+    }
+
+    private void combine(IntPartition other){
+        matched.append(other.matched);
+        unmatched.append(other.unmatched);
+    }
+
+    public IntChunkList get(boolean partition){
+        return partition ? matched : unmatched;
+    }
+
+    public IntStream stream(boolean partition){
+        return get(partition).stream();
+    }
+
+    public int[] toArray(boolean partition){
+        return get(partition).toArray();
+    }
+
+    @Override
+    public String toString() {
+        return "{false=" + unmatched + ", true=" + matched + "}";
+    }
+}
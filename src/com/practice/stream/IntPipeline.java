@@ -0,0 +1,391 @@
+package com.practice.stream;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * int 배열 전용 파이프라인
+ * Stream<Integer>.map(x -> x*a+b) 는 요소마다 언박싱, 계산, 박싱을 반복하고, 단계마다 다음 단계의 accept 를 가상 호출한다.
+ *
+ * IntPipeline 은 int[] 를 BLOCK 개씩 끊어서 단계마다 블록 전체를 한 번에 처리한다(push 방식).
+ * 블록은 L1 캐시에 들어가는 크기라 단계를 거치는 동안 메모리를 다시 읽지 않고, 단계 호출은 요소가 아니라 블록마다 한 번이다.
+ *
+ * 단계 합치기
+ * 아핀 변환(x * a + b)은 식으로 합친다. (x * a1 + b1) * a2 + b2 = x * (a1 * a2) + (b1 * a2 + b2)
+ *   int 곱셈과 덧셈은 넘쳐도 2^32 로 나눈 나머지가 같으므로, 합친 결과는 단계를 차례로 적용한 결과와 항상 같다.
+ *   아핀 단계의 반복문은 배열 읽기, 곱셈, 덧셈, 쓰기뿐이라 JIT 가 SIMD 명령으로 벡터화할 수 있다.
+ * map, 아핀 변환 바로 뒤의 filter 는 한 반복문(변환 후 filter)으로 합친다.
+ *
+ * filter 가 없으면 결과 크기가 원본과 같으므로 결과 배열에 바로 쓰고, 이후 단계는 결과 배열 위에서 처리한다.
+ * 파이프라인은 불변이라 같은 파이프라인을 여러 번 실행할 수 있다. stream() 으로 IntStream 에 이어 붙일 수 있다.
+ */
+public final class IntPipeline {
+
+    static final int BLOCK = 1024;
+
+    private final int[] source;
+    private final int from;
+    private final int to;
+    private final Stage[] stages;
+
+    private IntPipeline(int[] source, int from, int to, Stage[] stages){
+        this.source = source;
+        this.from = from;
+        this.to = to;
+        this.stages = stages;
+    }
+
+    public static IntPipeline of(int... values){
+        return of(values, 0, values.length);
+    }
+
+    // values[from, to) 를 원본으로 사용한다. 배열을 복사하지 않는다.
+    public static IntPipeline of(int[] values, int from, int to){
+        if(from < 0 || to > values.length || from > to){
+            throw new IndexOutOfBoundsException("from=" + from + ", to=" + to + ", length=" + values.length);
+        }
+        return new IntPipeline(values, from, to, new Stage[0]);
+    }
+
+    public static IntPipeline of(IntStream stream){
+        return of(stream.toArray());
+    }
+
+    // x -> x * multiplier + addend
+    public IntPipeline affine(int multiplier, int addend){
+        Stage last = lastStage();
+        if(last instanceof AffineStage){
+            AffineStage previous = (AffineStage) last;
+            return replaceLast(new AffineStage(previous.multiplier * multiplier, previous.addend * multiplier + addend));
+        }
+        if(multiplier == 1 && addend == 0) return this;
+        return append(new AffineStage(multiplier, addend));
+    }
+
+    public IntPipeline map(IntUnaryOperator operator){
+        Stage last = lastStage();
+        if(last instanceof MapStage){
+            return replaceLast(new MapStage(((MapStage) last).operator.andThen(operator)));
+        }
+        return append(new MapStage(operator));
+    }
+
+    public IntPipeline filter(IntPredicate predicate){
+        Stage last = lastStage();
+        if(last instanceof MapStage){
+            return replaceLast(new MapFilterStage(((MapStage) last).operator, predicate));
+        }
+        if(last instanceof AffineStage){
+            AffineStage affine = (AffineStage) last;
+            return replaceLast(new AffineFilterStage(affine.multiplier, affine.addend, predicate));
+        }
+        return append(new FilterStage(predicate));
+    }
+
+    private Stage lastStage(){
+        return stages.length == 0 ? null : stages[stages.length - 1];
+    }
+
+    private IntPipeline append(Stage stage){
+        Stage[] next = Arrays.copyOf(stages, stages.length + 1);
+        next[stages.length] = stage;
+        return new IntPipeline(source, from, to, next);
+    }
+
+    private IntPipeline replaceLast(Stage stage){
+        Stage[] next = stages.clone();
+        next[next.length - 1] = stage;
+        return new IntPipeline(source, from, to, next);
+    }
+
+    private boolean sizePreserving(){
+        for(Stage stage : stages){
+            if(!stage.sizePreserving()) return false;
+        }
+        return true;
+    }
+
+    public int[] toArray(){
+        int length = to - from;
+        if(sizePreserving()){
+            int[] result = new int[length];
+            if(stages.length == 0){
+                System.arraycopy(source, from, result, 0, length);
+                return result;
+            }
+            for(int offset=0; offset<length; offset+=BLOCK){
+                int n = Math.min(BLOCK, length - offset);
+                stages[0].apply(source, from + offset, n, result, offset);
+                for(int s=1; s<stages.length; s++){
+                    stages[s].apply(result, offset, n, result, offset);
+                }
+            }
+            return result;
+        }
+        int[][] result = {new int[Math.min(length, BLOCK)]};
+        int[] size = {0};
+        run(from, to, (block, n) -> {
+            if(size[0] + n > result[0].length){
+                result[0] = Arrays.copyOf(result[0], Math.max(size[0] + n, result[0].length * 2));
+            }
+            System.arraycopy(block, 0, result[0], size[0], n);
+            size[0] += n;
+        });
+        return result[0].length == size[0] ? result[0] : Arrays.copyOf(result[0], size[0]);
+    }
+
+    public long sum(){
+        long[] sum = {0};
+        run(from, to, (block, n) -> {
+            long s = 0;
+            for(int i=0; i<n; i++){
+                s += block[i];
+            }
+            sum[0] += s;
+        });
+        return sum[0];
+    }
+
+    public int count(){
+        if(sizePreserving()) return to - from;
+        int[] count = {0};
+        run(from, to, (block, n) -> count[0] += n);
+        return count[0];
+    }
+
+    public void forEach(IntConsumer action){
+        run(from, to, (block, n) -> {
+            for(int i=0; i<n; i++){
+                action.accept(block[i]);
+            }
+        });
+    }
+
+    // 파이프라인 결과를 요소로 하는 IntStream. 병렬 스트림에서는 원본 구간을 나눠 각 작업이 자기 구간의 블록을 처리한다.
+    public IntStream stream(){
+        return StreamSupport.intStream(new BlockSpliterator(from, to), false);
+    }
+
+    // [lo, hi) 를 블록 단위로 처리하고 결과 블록을 넘긴다.
+    private void run(int lo, int hi, BlockConsumer consumer){
+        int[] buffer = new int[Math.min(BLOCK, hi - lo)];
+        for(int offset=lo; offset<hi; offset+=BLOCK){
+            int n = process(offset, Math.min(BLOCK, hi - offset), buffer);
+            if(n > 0) consumer.accept(buffer, n);
+        }
+    }
+
+    // source[offset, offset + length) 를 모든 단계에 통과시켜 buffer 앞쪽에 쓰고, 남은 요소 수를 반환한다.
+    private int process(int offset, int length, int[] buffer){
+        if(stages.length == 0){
+            System.arraycopy(source, offset, buffer, 0, length);
+            return length;
+        }
+        int n = stages[0].apply(source, offset, length, buffer, 0);
+        for(int s=1; s<stages.length && n>0; s++){
+            n = stages[s].apply(buffer, 0, n, buffer, 0);
+        }
+        return n;
+    }
+
+    @FunctionalInterface
+    private interface BlockConsumer {
+        void accept(int[] block, int length);
+    }
+
+    /**
+     * 단계: in[inOffset, inOffset + length) 를 처리해 out[outOffset, ...) 에 쓰고 결과 수를 반환한다.
+     * in 과 out 이 같은 배열, 같은 위치여도 된다(결과 위치가 입력 위치를 앞지르지 않는다).
+     */
+    private abstract static class Stage {
+        abstract int apply(int[] in, int inOffset, int length, int[] out, int outOffset);
+
+        boolean sizePreserving(){
+            return true;
+        }
+    }
+
+    private static final class AffineStage extends Stage {
+        final int multiplier;
+        final int addend;
+
+        AffineStage(int multiplier, int addend){
+            this.multiplier = multiplier;
+            this.addend = addend;
+        }
+
+        @Override
+        int apply(int[] in, int inOffset, int length, int[] out, int outOffset) {
+            int a = multiplier, b = addend;
+            for(int i=0; i<length; i++){
+                out[outOffset + i] = in[inOffset + i] * a + b;
+            }
+            return length;
+        }
+    }
+
+    private static final class AffineFilterStage extends Stage {
+        final int multiplier;
+        final int addend;
+        final IntPredicate predicate;
+
+        AffineFilterStage(int multiplier, int addend, IntPredicate predicate){
+            this.multiplier = multiplier;
+            this.addend = addend;
+            this.predicate = predicate;
+        }
+
+        @Override
+        int apply(int[] in, int inOffset, int length, int[] out, int outOffset) {
+            int a = multiplier, b = addend;
+            int n = 0;
+            for(int i=0; i<length; i++){
+                int value = in[inOffset + i] * a + b;
+                if(predicate.test(value)) out[outOffset + n++] = value;
+            }
+            return n;
+        }
+
+        @Override
+        boolean sizePreserving() {
+            return false;
+        }
+    }
+
+    private static final class MapStage extends Stage {
+        final IntUnaryOperator operator;
+
+        MapStage(IntUnaryOperator operator){
+            this.operator = operator;
+        }
+
+        @Override
+        int apply(int[] in, int inOffset, int length, int[] out, int outOffset) {
+            for(int i=0; i<length; i++){
+                out[outOffset + i] = operator.applyAsInt(in[inOffset + i]);
+            }
+            return length;
+        }
+    }
+
+    private static final class FilterStage extends Stage {
+        final IntPredicate predicate;
+
+        FilterStage(IntPredicate predicate){
+            this.predicate = predicate;
+        }
+
+        @Override
+        int apply(int[] in, int inOffset, int length, int[] out, int outOffset) {
+            int n = 0;
+            for(int i=0; i<length; i++){
+                int value = in[inOffset + i];
+                if(predicate.test(value)) out[outOffset + n++] = value;
+            }
+            return n;
+        }
+
+        @Override
+        boolean sizePreserving() {
+            return false;
+        }
+    }
+
+    private static final class MapFilterStage extends Stage {
+        final IntUnaryOperator operator;
+        final IntPredicate predicate;
+
+        MapFilterStage(IntUnaryOperator operator, IntPredicate predicate){
+            this.operator = operator;
+            this.predicate = predicate;
+        }
+
+        @Override
+        int apply(int[] in, int inOffset, int length, int[] out, int outOffset) {
+            int n = 0;
+            for(int i=0; i<length; i++){
+                int value = operator.applyAsInt(in[inOffset + i]);
+                if(predicate.test(value)) out[outOffset + n++] = value;
+            }
+            return n;
+        }
+
+        @Override
+        boolean sizePreserving() {
+            return false;
+        }
+    }
+
+    /**
+     * 원본 [index, fence) 를 블록 단위로 처리하며 요소를 내보내는 spliterator
+     * 크기가 변하지 않는 파이프라인이면 SIZED | SUBSIZED 이다.
+     */
+    private final class BlockSpliterator implements Spliterator.OfInt {
+        private int index;
+        private final int fence;
+        private int[] buffer;
+        private int position;
+        private int limit;
+
+        BlockSpliterator(int index, int fence){
+            this.index = index;
+            this.fence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            while (position == limit) {
+                if(index >= fence) return false;
+                if(buffer == null) buffer = new int[BLOCK];
+                int length = Math.min(BLOCK, fence - index);
+                limit = process(index, length, buffer);
+                position = 0;
+                index += length;
+            }
+            action.accept(buffer[position++]);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            while (position < limit) {
+                action.accept(buffer[position++]);
+            }
+            if(index < fence){
+                run(index, fence, (block, n) -> {
+                    for(int i=0; i<n; i++){
+                        action.accept(block[i]);
+                    }
+                });
+                index = fence;
+            }
+        }
+
+        // 버퍼에 남은 요소가 없을 때만 원본 구간을 블록 경계에서 절반으로 나눈다.
+        @Override
+        public OfInt trySplit() {
+            if(position < limit) return null;
+            int mid = index + ((fence - index) >>> 1) / BLOCK * BLOCK;
+            if(mid <= index) return null;
+            BlockSpliterator prefix = new BlockSpliterator(index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return (long) (fence - index) + (limit - position);
+        }
+
+        @Override
+        public int characteristics() {
+            int characteristics = Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+            return sizePreserving() ? characteristics | Spliterator.SIZED | Spliterator.SUBSIZED : characteristics;
+        }
+    }
+}
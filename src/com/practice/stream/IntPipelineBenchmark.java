@@ -0,0 +1,74 @@
+package com.practice.stream;
+
+import com.practice.benchmark.BenchmarkData;
+import com.practice.benchmark.BenchmarkRunner;
+import com.practice.benchmark.BenchmarkSuite;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * IntPipeline 벤치마크
+ * ClosureExample.calculator 의 stream.map(x -> x*a+b) 를 박싱 스트림, IntStream, IntPipeline 으로 실행한다.
+ * affineChain 은 아핀 변환 3개(하나로 합쳐짐)와 filter, mapFilter 는 일반 map 과 filter 를 이어 붙인 경우이다.
+ */
+public class IntPipelineBenchmark extends BenchmarkSuite {
+
+    private static final int A = 2;
+    private static final int B = 5;
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner.run(IntPipelineBenchmark.class, args);
+    }
+
+    @Override
+    protected void register() {
+        sizes(1_000, 1_000_000);
+
+        bench("boxedStream", params -> {
+            List<Integer> values = BenchmarkData.integers(params.getSize(), 1_000_000);
+            return bh -> bh.consume(values.stream().map(x -> x*A+B).collect(Collectors.toList()));
+        });
+
+        bench("intStream", params -> {
+            int[] values = BenchmarkData.ints(params.getSize(), 1_000_000);
+            return bh -> bh.consume(Arrays.stream(values).map(x -> x*A+B).toArray());
+        });
+
+        bench("intPipeline", params -> {
+            int[] values = BenchmarkData.ints(params.getSize(), 1_000_000);
+            return bh -> bh.consume(IntPipeline.of(values).affine(A, B).toArray());
+        });
+
+        bench("affineChainBoxedStream", params -> {
+            List<Integer> values = BenchmarkData.integers(params.getSize(), 1_000_000);
+            return bh -> bh.consume(values.stream()
+                    .map(x -> x*A+B).map(x -> x*3+1).map(x -> x-7)
+                    .filter(x -> x % 3 != 0)
+                    .collect(Collectors.toList()));
+        });
+
+        bench("affineChainIntPipeline", params -> {
+            int[] values = BenchmarkData.ints(params.getSize(), 1_000_000);
+            return bh -> bh.consume(IntPipeline.of(values)
+                    .affine(A, B).affine(3, 1).affine(1, -7)
+                    .filter(x -> x % 3 != 0)
+                    .toArray());
+        });
+
+        bench("mapFilterIntStream", params -> {
+            int[] values = BenchmarkData.ints(params.getSize(), 1_000_000);
+            return bh -> bh.consume(Arrays.stream(values)
+                    .map(x -> x ^ (x >>> 3)).filter(x -> (x & 1) == 0)
+                    .sum());
+        });
+
+        bench("mapFilterIntPipeline", params -> {
+            int[] values = BenchmarkData.ints(params.getSize(), 1_000_000);
+            return bh -> bh.consume(IntPipeline.of(values)
+                    .map(x -> x ^ (x >>> 3)).filter(x -> (x & 1) == 0)
+                    .sum());
+        });
+    }
+}
@@ -0,0 +1,268 @@
+package com.practice.stream;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * int 기수 정렬 (LSD radix sort)
+ * Stream<Integer>.sorted() 는 비교할 때마다 Comparator 호출과 언박싱이 일어나고 O(n log n) 번 비교한다.
+ * 기수 정렬은 값을 비교하지 않고 8비트씩 4번, 자릿값별 개수를 세어(히스토그램) 그 위치로 흩뿌린다(scatter). 비교 없이 O(n) 이다.
+ *
+ * 정렬 키: 부호 비트를 뒤집으면 음수가 양수보다 앞에 오는 부호 없는 정수가 된다. 내림차순은 나머지 비트까지 모두 뒤집은 키로 정렬한다.
+ *   오름차순 키 = v ^ 0x80000000, 내림차순 키 = v ^ 0x7FFFFFFF
+ *   값 자체는 바꾸지 않고 자릿값을 꺼낼 때만 키로 바꾸므로 Comparator 가 필요 없다.
+ * 4개 자리의 히스토그램은 첫 순회에서 한 번에 만들고, 모든 값이 같은 자릿값을 가진 자리는 건너뛴다.
+ *
+ * 병렬 정렬: 배열을 블록으로 나누고 블록마다 히스토그램을 병렬로 만든다. (자릿값, 블록) 순서로 누적 합을 구하면 각 블록이 쓸 위치가 겹치지 않으므로
+ * 흩뿌리기도 블록별로 병렬로 수행한다. 같은 자릿값 안에서는 앞 블록이 앞에 오므로 안정 정렬이 유지된다.
+ * 병렬 작업은 IntStream.parallel() 로 실행하므로 호출한 스레드가 속한 ForkJoinPool(없으면 공용 풀)을 사용한다.
+ */
+public final class IntRadixSort {
+
+    private static final int RADIX_BITS = 8;
+    private static final int BUCKETS = 1 << RADIX_BITS;
+    private static final int PASSES = Integer.SIZE / RADIX_BITS;
+    private static final int ASCENDING = Integer.MIN_VALUE;
+    private static final int DESCENDING = Integer.MAX_VALUE;
+
+    // 이보다 작은 배열은 Arrays.sort 가 빠르다.
+    private static final int INSERTION_THRESHOLD = 256;
+    // 이보다 작은 배열은 병렬화 비용이 더 크다.
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    private static final int MIN_BLOCK = 1 << 14;
+
+    private IntRadixSort(){
+    }
+
+    public static void sort(int[] a){
+        sort(a, ASCENDING);
+    }
+
+    public static void sortDescending(int[] a){
+        sort(a, DESCENDING);
+    }
+
+    public static void parallelSort(int[] a){
+        parallelSort(a, ASCENDING);
+    }
+
+    public static void parallelSortDescending(int[] a){
+        parallelSort(a, DESCENDING);
+    }
+
+    /**
+     * sorted() 대신 사용하는 정렬 단계.
+     * 원본은 최종 연산이 실행될 때 소비하고, 그 시점에 결과 스트림이 병렬이면 병렬로 정렬한다.
+     * 따라서 sorted(ints).parallel() 처럼 호출한 뒤에 모드를 바꿔도 되고, 결과 스트림을 닫으면 원본도 닫힌다.
+     */
+    public static IntStream sorted(IntStream stream){
+        return sorted(stream, ASCENDING);
+    }
+
+    public static IntStream sortedDescending(IntStream stream){
+        return sorted(stream, DESCENDING);
+    }
+
+    /**
+     * Stream<Integer>.sorted(comparator) 대신 사용하는 정렬 단계.
+     * 자연 순서(null, naturalOrder)나 역순(reverseOrder)이면 기수 정렬로, 그 밖의 Comparator 는 Stream.sorted 로 정렬한다.
+     */
+    public static Stream<Integer> sorted(Stream<Integer> stream, Comparator<? super Integer> comparator){
+        int mask;
+        if(comparator == null || comparator == Comparator.naturalOrder()) mask = ASCENDING;
+        else if(comparator == Comparator.reverseOrder() || comparator == Collections.reverseOrder()) mask = DESCENDING;
+        else return stream.sorted(comparator);
+        return sorted(stream.mapToInt(Integer::intValue), mask).boxed();
+    }
+
+    public static Stream<Integer> sorted(Stream<Integer> stream){
+        return sorted(stream, null);
+    }
+
+    private static IntStream sorted(IntStream stream, int mask){
+        DeferredSpliterator spliterator = new DeferredSpliterator(stream, mask);
+        IntStream result = StreamSupport.intStream(spliterator, stream.isParallel());
+        spliterator.pipeline = result;
+        return result.onClose(stream::close);
+    }
+
+    private static int digit(int value, int mask, int pass){
+        return ((value ^ mask) >>> (pass * RADIX_BITS)) & (BUCKETS - 1);
+    }
+
+    private static void sort(int[] a, int mask){
+        int n = a.length;
+        if(n < INSERTION_THRESHOLD){
+            smallSort(a, mask);
+            return;
+        }
+
+        int[][] counts = new int[PASSES][BUCKETS];
+        for(int value : a){
+            int key = value ^ mask;
+            counts[0][key & 0xFF]++;
+            counts[1][(key >>> 8) & 0xFF]++;
+            counts[2][(key >>> 16) & 0xFF]++;
+            counts[3][key >>> 24]++;
+        }
+
+        int[] source = a;
+        int[] target = new int[n];
+        for(int pass=0; pass<PASSES; pass++){
+            int[] count = counts[pass];
+            if(isSingleBucket(count, n)) continue;
+
+            int[] offsets = new int[BUCKETS];
+            for(int b=0, sum=0; b<BUCKETS; b++){
+                offsets[b] = sum;
+                sum += count[b];
+            }
+            int shift = pass * RADIX_BITS;
+            for(int value : source){
+                target[offsets[((value ^ mask) >>> shift) & 0xFF]++] = value;
+            }
+            int[] swap = source;
+            source = target;
+            target = swap;
+        }
+        if(source != a) System.arraycopy(source, 0, a, 0, n);
+    }
+
+    private static void parallelSort(int[] a, int mask){
+        int n = a.length;
+        ForkJoinPool pool = ForkJoinTask.getPool();
+        int parallelism = pool != null ? pool.getParallelism() : ForkJoinPool.getCommonPoolParallelism();
+        int blocks = Math.min(parallelism * 4, n / MIN_BLOCK);
+        if(n < PARALLEL_THRESHOLD || blocks < 2){
+            sort(a, mask);
+            return;
+        }
+        int blockSize = (n + blocks - 1) / blocks;
+
+        int[][] source = {a};
+        int[][] target = {new int[n]};
+        for(int pass=0; pass<PASSES; pass++){
+            int p = pass;
+            // 블록별 히스토그램
+            int[][] counts = new int[blocks][BUCKETS];
+            IntStream.range(0, blocks).parallel().forEach(block -> {
+                int[] count = counts[block];
+                int[] src = source[0];
+                for(int i=block*blockSize, end=Math.min(n, i+blockSize); i<end; i++){
+                    count[digit(src[i], mask, p)]++;
+                }
+            });
+
+            // (자릿값, 블록) 순서의 누적 합. 한 자릿값에 모든 값이 몰려 있으면 이 자리는 건너뛴다.
+            int sum = 0;
+            boolean single = false;
+            for(int b=0; b<BUCKETS && !single; b++){
+                int bucketTotal = 0;
+                for(int block=0; block<blocks; block++){
+                    int c = counts[block][b];
+                    counts[block][b] = sum;
+                    sum += c;
+                    bucketTotal += c;
+                }
+                single = bucketTotal == n;
+            }
+            if(single) continue;
+
+            // 블록별 흩뿌리기. 블록마다 쓰는 위치가 겹치지 않는다.
+            IntStream.range(0, blocks).parallel().forEach(block -> {
+                int[] offsets = counts[block];
+                int[] src = source[0];
+                int[] dst = target[0];
+                for(int i=block*blockSize, end=Math.min(n, i+blockSize); i<end; i++){
+                    int value = src[i];
+                    dst[offsets[digit(value, mask, p)]++] = value;
+                }
+            });
+            int[] swap = source[0];
+            source[0] = target[0];
+            target[0] = swap;
+        }
+        if(source[0] != a) System.arraycopy(source[0], 0, a, 0, n);
+    }
+
+    private static boolean isSingleBucket(int[] count, int n){
+        for(int c : count){
+            if(c == n) return true;
+            if(c != 0) return false;
+        }
+        return false;
+    }
+
+    private static void smallSort(int[] a, int mask){
+        Arrays.sort(a);
+        if(mask == DESCENDING){
+            for(int i=0, j=a.length-1; i<j; i++, j--){
+                int t = a[i];
+                a[i] = a[j];
+                a[j] = t;
+            }
+        }
+    }
+
+    // 최종 연산이 처음 요소를 요청할 때 원본을 모아 정렬한다.
+    private static final class DeferredSpliterator implements Spliterator.OfInt {
+        private final IntStream source;
+        private final int mask;
+        private IntStream pipeline; // 결과 스트림. parallel(), sequential() 은 원본 단계의 플래그를 바꾸므로 최종 연산 시점의 모드를 읽을 수 있다.
+        private Spliterator.OfInt delegate;
+
+        DeferredSpliterator(IntStream source, int mask){
+            this.source = source;
+            this.mask = mask;
+        }
+
+        private Spliterator.OfInt delegate(){
+            if(delegate == null){
+                int[] values;
+                if(pipeline.isParallel()){
+                    values = source.parallel().toArray();
+                    parallelSort(values, mask);
+                } else {
+                    values = source.sequential().toArray();
+                    sort(values, mask);
+                }
+                delegate = Arrays.spliterator(values);
+            }
+            return delegate;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            return delegate().tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            delegate().forEachRemaining(action);
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            return delegate().trySplit();
+        }
+
+        @Override
+        public long estimateSize() {
+            return delegate().estimateSize();
+        }
+
+        // 내림차순도 있으므로 SORTED(자연 순서) 는 알리지 않는다.
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED;
+        }
+    }
+}
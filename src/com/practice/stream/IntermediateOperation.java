@@ -3,7 +3,6 @@ package com.practice.stream;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -24,6 +23,8 @@ import java.util.stream.Stream;
 
 public class IntermediateOperation {
 
+    private static final ChannelSink OUT = ChannelSink.stdoutOrdered(", ");
+
     public IntermediateOperation(){}
 
     public static void main(String[] args) {
@@ -60,6 +61,10 @@ public class IntermediateOperation {
                 .distinct();
         intermediateOperation.print(distinctStream);
 
+        // 박싱 없이 비트맵으로 중복 제거 (처음 본 순서 유지)
+        int[] distinctInts = IntDistinct.distinct(numbers.stream().mapToInt(Integer::intValue)).toArray();
+        System.out.println(Arrays.toString(distinctInts));
+
 
         // Stream<T> sorted()
         // Stream<T> sorted(Comparator<? super T> comparator)
@@ -71,29 +76,59 @@ public class IntermediateOperation {
                 .sorted(Comparator.reverseOrder());
         intermediateOperation.print(reverseOrderStream);
 
+        // 기수 정렬: 역순은 Comparator 대신 정렬 키를 뒤집어서 처리한다.
+        Stream<Integer> radixSortedStream = IntRadixSort.sorted(numbers.stream(), Comparator.reverseOrder());
+        intermediateOperation.print(radixSortedStream);
+
         Stream<String> lengthOrderStream = words.stream()
                 .sorted(Comparator.comparing(String::length)
                         .thenComparing(Comparator.naturalOrder()));
         intermediateOperation.print(lengthOrderStream);
 
+        // 정렬 키를 요소마다 한 번만 계산해서 정렬
+        Stream<String> keySortedStream = KeySort.<String>comparingInt(String::length)
+                .thenComparingNatural()
+                .sorted(words.stream());
+        intermediateOperation.print(keySortedStream);
+
 
         // Stream<T> limit(long maxSize)
         Stream<Integer> limitedStream = numbers.stream()
                 .limit(5);
         intermediateOperation.print(limitedStream);
 
+        // 전체를 정렬하지 않고 크기 3의 힙으로 가장 큰 3개를 고른다. sorted(Comparator.reverseOrder()).limit(3) 과 같은 결과
+        Stream<Integer> top3Stream = TopK.topK(numbers.stream(), 3, Comparator.reverseOrder());
+        intermediateOperation.print(top3Stream);
+        System.out.println(Arrays.toString(TopK.largest(numbers.stream().mapToInt(Integer::intValue), 3)));
+
 
         // Stream<T> skip(long n)
         Stream<Integer> skippedStream = numbers.stream()
                 .skip(3);
         intermediateOperation.print(skippedStream);
 
+
+        // 단계별 측정: 단계마다 들어오고 나간 요소 수, 선택도(out / in), 쓴 시간을 기록한다.
+        PipelineMetrics metrics = PipelineMetrics.enabled();
+        Stream<Integer> measuredStream = metrics.source(nestedList.stream())
+                .flatMap(List::stream)
+                .filter(n -> n % 2 == 1).as("홀수")
+                .map(n -> n*n)
+                .distinct()
+                .sorted(Comparator.reverseOrder())
+                .skip(1)
+                .limit(3)
+                .stream();
+        intermediateOperation.print(measuredStream);
+        System.out.println(metrics.snapshot());
+        System.out.println("bottleneck: " + metrics.snapshot().bottleneck().getName());
+
     }
 
+    // 결과 전체를 담은 String 을 만들지 않고, 요소를 ", " 로 구분해 출력 버퍼에 바로 쓴다. 병렬 스트림도 만남 순서대로 출력된다.
     public <T> void print(Stream<T> stream){
-        System.out.println(stream.map(it -> {
-            if(it instanceof Integer) return Integer.toString((Integer) it);
-            else return it.toString();
-        }).collect(Collectors.joining(", ")));
+        stream.forEachOrdered(OUT);
+        OUT.newLine();
     }
 }
@@ -0,0 +1,239 @@
+package com.practice.stream;
+
+import com.practice.benchmark.BenchmarkData;
+import com.practice.benchmark.BenchmarkRunner;
+import com.practice.benchmark.BenchmarkSuite;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * IntermediateOperation 벤치마크
+ * IntermediateOperation.main 의 중간 연산들을 지정한 크기의 데이터로 측정한다.
+ * 중간 연산은 지연 평가되므로 모든 파이프라인은 collect 로 끝나도록 한다.
+ */
+public class IntermediateOperationBenchmark extends BenchmarkSuite {
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner.run(IntermediateOperationBenchmark.class, args);
+    }
+
+    @Override
+    protected void register() {
+        sizes(10_000, 1_000_000);
+
+        bench("filter", params -> {
+            List<String> words = BenchmarkData.words(params.getSize(), 3, 8);
+            return bh -> bh.consume(words.stream()
+                    .filter(str -> str.length() >= 5)
+                    .collect(Collectors.toList()));
+        });
+
+        bench("map", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), 1000);
+            return bh -> bh.consume(numbers.stream()
+                    .map(n -> n*n)
+                    .collect(Collectors.toList()));
+        });
+
+        bench("flatMap", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), 1000);
+            List<List<Integer>> nestedList = new ArrayList<>();
+            for(int i=0; i<numbers.size(); i+=3){
+                nestedList.add(numbers.subList(i, Math.min(i + 3, numbers.size())));
+            }
+            return bh -> bh.consume(nestedList.stream()
+                    .flatMap(List::stream)
+                    .collect(Collectors.toList()));
+        });
+
+        bench("distinct", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), params.getSize() / 2 + 1);
+            return bh -> bh.consume(numbers.stream()
+                    .distinct()
+                    .collect(Collectors.toList()));
+        });
+
+        bench("intDistinct", params -> {
+            int[] numbers = BenchmarkData.ints(params.getSize(), params.getSize() / 2 + 1);
+            return bh -> bh.consume(IntDistinct.distinct(Arrays.stream(numbers))
+                    .toArray());
+        });
+
+        bench("distinctParallel", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), params.getSize() / 2 + 1);
+            return bh -> bh.consume(numbers.parallelStream()
+                    .distinct()
+                    .collect(Collectors.toList()));
+        });
+
+        bench("intDistinctParallel", params -> {
+            int[] numbers = BenchmarkData.ints(params.getSize(), params.getSize() / 2 + 1);
+            return bh -> bh.consume(IntDistinct.distinct(Arrays.stream(numbers).parallel())
+                    .toArray());
+        });
+
+        bench("intDistinctUnorderedParallel", params -> {
+            int[] numbers = BenchmarkData.ints(params.getSize(), params.getSize() / 2 + 1);
+            return bh -> bh.consume(IntDistinct.distinctUnordered(Arrays.stream(numbers).parallel())
+                    .toArray());
+        });
+
+        bench("sorted", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), Integer.MAX_VALUE);
+            return bh -> bh.consume(numbers.stream()
+                    .sorted()
+                    .collect(Collectors.toList()));
+        });
+
+        bench("sortedReverseOrder", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), Integer.MAX_VALUE);
+            return bh -> bh.consume(numbers.stream()
+                    .sorted(Comparator.reverseOrder())
+                    .collect(Collectors.toList()));
+        });
+
+        bench("sortedIntStream", params -> {
+            int[] numbers = BenchmarkData.ints(params.getSize(), Integer.MAX_VALUE);
+            return bh -> bh.consume(Arrays.stream(numbers)
+                    .sorted()
+                    .toArray());
+        });
+
+        bench("radixSorted", params -> {
+            int[] numbers = BenchmarkData.ints(params.getSize(), Integer.MAX_VALUE);
+            return bh -> bh.consume(IntRadixSort.sorted(Arrays.stream(numbers))
+                    .toArray());
+        });
+
+        bench("radixSortedReverseOrderBoxed", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), Integer.MAX_VALUE);
+            return bh -> bh.consume(IntRadixSort.sorted(numbers.stream(), Comparator.reverseOrder())
+                    .collect(Collectors.toList()));
+        });
+
+        bench("sortedIntStreamParallel", params -> {
+            int[] numbers = BenchmarkData.ints(params.getSize(), Integer.MAX_VALUE);
+            return bh -> bh.consume(Arrays.stream(numbers).parallel()
+                    .sorted()
+                    .toArray());
+        });
+
+        bench("radixSortedParallel", params -> {
+            int[] numbers = BenchmarkData.ints(params.getSize(), Integer.MAX_VALUE);
+            return bh -> bh.consume(IntRadixSort.sorted(Arrays.stream(numbers).parallel())
+                    .toArray());
+        });
+
+        bench("sortedByLengthThenNatural", params -> {
+            List<String> words = BenchmarkData.words(params.getSize(), 3, 8);
+            return bh -> bh.consume(words.stream()
+                    .sorted(Comparator.comparing(String::length)
+                            .thenComparing(Comparator.naturalOrder()))
+                    .collect(Collectors.toList()));
+        });
+
+        bench("keySortedByLengthThenNatural", params -> {
+            List<String> words = BenchmarkData.words(params.getSize(), 3, 8);
+            KeySort<String> keySort = KeySort.<String>comparingInt(String::length).thenComparingNatural();
+            return bh -> bh.consume(keySort.sorted(words.stream())
+                    .collect(Collectors.toList()));
+        });
+
+        bench("sortedByLengthThenNaturalParallel", params -> {
+            List<String> words = BenchmarkData.words(params.getSize(), 3, 8);
+            return bh -> bh.consume(words.parallelStream()
+                    .sorted(Comparator.comparing(String::length)
+                            .thenComparing(Comparator.naturalOrder()))
+                    .collect(Collectors.toList()));
+        });
+
+        bench("keySortedByLengthThenNaturalParallel", params -> {
+            List<String> words = BenchmarkData.words(params.getSize(), 3, 8);
+            KeySort<String> keySort = KeySort.<String>comparingInt(String::length).thenComparingNatural();
+            return bh -> bh.consume(keySort.sorted(words.parallelStream())
+                    .collect(Collectors.toList()));
+        });
+
+        bench("limit", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), 1000);
+            return bh -> bh.consume(numbers.stream()
+                    .limit(params.getSize() / 2)
+                    .collect(Collectors.toList()));
+        });
+
+        bench("sortedReverseOrderLimit10", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), Integer.MAX_VALUE);
+            return bh -> bh.consume(numbers.stream()
+                    .sorted(Comparator.reverseOrder())
+                    .limit(10)
+                    .collect(Collectors.toList()));
+        });
+
+        bench("topK10", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), Integer.MAX_VALUE);
+            return bh -> bh.consume(numbers.stream()
+                    .collect(TopK.topK(10, Comparator.reverseOrder())));
+        });
+
+        bench("topK10Parallel", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), Integer.MAX_VALUE);
+            return bh -> bh.consume(numbers.parallelStream()
+                    .collect(TopK.topK(10, Comparator.reverseOrder())));
+        });
+
+        bench("intLargest10", params -> {
+            int[] numbers = BenchmarkData.ints(params.getSize(), Integer.MAX_VALUE);
+            return bh -> bh.consume(TopK.largest(Arrays.stream(numbers), 10));
+        });
+
+        bench("skip", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), 1000);
+            return bh -> bh.consume(numbers.stream()
+                    .skip(params.getSize() / 2)
+                    .collect(Collectors.toList()));
+        });
+
+        // 단계별 측정 비용: 측정 없는 파이프라인, 꺼진 PipelineMetrics, 켜진 PipelineMetrics (순차, 병렬)
+        bench("filterMapDistinct", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), 1000);
+            return bh -> bh.consume(numbers.stream()
+                    .filter(n -> n % 3 != 0).map(n -> n * 2).distinct()
+                    .collect(Collectors.toList()));
+        });
+
+        bench("filterMapDistinctMetricsDisabled", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), 1000);
+            PipelineMetrics metrics = PipelineMetrics.disabled();
+            return bh -> bh.consume(metrics.source(numbers.stream())
+                    .filter(n -> n % 3 != 0).map(n -> n * 2).distinct()
+                    .stream().collect(Collectors.toList()));
+        });
+
+        bench("filterMapDistinctMetricsEnabled", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), 1000);
+            PipelineMetrics metrics = PipelineMetrics.enabled();
+            return bh -> bh.consume(metrics.source(numbers.stream())
+                    .filter(n -> n % 3 != 0).map(n -> n * 2).distinct()
+                    .stream().collect(Collectors.toList()));
+        });
+
+        bench("filterMapDistinctParallel", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), 1000);
+            return bh -> bh.consume(numbers.parallelStream()
+                    .filter(n -> n % 3 != 0).map(n -> n * 2).distinct()
+                    .collect(Collectors.toList()));
+        });
+
+        bench("filterMapDistinctMetricsEnabledParallel", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), 1000);
+            PipelineMetrics metrics = PipelineMetrics.enabled();
+            return bh -> bh.consume(metrics.source(numbers.parallelStream())
+                    .filter(n -> n % 3 != 0).map(n -> n * 2).distinct()
+                    .stream().collect(Collectors.toList()));
+        });
+    }
+}
@@ -0,0 +1,397 @@
+package com.practice.stream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 정렬 키를 미리 계산하는 정렬 (decorate-sort-undecorate)
+ * sorted(Comparator.comparing(str -> str.toLowerCase())) 는 비교할 때마다 toLowerCase 로 새 문자열을 만들어 O(n log n) 번 할당한다.
+ * comparing(String::length).thenComparing(naturalOrder()) 도 비교할 때마다 Comparator 체인을 따라 람다를 여러 번 호출한다.
+ *
+ * KeySort 는 요소마다 정렬 키를 한 번만 계산해 배열에 저장(decorate)하고, 키 배열로 요소 번호를 정렬한 뒤(sort), 번호 순서대로 요소를 꺼낸다(undecorate).
+ *
+ * 키 저장 방식
+ * int 키: 연속한 int 키 두 개를 long 하나의 상위/하위 32비트에 담는다. long 한 번 비교로 두 키를 함께 비교한다.
+ * long 키: long 하나에 담는다.
+ * 객체 키: 객체 배열에 담고, 문자열이면 앞 4글자를 long 에 담은 접두사를 함께 저장한다. 접두사가 다르면 compareTo 를 호출하지 않는다.
+ * 내림차순: 키의 비트를 모두 뒤집어(~v) 저장하므로 비교 코드는 그대로이다.
+ *
+ * 정렬은 안정 병합 정렬이며, 병렬 스트림이면 키 계산과 정렬을 ForkJoinPool 에서 나눠서 수행한다.
+ */
+public final class KeySort<T> {
+
+    private static final int SEQUENTIAL_THRESHOLD = 1 << 13;
+    private static final int INSERTION_THRESHOLD = 32;
+
+    private enum Kind {
+        INT, LONG, OBJECT
+    }
+
+    private static final class Part {
+        final Kind kind;
+        final Object extractor;
+        final boolean descending;
+
+        Part(Kind kind, Object extractor, boolean descending){
+            this.kind = kind;
+            this.extractor = extractor;
+            this.descending = descending;
+        }
+    }
+
+    private final List<Part> parts;
+
+    // 키 배치: longSlots 개의 long 과 objectSlots 개의 객체. ops 는 비교 순서 (0 이상: long 칸, 음수: ~객체 칸)
+    private final int longSlots;
+    private final int objectSlots;
+    private final int[] ops;
+    private final boolean[] objectDescending;
+
+    private KeySort(List<Part> parts){
+        this.parts = Collections.unmodifiableList(parts);
+        List<Integer> opList = new ArrayList<>();
+        List<Boolean> descending = new ArrayList<>();
+        int longs = 0, objects = 0;
+        boolean openLowHalf = false;
+        for(Part part : parts){
+            if(part.kind == Kind.INT && openLowHalf){
+                openLowHalf = false;
+                continue;
+            }
+            opList.add(longs++);
+            openLowHalf = part.kind == Kind.INT;
+            if(part.kind == Kind.OBJECT){
+                opList.add(~objects++);
+                descending.add(part.descending);
+            }
+        }
+        this.longSlots = longs;
+        this.objectSlots = objects;
+        this.ops = opList.stream().mapToInt(Integer::intValue).toArray();
+        this.objectDescending = new boolean[objects];
+        for(int i=0; i<objects; i++){
+            objectDescending[i] = descending.get(i);
+        }
+    }
+
+    public static <T> KeySort<T> comparingInt(ToIntFunction<? super T> keyExtractor){
+        return new KeySort<T>(new ArrayList<>()).thenComparingInt(keyExtractor);
+    }
+
+    public static <T> KeySort<T> comparingLong(ToLongFunction<? super T> keyExtractor){
+        return new KeySort<T>(new ArrayList<>()).thenComparingLong(keyExtractor);
+    }
+
+    public static <T, U extends Comparable<? super U>> KeySort<T> comparing(Function<? super T, ? extends U> keyExtractor){
+        return new KeySort<T>(new ArrayList<>()).thenComparing(keyExtractor);
+    }
+
+    public static <T extends Comparable<? super T>> KeySort<T> naturalOrder(){
+        return comparing(Function.identity());
+    }
+
+    public KeySort<T> thenComparingInt(ToIntFunction<? super T> keyExtractor){
+        return with(new Part(Kind.INT, keyExtractor, false));
+    }
+
+    public KeySort<T> thenComparingLong(ToLongFunction<? super T> keyExtractor){
+        return with(new Part(Kind.LONG, keyExtractor, false));
+    }
+
+    public <U extends Comparable<? super U>> KeySort<T> thenComparing(Function<? super T, ? extends U> keyExtractor){
+        return with(new Part(Kind.OBJECT, keyExtractor, false));
+    }
+
+    // thenComparing(Comparator.naturalOrder()) 에 해당한다.
+    public KeySort<T> thenComparingNatural(){
+        return with(new Part(Kind.OBJECT, Function.identity(), false));
+    }
+
+    // Comparator.reversed() 와 같이 전체 순서를 뒤집는다.
+    public KeySort<T> reversed(){
+        List<Part> reversed = new ArrayList<>(parts.size());
+        for(Part part : parts){
+            reversed.add(new Part(part.kind, part.extractor, !part.descending));
+        }
+        return new KeySort<>(reversed);
+    }
+
+    private KeySort<T> with(Part part){
+        List<Part> next = new ArrayList<>(parts);
+        next.add(part);
+        return new KeySort<>(next);
+    }
+
+    // 같은 순서의 Comparator. 키를 미리 계산할 수 없는 곳에서 사용한다.
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Comparator<T> comparator(){
+        Comparator<T> result = null;
+        for(Part part : parts){
+            Comparator<T> next;
+            switch (part.kind) {
+                case INT: next = Comparator.comparingInt((ToIntFunction<? super T>) part.extractor); break;
+                case LONG: next = Comparator.comparingLong((ToLongFunction<? super T>) part.extractor); break;
+                default: next = Comparator.comparing((Function) part.extractor);
+            }
+            if(part.descending) next = next.reversed();
+            result = result == null ? next : result.thenComparing(next);
+        }
+        return result == null ? (a, b) -> 0 : result;
+    }
+
+    // 정렬된 새 리스트
+    public List<T> sort(Collection<? extends T> elements){
+        return sort(elements, false);
+    }
+
+    public List<T> parallelSort(Collection<? extends T> elements){
+        return sort(elements, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<T> sort(Collection<? extends T> elements, boolean parallel){
+        return (List<T>) Arrays.asList(sortArray(elements.toArray(), parallel));
+    }
+
+    /**
+     * sorted(comparator) 대신 사용하는 정렬 단계.
+     * 원본은 최종 연산이 실행될 때 소비하고, 그 시점에 결과 스트림이 병렬이면 병렬로 정렬한다.
+     * 결과 스트림을 닫으면 원본도 닫힌다.
+     */
+    public <S extends T> Stream<S> sorted(Stream<S> stream){
+        DeferredSpliterator<S> spliterator = new DeferredSpliterator<>(stream);
+        Stream<S> result = StreamSupport.stream(spliterator, stream.isParallel());
+        spliterator.pipeline = result;
+        return result.onClose(stream::close);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object[] sortArray(Object[] values, boolean parallel){
+        int n = values.length;
+        boolean split = parallel && n >= SEQUENTIAL_THRESHOLD;
+        Decorated decorated = new Decorated(n);
+        if(split){
+            IntStream.range(0, n).parallel().forEach(i -> decorated.decorate(i, (T) values[i]));
+        } else {
+            for(int i=0; i<n; i++){
+                decorated.decorate(i, (T) values[i]);
+            }
+        }
+
+        int[] order = new int[n];
+        for(int i=0; i<n; i++){
+            order[i] = i;
+        }
+        int[] buffer = order.clone();
+        if(split) new MergeSortTask(decorated, buffer, order, 0, n).invoke();
+        else mergeSort(decorated, buffer, order, 0, n);
+
+        Object[] sorted = new Object[n];
+        for(int i=0; i<n; i++){
+            sorted[i] = values[order[i]];
+        }
+        return sorted;
+    }
+
+    // 최종 연산이 처음 요소를 요청할 때 원본을 모아 정렬한다.
+    private final class DeferredSpliterator<S extends T> implements Spliterator<S> {
+        private final Stream<S> source;
+        private Stream<S> pipeline; // 결과 스트림. parallel(), sequential() 은 원본 단계의 플래그를 바꾸므로 최종 연산 시점의 모드를 읽을 수 있다.
+        private Spliterator<S> delegate;
+
+        DeferredSpliterator(Stream<S> source){
+            this.source = source;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Spliterator<S> delegate(){
+            if(delegate == null){
+                boolean parallel = pipeline.isParallel();
+                Object[] values = (parallel ? source.parallel() : source.sequential()).toArray();
+                delegate = (Spliterator<S>) Arrays.spliterator(sortArray(values, parallel));
+            }
+            return delegate;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super S> action) {
+            return delegate().tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super S> action) {
+            delegate().forEachRemaining(action);
+        }
+
+        @Override
+        public Spliterator<S> trySplit() {
+            return delegate().trySplit();
+        }
+
+        @Override
+        public long estimateSize() {
+            return delegate().estimateSize();
+        }
+
+        // 자연 순서가 아니므로 SORTED 는 알리지 않는다.
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED;
+        }
+    }
+
+    /**
+     * 미리 계산한 키. 요소 i 의 long 키는 longKeys[i * longSlots ...], 객체 키는 objectKeys[i * objectSlots ...] 에 있다.
+     */
+    private final class Decorated {
+        final long[] longKeys;
+        final Object[] objectKeys;
+
+        Decorated(int n){
+            this.longKeys = new long[n * longSlots];
+            this.objectKeys = new Object[n * objectSlots];
+        }
+
+        @SuppressWarnings("unchecked")
+        void decorate(int index, T element){
+            int longSlot = index * longSlots - 1;
+            int objectSlot = index * objectSlots;
+            boolean openLowHalf = false;
+            for(Part part : parts){
+                switch (part.kind) {
+                    case INT: {
+                        int key = ((ToIntFunction<? super T>) part.extractor).applyAsInt(element);
+                        if(part.descending) key = ~key;
+                        if(openLowHalf){
+                            longKeys[longSlot] |= (key ^ Integer.MIN_VALUE) & 0xFFFFFFFFL;
+                            openLowHalf = false;
+                        } else {
+                            longKeys[++longSlot] = (long) key << 32;
+                            openLowHalf = true;
+                        }
+                        break;
+                    }
+                    case LONG: {
+                        long key = ((ToLongFunction<? super T>) part.extractor).applyAsLong(element);
+                        longKeys[++longSlot] = part.descending ? ~key : key;
+                        openLowHalf = false;
+                        break;
+                    }
+                    default: {
+                        Object key = ((Function<? super T, ?>) part.extractor).apply(element);
+                        long prefix = key instanceof String ? prefixOf((String) key) : 0;
+                        longKeys[++longSlot] = part.descending ? ~prefix : prefix;
+                        objectKeys[objectSlot++] = key;
+                        openLowHalf = false;
+                    }
+                }
+            }
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        int compare(int a, int b){
+            for(int op : ops){
+                int c;
+                if(op >= 0){
+                    c = Long.compare(longKeys[a * longSlots + op], longKeys[b * longSlots + op]);
+                } else {
+                    int slot = ~op;
+                    c = ((Comparable) objectKeys[a * objectSlots + slot]).compareTo(objectKeys[b * objectSlots + slot]);
+                    if(objectDescending[slot]) c = -c;
+                }
+                if(c != 0) return c;
+            }
+            return 0;
+        }
+    }
+
+    // 앞 4글자를 부호 없는 순서가 유지되도록 long 에 담는다. 4글자보다 짧으면 0으로 채운다.
+    private static long prefixOf(String str){
+        long prefix = 0;
+        for(int i=0; i<4; i++){
+            prefix = (prefix << 16) | (i < str.length() ? str.charAt(i) : 0);
+        }
+        return prefix ^ Long.MIN_VALUE;
+    }
+
+    // src[from, to) 를 정렬해 dst[from, to) 에 담는다. 시작할 때 src 와 dst 의 내용은 같아야 한다.
+    private static void mergeSort(KeySort<?>.Decorated keys, int[] src, int[] dst, int from, int to){
+        if(to - from <= INSERTION_THRESHOLD){
+            insertionSort(keys, dst, from, to);
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        mergeSort(keys, dst, src, from, mid);
+        mergeSort(keys, dst, src, mid, to);
+        merge(keys, src, dst, from, mid, to);
+    }
+
+    private static void insertionSort(KeySort<?>.Decorated keys, int[] a, int from, int to){
+        for(int i=from+1; i<to; i++){
+            int value = a[i];
+            int j = i - 1;
+            while (j >= from && keys.compare(a[j], value) > 0) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = value;
+        }
+    }
+
+    // 왼쪽을 우선하므로 안정 정렬이다.
+    private static void merge(KeySort<?>.Decorated keys, int[] src, int[] dst, int from, int mid, int to){
+        if(keys.compare(src[mid - 1], src[mid]) <= 0){
+            System.arraycopy(src, from, dst, from, to - from);
+            return;
+        }
+        int i = from, j = mid, k = from;
+        while (i < mid && j < to) {
+            dst[k++] = keys.compare(src[j], src[i]) < 0 ? src[j++] : src[i++];
+        }
+        while (i < mid) dst[k++] = src[i++];
+        while (j < to) dst[k++] = src[j++];
+    }
+
+    private static final class MergeSortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final KeySort<?>.Decorated keys;
+        private final int[] src;
+        private final int[] dst;
+        private final int from;
+        private final int to;
+
+        MergeSortTask(KeySort<?>.Decorated keys, int[] src, int[] dst, int from, int to){
+            this.keys = keys;
+            this.src = src;
+            this.dst = dst;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= SEQUENTIAL_THRESHOLD){
+                mergeSort(keys, src, dst, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new MergeSortTask(keys, dst, src, from, mid),
+                    new MergeSortTask(keys, dst, src, mid, to));
+            merge(keys, src, dst, from, mid, to);
+        }
+    }
+}
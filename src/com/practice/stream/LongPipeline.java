@@ -0,0 +1,379 @@
+package com.practice.stream;
+
+import java.util.Arrays;
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * long 배열 전용 파이프라인
+ * IntPipeline 과 같은 방식으로 long[] 을 블록 단위로 처리한다. 아핀 변환 합치기는 2^64 로 나눈 나머지 연산에서 성립한다.
+ */
+public final class LongPipeline {
+
+    private static final int BLOCK = IntPipeline.BLOCK;
+
+    private final long[] source;
+    private final int from;
+    private final int to;
+    private final Stage[] stages;
+
+    private LongPipeline(long[] source, int from, int to, Stage[] stages){
+        this.source = source;
+        this.from = from;
+        this.to = to;
+        this.stages = stages;
+    }
+
+    public static LongPipeline of(long... values){
+        return of(values, 0, values.length);
+    }
+
+    // values[from, to) 를 원본으로 사용한다. 배열을 복사하지 않는다.
+    public static LongPipeline of(long[] values, int from, int to){
+        if(from < 0 || to > values.length || from > to){
+            throw new IndexOutOfBoundsException("from=" + from + ", to=" + to + ", length=" + values.length);
+        }
+        return new LongPipeline(values, from, to, new Stage[0]);
+    }
+
+    public static LongPipeline of(LongStream stream){
+        return of(stream.toArray());
+    }
+
+    // x -> x * multiplier + addend
+    public LongPipeline affine(long multiplier, long addend){
+        Stage last = lastStage();
+        if(last instanceof AffineStage){
+            AffineStage previous = (AffineStage) last;
+            return replaceLast(new AffineStage(previous.multiplier * multiplier, previous.addend * multiplier + addend));
+        }
+        if(multiplier == 1 && addend == 0) return this;
+        return append(new AffineStage(multiplier, addend));
+    }
+
+    public LongPipeline map(LongUnaryOperator operator){
+        Stage last = lastStage();
+        if(last instanceof MapStage){
+            return replaceLast(new MapStage(((MapStage) last).operator.andThen(operator)));
+        }
+        return append(new MapStage(operator));
+    }
+
+    public LongPipeline filter(LongPredicate predicate){
+        Stage last = lastStage();
+        if(last instanceof MapStage){
+            return replaceLast(new MapFilterStage(((MapStage) last).operator, predicate));
+        }
+        if(last instanceof AffineStage){
+            AffineStage affine = (AffineStage) last;
+            return replaceLast(new AffineFilterStage(affine.multiplier, affine.addend, predicate));
+        }
+        return append(new FilterStage(predicate));
+    }
+
+    private Stage lastStage(){
+        return stages.length == 0 ? null : stages[stages.length - 1];
+    }
+
+    private LongPipeline append(Stage stage){
+        Stage[] next = Arrays.copyOf(stages, stages.length + 1);
+        next[stages.length] = stage;
+        return new LongPipeline(source, from, to, next);
+    }
+
+    private LongPipeline replaceLast(Stage stage){
+        Stage[] next = stages.clone();
+        next[next.length - 1] = stage;
+        return new LongPipeline(source, from, to, next);
+    }
+
+    private boolean sizePreserving(){
+        for(Stage stage : stages){
+            if(!stage.sizePreserving()) return false;
+        }
+        return true;
+    }
+
+    public long[] toArray(){
+        int length = to - from;
+        if(sizePreserving()){
+            long[] result = new long[length];
+            if(stages.length == 0){
+                System.arraycopy(source, from, result, 0, length);
+                return result;
+            }
+            for(int offset=0; offset<length; offset+=BLOCK){
+                int n = Math.min(BLOCK, length - offset);
+                stages[0].apply(source, from + offset, n, result, offset);
+                for(int s=1; s<stages.length; s++){
+                    stages[s].apply(result, offset, n, result, offset);
+                }
+            }
+            return result;
+        }
+        long[][] result = {new long[Math.min(length, BLOCK)]};
+        int[] size = {0};
+        run(from, to, (block, n) -> {
+            if(size[0] + n > result[0].length){
+                result[0] = Arrays.copyOf(result[0], Math.max(size[0] + n, result[0].length * 2));
+            }
+            System.arraycopy(block, 0, result[0], size[0], n);
+            size[0] += n;
+        });
+        return result[0].length == size[0] ? result[0] : Arrays.copyOf(result[0], size[0]);
+    }
+
+    public long sum(){
+        long[] sum = {0};
+        run(from, to, (block, n) -> {
+            long s = 0;
+            for(int i=0; i<n; i++){
+                s += block[i];
+            }
+            sum[0] += s;
+        });
+        return sum[0];
+    }
+
+    public int count(){
+        if(sizePreserving()) return to - from;
+        int[] count = {0};
+        run(from, to, (block, n) -> count[0] += n);
+        return count[0];
+    }
+
+    public void forEach(LongConsumer action){
+        run(from, to, (block, n) -> {
+            for(int i=0; i<n; i++){
+                action.accept(block[i]);
+            }
+        });
+    }
+
+    // 파이프라인 결과를 요소로 하는 LongStream. 병렬 스트림에서는 원본 구간을 나눠 각 작업이 자기 구간의 블록을 처리한다.
+    public LongStream stream(){
+        return StreamSupport.longStream(new BlockSpliterator(from, to), false);
+    }
+
+    // [lo, hi) 를 블록 단위로 처리하고 결과 블록을 넘긴다.
+    private void run(int lo, int hi, BlockConsumer consumer){
+        long[] buffer = new long[Math.min(BLOCK, hi - lo)];
+        for(int offset=lo; offset<hi; offset+=BLOCK){
+            int n = process(offset, Math.min(BLOCK, hi - offset), buffer);
+            if(n > 0) consumer.accept(buffer, n);
+        }
+    }
+
+    // source[offset, offset + length) 를 모든 단계에 통과시켜 buffer 앞쪽에 쓰고, 남은 요소 수를 반환한다.
+    private int process(int offset, int length, long[] buffer){
+        if(stages.length == 0){
+            System.arraycopy(source, offset, buffer, 0, length);
+            return length;
+        }
+        int n = stages[0].apply(source, offset, length, buffer, 0);
+        for(int s=1; s<stages.length && n>0; s++){
+            n = stages[s].apply(buffer, 0, n, buffer, 0);
+        }
+        return n;
+    }
+
+    @FunctionalInterface
+    private interface BlockConsumer {
+        void accept(long[] block, int length);
+    }
+
+    /**
+     * 단계: in[inOffset, inOffset + length) 를 처리해 out[outOffset, ...) 에 쓰고 결과 수를 반환한다.
+     * in 과 out 이 같은 배열, 같은 위치여도 된다(결과 위치가 입력 위치를 앞지르지 않는다).
+     */
+    private abstract static class Stage {
+        abstract int apply(long[] in, int inOffset, int length, long[] out, int outOffset);
+
+        boolean sizePreserving(){
+            return true;
+        }
+    }
+
+    private static final class AffineStage extends Stage {
+        final long multiplier;
+        final long addend;
+
+        AffineStage(long multiplier, long addend){
+            this.multiplier = multiplier;
+            this.addend = addend;
+        }
+
+        @Override
+        int apply(long[] in, int inOffset, int length, long[] out, int outOffset) {
+            long a = multiplier, b = addend;
+            for(int i=0; i<length; i++){
+                out[outOffset + i] = in[inOffset + i] * a + b;
+            }
+            return length;
+        }
+    }
+
+    private static final class AffineFilterStage extends Stage {
+        final long multiplier;
+        final long addend;
+        final LongPredicate predicate;
+
+        AffineFilterStage(long multiplier, long addend, LongPredicate predicate){
+            this.multiplier = multiplier;
+            this.addend = addend;
+            this.predicate = predicate;
+        }
+
+        @Override
+        int apply(long[] in, int inOffset, int length, long[] out, int outOffset) {
+            long a = multiplier, b = addend;
+            int n = 0;
+            for(int i=0; i<length; i++){
+                long value = in[inOffset + i] * a + b;
+                if(predicate.test(value)) out[outOffset + n++] = value;
+            }
+            return n;
+        }
+
+        @Override
+        boolean sizePreserving() {
+            return false;
+        }
+    }
+
+    private static final class MapStage extends Stage {
+        final LongUnaryOperator operator;
+
+        MapStage(LongUnaryOperator operator){
+            this.operator = operator;
+        }
+
+        @Override
+        int apply(long[] in, int inOffset, int length, long[] out, int outOffset) {
+            for(int i=0; i<length; i++){
+                out[outOffset + i] = operator.applyAsLong(in[inOffset + i]);
+            }
+            return length;
+        }
+    }
+
+    private static final class FilterStage extends Stage {
+        final LongPredicate predicate;
+
+        FilterStage(LongPredicate predicate){
+            this.predicate = predicate;
+        }
+
+        @Override
+        int apply(long[] in, int inOffset, int length, long[] out, int outOffset) {
+            int n = 0;
+            for(int i=0; i<length; i++){
+                long value = in[inOffset + i];
+                if(predicate.test(value)) out[outOffset + n++] = value;
+            }
+            return n;
+        }
+
+        @Override
+        boolean sizePreserving() {
+            return false;
+        }
+    }
+
+    private static final class MapFilterStage extends Stage {
+        final LongUnaryOperator operator;
+        final LongPredicate predicate;
+
+        MapFilterStage(LongUnaryOperator operator, LongPredicate predicate){
+            this.operator = operator;
+            this.predicate = predicate;
+        }
+
+        @Override
+        int apply(long[] in, int inOffset, int length, long[] out, int outOffset) {
+            int n = 0;
+            for(int i=0; i<length; i++){
+                long value = operator.applyAsLong(in[inOffset + i]);
+                if(predicate.test(value)) out[outOffset + n++] = value;
+            }
+            return n;
+        }
+
+        @Override
+        boolean sizePreserving() {
+            return false;
+        }
+    }
+
+    /**
+     * 원본 [index, fence) 를 블록 단위로 처리하며 요소를 내보내는 spliterator
+     * 크기가 변하지 않는 파이프라인이면 SIZED | SUBSIZED 이다.
+     */
+    private final class BlockSpliterator implements Spliterator.OfLong {
+        private int index;
+        private final int fence;
+        private long[] buffer;
+        private int position;
+        private int limit;
+
+        BlockSpliterator(int index, int fence){
+            this.index = index;
+            this.fence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            while (position == limit) {
+                if(index >= fence) return false;
+                if(buffer == null) buffer = new long[BLOCK];
+                int length = Math.min(BLOCK, fence - index);
+                limit = process(index, length, buffer);
+                position = 0;
+                index += length;
+            }
+            action.accept(buffer[position++]);
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            while (position < limit) {
+                action.accept(buffer[position++]);
+            }
+            if(index < fence){
+                run(index, fence, (block, n) -> {
+                    for(int i=0; i<n; i++){
+                        action.accept(block[i]);
+                    }
+                });
+                index = fence;
+            }
+        }
+
+        // 버퍼에 남은 요소가 없을 때만 원본 구간을 블록 경계에서 절반으로 나눈다.
+        @Override
+        public OfLong trySplit() {
+            if(position < limit) return null;
+            int mid = index + ((fence - index) >>> 1) / BLOCK * BLOCK;
+            if(mid <= index) return null;
+            BlockSpliterator prefix = new BlockSpliterator(index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return (long) (fence - index) + (limit - position);
+        }
+
+        @Override
+        public int characteristics() {
+            int characteristics = Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+            return sizePreserving() ? characteristics | Spliterator.SIZED | Spliterator.SUBSIZED : characteristics;
+        }
+    }
+}
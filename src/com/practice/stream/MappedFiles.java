@@ -0,0 +1,406 @@
+package com.practice.stream;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 메모리 매핑 파일 스트림
+ * StreamUsage 의 파이프라인은 Arrays.asList 나 ArrayList 에 담긴 데이터에서 시작한다. 같은 합계, 최댓값, 분할을 파일에 실행하려면
+ * 보통 파일 전체를 읽어 리스트나 배열을 먼저 만들어야 하고, 메모리보다 큰 파일은 처리할 수 없다.
+ *
+ * MappedFiles 는 파일을 읽기 전용으로 매핑(mmap)하고, 매핑된 영역을 바로 읽는 spliterator 로 스트림을 만든다.
+ * 파일 내용을 힙에 복사하지 않으며, 운영체제가 필요한 페이지만 읽어 들이고 메모리가 부족하면 내보내므로 메모리보다 큰 파일도 처리할 수 있다.
+ * ByteBuffer 는 2GB 까지만 매핑할 수 있으므로 파일을 1GB 구간으로 나누어 매핑한다.
+ *
+ * ints, longs: 4, 8 바이트 정수가 연속으로 저장된 파일. 기본 바이트 순서는 DataOutputStream 과 같은 빅 엔디언이다.
+ *   요소 수를 알기 때문에 SIZED | SUBSIZED 이고, 병렬 스트림은 [index, fence) 범위를 절반씩 나눈다.
+ * lines: UTF-8 텍스트의 줄. '\n' 또는 "\r\n" 으로 나누며 줄바꿈 문자는 포함하지 않는다(BufferedReader.readLine 과 같다).
+ *   바이트 구간을 절반으로 나눈 뒤 가운데에서 다음 '\n' 까지 이동한 지점에서 자르므로 줄이 두 작업에 걸치지 않는다.
+ *   줄바꿈은 8 바이트씩 읽어 한 번에 찾는다(SWAR). 줄의 바이트는 String 을 만들기 위해서만 복사한다.
+ *
+ * 매핑은 채널을 닫은 뒤에도 유효하며, 매핑된 버퍼가 GC 될 때 해제된다.
+ * 스트림을 쓰는 동안 다른 프로세스가 파일 크기를 줄이면 결과가 정의되지 않는다(접근한 스레드에서 오류가 발생할 수 있다).
+ *
+ * long sum = MappedFiles.ints(path).parallel().asLongStream().sum();
+ */
+public final class MappedFiles {
+
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT; // 8 의 배수이므로 int, long 이 구간 경계에 걸치지 않는다.
+    private static final int MIN_SPLIT_BYTES = 1 << 12;
+    private static final long NEW_LINES = 0x0a0a0a0a0a0a0a0aL;
+    private static final long LOW_BITS = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final int SIZED_CHARACTERISTICS = Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED
+            | Spliterator.IMMUTABLE | Spliterator.NONNULL;
+    private static final int LINE_CHARACTERISTICS = Spliterator.ORDERED | Spliterator.IMMUTABLE | Spliterator.NONNULL;
+
+    private MappedFiles(){
+    }
+
+    // 빅 엔디언 int 파일
+    public static IntStream ints(Path path) throws IOException {
+        return ints(path, ByteOrder.BIG_ENDIAN);
+    }
+
+    public static IntStream ints(Path path, ByteOrder order) throws IOException {
+        Mapping mapping = Mapping.map(path, order);
+        IntBuffer[] segments = new IntBuffer[mapping.segments.length];
+        for(int i=0; i<segments.length; i++){
+            segments[i] = mapping.segments[i].asIntBuffer();
+        }
+        return StreamSupport.intStream(new IntSpliterator(segments, 0, mapping.elements(path, Integer.BYTES)), false);
+    }
+
+    // 빅 엔디언 long 파일
+    public static LongStream longs(Path path) throws IOException {
+        return longs(path, ByteOrder.BIG_ENDIAN);
+    }
+
+    public static LongStream longs(Path path, ByteOrder order) throws IOException {
+        Mapping mapping = Mapping.map(path, order);
+        LongBuffer[] segments = new LongBuffer[mapping.segments.length];
+        for(int i=0; i<segments.length; i++){
+            segments[i] = mapping.segments[i].asLongBuffer();
+        }
+        return StreamSupport.longStream(new LongSpliterator(segments, 0, mapping.elements(path, Long.BYTES)), false);
+    }
+
+    // UTF-8 텍스트 파일의 줄
+    public static Stream<String> lines(Path path) throws IOException {
+        // 줄바꿈을 찾을 때 8 바이트의 첫 바이트가 최하위 바이트가 되도록 리틀 엔디언으로 읽는다.
+        Mapping mapping = Mapping.map(path, ByteOrder.LITTLE_ENDIAN);
+        return StreamSupport.stream(new LineSpliterator(mapping, 0, mapping.size), false);
+    }
+
+    // int 를 빅 엔디언으로 이어서 쓴다. ints(path) 로 다시 읽을 수 있다.
+    public static void writeInts(Path path, IntStream values) throws IOException {
+        try (FileChannel channel = create(path)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+            PrimitiveIterator.OfInt iterator = values.iterator();
+            while (iterator.hasNext()) {
+                if(buffer.remaining() < Integer.BYTES) drain(channel, buffer);
+                buffer.putInt(iterator.nextInt());
+            }
+            drain(channel, buffer);
+        }
+    }
+
+    // long 을 빅 엔디언으로 이어서 쓴다. longs(path) 로 다시 읽을 수 있다.
+    public static void writeLongs(Path path, LongStream values) throws IOException {
+        try (FileChannel channel = create(path)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16);
+            PrimitiveIterator.OfLong iterator = values.iterator();
+            while (iterator.hasNext()) {
+                if(buffer.remaining() < Long.BYTES) drain(channel, buffer);
+                buffer.putLong(iterator.nextLong());
+            }
+            drain(channel, buffer);
+        }
+    }
+
+    private static FileChannel create(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * 파일 전체를 SEGMENT_SIZE 단위로 매핑한 버퍼들. 절대 위치로만 읽으므로 여러 스레드가 공유해도 된다.
+     */
+    private static final class Mapping {
+        final ByteBuffer[] segments;
+        final long size;
+
+        private Mapping(ByteBuffer[] segments, long size){
+            this.segments = segments;
+            this.size = size;
+        }
+
+        static Mapping map(Path path, ByteOrder order) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                long size = channel.size();
+                ByteBuffer[] segments = new ByteBuffer[(int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT)];
+                for(int i=0; i<segments.length; i++){
+                    long position = (long) i << SEGMENT_SHIFT;
+                    segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(SEGMENT_SIZE, size - position)).order(order);
+                }
+                return new Mapping(segments, size);
+            }
+        }
+
+        long elements(Path path, int bytes){
+            if(size % bytes != 0) throw new IllegalArgumentException("파일 크기가 " + bytes + " 의 배수가 아니다. path=" + path + ", size=" + size);
+            return size / bytes;
+        }
+
+        // position 이상 end 미만에서 처음 나오는 '\n' 의 위치. 없으면 end
+        long indexOfNewLine(long position, long end){
+            while (position < end) {
+                ByteBuffer segment = segments[(int) (position >>> SEGMENT_SHIFT)];
+                long base = position & -SEGMENT_SIZE;
+                int i = (int) (position - base);
+                int limit = (int) Math.min(end - base, segment.limit());
+                for(; i+Long.BYTES<=limit; i+=Long.BYTES){
+                    long word = segment.getLong(i) ^ NEW_LINES; // '\n' 인 바이트가 0 이 된다.
+                    long found = (word - LOW_BITS) & ~word & HIGH_BITS;
+                    if(found != 0) return base + i + (Long.numberOfTrailingZeros(found) >>> 3);
+                }
+                for(; i<limit; i++){
+                    if(segment.get(i) == '\n') return base + i;
+                }
+                position = base + limit;
+            }
+            return end;
+        }
+    }
+
+    private static final class IntSpliterator implements Spliterator.OfInt {
+        private static final int SHIFT = SEGMENT_SHIFT - 2;
+        private static final long MASK = (1L << SHIFT) - 1;
+
+        private final IntBuffer[] segments;
+        private long index;
+        private final long fence;
+
+        IntSpliterator(IntBuffer[] segments, long index, long fence){
+            this.segments = segments;
+            this.index = index;
+            this.fence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if(index >= fence) return false;
+            action.accept(segments[(int) (index >>> SHIFT)].get((int) (index & MASK)));
+            index++;
+            return true;
+        }
+
+        // 구간마다 구간 안의 위치만으로 읽는다.
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            long i = index;
+            while (i < fence) {
+                IntBuffer segment = segments[(int) (i >>> SHIFT)];
+                int from = (int) (i & MASK);
+                int to = (int) Math.min(segment.limit(), from + (fence - i));
+                for(int j=from; j<to; j++){
+                    action.accept(segment.get(j));
+                }
+                i += to - from;
+            }
+            index = fence;
+        }
+
+        @Override
+        public OfInt trySplit() {
+            long mid = index + ((fence - index) >>> 1);
+            if(mid <= index) return null;
+            IntSpliterator prefix = new IntSpliterator(segments, index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return SIZED_CHARACTERISTICS;
+        }
+    }
+
+    private static final class LongSpliterator implements Spliterator.OfLong {
+        private static final int SHIFT = SEGMENT_SHIFT - 3;
+        private static final long MASK = (1L << SHIFT) - 1;
+
+        private final LongBuffer[] segments;
+        private long index;
+        private final long fence;
+
+        LongSpliterator(LongBuffer[] segments, long index, long fence){
+            this.segments = segments;
+            this.index = index;
+            this.fence = fence;
+        }
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            if(index >= fence) return false;
+            action.accept(segments[(int) (index >>> SHIFT)].get((int) (index & MASK)));
+            index++;
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            long i = index;
+            while (i < fence) {
+                LongBuffer segment = segments[(int) (i >>> SHIFT)];
+                int from = (int) (i & MASK);
+                int to = (int) Math.min(segment.limit(), from + (fence - i));
+                for(int j=from; j<to; j++){
+                    action.accept(segment.get(j));
+                }
+                i += to - from;
+            }
+            index = fence;
+        }
+
+        @Override
+        public OfLong trySplit() {
+            long mid = index + ((fence - index) >>> 1);
+            if(mid <= index) return null;
+            LongSpliterator prefix = new LongSpliterator(segments, index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return SIZED_CHARACTERISTICS;
+        }
+    }
+
+    /**
+     * [position, end) 바이트 구간의 줄. position 은 항상 줄의 시작이다.
+     */
+    private static final class LineSpliterator implements Spliterator<String> {
+        private final Mapping mapping;
+        private long position;
+        private final long end;
+        // 줄을 String 으로 만들기 전에 복사해 두는 배열. 더 긴 줄이 나오면 늘린다.
+        private byte[] line = new byte[128];
+        private ByteBuffer lineView = ByteBuffer.wrap(line).order(ByteOrder.LITTLE_ENDIAN);
+        private int length;
+
+        LineSpliterator(Mapping mapping, long position, long end){
+            this.mapping = mapping;
+            this.position = position;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action) {
+            if(position >= end) return false;
+            long newLine = readLine(position);
+            action.accept(decode());
+            position = newLine + 1;
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super String> action) {
+            long p = position;
+            while (p < end) {
+                long newLine = readLine(p);
+                action.accept(decode());
+                p = newLine + 1;
+            }
+            position = end;
+        }
+
+        // from 부터 다음 '\n' 앞까지의 바이트를 line 에 복사하고 '\n' 의 위치(없으면 end)를 반환한다.
+        // 8 바이트씩 읽은 값을 그대로 line 에 옮기면서 줄바꿈을 찾으므로, 매핑된 바이트를 한 번만 읽는다.
+        private long readLine(long from){
+            int n = 0;
+            long position = from;
+            while (position < end) {
+                ByteBuffer segment = mapping.segments[(int) (position >>> SEGMENT_SHIFT)];
+                long base = position & -SEGMENT_SIZE;
+                int i = (int) (position - base);
+                int limit = (int) Math.min(end - base, segment.limit());
+                for(; i+Long.BYTES<=limit; i+=Long.BYTES){
+                    long word = segment.getLong(i);
+                    if(n + Long.BYTES > line.length) grow(n + Long.BYTES);
+                    lineView.putLong(n, word);
+                    long x = word ^ NEW_LINES;
+                    long found = (x - LOW_BITS) & ~x & HIGH_BITS;
+                    if(found != 0){
+                        int k = Long.numberOfTrailingZeros(found) >>> 3;
+                        length = n + k;
+                        return base + i + k;
+                    }
+                    n += Long.BYTES;
+                }
+                for(; i<limit; i++){
+                    byte b = segment.get(i);
+                    if(b == '\n'){
+                        length = n;
+                        return base + i;
+                    }
+                    if(n == line.length) grow(n + 1);
+                    line[n++] = b;
+                }
+                position = base + limit;
+            }
+            length = n;
+            return end;
+        }
+
+        private void grow(int minLength){
+            line = Arrays.copyOf(line, Math.max(minLength, line.length * 2));
+            lineView = ByteBuffer.wrap(line).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        private String decode(){
+            int n = length;
+            if(n > 0 && line[n - 1] == '\r') n--;
+            return new String(line, 0, n, StandardCharsets.UTF_8);
+        }
+
+        // 가운데에서 다음 줄의 시작까지 이동해 자른다. 뒤쪽 절반에 줄바꿈이 없으면 나누지 않는다.
+        @Override
+        public Spliterator<String> trySplit() {
+            if(end - position < MIN_SPLIT_BYTES) return null;
+            long mid = position + ((end - position) >>> 1);
+            long newLine = mapping.indexOfNewLine(mid, end);
+            if(newLine + 1 >= end) return null;
+            LineSpliterator prefix = new LineSpliterator(mapping, position, newLine + 1);
+            position = newLine + 1;
+            return prefix;
+        }
+
+        // 남은 바이트 수. 줄 수의 상한이다.
+        @Override
+        public long estimateSize() {
+            return end - position;
+        }
+
+        @Override
+        public int characteristics() {
+            return LINE_CHARACTERISTICS;
+        }
+    }
+}
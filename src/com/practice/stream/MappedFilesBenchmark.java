@@ -0,0 +1,139 @@
+package com.practice.stream;
+
+import com.practice.benchmark.BenchmarkData;
+import com.practice.benchmark.BenchmarkRunner;
+import com.practice.benchmark.BenchmarkSuite;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * MappedFiles 벤치마크
+ * 임시 파일에 size 개의 int(빅 엔디언) 또는 단어 줄을 쓰고, 파일에서 합계를 구한다. 파일은 페이지 캐시에 올라와 있는 상태이다.
+ * ints: DataInputStream.readInt, Files.readAllBytes 후 IntBuffer 로 읽기, MappedFiles.ints
+ * lines: Files.lines(...).mapToInt(String::length).sum() 과 MappedFiles.lines
+ */
+public class MappedFilesBenchmark extends BenchmarkSuite {
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner.run(MappedFilesBenchmark.class, args);
+    }
+
+    private static Path intFile(int size){
+        try {
+            Path path = Files.createTempFile("ints", ".bin");
+            path.toFile().deleteOnExit();
+            MappedFiles.writeInts(path, Arrays.stream(BenchmarkData.ints(size, Integer.MAX_VALUE)));
+            return path;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path lineFile(int size){
+        try {
+            Path path = Files.createTempFile("lines", ".txt");
+            path.toFile().deleteOnExit();
+            Files.write(path, BenchmarkData.words(size, 4, 10));
+            return path;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long sumDataInput(Path path){
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(path.toFile()), 1 << 16))) {
+            long sum = 0;
+            long count = Files.size(path) / Integer.BYTES;
+            for(long i=0; i<count; i++){
+                sum += in.readInt();
+            }
+            return sum;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long sumReadAllBytes(Path path){
+        try {
+            IntBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path)).asIntBuffer();
+            long sum = 0;
+            while (buffer.hasRemaining()) {
+                sum += buffer.get();
+            }
+            return sum;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long sumMapped(Path path, boolean parallel){
+        try {
+            return (parallel ? MappedFiles.ints(path).parallel() : MappedFiles.ints(path)).asLongStream().sum();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long sumLineLengths(Path path, boolean mapped, boolean parallel){
+        try (Stream<String> lines = mapped ? MappedFiles.lines(path) : Files.lines(path)) {
+            return (parallel ? lines.parallel() : lines).mapToInt(String::length).sum();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    protected void register() {
+        sizes(1_000_000);
+
+        bench("intsDataInput", params -> {
+            Path path = intFile(params.getSize());
+            return bh -> bh.consume(sumDataInput(path));
+        });
+
+        bench("intsReadAllBytes", params -> {
+            Path path = intFile(params.getSize());
+            return bh -> bh.consume(sumReadAllBytes(path));
+        });
+
+        bench("intsMapped", params -> {
+            Path path = intFile(params.getSize());
+            return bh -> bh.consume(sumMapped(path, false));
+        });
+
+        bench("intsMappedParallel", params -> {
+            Path path = intFile(params.getSize());
+            return bh -> bh.consume(sumMapped(path, true));
+        });
+
+        bench("linesFiles", params -> {
+            Path path = lineFile(params.getSize());
+            return bh -> bh.consume(sumLineLengths(path, false, false));
+        });
+
+        bench("linesMapped", params -> {
+            Path path = lineFile(params.getSize());
+            return bh -> bh.consume(sumLineLengths(path, true, false));
+        });
+
+        bench("linesFilesParallel", params -> {
+            Path path = lineFile(params.getSize());
+            return bh -> bh.consume(sumLineLengths(path, false, true));
+        });
+
+        bench("linesMappedParallel", params -> {
+            Path path = lineFile(params.getSize());
+            return bh -> bh.consume(sumLineLengths(path, true, true));
+        });
+    }
+}
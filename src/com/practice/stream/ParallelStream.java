@@ -3,7 +3,6 @@ package com.practice.stream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
@@ -15,6 +14,8 @@ import java.util.stream.Stream;
  */
 public class ParallelStream {
 
+    private static final ChannelSink OUT = ChannelSink.stdoutOrdered(", ");
+
     public ParallelStream() {}
 
     public static void main(String[] args) {
@@ -43,23 +44,19 @@ public class ParallelStream {
 
         System.out.println();
 
-        // 병렬 스트림의 성능 테스트
-        long startTime, endTime;
-
-        startTime = System.currentTimeMillis();
-        IntStream.rangeClosed(1, 100000000)
+        // 병렬 스트림의 결과 비교
+        // System.currentTimeMillis() 로 시간을 재면 워밍업이 없고, 사용하지 않는 sum() 결과는 JIT 에 의해 제거될 수 있다.
+        // 성능 비교는 ParallelStreamBenchmark 로 측정한다.
+        double sequentialSum = IntStream.rangeClosed(1, 100000000)
                 .mapToDouble(Math::sqrt)
                 .sum();
-        endTime = System.currentTimeMillis();
-        System.out.println("순차 스트림 : " + (endTime - startTime) + "ms");
+        System.out.println("순차 스트림 : " + sequentialSum);
 
-        startTime = System.currentTimeMillis();
-        IntStream.rangeClosed(1, 100000000)
+        double parallelSum = IntStream.rangeClosed(1, 100000000)
                 .parallel()
                 .mapToDouble(Math::sqrt)
                 .sum();
-        endTime = System.currentTimeMillis();
-        System.out.println("병렬 스트림 : " + (endTime - startTime) + "ms");
+        System.out.println("병렬 스트림 : " + parallelSum);
 
 
         // 병렬 스트림의 동기화 예시
@@ -87,12 +84,32 @@ public class ParallelStream {
                 });
         System.out.println(sum[0]);
 
+        // 락 없이 스레드별 셀에 누적한 뒤 마지막에 합치는 StripedAccumulator 사용
+        // 스레드가 서로 기다리지 않으므로 코어 수에 비례해 빨라진다.
+        StripedAccumulator accumulator = new StripedAccumulator();
+        numbers2.parallelStream()
+                .forEach(accumulator::accept);
+        StripedAccumulator.Snapshot snapshot = accumulator.snapshot();
+        System.out.println(snapshot.getSum() + " (최소 " + snapshot.getMin() + ", 최대 " + snapshot.getMax() + ")");
+
+        // 기다리는 작업(디스크 조회, RPC 등)은 병렬 스트림 대신 mapAsync 로 실행
+        // 병렬 스트림은 코어 수만큼의 스레드로 기다리지만, mapAsync 는 요소마다 가상 스레드를 사용해 최대 20 개를 동시에 기다린다.
+        try (Stream<String> lookups = AsyncStreams.mapAsync(numbers.stream(), num -> {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return num + "=" + num * num;
+        }, 20)) {
+            parallelStream.print(lookups);
+        }
+
     }
 
+    // 결과 전체를 담은 String 을 만들지 않고, 요소를 ", " 로 구분해 출력 버퍼에 바로 쓴다. 병렬 스트림도 만남 순서대로 출력된다.
     public <T> void print(Stream<T> stream){
-        System.out.println(stream.map(it -> {
-            if(it instanceof Integer) return Integer.toString((int) it);
-            else return it.toString();
-        }).collect(Collectors.joining(", ")));
+        stream.forEachOrdered(OUT);
+        OUT.newLine();
     }
 }
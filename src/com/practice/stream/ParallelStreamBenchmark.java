@@ -0,0 +1,146 @@
+package com.practice.stream;
+
+import com.practice.benchmark.BenchmarkData;
+import com.practice.benchmark.BenchmarkRunner;
+import com.practice.benchmark.BenchmarkSuite;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * ParallelStream 벤치마크
+ * ParallelStream.main 의 순차/병렬 스트림 비교와 동기화 예시를 워밍업, 포크 격리, 블랙홀을 적용해 측정한다.
+ * 병렬도(parallelism) 파라미터를 여러 개 주면 코어 수에 따른 확장성을 비교할 수 있다.
+ * 기본 병렬도는 1, 2, 4, ... 코어 수 이며, forEachSynchronized 는 병렬도가 늘어도 빨라지지 않지만
+ * forEachStripedAccumulator 는 병렬도에 비례해 빨라지는 것을 확인할 수 있다.
+ *
+ * java -cp out com.practice.stream.ParallelStreamBenchmark -p size=1000000,100000000 -p parallelism=1,2,4,8 -prof gc
+ */
+public class ParallelStreamBenchmark extends BenchmarkSuite {
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner.run(ParallelStreamBenchmark.class, args);
+    }
+
+    // 1, 2, 4, ... 코어 수
+    private static Integer[] powersOfTwoUpToCores(){
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<Integer> values = new ArrayList<>();
+        for(int p=1; p<cores; p*=2){
+            values.add(p);
+        }
+        values.add(cores);
+        return values.toArray(new Integer[0]);
+    }
+
+    @Override
+    protected void register() {
+        sizes(1_000_000, 10_000_000);
+        parallelisms(powersOfTwoUpToCores());
+
+        // 순차 스트림 : IntStream.rangeClosed(1, n).mapToDouble(Math::sqrt).sum()
+        bench("sqrtSumSequential", params -> {
+            int size = params.getSize();
+            return bh -> bh.consume(IntStream.rangeClosed(1, size)
+                    .mapToDouble(Math::sqrt)
+                    .sum());
+        });
+
+        // 병렬 스트림 : 위와 같은 연산을 parallel() 로 수행
+        bench("sqrtSumParallel", params -> {
+            int size = params.getSize();
+            return bh -> bh.consume(IntStream.rangeClosed(1, size)
+                    .parallel()
+                    .mapToDouble(Math::sqrt)
+                    .sum());
+        });
+
+        // synchronized 블록으로 합계를 누적하는 병렬 forEach
+        bench("forEachSynchronized", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), Integer.MAX_VALUE);
+            return bh -> {
+                long[] sum = {0};
+                numbers.parallelStream()
+                        .forEach(num -> {
+                            synchronized (sum) {
+                                sum[0] += num;
+                            }
+                        });
+                bh.consume(sum[0]);
+            };
+        });
+
+        // LongAdder 로 합계를 누적하는 병렬 forEach
+        bench("forEachLongAdder", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), Integer.MAX_VALUE);
+            return bh -> {
+                LongAdder adder = new LongAdder();
+                numbers.parallelStream()
+                        .forEach(adder::add);
+                bh.consume(adder.sum());
+            };
+        });
+
+        // StripedAccumulator 로 합계, 최솟값, 최댓값, 제곱합을 누적하는 병렬 forEach
+        bench("forEachStripedAccumulator", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), Integer.MAX_VALUE);
+            return bh -> {
+                StripedAccumulator accumulator = new StripedAccumulator();
+                numbers.parallelStream()
+                        .forEach(accumulator::accept);
+                StripedAccumulator.Snapshot snapshot = accumulator.snapshot();
+                bh.consume(snapshot.getSum());
+                bh.consume(snapshot.getSumOfSquares());
+            };
+        });
+
+        // Stream.iterate 무한 스트림을 limit 로 자른 병렬 합계. 크기를 모르므로 고르게 나뉘지 않는다.
+        bench("iterateLimitParallel", params -> {
+            int size = params.getSize();
+            return bh -> bh.consume(Stream.iterate(0L, n -> n+2)
+                    .parallel()
+                    .limit(size)
+                    .mapToLong(Long::longValue)
+                    .sum());
+        });
+
+        // i 번째 요소를 바로 계산하는 SIZED 등차수열 스트림
+        bench("arithmeticLimitParallel", params -> {
+            int size = params.getSize();
+            return bh -> bh.consume(SplittableStreams.arithmetic(0, 2)
+                    .parallel()
+                    .limit(size)
+                    .sum());
+        });
+
+        // 하나의 Random 을 공유하는 Math.random 병렬 스트림
+        bench("generateRandomLimitParallel", params -> {
+            int size = params.getSize();
+            return bh -> bh.consume(Stream.generate(Math::random)
+                    .parallel()
+                    .limit(size)
+                    .mapToDouble(Double::doubleValue)
+                    .sum());
+        });
+
+        // 작업마다 자기 구간의 난수를 독립적으로 만드는 SplitMix64 스트림
+        bench("splittableRandomLimitParallel", params -> {
+            int size = params.getSize();
+            return bh -> bh.consume(SplittableStreams.randomDoubles(42)
+                    .parallel()
+                    .limit(size)
+                    .sum());
+        });
+
+        // 부수 효과 없이 reduce 로 합계를 구하는 병렬 스트림
+        bench("reduceParallel", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), Integer.MAX_VALUE);
+            return bh -> bh.consume(numbers.parallelStream()
+                    .mapToLong(Integer::longValue)
+                    .sum());
+        });
+    }
+}
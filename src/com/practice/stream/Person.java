@@ -0,0 +1,31 @@
+package com.practice.stream;
+
+import java.io.Serializable;
+
+public class Person implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private int age;
+    private String name;
+
+    public Person(String name, int age){
+        this.age = age;
+        this.name = name;
+    }
+
+    public int getAge(){
+        return age;
+    }
+
+    public String getName(){
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return "Person{" +
+                "age=" + age +
+                ", name='" + name + '\'' +
+                '}';
+    }
+}
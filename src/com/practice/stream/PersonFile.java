@@ -0,0 +1,512 @@
+package com.practice.stream;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 컬럼형 Person 파일
+ * Person 은 힙 객체로만 존재하므로 저장하려면 ObjectOutputStream 으로 직렬화해야 하고, 읽을 때는 모든 객체를 다시 만든 뒤에야 filter 를 적용할 수 있다.
+ * PersonFile 은 PersonTable 과 같은 컬럼 구조를 파일에 저장하고, 파일을 메모리에 매핑(mmap)해 필요한 블록만 읽는다.
+ *
+ * 블록: 행을 ROWS_PER_BLOCK(4,096) 개씩 묶어 블록마다 나이 컬럼과 이름 컬럼을 따로 저장한다.
+ *   나이 컬럼: 블록의 최솟값을 뺀 값을 고정 폭(1, 2, 4 바이트)으로 저장한다(frame of reference). 나이는 보통 1 바이트로 충분하다.
+ *   이름 컬럼: 사전 인코딩. 파일 전체의 이름 사전 번호를 고정 폭(1, 2, 4 바이트)으로 저장한다.
+ * 푸터: 이름 사전과 블록 인덱스(블록 위치, 행 수, 나이 최솟값, 최댓값, 컬럼 폭). 파일 끝의 트레일러가 푸터의 위치를 가리킨다.
+ *
+ * 쓰기: writer(path) 는 블록 하나 분량만 메모리에 모았다가 파일에 쓰고, close() 할 때 사전과 인덱스를 마지막에 쓴다.
+ * 읽기: open(path) 은 푸터만 읽는다. ageBetween(min, max) 같은 조회는 블록 인덱스의 최솟값, 최댓값으로
+ *   조건과 겹치지 않는 블록을 디코딩 없이 건너뛰고, 범위에 완전히 포함되는 블록은 행마다 비교하지 않는다.
+ *   countAgeBetween 은 완전히 포함되는 블록의 행 수를 인덱스에서 바로 더한다.
+ *   건너뛰기는 나이가 비슷한 행이 모여 있을수록(나이 순으로 쓰였거나 시간 순으로 쌓인 데이터) 효과가 크다.
+ * 스트림은 블록 단위로 나뉘므로 parallel() 로 병렬 처리할 수 있다.
+ *
+ * 모든 정수는 리틀 엔디언이다.
+ * 파일 = 헤더(MAGIC, VERSION) | 블록... | 사전(이름 수, (길이, UTF-8 바이트)...) | 인덱스(블록 수, 블록 항목...) | 트레일러(사전 위치, MAGIC, VERSION)
+ */
+public final class PersonFile {
+
+    static final int ROWS_PER_BLOCK = 4096;
+    private static final int MAGIC = 0x4e535250; // "PRSN"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int TRAILER_SIZE = 16;
+    private static final int INDEX_ENTRY_SIZE = 24; // offset(8), rows(4), minAge(4), maxAge(4), ageWidth(1), codeWidth(1), 빈칸(2)
+    private static final long MAX_MAPPING_SIZE = 1L << 30;
+    private static final int CHARACTERISTICS = Spliterator.ORDERED | Spliterator.IMMUTABLE | Spliterator.NONNULL;
+
+    private final String[] dictionary;
+    private final long size;
+    private final int[] rows;
+    private final int[] minAges;
+    private final int[] maxAges;
+    private final byte[] ageWidths;
+    private final byte[] codeWidths;
+    private final ByteBuffer[] mappings; // 블록이 걸치지 않도록 블록 경계에서 나눈 매핑
+    private final int[] mappingOf;       // 블록이 속한 매핑
+    private final int[] offsets;         // 매핑 안에서 블록의 위치
+
+    private PersonFile(String[] dictionary, int[] rows, int[] minAges, int[] maxAges, byte[] ageWidths, byte[] codeWidths,
+                       ByteBuffer[] mappings, int[] mappingOf, int[] offsets){
+        this.dictionary = dictionary;
+        this.rows = rows;
+        this.minAges = minAges;
+        this.maxAges = maxAges;
+        this.ageWidths = ageWidths;
+        this.codeWidths = codeWidths;
+        this.mappings = mappings;
+        this.mappingOf = mappingOf;
+        this.offsets = offsets;
+        long total = 0;
+        for(int count : rows){
+            total += count;
+        }
+        this.size = total;
+    }
+
+    public static Writer writer(Path path) throws IOException {
+        return new Writer(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING));
+    }
+
+    public static void write(Path path, Collection<Person> people) throws IOException {
+        try (Writer writer = writer(path)) {
+            people.forEach(writer);
+        }
+    }
+
+    // 푸터를 읽고 블록 영역을 매핑한다. 블록은 조회할 때 읽는다.
+    public static PersonFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if(fileSize < HEADER_SIZE + TRAILER_SIZE) throw new IOException("PersonFile 형식이 아니다. path=" + path);
+            ByteBuffer trailer = read(channel, fileSize - TRAILER_SIZE, TRAILER_SIZE);
+            long footerOffset = trailer.getLong();
+            if(trailer.getInt() != MAGIC || trailer.getInt() != VERSION || footerOffset < HEADER_SIZE || footerOffset > fileSize - TRAILER_SIZE){
+                throw new IOException("PersonFile 형식이 아니다. path=" + path);
+            }
+            ByteBuffer footer = read(channel, footerOffset, (int) (fileSize - TRAILER_SIZE - footerOffset));
+
+            String[] dictionary = new String[footer.getInt()];
+            for(int i=0; i<dictionary.length; i++){
+                byte[] bytes = new byte[footer.getInt()];
+                footer.get(bytes);
+                dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            int blocks = footer.getInt();
+            long[] blockOffsets = new long[blocks];
+            int[] rows = new int[blocks];
+            int[] minAges = new int[blocks];
+            int[] maxAges = new int[blocks];
+            byte[] ageWidths = new byte[blocks];
+            byte[] codeWidths = new byte[blocks];
+            for(int b=0; b<blocks; b++){
+                blockOffsets[b] = footer.getLong();
+                rows[b] = footer.getInt();
+                minAges[b] = footer.getInt();
+                maxAges[b] = footer.getInt();
+                ageWidths[b] = footer.get();
+                codeWidths[b] = footer.get();
+                footer.getShort();
+            }
+
+            // 연속된 블록을 1GB 이하로 묶어 매핑한다.
+            List<ByteBuffer> mappings = new ArrayList<>();
+            int[] mappingOf = new int[blocks];
+            int[] offsets = new int[blocks];
+            int first = 0;
+            while (first < blocks) {
+                long start = blockOffsets[first];
+                int last = first;
+                while (last + 1 < blocks && blockEnd(blockOffsets, last + 1, footerOffset) - start <= MAX_MAPPING_SIZE) {
+                    last++;
+                }
+                long end = blockEnd(blockOffsets, last, footerOffset);
+                mappings.add(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start).order(ByteOrder.LITTLE_ENDIAN));
+                for(int b=first; b<=last; b++){
+                    mappingOf[b] = mappings.size() - 1;
+                    offsets[b] = (int) (blockOffsets[b] - start);
+                }
+                first = last + 1;
+            }
+            return new PersonFile(dictionary, rows, minAges, maxAges, ageWidths, codeWidths,
+                    mappings.toArray(new ByteBuffer[0]), mappingOf, offsets);
+        }
+    }
+
+    private static long blockEnd(long[] blockOffsets, int block, long footerOffset){
+        return block + 1 < blockOffsets.length ? blockOffsets[block + 1] : footerOffset;
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if(channel.read(buffer, position + buffer.position()) < 0) throw new IOException("파일이 예상보다 짧다.");
+        }
+        return buffer.flip();
+    }
+
+    public long size(){
+        return size;
+    }
+
+    public int blockCount(){
+        return rows.length;
+    }
+
+    // 서로 다른 이름의 수
+    public int distinctNames(){
+        return dictionary.length;
+    }
+
+    // 나이가 [min, max] 와 겹쳐서 읽어야 하는 블록 수
+    public int blocksToRead(int min, int max){
+        int count = 0;
+        for(int b=0; b<rows.length; b++){
+            if(overlaps(b, min, max)) count++;
+        }
+        return count;
+    }
+
+    private boolean overlaps(int block, int min, int max){
+        return minAges[block] <= max && maxAges[block] >= min;
+    }
+
+    private boolean contains(int block, int min, int max){
+        return minAges[block] >= min && maxAges[block] <= max;
+    }
+
+    public Stream<Person> stream(){
+        return ageBetween(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    // min 이상 max 이하의 나이를 가진 행. 겹치지 않는 블록은 읽지 않는다.
+    public Stream<Person> ageBetween(int min, int max){
+        int[] blocks = new int[rows.length];
+        int n = 0;
+        for(int b=0; b<rows.length; b++){
+            if(overlaps(b, min, max)) blocks[n++] = b;
+        }
+        return StreamSupport.stream(new RowSpliterator(blocks, 0, n, min, max), false);
+    }
+
+    public Stream<Person> ageAtLeast(int min){
+        return ageBetween(min, Integer.MAX_VALUE);
+    }
+
+    // 범위에 완전히 포함되는 블록은 인덱스의 행 수를 더하고, 걸치는 블록만 나이 컬럼을 읽는다.
+    public long countAgeBetween(int min, int max){
+        long count = 0;
+        int[] ages = new int[ROWS_PER_BLOCK];
+        byte[] scratch = new byte[ROWS_PER_BLOCK * Integer.BYTES];
+        for(int b=0; b<rows.length; b++){
+            if(!overlaps(b, min, max)) continue;
+            if(contains(b, min, max)){
+                count += rows[b];
+                continue;
+            }
+            decodeAges(b, ages, scratch);
+            for(int i=0; i<rows[b]; i++){
+                count += ages[i] >= min & ages[i] <= max ? 1 : 0; // 분기 예측 실패가 없도록 & 로 비교한다.
+            }
+        }
+        return count;
+    }
+
+    // 파일 전체를 메모리의 컬럼형 테이블로 읽는다.
+    public PersonTable toTable(){
+        PersonTable.Builder builder = PersonTable.builder();
+        stream().forEach(person -> builder.add(person.getName(), person.getAge()));
+        return builder.build();
+    }
+
+    private void decodeAges(int block, int[] ages, byte[] scratch){
+        decode(mappings[mappingOf[block]], offsets[block], rows[block], ageWidths[block], minAges[block], ages, scratch);
+    }
+
+    private void decodeCodes(int block, int[] codes, byte[] scratch){
+        int offset = offsets[block] + rows[block] * ageWidths[block];
+        decode(mappings[mappingOf[block]], offset, rows[block], codeWidths[block], 0, codes, scratch);
+    }
+
+    // 폭이 width 인 부호 없는 리틀 엔디언 정수 count 개를 읽어 base 를 더한다.
+    // 매핑된 버퍼를 값마다 읽지 않고 컬럼 전체를 scratch 에 한 번에 복사한 뒤 배열에서 디코딩한다.
+    private static void decode(ByteBuffer buffer, int offset, int count, int width, int base, int[] dst, byte[] scratch){
+        buffer.get(offset, scratch, 0, count * width);
+        switch (width) {
+            case 1:
+                for(int i=0; i<count; i++){
+                    dst[i] = base + (scratch[i] & 0xff);
+                }
+                break;
+            case 2:
+                for(int i=0; i<count; i++){
+                    dst[i] = base + ((scratch[2 * i] & 0xff) | (scratch[2 * i + 1] & 0xff) << 8);
+                }
+                break;
+            default:
+                for(int i=0; i<count; i++){
+                    int j = 4 * i;
+                    dst[i] = base + ((scratch[j] & 0xff) | (scratch[j + 1] & 0xff) << 8 | (scratch[j + 2] & 0xff) << 16 | scratch[j + 3] << 24);
+                }
+        }
+    }
+
+    /**
+     * 블록 단위로 나뉘는 spliterator. 블록 하나를 디코딩한 뒤 조건을 만족하는 행을 내보낸다.
+     */
+    private final class RowSpliterator implements Spliterator<Person> {
+        private final int[] blocks;
+        private int index;       // 다음에 디코딩할 blocks 의 위치
+        private final int fence;
+        private final int min;
+        private final int max;
+        private int[] ages;
+        private int[] codes;
+        private byte[] scratch;
+        private int row;         // 디코딩된 블록에서 다음에 내보낼 행
+        private int rowCount;
+
+        RowSpliterator(int[] blocks, int index, int fence, int min, int max){
+            this.blocks = blocks;
+            this.index = index;
+            this.fence = fence;
+            this.min = min;
+            this.max = max;
+        }
+
+        private void load(int block){
+            if(ages == null){
+                ages = new int[ROWS_PER_BLOCK];
+                codes = new int[ROWS_PER_BLOCK];
+                scratch = new byte[ROWS_PER_BLOCK * Integer.BYTES];
+            }
+            decodeAges(block, ages, scratch);
+            decodeCodes(block, codes, scratch);
+            row = 0;
+            rowCount = rows[block];
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Person> action) {
+            while (true) {
+                while (row < rowCount) {
+                    int i = row++;
+                    int age = ages[i];
+                    if(age >= min && age <= max){
+                        action.accept(new Person(dictionary[codes[i]], age));
+                        return true;
+                    }
+                }
+                if(index >= fence) return false;
+                load(blocks[index++]);
+            }
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super Person> action) {
+            while (true) {
+                for(int i=row; i<rowCount; i++){
+                    int age = ages[i];
+                    if(age >= min && age <= max) action.accept(new Person(dictionary[codes[i]], age));
+                }
+                row = rowCount;
+                if(index >= fence) return;
+                load(blocks[index++]);
+            }
+        }
+
+        // 아직 디코딩하지 않은 블록을 절반으로 나눈다.
+        @Override
+        public Spliterator<Person> trySplit() {
+            int mid = (index + fence) >>> 1;
+            if(mid <= index) return null;
+            // 이미 디코딩한 블록의 남은 행은 앞쪽 절반보다 먼저이므로, 남은 행이 있으면 나누지 않는다.
+            if(row < rowCount) return null;
+            RowSpliterator prefix = new RowSpliterator(blocks, index, mid, min, max);
+            index = mid;
+            return prefix;
+        }
+
+        // 남은 블록의 행 수. 조건을 만족하는 행 수의 상한이다.
+        @Override
+        public long estimateSize() {
+            long count = rowCount - row;
+            for(int i=index; i<fence; i++){
+                count += rows[blocks[i]];
+            }
+            return count;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+
+    /**
+     * 스트리밍 쓰기. 블록 하나 분량의 행만 메모리에 모은다.
+     */
+    public static final class Writer implements Consumer<Person>, AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        private long position;
+        private final int[] ages = new int[ROWS_PER_BLOCK];
+        private final int[] codes = new int[ROWS_PER_BLOCK];
+        private int count;
+        private final Map<String, Integer> codeByName = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+        private ByteBuffer entries = ByteBuffer.allocate(64 * INDEX_ENTRY_SIZE).order(ByteOrder.LITTLE_ENDIAN); // 블록 인덱스
+        private int blocks;
+        private boolean closed;
+
+        private Writer(FileChannel channel) throws IOException {
+            this.channel = channel;
+            buffer.putInt(MAGIC).putInt(VERSION);
+            position = HEADER_SIZE;
+        }
+
+        @Override
+        public void accept(Person person) {
+            add(person.getName(), person.getAge());
+        }
+
+        public Writer add(String name, int age){
+            if(closed) throw new IllegalStateException("닫힌 Writer 이다.");
+            Objects.requireNonNull(name, "name");
+            Integer code = codeByName.get(name);
+            if(code == null){
+                code = names.size();
+                codeByName.put(name, code);
+                names.add(name);
+            }
+            ages[count] = age;
+            codes[count] = code;
+            if(++count == ROWS_PER_BLOCK) flushBlock();
+            return this;
+        }
+
+        private void flushBlock(){
+            if(count == 0) return;
+            int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE, maxCode = 0;
+            for(int i=0; i<count; i++){
+                min = Math.min(min, ages[i]);
+                max = Math.max(max, ages[i]);
+                maxCode = Math.max(maxCode, codes[i]);
+            }
+            int ageWidth = width((long) max - min);
+            int codeWidth = width(maxCode);
+
+            if(entries.remaining() < INDEX_ENTRY_SIZE){
+                entries = ByteBuffer.allocate(entries.capacity() * 2).order(ByteOrder.LITTLE_ENDIAN).put(entries.flip());
+            }
+            entries.putLong(position).putInt(count).putInt(min).putInt(max).put((byte) ageWidth).put((byte) codeWidth).putShort((short) 0);
+            blocks++;
+
+            ensure(count * (ageWidth + codeWidth));
+            encode(ages, min, ageWidth);
+            encode(codes, 0, codeWidth);
+            count = 0;
+        }
+
+        private static int width(long range){
+            if(range < 1 << 8) return 1;
+            if(range < 1 << 16) return 2;
+            return 4;
+        }
+
+        private void encode(int[] values, int base, int width){
+            for(int i=0; i<count; i++){
+                int value = values[i] - base;
+                if(width == 1) buffer.put((byte) value);
+                else if(width == 2) buffer.putShort((short) value);
+                else buffer.putInt(value);
+            }
+            position += (long) count * width;
+        }
+
+        private void ensure(int bytes){
+            if(buffer.remaining() < bytes) drain();
+        }
+
+        private void drain(){
+            buffer.flip();
+            writeFully(buffer);
+            buffer.clear();
+        }
+
+        private void writeFully(ByteBuffer bytes){
+            try {
+                while (bytes.hasRemaining()) {
+                    channel.write(bytes);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        // 남은 블록, 사전, 인덱스, 트레일러를 쓰고 파일을 닫는다.
+        @Override
+        public void close() throws IOException {
+            if(closed) return;
+            closed = true;
+            try {
+                flushBlock();
+                long footerOffset = position;
+                ensure(4);
+                buffer.putInt(names.size());
+                for(String name : names){
+                    byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                    ensure(4);
+                    buffer.putInt(bytes.length);
+                    if(bytes.length > buffer.capacity()){
+                        drain();
+                        writeFully(ByteBuffer.wrap(bytes));
+                    } else {
+                        ensure(bytes.length);
+                        buffer.put(bytes);
+                    }
+                }
+                ensure(4);
+                buffer.putInt(blocks);
+                entries.flip();
+                while (entries.hasRemaining()) {
+                    ensure(INDEX_ENTRY_SIZE);
+                    int limit = entries.limit();
+                    entries.limit(entries.position() + Math.min(entries.remaining(), buffer.remaining() / INDEX_ENTRY_SIZE * INDEX_ENTRY_SIZE));
+                    buffer.put(entries);
+                    entries.limit(limit);
+                }
+                ensure(TRAILER_SIZE);
+                buffer.putLong(footerOffset).putInt(MAGIC).putInt(VERSION);
+                drain();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PersonFile{" +
+                "size=" + size +
+                ", blocks=" + rows.length +
+                ", distinctNames=" + dictionary.length +
+                '}';
+    }
+}
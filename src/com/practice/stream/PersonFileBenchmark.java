@@ -0,0 +1,170 @@
+package com.practice.stream;
+
+import com.practice.benchmark.BenchmarkData;
+import com.practice.benchmark.BenchmarkRunner;
+import com.practice.benchmark.BenchmarkSuite;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * PersonFile 벤치마크
+ * 같은 Person 목록을 세 가지 형식으로 파일에 저장하고, 파일에서 조건에 맞는 Person 을 읽어 온다. 파일은 페이지 캐시에 올라와 있는 상태이다.
+ * objectStream: ObjectOutputStream 으로 직렬화한 ArrayList<Person> 을 역직렬화한 뒤 filter
+ * dataStream: DataOutputStream 으로 (이름, 나이) 를 행마다 쓰고, 행마다 Person 을 만든 뒤 filter
+ * personFile: PersonFile.ageAtLeast. 블록 인덱스로 건너뛸 수 없는 블록만 디코딩한다.
+ * *Sorted 는 나이 순으로 저장한 파일에서 나이 75 이상(약 6%)을 조회하므로, PersonFile 은 대부분의 블록을 읽지 않는다.
+ */
+public class PersonFileBenchmark extends BenchmarkSuite {
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner.run(PersonFileBenchmark.class, args);
+    }
+
+    private static List<Person> people(int size, boolean sorted){
+        List<Integer> ages = BenchmarkData.integers(size, 80);
+        List<Person> people = new ArrayList<>(size);
+        for(int i=0; i<size; i++){
+            people.add(new Person("사람" + (i % 1000), ages.get(i)));
+        }
+        if(sorted) people.sort(Comparator.comparingInt(Person::getAge));
+        return people;
+    }
+
+    private static Path tempFile(String suffix) throws IOException {
+        Path path = Files.createTempFile("people", suffix);
+        path.toFile().deleteOnExit();
+        return path;
+    }
+
+    private static Path objectFile(List<Person> people){
+        try {
+            Path path = tempFile(".ser");
+            try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(path.toFile())))) {
+                out.writeObject(people);
+            }
+            return path;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Person> readObjects(Path path, Predicate<Person> predicate){
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(path.toFile())))) {
+            return ((List<Person>) in.readObject()).stream().filter(predicate).collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Path dataFile(List<Person> people){
+        try {
+            Path path = tempFile(".dat");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path.toFile())))) {
+                out.writeInt(people.size());
+                for(Person person : people){
+                    out.writeUTF(person.getName());
+                    out.writeInt(person.getAge());
+                }
+            }
+            return path;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<Person> readData(Path path, Predicate<Person> predicate){
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(path.toFile()), 1 << 16))) {
+            int size = in.readInt();
+            List<Person> result = new ArrayList<>();
+            for(int i=0; i<size; i++){
+                Person person = new Person(in.readUTF(), in.readInt());
+                if(predicate.test(person)) result.add(person);
+            }
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path personFile(List<Person> people){
+        try {
+            Path path = tempFile(".prsn");
+            PersonFile.write(path, people);
+            return path;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static PersonFile open(Path path){
+        try {
+            return PersonFile.open(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    protected void register() {
+        sizes(1_000_000);
+
+        bench("objectStreamAgeAtLeast30", params -> {
+            Path path = objectFile(people(params.getSize(), false));
+            return bh -> bh.consume(readObjects(path, p -> p.getAge() >= 30));
+        });
+
+        bench("dataStreamAgeAtLeast30", params -> {
+            Path path = dataFile(people(params.getSize(), false));
+            return bh -> bh.consume(readData(path, p -> p.getAge() >= 30));
+        });
+
+        bench("personFileAgeAtLeast30", params -> {
+            Path path = personFile(people(params.getSize(), false));
+            return bh -> bh.consume(open(path).ageAtLeast(30).collect(Collectors.toList()));
+        });
+
+        bench("personFileAgeAtLeast30Parallel", params -> {
+            Path path = personFile(people(params.getSize(), false));
+            return bh -> bh.consume(open(path).ageAtLeast(30).parallel().collect(Collectors.toList()));
+        });
+
+        bench("personFileCountAgeAtLeast30", params -> {
+            Path path = personFile(people(params.getSize(), false));
+            return bh -> bh.consume(open(path).countAgeBetween(30, Integer.MAX_VALUE));
+        });
+
+        bench("objectStreamAgeAtLeast75Sorted", params -> {
+            Path path = objectFile(people(params.getSize(), true));
+            return bh -> bh.consume(readObjects(path, p -> p.getAge() >= 75));
+        });
+
+        bench("dataStreamAgeAtLeast75Sorted", params -> {
+            Path path = dataFile(people(params.getSize(), true));
+            return bh -> bh.consume(readData(path, p -> p.getAge() >= 75));
+        });
+
+        bench("personFileAgeAtLeast75Sorted", params -> {
+            Path path = personFile(people(params.getSize(), true));
+            return bh -> bh.consume(open(path).ageAtLeast(75).collect(Collectors.toList()));
+        });
+    }
+}
@@ -0,0 +1,241 @@
+package com.practice.stream;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * 컬럼형 Person 테이블
+ * List<Person> 은 힙 곳곳에 흩어진 객체를 참조로 따라가며 읽어야 하지만, PersonTable 은 같은 필드를 하나의 배열(컬럼)에 모아서 저장한다.
+ *
+ * 나이 컬럼: int[] ages
+ * 이름 컬럼: 사전 인코딩. 서로 다른 이름은 dictionary 에 한 번만 저장하고, 각 행은 사전 번호(int[] nameCodes)만 가진다.
+ * 나이 인덱스: (나이, 행 번호) 순으로 정렬된 행 번호 배열. 이분 탐색으로 나이 범위에 해당하는 행의 개수와 위치를 바로 찾는다.
+ *
+ * 범위 조회 결과는 Person 객체가 아닌 행 번호 배열(Selection, 선택 벡터)로 반환한다.
+ * 조회할 행이 적으면 인덱스 구간을 사용하고, 많으면 나이 컬럼을 순차 스캔하는 편이 빠르므로 인덱스로 개수를 먼저 센 뒤 방법을 고른다.
+ * 기존 Stream<Person> 코드를 그대로 사용할 수 있도록 stream() 은 필요한 시점에 Person 객체를 만들어 흘려보낸다.
+ */
+public final class PersonTable {
+
+    // 조회 결과가 전체의 1/8 이상이면 인덱스 대신 컬럼 스캔을 사용한다.
+    private static final int SCAN_THRESHOLD_SHIFT = 3;
+
+    private final int size;
+    private final int[] ages;
+    private final int[] nameCodes;
+    private final String[] dictionary;
+    private final int[] sortedAges;  // 나이 인덱스의 키
+    private final int[] rowsByAge;   // 나이 인덱스의 값 (행 번호)
+
+    private PersonTable(int size, int[] ages, int[] nameCodes, String[] dictionary){
+        this.size = size;
+        this.ages = ages;
+        this.nameCodes = nameCodes;
+        this.dictionary = dictionary;
+
+        // (나이 << 32 | 행 번호) 를 정렬하면 나이 순, 같은 나이는 행 번호 순으로 정렬된다.
+        long[] keys = new long[size];
+        for(int row=0; row<size; row++){
+            keys[row] = ((long) ages[row] << 32) | row;
+        }
+        Arrays.parallelSort(keys);
+        this.sortedAges = new int[size];
+        this.rowsByAge = new int[size];
+        for(int i=0; i<size; i++){
+            sortedAges[i] = (int) (keys[i] >> 32);
+            rowsByAge[i] = (int) keys[i];
+        }
+    }
+
+    public static PersonTable of(Collection<Person> people){
+        Builder builder = new Builder(people.size());
+        for(Person person : people){
+            builder.add(person.getName(), person.getAge());
+        }
+        return builder.build();
+    }
+
+    public static Builder builder(){
+        return new Builder(16);
+    }
+
+    public static final class Builder {
+        private int size;
+        private int[] ages;
+        private int[] nameCodes;
+        private final Map<String, Integer> codes = new HashMap<>();
+        private String[] dictionary = new String[16];
+
+        private Builder(int capacity){
+            this.ages = new int[Math.max(16, capacity)];
+            this.nameCodes = new int[Math.max(16, capacity)];
+        }
+
+        public Builder add(String name, int age){
+            if(size == ages.length){
+                ages = Arrays.copyOf(ages, size * 2);
+                nameCodes = Arrays.copyOf(nameCodes, size * 2);
+            }
+            Integer code = codes.get(name);
+            if(code == null){
+                code = codes.size();
+                codes.put(name, code);
+                if(code == dictionary.length) dictionary = Arrays.copyOf(dictionary, code * 2);
+                dictionary[code] = name;
+            }
+            ages[size] = age;
+            nameCodes[size] = code;
+            size++;
+            return this;
+        }
+
+        public PersonTable build(){
+            return new PersonTable(size,
+                    Arrays.copyOf(ages, size),
+                    Arrays.copyOf(nameCodes, size),
+                    Arrays.copyOf(dictionary, codes.size()));
+        }
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public int getAge(int row){
+        return ages[row];
+    }
+
+    public String getName(int row){
+        return dictionary[nameCodes[row]];
+    }
+
+    // 서로 다른 이름의 수
+    public int distinctNames(){
+        return dictionary.length;
+    }
+
+    // 정렬된 나이 인덱스에서 age 이상인 첫 위치
+    private int lowerBound(int age){
+        int low = 0, high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if(sortedAges[mid] < age) low = mid + 1;
+            else high = mid;
+        }
+        return low;
+    }
+
+    // min 이상 max 이하의 나이를 가진 행
+    public Selection ageBetween(int min, int max){
+        if(min > max) return new Selection(this, new int[0]);
+        int from = lowerBound(min);
+        int to = max == Integer.MAX_VALUE ? size : lowerBound(max + 1);
+        int count = to - from;
+
+        int[] rows = new int[count];
+        if(count >= (size >>> SCAN_THRESHOLD_SHIFT)){
+            // 많은 행을 조회 : 나이 컬럼을 순차 스캔해 행 번호 순서대로 채운다.
+            int n = 0;
+            for(int row=0; row<size; row++){
+                int age = ages[row];
+                if(age >= min && age <= max) rows[n++] = row;
+            }
+        } else {
+            // 적은 행을 조회 : 인덱스 구간을 복사한 뒤 행 번호 순서로 정렬한다.
+            System.arraycopy(rowsByAge, from, rows, 0, count);
+            Arrays.sort(rows);
+        }
+        return new Selection(this, rows);
+    }
+
+    public Selection ageAtLeast(int min){
+        return ageBetween(min, Integer.MAX_VALUE);
+    }
+
+    public Selection ageLessThan(int max){
+        return max == Integer.MIN_VALUE ? new Selection(this, new int[0]) : ageBetween(Integer.MIN_VALUE, max - 1);
+    }
+
+    // 조회 결과를 만들지 않고 개수만 센다. 인덱스의 이분 탐색 두 번으로 끝난다.
+    public int countAgeBetween(int min, int max){
+        if(min > max) return 0;
+        int to = max == Integer.MAX_VALUE ? size : lowerBound(max + 1);
+        return to - lowerBound(min);
+    }
+
+    public Selection all(){
+        return new Selection(this, IntStream.range(0, size).toArray());
+    }
+
+    // 기존 Stream<Person> 코드를 위한 어댑터. 행마다 Person 객체를 만든다.
+    public Stream<Person> stream(){
+        return IntStream.range(0, size).mapToObj(this::toPerson);
+    }
+
+    Person toPerson(int row){
+        return new Person(getName(row), ages[row]);
+    }
+
+    /**
+     * 선택 벡터
+     * 조건을 만족하는 행 번호를 오름차순으로 담은 배열. 행 객체를 만들지 않고 컬럼 값을 바로 읽을 수 있다.
+     */
+    public static final class Selection {
+        private final PersonTable table;
+        private final int[] rows;
+
+        private Selection(PersonTable table, int[] rows){
+            this.table = table;
+            this.rows = rows;
+        }
+
+        public int size(){
+            return rows.length;
+        }
+
+        public int rowAt(int index){
+            return rows[index];
+        }
+
+        public IntStream rows(){
+            return Arrays.stream(rows);
+        }
+
+        public IntStream ages(){
+            return Arrays.stream(rows).map(row -> table.ages[row]);
+        }
+
+        public Stream<String> names(){
+            return Arrays.stream(rows).mapToObj(table::getName);
+        }
+
+        // 두 선택 벡터의 교집합. 둘 다 정렬되어 있으므로 병합으로 구한다.
+        public Selection and(Selection other){
+            if(other.table != table) throw new IllegalArgumentException("다른 테이블의 선택 벡터와는 합칠 수 없다.");
+            int[] result = new int[Math.min(rows.length, other.rows.length)];
+            int i = 0, j = 0, n = 0;
+            while (i < rows.length && j < other.rows.length) {
+                int a = rows[i], b = other.rows[j];
+                if(a == b){
+                    result[n++] = a;
+                    i++;
+                    j++;
+                } else if(a < b){
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            return new Selection(table, Arrays.copyOf(result, n));
+        }
+
+        // 기존 Stream<Person> 코드를 위한 어댑터
+        public Stream<Person> stream(){
+            return Arrays.stream(rows).mapToObj(table::toPerson);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.practice.stream;
+
+import com.practice.benchmark.BenchmarkData;
+import com.practice.benchmark.BenchmarkRunner;
+import com.practice.benchmark.BenchmarkSuite;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * PersonTable 벤치마크
+ * List<Person> 을 filter 로 스캔하는 방식과 컬럼형 테이블의 나이 인덱스 조회를 비교한다.
+ * ageAtLeast30 은 결과가 많아 컬럼 스캔을, ageBetween30And31 은 결과가 적어 인덱스 구간을 사용한다.
+ */
+public class PersonTableBenchmark extends BenchmarkSuite {
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner.run(PersonTableBenchmark.class, args);
+    }
+
+    private static List<Person> people(int size){
+        List<Integer> ages = BenchmarkData.integers(size, 80);
+        List<Person> people = new ArrayList<>(size);
+        for(int i=0; i<size; i++){
+            // 이름은 1000 가지만 반복되어 사전 인코딩의 효과가 드러난다.
+            people.add(new Person("사람" + (i % 1000), ages.get(i)));
+        }
+        return people;
+    }
+
+    @Override
+    protected void register() {
+        sizes(10_000, 1_000_000);
+
+        bench("listFilterAgeAtLeast30", params -> {
+            List<Person> people = people(params.getSize());
+            return bh -> bh.consume(people.stream()
+                    .filter(p -> p.getAge() >= 30)
+                    .collect(Collectors.toList()));
+        });
+
+        bench("tableAgeAtLeast30", params -> {
+            PersonTable table = PersonTable.of(people(params.getSize()));
+            return bh -> bh.consume(table.ageAtLeast(30));
+        });
+
+        bench("listFilterAgeBetween30And31", params -> {
+            List<Person> people = people(params.getSize());
+            return bh -> bh.consume(people.stream()
+                    .filter(p -> p.getAge() >= 30 && p.getAge() <= 31)
+                    .collect(Collectors.toList()));
+        });
+
+        bench("tableAgeBetween30And31", params -> {
+            PersonTable table = PersonTable.of(people(params.getSize()));
+            return bh -> bh.consume(table.ageBetween(30, 31));
+        });
+
+        bench("listCountAgeAtLeast30", params -> {
+            List<Person> people = people(params.getSize());
+            return bh -> bh.consume(people.stream()
+                    .filter(p -> p.getAge() >= 30)
+                    .count());
+        });
+
+        bench("tableCountAgeAtLeast30", params -> {
+            PersonTable table = PersonTable.of(people(params.getSize()));
+            return bh -> bh.consume(table.countAgeBetween(30, Integer.MAX_VALUE));
+        });
+
+        bench("tableStreamAdapterAgeAtLeast30", params -> {
+            PersonTable table = PersonTable.of(people(params.getSize()));
+            return bh -> bh.consume(table.ageAtLeast(30).stream()
+                    .collect(Collectors.toList()));
+        });
+    }
+}
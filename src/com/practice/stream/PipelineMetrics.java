@@ -0,0 +1,344 @@
+package com.practice.stream;
+
+import com.practice.benchmark.AllocationProfiler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+/**
+ * 파이프라인 단계별 측정
+ * peek(System.out::println) 으로는 어느 단계가 느린지 알 수 없다.
+ * PipelineMetrics 로 만든 InstrumentedStream 은 filter, map, flatMap, distinct, sorted, limit, skip 단계마다 다음 값을 기록한다.
+ *
+ * in, out: 단계에 들어온 요소 수와 나간 요소 수. 단계마다 내보낸 요소 수만 세고, 단계의 in 은 앞 단계의 out 이다.
+ * selectivity: out / in
+ * nanos: 단계가 쓴 시간의 합의 추정치. System.nanoTime 은 호출 비용이 크므로 요소마다 1/16 확률로 골라 재고 16 을 곱한다.
+ *   순번으로 고르면(16 번째마다) HashSet 확장처럼 2의 거듭제곱 간격으로 생기는 비용이 항상 표본에 걸려 16 배로 부풀려진다.
+ *   filter, map, flatMap 은 전달한 함수의 실행 시간, sorted 는 비교 함수의 실행 시간(정렬 비용의 대부분)을 잰다.
+ *   distinct 는 요소가 들어와서 통과할 때까지의 시간을 재므로, 걸러진 요소의 시간은 빠진다.
+ *   표본으로 고른 요소가 걸러지면 들어온 시각을 다음 요소가 들어올 때 지운다. 남겨 두면 다음에 통과하는 요소까지의 시간,
+ *   즉 그 사이 앞 단계들이 쓴 시간이 distinct 의 시간으로 잡힌다.
+ *   순서가 있는 병렬 스트림의 distinct 는 모든 요소를 모은 뒤에야 내보내는 장벽(barrier)이다. 들어온 시각과 나간 시각의 차이는
+ *   단계 비용이 아니라 장벽에서 기다린 시간이므로, 이때 distinct 의 nanos 는 의미가 없다.
+ * allocatedBytes: 함수 실행 중 할당한 바이트 수의 추정치. 1/64 확률로 스레드 할당 카운터를 읽고 64 를 곱한다.
+ *
+ * 카운터는 StripedAccumulator 처럼 스레드마다 자신만 쓰는 셀에 기록하므로 병렬 스트림에서도 경합이 없다.
+ * snapshot() 은 모든 셀을 합친다. 실행 중에 호출하면 근사값을 얻는다.
+ * disabled() 로 만들면 InstrumentedStream 은 원래 연산을 그대로 호출만 하므로 측정 비용이 없다.
+ *
+ * PipelineMetrics metrics = PipelineMetrics.enabled();
+ * List<String> result = metrics.source(words.stream()).filter(...).as("길이 검사").map(...).stream().collect(toList());
+ * System.out.println(metrics.snapshot());
+ */
+public final class PipelineMetrics {
+
+    // System.nanoTime 한 번에 수십 ns 가 걸리므로 시간은 1/TIME_SAMPLE 확률로 재고 TIME_SAMPLE 을 곱한다. 둘 다 2의 거듭제곱이어야 한다.
+    private static final int TIME_SAMPLE = 16;
+    private static final int ALLOCATION_SAMPLE = 64;
+    private static final long NOT_SAMPLED = Long.MIN_VALUE;
+
+    private final boolean enabled;
+    private final boolean trackAllocations;
+    private final List<String> names = new CopyOnWriteArrayList<>();
+    private final List<Integer> inputs = new CopyOnWriteArrayList<>(); // 단계에 요소를 넘기는 앞 단계. source 는 -1
+    private final List<Cell> cells = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<Cell> localCell = ThreadLocal.withInitial(this::register);
+
+    private PipelineMetrics(boolean enabled, boolean trackAllocations){
+        this.enabled = enabled;
+        this.trackAllocations = trackAllocations && AllocationProfiler.isSupported();
+    }
+
+    // 요소 수와 시간을 기록한다.
+    public static PipelineMetrics enabled(){
+        return new PipelineMetrics(true, false);
+    }
+
+    // 요소 수, 시간과 할당 바이트 추정치를 기록한다.
+    public static PipelineMetrics withAllocations(){
+        return new PipelineMetrics(true, true);
+    }
+
+    // 아무것도 기록하지 않는다.
+    public static PipelineMetrics disabled(){
+        return new PipelineMetrics(false, false);
+    }
+
+    public boolean isEnabled(){
+        return enabled;
+    }
+
+    // 측정할 파이프라인의 시작. 원본 스트림이 내보낸 요소 수를 source 단계로 기록한다.
+    public <T> InstrumentedStream<T> source(Stream<T> stream){
+        if(!enabled) return new InstrumentedStream<>(this, stream, -1);
+        int stage = addStage("source", -1);
+        return new InstrumentedStream<>(this, stream.peek(x -> cell().exit(stage)), stage);
+    }
+
+    synchronized int addStage(String name, int input){
+        inputs.add(input);
+        names.add(name);
+        return names.size() - 1;
+    }
+
+    void rename(int stage, String name){
+        names.set(stage, name);
+    }
+
+    Cell cell(){
+        return localCell.get();
+    }
+
+    private Cell register(){
+        Cell cell = new Cell(this);
+        cells.add(cell);
+        return cell;
+    }
+
+    public Snapshot snapshot(){
+        int stages = names.size();
+        long[] counts = new long[stages];
+        long[] nanos = new long[stages];
+        long[] allocated = new long[stages];
+        for(Cell cell : cells){
+            Cell.Counters counters = cell.counters;
+            for(int i=0; i<Math.min(stages, counters.length); i++){
+                counts[i] += counters.counts[i];
+                nanos[i] += counters.nanos[i];
+                allocated[i] += counters.allocated[i];
+            }
+        }
+        List<StageSnapshot> result = new ArrayList<>(stages);
+        for(int i=0; i<stages; i++){
+            int input = inputs.get(i);
+            long in = input < 0 ? counts[i] : counts[input];
+            result.add(new StageSnapshot(names.get(i), in, counts[i], nanos[i], allocated[i]));
+        }
+        return new Snapshot(result, trackAllocations);
+    }
+
+    // 기록된 값을 초기화한다. 실행 중인 파이프라인이 없을 때 호출해야 한다.
+    public void reset(){
+        for(Cell cell : cells){
+            cell.counters = new Cell.Counters(cell.counters.length);
+        }
+    }
+
+    /**
+     * 측정 결과
+     * bottleneck() 은 시간을 가장 많이 쓴 단계이다.
+     */
+    public static final class Snapshot {
+        private final List<StageSnapshot> stages;
+        private final boolean allocations;
+
+        private Snapshot(List<StageSnapshot> stages, boolean allocations){
+            this.stages = Collections.unmodifiableList(stages);
+            this.allocations = allocations;
+        }
+
+        public List<StageSnapshot> getStages(){
+            return stages;
+        }
+
+        public long getTotalNanos(){
+            long total = 0;
+            for(StageSnapshot stage : stages){
+                total += stage.getNanos();
+            }
+            return total;
+        }
+
+        // 단계가 없으면 null
+        public StageSnapshot bottleneck(){
+            StageSnapshot result = null;
+            for(StageSnapshot stage : stages){
+                if(result == null || stage.getNanos() > result.getNanos()) result = stage;
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            long total = getTotalNanos();
+            StringBuilder sb = new StringBuilder(String.format("%-3s %-16s %12s %12s %11s %14s %7s", "#", "stage", "in", "out", "selectivity", "nanos", "time%"));
+            if(allocations) sb.append(String.format(" %14s", "alloc(B)"));
+            for(int i=0; i<stages.size(); i++){
+                StageSnapshot stage = stages.get(i);
+                sb.append(System.lineSeparator());
+                sb.append(String.format("%-3d %-16s %12d %12d %11.3f %14d %6.1f%%", i, stage.getName(), stage.getIn(), stage.getOut(),
+                        stage.selectivity(), stage.getNanos(), total == 0 ? 0.0 : 100.0 * stage.getNanos() / total));
+                if(allocations) sb.append(String.format(" %14d", stage.getAllocatedBytes()));
+            }
+            return sb.toString();
+        }
+    }
+
+    public static final class StageSnapshot {
+        private final String name;
+        private final long in;
+        private final long out;
+        private final long nanos;
+        private final long allocatedBytes;
+
+        private StageSnapshot(String name, long in, long out, long nanos, long allocatedBytes){
+            this.name = name;
+            this.in = in;
+            this.out = out;
+            this.nanos = nanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public String getName(){
+            return name;
+        }
+
+        public long getIn(){
+            return in;
+        }
+
+        public long getOut(){
+            return out;
+        }
+
+        public long getNanos(){
+            return nanos;
+        }
+
+        public long getAllocatedBytes(){
+            return allocatedBytes;
+        }
+
+        // 들어온 요소가 없으면 1
+        public double selectivity(){
+            return in == 0 ? 1.0 : (double) out / in;
+        }
+
+        @Override
+        public String toString() {
+            return "StageSnapshot{" +
+                    "name='" + name + '\'' +
+                    ", in=" + in +
+                    ", out=" + out +
+                    ", nanos=" + nanos +
+                    ", allocatedBytes=" + allocatedBytes +
+                    '}';
+        }
+    }
+
+    /**
+     * 스레드별 카운터. 한 스레드만 쓰기 때문에 원자적 연산이 필요 없다.
+     * 단계는 파이프라인을 만드는 동안 늘어나므로, 배열이 부족하면 더 큰 Counters 로 바꾼다.
+     */
+    static final class Cell {
+        private static final int PAD = 8; // 배열 끝에 빈 칸을 두어 뒤에 할당된 다른 셀의 배열과 캐시 라인을 공유하지 않게 한다.
+
+        private final PipelineMetrics metrics;
+        volatile Counters counters = new Counters(4);
+        private int random = ThreadLocalRandom.current().nextInt() | 1; // 표본을 고르는 xorshift 상태. 0 이면 안 된다.
+
+        Cell(PipelineMetrics metrics){
+            this.metrics = metrics;
+        }
+
+        static final class Counters {
+            final int length;
+            final long[] counts;
+            final long[] nanos;
+            final long[] allocated;
+            final long[] enterTimes;
+            final long[] allocationStarts;
+
+            Counters(int length){
+                this.length = length;
+                counts = new long[length + PAD];
+                nanos = new long[length + PAD];
+                allocated = new long[length + PAD];
+                enterTimes = new long[length + PAD];
+                allocationStarts = new long[length + PAD];
+                Arrays.fill(enterTimes, NOT_SAMPLED);
+                Arrays.fill(allocationStarts, NOT_SAMPLED);
+            }
+
+            Counters grow(int length){
+                Counters grown = new Counters(length);
+                System.arraycopy(counts, 0, grown.counts, 0, this.length);
+                System.arraycopy(nanos, 0, grown.nanos, 0, this.length);
+                System.arraycopy(allocated, 0, grown.allocated, 0, this.length);
+                return grown;
+            }
+        }
+
+        private Counters counters(int stage){
+            Counters c = counters;
+            if(stage >= c.length){
+                c = c.grow(Math.max(stage + 1, c.length * 2));
+                counters = c;
+            }
+            return c;
+        }
+
+        private int nextRandom(){
+            int x = random;
+            x ^= x << 13;
+            x ^= x >>> 17;
+            x ^= x << 5;
+            random = x;
+            return x;
+        }
+
+        // 단계가 요소를 내보냈다.
+        void exit(int stage){
+            counters(stage).counts[stage]++;
+        }
+
+        // distinct 처럼 함수가 없는 단계: 표본으로 고른 요소만 들어온 시각을 적어 두고, 나갈 때 경과 시간을 더한다.
+        // 앞 요소가 걸러져 exitTimed 가 불리지 않았을 수 있으므로 표본이 아닌 요소가 들어와도 기록을 지운다.
+        void enter(int stage){
+            Counters c = counters(stage);
+            c.enterTimes[stage] = (nextRandom() & (TIME_SAMPLE - 1)) == 0 ? System.nanoTime() : NOT_SAMPLED;
+        }
+
+        void exitTimed(int stage){
+            Counters c = counters(stage);
+            c.counts[stage]++;
+            long enterTime = c.enterTimes[stage];
+            if(enterTime != NOT_SAMPLED){
+                c.nanos[stage] += (System.nanoTime() - enterTime) * TIME_SAMPLE;
+                c.enterTimes[stage] = NOT_SAMPLED;
+            }
+        }
+
+        // 단계의 함수 실행 전후에 호출한다. 표본이 아니면 NOT_SAMPLED 를 반환한다.
+        long begin(int stage){
+            int sample = nextRandom();
+            if((sample & (TIME_SAMPLE - 1)) != 0) return NOT_SAMPLED;
+            Counters c = counters(stage);
+            if(metrics.trackAllocations && (sample & (ALLOCATION_SAMPLE - 1)) == 0){
+                c.allocationStarts[stage] = AllocationProfiler.currentThreadAllocatedBytes();
+            }
+            return System.nanoTime();
+        }
+
+        void end(int stage, long start){
+            if(start == NOT_SAMPLED) return;
+            long elapsed = System.nanoTime() - start;
+            Counters c = counters(stage);
+            c.nanos[stage] += elapsed * TIME_SAMPLE;
+            if(c.allocationStarts[stage] != NOT_SAMPLED){
+                c.allocated[stage] += (AllocationProfiler.currentThreadAllocatedBytes() - c.allocationStarts[stage]) * ALLOCATION_SAMPLE;
+                c.allocationStarts[stage] = NOT_SAMPLED;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PipelineMetrics" + names;
+    }
+}
@@ -20,6 +20,8 @@ public class Simplified {
         // forEach
         collection.stream().forEach(System.out::println);
         collection.forEach(System.out::println);
+        collection.forEach(ChannelSink.stdout()); // 출력이 많을 때 (버퍼에 모아서 한 번에 쓴다)
+        ChannelSink.stdout().flush(); // 버퍼에 남은 출력을 내보낸다
 
         // Stream to Array
         collection.stream().toArray();
@@ -0,0 +1,329 @@
+package com.practice.stream;
+
+import java.util.SplittableRandom;
+import java.util.Spliterator;
+import java.util.function.DoubleConsumer;
+import java.util.function.LongConsumer;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 균등하게 분할되는 무한 스트림
+ * Stream.iterate(0, n -> n+2) 는 이전 요소로 다음 요소를 만들기 때문에 i 번째 요소를 구하려면 앞의 요소를 모두 계산해야 하고,
+ * 크기를 모르는(SIZED 가 아닌) 스트림이라 병렬 스트림에서 1024, 2048, ... 개씩 배열에 복사해 가며 나눈다.
+ * Stream.generate(Math::random) 은 모든 스레드가 하나의 Random 을 CAS 로 갱신하므로 코어가 늘수록 경합이 심해진다.
+ *
+ * 이 클래스의 스트림은 i 번째 요소를 앞 요소 없이 바로 계산할 수 있다(jump-ahead).
+ * 그래서 spliterator 는 [index, fence) 범위만 절반으로 나누면 되고, SIZED | SUBSIZED 이므로 limit(n) 도 범위를 잘라 균등하게 분할한다.
+ * 무한 스트림은 크기가 Long.MAX_VALUE 인 스트림으로 표현한다.
+ *
+ * 등차수열: start + i * step
+ * 등비수열: long 은 first * ratio^i (2^64 로 나눈 나머지 연산이라 반복 곱셈과 결과가 같다), double 은 first * Math.pow(ratio, i)
+ * 난수: SplittableRandom 과 같은 SplitMix64. i 번째 난수는 mix(seed + (i + 1) * GAMMA) 이므로 작업마다 독립적으로 자기 구간의 난수를 만든다.
+ *   분할 방식과 관계없이 같은 seed 면 같은 수열이 나오므로, 순차 실행과 병렬 실행의 결과가 같다.
+ */
+public final class SplittableStreams {
+
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+    private static final int CHARACTERISTICS = Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED
+            | Spliterator.IMMUTABLE | Spliterator.NONNULL;
+
+    private SplittableStreams(){
+    }
+
+    // start, start + step, start + 2 * step, ... (Stream.iterate(start, n -> n + step) 와 같은 수열)
+    public static LongStream arithmetic(long start, long step){
+        return arithmetic(start, step, Long.MAX_VALUE);
+    }
+
+    public static LongStream arithmetic(long start, long step, long count){
+        return StreamSupport.longStream(new ArithmeticSpliterator(start, step, 0, checkCount(count)), false);
+    }
+
+    // int 범위의 등차수열. int 덧셈과 같이 넘치면 순환한다.
+    public static IntStream arithmeticInts(int start, int step){
+        return arithmetic(start, step).mapToInt(n -> (int) n);
+    }
+
+    // first, first * ratio, first * ratio^2, ...
+    public static LongStream geometric(long first, long ratio){
+        return geometric(first, ratio, Long.MAX_VALUE);
+    }
+
+    public static LongStream geometric(long first, long ratio, long count){
+        return StreamSupport.longStream(new GeometricSpliterator(first, ratio, 0, checkCount(count)), false);
+    }
+
+    public static DoubleStream geometric(double first, double ratio){
+        return geometric(first, ratio, Long.MAX_VALUE);
+    }
+
+    public static DoubleStream geometric(double first, double ratio, long count){
+        return StreamSupport.doubleStream(new DoubleGeometricSpliterator(first, ratio, 0, checkCount(count)), false);
+    }
+
+    // [0, 1) 범위의 난수 (Stream.generate(Math::random) 대체)
+    public static DoubleStream randomDoubles(){
+        return randomDoubles(new SplittableRandom().nextLong());
+    }
+
+    public static DoubleStream randomDoubles(long seed){
+        return StreamSupport.doubleStream(new RandomDoubleSpliterator(seed, 0, Long.MAX_VALUE), false);
+    }
+
+    public static LongStream randomLongs(long seed){
+        return StreamSupport.longStream(new RandomLongSpliterator(seed, 0, Long.MAX_VALUE), false);
+    }
+
+    private static long checkCount(long count){
+        if(count < 0) throw new IllegalArgumentException("요소 수는 0 이상이어야 한다. count=" + count);
+        return count;
+    }
+
+    // SplittableRandom 의 출력 함수
+    private static long mix64(long z){
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    // 2^64 로 나눈 나머지 거듭제곱 (제곱하며 곱하기)
+    private static long pow(long base, long exponent){
+        long result = 1;
+        while (exponent != 0) {
+            if((exponent & 1) != 0) result *= base;
+            base *= base;
+            exponent >>>= 1;
+        }
+        return result;
+    }
+
+    /**
+     * [index, fence) 범위의 요소를 만드는 spliterator. 하위 클래스는 i 번째 요소와 범위를 자른 복사본을 제공한다.
+     */
+    private abstract static class IndexedLongSpliterator implements Spliterator.OfLong {
+        long index;
+        final long fence;
+
+        IndexedLongSpliterator(long index, long fence){
+            this.index = index;
+            this.fence = fence;
+        }
+
+        abstract long at(long i);
+
+        abstract IndexedLongSpliterator slice(long from, long to);
+
+        @Override
+        public boolean tryAdvance(LongConsumer action) {
+            if(index >= fence) return false;
+            action.accept(at(index++));
+            return true;
+        }
+
+        @Override
+        public OfLong trySplit() {
+            long mid = index + ((fence - index) >>> 1);
+            if(mid <= index) return null;
+            IndexedLongSpliterator prefix = slice(index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+
+    private abstract static class IndexedDoubleSpliterator implements Spliterator.OfDouble {
+        long index;
+        final long fence;
+
+        IndexedDoubleSpliterator(long index, long fence){
+            this.index = index;
+            this.fence = fence;
+        }
+
+        abstract double at(long i);
+
+        abstract IndexedDoubleSpliterator slice(long from, long to);
+
+        @Override
+        public boolean tryAdvance(DoubleConsumer action) {
+            if(index >= fence) return false;
+            action.accept(at(index++));
+            return true;
+        }
+
+        @Override
+        public OfDouble trySplit() {
+            long mid = index + ((fence - index) >>> 1);
+            if(mid <= index) return null;
+            IndexedDoubleSpliterator prefix = slice(index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return CHARACTERISTICS;
+        }
+    }
+
+    private static final class ArithmeticSpliterator extends IndexedLongSpliterator {
+        private final long start;
+        private final long step;
+
+        ArithmeticSpliterator(long start, long step, long index, long fence){
+            super(index, fence);
+            this.start = start;
+            this.step = step;
+        }
+
+        @Override
+        long at(long i) {
+            return start + i * step;
+        }
+
+        @Override
+        IndexedLongSpliterator slice(long from, long to) {
+            return new ArithmeticSpliterator(start, step, from, to);
+        }
+
+        // 시작 요소만 곱셈으로 구하고 나머지는 덧셈으로 만든다.
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            long value = at(index);
+            for(long i=index; i<fence; i++){
+                action.accept(value);
+                value += step;
+            }
+            index = fence;
+        }
+    }
+
+    private static final class GeometricSpliterator extends IndexedLongSpliterator {
+        private final long first;
+        private final long ratio;
+
+        GeometricSpliterator(long first, long ratio, long index, long fence){
+            super(index, fence);
+            this.first = first;
+            this.ratio = ratio;
+        }
+
+        @Override
+        long at(long i) {
+            return first * pow(ratio, i);
+        }
+
+        @Override
+        IndexedLongSpliterator slice(long from, long to) {
+            return new GeometricSpliterator(first, ratio, from, to);
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            long value = at(index);
+            for(long i=index; i<fence; i++){
+                action.accept(value);
+                value *= ratio;
+            }
+            index = fence;
+        }
+    }
+
+    // 반복 곱셈은 반올림 오차가 분할 위치에 따라 달라지므로 요소마다 Math.pow 로 계산한다.
+    private static final class DoubleGeometricSpliterator extends IndexedDoubleSpliterator {
+        private final double first;
+        private final double ratio;
+
+        DoubleGeometricSpliterator(double first, double ratio, long index, long fence){
+            super(index, fence);
+            this.first = first;
+            this.ratio = ratio;
+        }
+
+        @Override
+        double at(long i) {
+            return first * Math.pow(ratio, i);
+        }
+
+        @Override
+        IndexedDoubleSpliterator slice(long from, long to) {
+            return new DoubleGeometricSpliterator(first, ratio, from, to);
+        }
+    }
+
+    private static final class RandomLongSpliterator extends IndexedLongSpliterator {
+        private final long seed;
+
+        RandomLongSpliterator(long seed, long index, long fence){
+            super(index, fence);
+            this.seed = seed;
+        }
+
+        @Override
+        long at(long i) {
+            return mix64(seed + (i + 1) * GOLDEN_GAMMA);
+        }
+
+        @Override
+        IndexedLongSpliterator slice(long from, long to) {
+            return new RandomLongSpliterator(seed, from, to);
+        }
+
+        @Override
+        public void forEachRemaining(LongConsumer action) {
+            long state = seed + index * GOLDEN_GAMMA;
+            for(long i=index; i<fence; i++){
+                state += GOLDEN_GAMMA;
+                action.accept(mix64(state));
+            }
+            index = fence;
+        }
+    }
+
+    private static final class RandomDoubleSpliterator extends IndexedDoubleSpliterator {
+        private final long seed;
+
+        RandomDoubleSpliterator(long seed, long index, long fence){
+            super(index, fence);
+            this.seed = seed;
+        }
+
+        @Override
+        double at(long i) {
+            return (mix64(seed + (i + 1) * GOLDEN_GAMMA) >>> 11) * DOUBLE_UNIT;
+        }
+
+        @Override
+        IndexedDoubleSpliterator slice(long from, long to) {
+            return new RandomDoubleSpliterator(seed, from, to);
+        }
+
+        @Override
+        public void forEachRemaining(DoubleConsumer action) {
+            long state = seed + index * GOLDEN_GAMMA;
+            for(long i=index; i<fence; i++){
+                state += GOLDEN_GAMMA;
+                action.accept((mix64(state) >>> 11) * DOUBLE_UNIT);
+            }
+            index = fence;
+        }
+    }
+}
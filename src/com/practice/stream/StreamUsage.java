@@ -1,11 +1,14 @@
 package com.practice.stream;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.stream.Collectors;
 
 public class StreamUsage {
 
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         List<String> words = Arrays.asList("Apple", "Banana", "banana", "orange", "grape", "Kiwi");
 
         List<Integer> numbers = new ArrayList<>();
@@ -62,6 +65,10 @@ public class StreamUsage {
                 .collect(Collectors.toList());
         System.out.println(sortedWords);
 
+        // 소문자 키를 요소마다 한 번만 만들어서 정렬
+        List<String> keySortedWords = KeySort.<String, String>comparing(String::toLowerCase).sort(words);
+        System.out.println(keySortedWords);
+
         // 객체 리스트에서 특정 조건을 만족하는 객체 필터링
         List<Person> people = Arrays.asList(new Person("길동", 20)
                 , new Person("영희", 29)
@@ -73,27 +80,41 @@ public class StreamUsage {
                 .collect(Collectors.toList());
         System.out.println(filterPeople);
 
-    }
-}
-
-class Person {
-    private int age;
-    private String name;
-
-    public Person(String name, int age){
-        this.age = age;
-        this.name = name;
-    }
+        // 컬럼형 테이블에서 나이 인덱스로 같은 조건을 조회하기
+        PersonTable table = PersonTable.of(people);
+        PersonTable.Selection adults = table.ageAtLeast(30);
+        System.out.println(adults.names().collect(Collectors.toList()) + " " + table.countAgeBetween(20, 29) + "명");
+        System.out.println(adults.stream().collect(Collectors.toList()));
+
+        // 같은 합계, 최댓값, 분할을 파일에서 바로 실행하기
+        // MappedFiles 는 파일을 메모리에 매핑해 읽으므로 리스트를 만들지 않고, 메모리보다 큰 파일도 병렬로 나눠 처리한다.
+        Path numberFile = Files.createTempFile("numbers", ".bin");
+        Path wordFile = Files.createTempFile("words", ".txt");
+        try {
+            MappedFiles.writeInts(numberFile, numbers.stream().mapToInt(Integer::intValue));
+            Files.write(wordFile, words);
+
+            System.out.println(MappedFiles.ints(numberFile).parallel().sum());
+            System.out.println(MappedFiles.ints(numberFile).parallel().max().orElse(0));
+            Map<Boolean, Integer> sumOddAndEvenInFile = MappedFiles.ints(numberFile).parallel().boxed()
+                    .collect(Collectors.partitioningBy(n -> n%2 == 0, Collectors.summingInt(Integer::intValue)));
+            System.out.println("홀수 " + sumOddAndEvenInFile.get(false) + ", 짝수 " + sumOddAndEvenInFile.get(true));
+            System.out.println(MappedFiles.lines(wordFile).parallel().max(Comparator.comparing(String::length)).orElse(""));
+        } finally {
+            Files.delete(numberFile);
+            Files.delete(wordFile);
+        }
 
-    public int getAge(){
-        return age;
-    }
+        // Person 목록을 컬럼형 파일로 저장하고, 파일에서 바로 같은 조건을 조회하기
+        // 블록마다 나이의 최솟값, 최댓값을 저장하므로 조건과 겹치지 않는 블록은 읽지 않는다.
+        Path personFile = Files.createTempFile("people", ".prsn");
+        try {
+            PersonFile.write(personFile, people);
+            PersonFile file = PersonFile.open(personFile);
+            System.out.println(file.ageAtLeast(30).collect(Collectors.toList()) + " " + file.countAgeBetween(20, 29) + "명");
+        } finally {
+            Files.delete(personFile);
+        }
 
-    @Override
-    public String toString() {
-        return "Person{" +
-                "age=" + age +
-                ", name='" + name + '\'' +
-                '}';
     }
-}
\ No newline at end of file
+}
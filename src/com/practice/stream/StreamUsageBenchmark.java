@@ -0,0 +1,104 @@
+package com.practice.stream;
+
+import com.practice.benchmark.BenchmarkData;
+import com.practice.benchmark.BenchmarkRunner;
+import com.practice.benchmark.BenchmarkSuite;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * StreamUsage 벤치마크
+ * StreamUsage.main 의 파이프라인들을 지정한 크기의 데이터로 측정한다.
+ */
+public class StreamUsageBenchmark extends BenchmarkSuite {
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner.run(StreamUsageBenchmark.class, args);
+    }
+
+    @Override
+    protected void register() {
+        sizes(10_000, 1_000_000);
+
+        bench("mapToUpperCase", params -> {
+            List<String> words = BenchmarkData.words(params.getSize(), 4, 10);
+            return bh -> bh.consume(words.stream()
+                    .map(String::toUpperCase)
+                    .collect(Collectors.toList()));
+        });
+
+        bench("reduceSum", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), 100);
+            return bh -> bh.consume(numbers.stream()
+                    .reduce(0, Integer::sum));
+        });
+
+        bench("joining", params -> {
+            List<String> words = BenchmarkData.words(params.getSize(), 4, 10);
+            return bh -> bh.consume(words.stream()
+                    .collect(Collectors.joining("+")));
+        });
+
+        bench("max", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), Integer.MAX_VALUE);
+            return bh -> bh.consume(numbers.stream()
+                    .max(Integer::compareTo)
+                    .orElse(0));
+        });
+
+        bench("partitioningBySum", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), 100);
+            return bh -> bh.consume(numbers.stream()
+                    .collect(Collectors.partitioningBy(n -> n%2 == 0, Collectors.summingInt(Integer::intValue))));
+        });
+
+        bench("longestWord", params -> {
+            List<String> words = BenchmarkData.words(params.getSize(), 4, 10);
+            return bh -> bh.consume(words.stream()
+                    .max(Comparator.comparing(String::length))
+                    .orElse(""));
+        });
+
+        bench("distinct", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), params.getSize() / 2 + 1);
+            return bh -> bh.consume(numbers.stream()
+                    .distinct()
+                    .collect(Collectors.toList()));
+        });
+
+        bench("sortedLowerCase", params -> {
+            List<String> words = BenchmarkData.words(params.getSize(), 4, 10);
+            return bh -> bh.consume(words.stream()
+                    .sorted(Comparator.comparing(str -> str.toLowerCase()))
+                    .sorted()
+                    .collect(Collectors.toList()));
+        });
+
+        bench("sortedByLowerCase", params -> {
+            List<String> words = BenchmarkData.words(params.getSize(), 4, 10);
+            return bh -> bh.consume(words.stream()
+                    .sorted(Comparator.comparing(str -> str.toLowerCase()))
+                    .collect(Collectors.toList()));
+        });
+
+        bench("keySortedByLowerCase", params -> {
+            List<String> words = BenchmarkData.words(params.getSize(), 4, 10);
+            KeySort<String> keySort = KeySort.comparing(String::toLowerCase);
+            return bh -> bh.consume(keySort.sort(words));
+        });
+
+        bench("filterPeople", params -> {
+            List<Integer> ages = BenchmarkData.integers(params.getSize(), 80);
+            List<Person> people = new ArrayList<>(ages.size());
+            for(int i=0; i<ages.size(); i++){
+                people.add(new Person("사람" + i, ages.get(i)));
+            }
+            return bh -> bh.consume(people.stream()
+                    .filter(p -> p.getAge() >= 30)
+                    .collect(Collectors.toList()));
+        });
+    }
+}
@@ -0,0 +1,164 @@
+package com.practice.stream;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * 스트라이프 누산기
+ * 병렬 스트림의 forEach 에서 부수 효과로 값을 누적해야 할 때 synchronized 없이 사용할 수 있는 누산기.
+ * 스레드마다 자신만 쓰는 셀(Cell)을 하나씩 가지므로 락이나 CAS 경합 없이 일반 필드 쓰기만으로 누적한다.
+ * 셀 사이의 거짓 공유(false sharing)를 막기 위해 각 셀의 값 앞뒤에 캐시 라인 크기 이상의 패딩을 둔다.
+ *
+ * LongAdder 와 같은 방식이지만 합계 뿐만 아니라 개수, 최솟값, 최댓값, 제곱합도 함께 누적한다.
+ * snapshot() 은 모든 셀을 합쳐서 결과를 만든다. forEach 가 끝난 뒤에 호출하면 정확한 값을 얻고,
+ * 누적 도중에 호출하면 LongAdder.sum() 처럼 근사값을 얻는다.
+ */
+public final class StripedAccumulator implements IntConsumer, LongConsumer {
+
+    private final List<Cell> cells = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<Cell> localCell = ThreadLocal.withInitial(this::register);
+
+    private Cell register(){
+        Cell cell = new Cell();
+        cells.add(cell);
+        return cell;
+    }
+
+    @Override
+    public void accept(int value) {
+        accept((long) value);
+    }
+
+    @Override
+    public void accept(long value) {
+        localCell.get().add(value);
+    }
+
+    // 모든 셀의 값을 합친 결과
+    public Snapshot snapshot(){
+        long count = 0, sum = 0, min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+        double sumOfSquares = 0;
+        for(Cell cell : cells){
+            count += cell.count;
+            sum += cell.sum;
+            min = Math.min(min, cell.min);
+            max = Math.max(max, cell.max);
+            sumOfSquares += cell.sumOfSquares;
+        }
+        return new Snapshot(count, sum, min, max, sumOfSquares);
+    }
+
+    // 누적된 값을 초기화한다. 누적 중인 스레드가 없을 때 호출해야 한다.
+    public void reset(){
+        for(Cell cell : cells){
+            cell.reset();
+        }
+    }
+
+    /**
+     * 누적 결과
+     * LongSummaryStatistics 와 같은 값에 제곱합과 분산을 더한 형태
+     */
+    public static final class Snapshot {
+        private final long count;
+        private final long sum;
+        private final long min;
+        private final long max;
+        private final double sumOfSquares;
+
+        private Snapshot(long count, long sum, long min, long max, double sumOfSquares){
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+            this.sumOfSquares = sumOfSquares;
+        }
+
+        public long getCount(){
+            return count;
+        }
+
+        public long getSum(){
+            return sum;
+        }
+
+        // 값이 없으면 Long.MAX_VALUE
+        public long getMin(){
+            return min;
+        }
+
+        // 값이 없으면 Long.MIN_VALUE
+        public long getMax(){
+            return max;
+        }
+
+        public double getSumOfSquares(){
+            return sumOfSquares;
+        }
+
+        public double getAverage(){
+            return count > 0 ? (double) sum / count : 0.0;
+        }
+
+        // 모분산
+        public double getVariance(){
+            if(count == 0) return 0.0;
+            double average = getAverage();
+            return Math.max(0.0, sumOfSquares / count - average * average);
+        }
+
+        @Override
+        public String toString() {
+            return "Snapshot{" +
+                    "count=" + count +
+                    ", sum=" + sum +
+                    ", min=" + min +
+                    ", max=" + max +
+                    ", sumOfSquares=" + sumOfSquares +
+                    '}';
+        }
+    }
+
+    // 필드 배치 순서는 JVM 이 정하지만, 상위 클래스의 필드는 항상 하위 클래스 필드보다 앞에 놓인다.
+    // 이를 이용해 LhsPadding - 값 - RhsPadding 순서로 배치해 값 필드들이 다른 셀과 같은 캐시 라인에 놓이지 않게 한다.
+    @SuppressWarnings("unused")
+    private static class LhsPadding {
+        long p01, p02, p03, p04, p05, p06, p07, p08;
+        long p09, p10, p11, p12, p13, p14, p15, p16;
+    }
+
+    private static class CellValue extends LhsPadding {
+        long count;
+        long sum;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        double sumOfSquares;
+    }
+
+    @SuppressWarnings("unused")
+    private static class RhsPadding extends CellValue {
+        long q01, q02, q03, q04, q05, q06, q07, q08;
+        long q09, q10, q11, q12, q13, q14, q15, q16;
+    }
+
+    // 한 스레드만 쓰기 때문에 원자적 연산이 필요 없다.
+    private static final class Cell extends RhsPadding {
+        void add(long value){
+            count++;
+            sum += value;
+            if(value < min) min = value;
+            if(value > max) max = value;
+            sumOfSquares += (double) value * value;
+        }
+
+        void reset(){
+            count = 0;
+            sum = 0;
+            min = Long.MAX_VALUE;
+            max = Long.MIN_VALUE;
+            sumOfSquares = 0;
+        }
+    }
+}
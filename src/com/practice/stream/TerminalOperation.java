@@ -35,6 +35,11 @@ public class TerminalOperation {
         // void forEach(Consumer<? super T> action)
         numbers.forEach(System.out::println);
         words.stream().forEach(str -> System.out.println(str.length()));
+        // 출력이 많으면 요소마다 락을 잡고 flush 하는 System.out 대신 버퍼에 모아 한 번에 쓰는 ChannelSink 를 사용한다.
+        ChannelSink out = ChannelSink.stdout();
+        numbers.forEach(out);
+        words.stream().mapToInt(String::length).forEach(out);
+        out.flush();
 
 
         // long count()
@@ -47,6 +52,11 @@ public class TerminalOperation {
                 .collect(Collectors.groupingBy(str -> str.length()));
         System.out.println(lengthMap);
 
+        // 길이를 박싱하지 않고 int 키 맵에 그룹화
+        IntObjectMap<List<String>> intLengthMap = words.stream()
+                .collect(IntGrouping.groupingBy(String::length));
+        System.out.println(intLengthMap + " " + intLengthMap.get(5));
+
         Map<Boolean, List<Integer>> oddAndEven = numbers.stream()
                 .collect(Collectors.partitioningBy(num -> num%2 == 0));
         System.out.println(oddAndEven);
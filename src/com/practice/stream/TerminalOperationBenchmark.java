@@ -0,0 +1,83 @@
+package com.practice.stream;
+
+import com.practice.benchmark.BenchmarkData;
+import com.practice.benchmark.BenchmarkRunner;
+import com.practice.benchmark.BenchmarkSuite;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * TerminalOperation 벤치마크
+ * TerminalOperation.main 의 최종 연산들을 지정한 크기의 데이터로 측정한다.
+ * 단락(short-circuit) 연산인 anyMatch, findFirst 는 조건을 만족하는 요소가 없도록 만들어 전체를 순회하게 한다.
+ */
+public class TerminalOperationBenchmark extends BenchmarkSuite {
+
+    public static void main(String[] args) throws Exception {
+        BenchmarkRunner.run(TerminalOperationBenchmark.class, args);
+    }
+
+    @Override
+    protected void register() {
+        sizes(10_000, 1_000_000);
+
+        bench("count", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), 100);
+            return bh -> bh.consume(numbers.stream().filter(n -> n%2 == 0).count());
+        });
+
+        bench("groupingByLength", params -> {
+            List<String> words = BenchmarkData.words(params.getSize(), 3, 12);
+            return bh -> bh.consume(words.stream()
+                    .collect(Collectors.groupingBy(str -> str.length())));
+        });
+
+        bench("partitioningBy", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), 100);
+            return bh -> bh.consume(numbers.stream()
+                    .collect(Collectors.partitioningBy(num -> num%2 == 0)));
+        });
+
+        bench("averagingInt", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), 100);
+            return bh -> bh.consume(numbers.stream()
+                    .collect(Collectors.averagingInt(Integer::intValue)));
+        });
+
+        bench("min", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), Integer.MAX_VALUE);
+            return bh -> bh.consume(numbers.stream()
+                    .min(Comparator.comparingInt(a -> a))
+                    .orElse(0));
+        });
+
+        bench("maxByLength", params -> {
+            List<String> words = BenchmarkData.words(params.getSize(), 3, 12);
+            return bh -> bh.consume(words.stream()
+                    .max(Comparator.comparing(String::length))
+                    .orElse(""));
+        });
+
+        bench("reduce", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), 100);
+            return bh -> bh.consume(numbers.stream()
+                    .reduce(0, (a, b) -> a+b));
+        });
+
+        bench("anyMatch", params -> {
+            List<Integer> numbers = BenchmarkData.integers(params.getSize(), 100);
+            return bh -> bh.consume(numbers.stream()
+                    .anyMatch(n -> n < 0));
+        });
+
+        bench("findFirst", params -> {
+            List<String> words = BenchmarkData.words(params.getSize(), 3, 12);
+            return bh -> bh.consume(words.stream()
+                    .filter(str -> str.startsWith("0"))
+                    .findFirst()
+                    .orElse(""));
+        });
+    }
+}
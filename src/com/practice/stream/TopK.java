@@ -0,0 +1,342 @@
+package com.practice.stream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 상위 k 개 선택
+ * sorted(comparator).limit(k) 는 k 개만 필요해도 전체를 정렬하므로 O(n log n) 시간과 O(n) 메모리를 사용한다.
+ * TopK 는 크기가 k 로 제한된 이진 힙에 지금까지의 상위 k 개만 유지한다. O(n log k) 시간, O(k) 메모리
+ *
+ * 힙의 루트에는 상위 k 개 중 가장 나쁜(순서상 가장 뒤인) 요소가 있다. 새 요소가 루트보다 앞이면 루트를 바꾸고 아래로 내려보내고, 아니면 버린다.
+ * 대부분의 요소는 루트와 한 번 비교하고 버려진다.
+ *
+ * sorted().limit(k) 와 결과를 같게 하려고, 순서가 같은 요소는 먼저 들어온 요소를 앞에 둔다.
+ * 병렬 스트림에서는 분할된 작업마다 자신의 힙을 채운 뒤 합치는데, 오른쪽 힙 요소의 순번에 왼쪽이 받은 요소 수를 더해 만남 순서를 유지한다.
+ *
+ * int, long 은 박싱 없이 int[], long[] 힙을 사용한다. 큰 값부터 뽑을 때는 비트를 뒤집은 값(~v)으로 작은 값부터 뽑는다.
+ */
+public final class TopK {
+
+    private TopK(){
+    }
+
+    // sorted(comparator).limit(k).collect(toList()) 와 같은 결과
+    public static <T> Collector<T, ?, List<T>> topK(int k, Comparator<? super T> comparator){
+        checkK(k);
+        return Collector.of(
+                () -> new ObjectHeap<T>(k, comparator),
+                ObjectHeap::accept,
+                ObjectHeap::combine,
+                ObjectHeap::toSortedList
+        );
+    }
+
+    /**
+     * sorted(comparator).limit(k) 대신 사용하는 단계
+     * 원본은 최종 연산이 실행될 때 소비하고, 그 시점에 결과 스트림이 병렬이면 병렬로 힙을 채운다.
+     * 결과 스트림을 닫으면 원본도 닫힌다.
+     */
+    public static <T> Stream<T> topK(Stream<T> stream, int k, Comparator<? super T> comparator){
+        DeferredSpliterator<T> spliterator = new DeferredSpliterator<>(stream, topK(k, comparator));
+        Stream<T> result = StreamSupport.stream(spliterator, stream.isParallel());
+        spliterator.pipeline = result;
+        return result.onClose(stream::close);
+    }
+
+    // sorted().limit(k) 와 같은 결과 (오름차순)
+    public static int[] smallest(IntStream stream, int k){
+        checkK(k);
+        return stream.collect(() -> new IntHeap(k), IntHeap::accept, IntHeap::combine).toSortedArray(false);
+    }
+
+    // sorted(reverseOrder()).limit(k) 와 같은 결과 (내림차순)
+    public static int[] largest(IntStream stream, int k){
+        checkK(k);
+        return stream.map(v -> ~v).collect(() -> new IntHeap(k), IntHeap::accept, IntHeap::combine).toSortedArray(true);
+    }
+
+    public static long[] smallest(LongStream stream, int k){
+        checkK(k);
+        return stream.collect(() -> new LongHeap(k), LongHeap::accept, LongHeap::combine).toSortedArray(false);
+    }
+
+    public static long[] largest(LongStream stream, int k){
+        checkK(k);
+        return stream.map(v -> ~v).collect(() -> new LongHeap(k), LongHeap::accept, LongHeap::combine).toSortedArray(true);
+    }
+
+    private static void checkK(int k){
+        if(k < 0) throw new IllegalArgumentException("k 는 0 이상이어야 한다. k=" + k);
+    }
+
+    // 최종 연산이 처음 요소를 요청할 때 원본을 모아 상위 k 개를 고른다.
+    private static final class DeferredSpliterator<T> implements Spliterator<T> {
+        private final Stream<T> source;
+        private final Collector<T, ?, List<T>> collector;
+        private Stream<T> pipeline; // 결과 스트림. parallel(), sequential() 은 원본 단계의 플래그를 바꾸므로 최종 연산 시점의 모드를 읽을 수 있다.
+        private Spliterator<T> delegate;
+
+        DeferredSpliterator(Stream<T> source, Collector<T, ?, List<T>> collector){
+            this.source = source;
+            this.collector = collector;
+        }
+
+        private Spliterator<T> delegate(){
+            if(delegate == null){
+                Stream<T> stream = pipeline.isParallel() ? source.parallel() : source.sequential();
+                delegate = stream.collect(collector).spliterator();
+            }
+            return delegate;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            return delegate().tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            delegate().forEachRemaining(action);
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            return delegate().trySplit();
+        }
+
+        @Override
+        public long estimateSize() {
+            return delegate().estimateSize();
+        }
+
+        // 자연 순서가 아니므로 SORTED 는 알리지 않는다.
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED;
+        }
+    }
+
+    /**
+     * 객체 힙. (comparator 순서, 순번) 기준의 최대 힙
+     */
+    private static final class ObjectHeap<T> {
+        private final int k;
+        private final Comparator<? super T> comparator;
+        private Object[] elements = new Object[0];
+        private long[] sequences = new long[0];
+        private int size;
+        private long count; // 지금까지 받은 요소 수. 다음 요소의 순번이다.
+
+        ObjectHeap(int k, Comparator<? super T> comparator){
+            this.k = k;
+            this.comparator = comparator;
+        }
+
+        void accept(T element){
+            offer(element, count++);
+        }
+
+        private void offer(T element, long sequence){
+            if(size < k){
+                if(size == elements.length){
+                    int length = (int) Math.min(k, Math.max(8L, size * 2L));
+                    elements = Arrays.copyOf(elements, length);
+                    sequences = Arrays.copyOf(sequences, length);
+                }
+                elements[size] = element;
+                sequences[size] = sequence;
+                siftUp(size++);
+            } else if(k > 0 && compare(element, sequence, 0) < 0){
+                elements[0] = element;
+                sequences[0] = sequence;
+                siftDown(0);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private int compare(T element, long sequence, int index){
+            int c = comparator.compare(element, (T) elements[index]);
+            return c != 0 ? c : Long.compare(sequence, sequences[index]);
+        }
+
+        @SuppressWarnings("unchecked")
+        private int compare(int i, int j){
+            return compare((T) elements[i], sequences[i], j);
+        }
+
+        private void siftUp(int index){
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if(compare(index, parent) <= 0) return;
+                swap(index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index){
+            while (true) {
+                int largest = index;
+                int left = index * 2 + 1;
+                int right = left + 1;
+                if(left < size && compare(left, largest) > 0) largest = left;
+                if(right < size && compare(right, largest) > 0) largest = right;
+                if(largest == index) return;
+                swap(index, largest);
+                index = largest;
+            }
+        }
+
+        private void swap(int i, int j){
+            Object element = elements[i];
+            elements[i] = elements[j];
+            elements[j] = element;
+            long sequence = sequences[i];
+            sequences[i] = sequences[j];
+            sequences[j] = sequence;
+        }
+
+        // right 는 만남 순서상 이 힙의 뒤에 있다.
+        @SuppressWarnings("unchecked")
+        ObjectHeap<T> combine(ObjectHeap<T> right){
+            for(int i=0; i<right.size; i++){
+                offer((T) right.elements[i], count + right.sequences[i]);
+            }
+            count += right.count;
+            return this;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<T> toSortedList(){
+            Integer[] order = new Integer[size];
+            for(int i=0; i<size; i++){
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> compare(a, b));
+            List<T> result = new ArrayList<>(size);
+            for(int index : order){
+                result.add((T) elements[index]);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * int 최대 힙. 같은 값은 구별할 수 없으므로 순번이 필요 없다.
+     */
+    private static final class IntHeap {
+        private final int k;
+        private int[] heap = new int[0];
+        private int size;
+
+        IntHeap(int k){
+            this.k = k;
+        }
+
+        void accept(int value){
+            if(size < k){
+                if(size == heap.length) heap = Arrays.copyOf(heap, (int) Math.min(k, Math.max(8L, size * 2L)));
+                int index = size++;
+                while (index > 0) {
+                    int parent = (index - 1) >>> 1;
+                    if(heap[parent] >= value) break;
+                    heap[index] = heap[parent];
+                    index = parent;
+                }
+                heap[index] = value;
+            } else if(k > 0 && value < heap[0]){
+                int index = 0;
+                while (true) {
+                    int child = index * 2 + 1;
+                    if(child >= size) break;
+                    if(child + 1 < size && heap[child + 1] > heap[child]) child++;
+                    if(heap[child] <= value) break;
+                    heap[index] = heap[child];
+                    index = child;
+                }
+                heap[index] = value;
+            }
+        }
+
+        void combine(IntHeap other){
+            for(int i=0; i<other.size; i++){
+                accept(other.heap[i]);
+            }
+        }
+
+        int[] toSortedArray(boolean inverted){
+            int[] result = Arrays.copyOf(heap, size);
+            Arrays.sort(result);
+            if(inverted){
+                for(int i=0; i<result.length; i++){
+                    result[i] = ~result[i];
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * long 최대 힙
+     */
+    private static final class LongHeap {
+        private final int k;
+        private long[] heap = new long[0];
+        private int size;
+
+        LongHeap(int k){
+            this.k = k;
+        }
+
+        void accept(long value){
+            if(size < k){
+                if(size == heap.length) heap = Arrays.copyOf(heap, (int) Math.min(k, Math.max(8L, size * 2L)));
+                int index = size++;
+                while (index > 0) {
+                    int parent = (index - 1) >>> 1;
+                    if(heap[parent] >= value) break;
+                    heap[index] = heap[parent];
+                    index = parent;
+                }
+                heap[index] = value;
+            } else if(k > 0 && value < heap[0]){
+                int index = 0;
+                while (true) {
+                    int child = index * 2 + 1;
+                    if(child >= size) break;
+                    if(child + 1 < size && heap[child + 1] > heap[child]) child++;
+                    if(heap[child] <= value) break;
+                    heap[index] = heap[child];
+                    index = child;
+                }
+                heap[index] = value;
+            }
+        }
+
+        void combine(LongHeap other){
+            for(int i=0; i<other.size; i++){
+                accept(other.heap[i]);
+            }
+        }
+
+        long[] toSortedArray(boolean inverted){
+            long[] result = Arrays.copyOf(heap, size);
+            Arrays.sort(result);
+            if(inverted){
+                for(int i=0; i<result.length; i++){
+                    result[i] = ~result[i];
+                }
+            }
+            return result;
+        }
+    }
+}